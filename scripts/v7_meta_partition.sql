@@ -0,0 +1,68 @@
+-- Script to convert the meta and meta_val tables into tables partitioned by
+-- create_time so that retention can drop whole meta_val partitions and queries
+-- with create_time bounds only read the partitions they need.
+--
+-- Stroom MUST be shut down while this script is run. Each ALTER TABLE makes a
+-- copy of the table so it will take a long time on a large database and needs
+-- enough free disk space to hold a second copy of each table.
+-- The database SHOULD be backed up first.
+--
+-- MySQL does not support foreign keys on partitioned tables so the foreign keys
+-- from meta to meta_feed, meta_type and meta_processor are dropped.
+-- Every unique key of a partitioned table must include the partitioning column
+-- so the primary keys of both tables become (id, create_time). Ids are still
+-- generated by AUTO_INCREMENT so remain unique.
+--
+-- All existing rows are put in a single p_history partition and a p_max
+-- partition is created for everything else. Once the script has been run, set
+-- stroom.data.meta.metaPartition.enabled to true. The 'Meta Partition
+-- Maintenance' job will then split new partitions off the front of p_max ahead
+-- of time. p_history will be dropped from meta_val by the 'Attribute Value Data
+-- Retention' job once all of its rows are older than
+-- stroom.data.meta.metaValue.deleteAge.
+--
+-- Run it like
+-- docker exec -i stroom-all-dbs mysql --force -u"root" -p"my-secret-pw" stroom < v7_meta_partition.sql > v7_meta_partition.out 2>&1
+
+-- stop note level warnings about objects (not)? existing
+SET @old_sql_notes=@@sql_notes, sql_notes=0;
+
+-- The first create_time (epoch millis) that will NOT go in the p_history
+-- partition. Defaults to the start of today (UTC).
+SET @partition_from = UNIX_TIMESTAMP(UTC_DATE()) * 1000;
+
+\! echo 'Dropping foreign keys from meta';
+ALTER TABLE meta
+    DROP FOREIGN KEY meta_feed_id,
+    DROP FOREIGN KEY meta_processor_id,
+    DROP FOREIGN KEY meta_type_id;
+
+\! echo 'Changing primary key of meta';
+ALTER TABLE meta
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, create_time);
+
+\! echo 'Partitioning meta';
+SET @sql = CONCAT(
+    'ALTER TABLE meta PARTITION BY RANGE (create_time) (',
+    'PARTITION p_history VALUES LESS THAN (', @partition_from, '), ',
+    'PARTITION p_max VALUES LESS THAN MAXVALUE)');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+\! echo 'Changing primary key of meta_val';
+ALTER TABLE meta_val
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, create_time);
+
+\! echo 'Partitioning meta_val';
+SET @sql = CONCAT(
+    'ALTER TABLE meta_val PARTITION BY RANGE (create_time) (',
+    'PARTITION p_history VALUES LESS THAN (', @partition_from, '), ',
+    'PARTITION p_max VALUES LESS THAN MAXVALUE)');
+PREPARE stmt FROM @sql;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET SQL_NOTES=@OLD_SQL_NOTES;
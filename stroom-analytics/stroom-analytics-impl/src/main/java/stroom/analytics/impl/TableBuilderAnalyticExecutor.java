@@ -10,6 +10,7 @@ import stroom.analytics.shared.AnalyticTracker;
 import stroom.analytics.shared.TableBuilderAnalyticProcessConfig;
 import stroom.analytics.shared.TableBuilderAnalyticTrackerData;
 import stroom.docref.DocRef;
+import stroom.expression.matcher.CompiledExpressionMatcher;
 import stroom.expression.matcher.ExpressionMatcher;
 import stroom.expression.matcher.ExpressionMatcherFactory;
 import stroom.index.shared.IndexConstants;
@@ -558,7 +559,7 @@ public class TableBuilderAnalyticExecutor {
         return meta.getId() < minStreamId ||
                meta.getCreateMs() < minCreateTime ||
                meta.getCreateMs() > maxCreateTime ||
-               !metaExpressionMatcher.match(metaAttributeMap, analytic.viewDoc().getFilter());
+               !analytic.metaFilter().match(metaAttributeMap);
     }
 
     private void deleteOldStores() {
@@ -976,7 +977,8 @@ public class TableBuilderAnalyticExecutor {
                                 searchRequest,
                                 viewDoc,
                                 dataStore,
-                                tableBuilderAnalyticProcessConfig.getRunAsUser()));
+                                tableBuilderAnalyticProcessConfig.getRunAsUser(),
+                                metaExpressionMatcher.compile(viewDoc.getFilter())));
 
                     } catch (final RuntimeException e) {
                         LOGGER.debug(e.getMessage(), e);
@@ -1045,7 +1047,8 @@ public class TableBuilderAnalyticExecutor {
                                         SearchRequest searchRequest,
                                         ViewDoc viewDoc,
                                         AnalyticDataStore dataStore,
-                                        UserRef runAsUser) {
+                                        UserRef runAsUser,
+                                        CompiledExpressionMatcher metaFilter) {
 
     }
 
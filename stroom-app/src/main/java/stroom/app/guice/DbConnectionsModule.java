@@ -2,10 +2,13 @@ package stroom.app.guice;
 
 import stroom.app.db.migration.CrossModuleDbConnProvider;
 import stroom.app.db.migration.CrossModuleDbMigrationsModule;
+import stroom.db.util.DbMigrationRunner;
+import stroom.db.util.DbModuleMigration;
 import stroom.util.shared.NullSafe;
 
 import com.google.inject.AbstractModule;
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
 import java.util.Set;
@@ -59,10 +62,18 @@ public class DbConnectionsModule extends AbstractModule {
     static class DbMigrations {
 
         @Inject
-        public DbMigrations(final Set<DataSource> dbConnProviders,
-                            final CrossModuleDbConnProvider crossModuleDbConnProvider) {
+        public DbMigrations(final Set<DbModuleMigration> moduleMigrations,
+                            final DbMigrationRunner dbMigrationRunner,
+                            final Provider<Set<DataSource>> dbConnProvidersProvider,
+                            final Provider<CrossModuleDbConnProvider> crossModuleDbConnProviderProvider) {
 
-            // Nothing to do here, we now know all dbConnProviders are migrated and ready
+            // Migrate the modules concurrently as each has its own flyway history table
+            dbMigrationRunner.migrate(moduleMigrations);
+
+            // All dbConnProviders are now migrated so these will not migrate anything apart
+            // from the cross-module migrations, which must run after all the others.
+            dbConnProvidersProvider.get();
+            crossModuleDbConnProviderProvider.get();
         }
     }
 }
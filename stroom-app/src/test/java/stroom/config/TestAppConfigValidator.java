@@ -60,6 +60,8 @@ public class TestAppConfigValidator extends AbstractCoreIntegrationTest {
                 null,
                 null,
                 null,
+                null,
+                null,
                 types,
                 rawTypes,
                 dataFormats,
@@ -95,6 +95,8 @@ public class MockPipelineElementRegistryFactory implements ElementRegistryFactor
                         null,
                         null,
                         null,
+                        null,
+                        null,
                         null);
             }
             if (elementClass.equals(JSONParser.class)) {
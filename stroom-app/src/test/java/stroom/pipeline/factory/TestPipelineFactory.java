@@ -69,7 +69,8 @@ class TestPipelineFactory extends AbstractProcessIntegrationTest {
                 elementRegistryFactory,
                 elementRegistryFactory,
                 new SimpleProcessorFactory(),
-                mockErrorReceiverProxy);
+                mockErrorReceiverProxy,
+                null);
         final Pipeline pipeline = pipelineFactory.create(mergedPipelineData, new SimpleTaskContext());
 
         System.out.println(pipeline);
@@ -81,7 +82,8 @@ class TestPipelineFactory extends AbstractProcessIntegrationTest {
                 elementRegistryFactory,
                 elementRegistryFactory,
                 new SimpleProcessorFactory(),
-                mockErrorReceiverProxy);
+                mockErrorReceiverProxy,
+                null);
 
         final String data1 = StroomPipelineTestFileUtil
                 .getString("TestPipelineFactory/EventDataPipeline.Pipeline.json");
@@ -125,7 +127,8 @@ class TestPipelineFactory extends AbstractProcessIntegrationTest {
                 elementRegistryFactory,
                 elementRegistryFactory,
                 new SimpleProcessorFactory(),
-                mockErrorReceiverProxy);
+                mockErrorReceiverProxy,
+                null);
 
         final String data1 = StroomPipelineTestFileUtil
                 .getString("TestPipelineFactory/TestBasePipeline.Pipeline.json");
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.task;
+
+import stroom.processor.api.ProcessorResult;
+import stroom.processor.impl.ProcessorTaskTestHelper;
+import stroom.processor.shared.ProcessorTask;
+import stroom.processor.shared.ProcessorTaskList;
+import stroom.test.AbstractProcessIntegrationTest;
+import stroom.test.CommonTranslationTestHelper;
+import stroom.test.NetworkMonitoringDataGenerator;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.ModelStringUtil;
+import stroom.util.shared.Severity;
+
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the throughput of the standard test event pipeline (data splitter, XSLT with reference
+ * data lookups and a stream appender) when run through the processor task executor with synthetic
+ * data. The volume can be changed with the system properties:
+ * <ul>
+ *     <li>{@code stroom.throughput.streams} - The number of raw streams to process (default 5).</li>
+ *     <li>{@code stroom.throughput.records} - The number of records in each stream (default 100,000).</li>
+ * </ul>
+ * The first stream includes the cost of compiling the pipeline and loading reference data so is
+ * reported separately from the steady state figures.
+ */
+@Disabled
+        // manual testing only
+class TestPipelineThroughput extends AbstractProcessIntegrationTest {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(TestPipelineThroughput.class);
+
+    private static final int STREAM_COUNT = Integer.getInteger("stroom.throughput.streams", 5);
+    private static final int RECORD_COUNT = Integer.getInteger("stroom.throughput.records", 100_000);
+
+    @Inject
+    private CommonTranslationTestHelper commonTranslationTestHelper;
+    @Inject
+    private ProcessorTaskTestHelper processorTaskTestHelper;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testThroughput() {
+        final List<Path> dataFiles = new ArrayList<>();
+        long totalBytes = 0;
+        for (int i = 0; i < STREAM_COUNT; i++) {
+            final Path file = tempDir.resolve("data_" + i + ".in");
+            totalBytes += NetworkMonitoringDataGenerator.generate(file, RECORD_COUNT, i);
+            dataFiles.add(file);
+        }
+        final long bytesPerStream = totalBytes / STREAM_COUNT;
+        LOGGER.info("Generated {} streams of {} records ({} each)",
+                STREAM_COUNT,
+                RECORD_COUNT,
+                ModelStringUtil.formatIECByteSizeString(bytesPerStream));
+
+        commonTranslationTestHelper.setup(CommonTranslationTestHelper.FEED_NAME, dataFiles);
+        processorTaskTestHelper.createAndQueueTasks();
+
+        final List<TaskStats> eventStats = new ArrayList<>();
+        ProcessorTaskList processorTasks = processorTaskTestHelper.assignTasks(1);
+        while (!processorTasks.getList().isEmpty()) {
+            for (final ProcessorTask processorTask : processorTasks.getList()) {
+                final TaskStats taskStats = process(processorTask);
+                if (CommonTranslationTestHelper.FEED_NAME.equals(processorTask.getFeedName())) {
+                    assertThat(taskStats.result.getWritten())
+                            .isEqualTo(RECORD_COUNT);
+                    eventStats.add(taskStats);
+                }
+            }
+            processorTasks = processorTaskTestHelper.assignTasks(1);
+        }
+
+        assertThat(eventStats)
+                .hasSize(STREAM_COUNT);
+        report("First stream", eventStats.subList(0, 1), bytesPerStream);
+        if (eventStats.size() > 1) {
+            report("Steady state", eventStats.subList(1, eventStats.size()), bytesPerStream);
+        }
+    }
+
+    private TaskStats process(final ProcessorTask processorTask) {
+        // The task is executed on this thread so we can measure the CPU and allocation directly.
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+
+        final long startAllocated = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long startCpu = threadMXBean.getCurrentThreadCpuTime();
+        final long startNanos = System.nanoTime();
+
+        final ProcessorResult result = commonTranslationTestHelper.process(processorTask);
+
+        final TaskStats taskStats = new TaskStats(
+                result,
+                System.nanoTime() - startNanos,
+                threadMXBean.getCurrentThreadCpuTime() - startCpu,
+                threadMXBean.getThreadAllocatedBytes(threadId) - startAllocated);
+        assertThat(result.getMarkerCount(Severity.SEVERITIES))
+                .as(processorTask.getFeedName())
+                .isZero();
+        return taskStats;
+    }
+
+    private void report(final String name, final List<TaskStats> stats, final long bytesPerStream) {
+        long written = 0;
+        long elapsedNanos = 0;
+        long cpuNanos = 0;
+        long allocatedBytes = 0;
+        for (final TaskStats taskStats : stats) {
+            written += taskStats.result.getWritten();
+            elapsedNanos += taskStats.elapsedNanos;
+            cpuNanos += taskStats.cpuNanos;
+            allocatedBytes += taskStats.allocatedBytes;
+        }
+        final double seconds = elapsedNanos / 1_000_000_000D;
+
+        LOGGER.info("""
+                        {}
+                          Streams:          {}
+                          Events:           {}
+                          Elapsed:          {}
+                          CPU:              {}
+                          Events/sec:       {}
+                          Input/sec:        {}
+                          Allocated/event:  {}
+                          Allocated/sec:    {}""",
+                name,
+                stats.size(),
+                written,
+                ModelStringUtil.formatDurationString(elapsedNanos / 1_000_000),
+                ModelStringUtil.formatDurationString(cpuNanos / 1_000_000),
+                ModelStringUtil.formatCsv((long) (written / seconds)),
+                ModelStringUtil.formatIECByteSizeString((long) (bytesPerStream * stats.size() / seconds)),
+                ModelStringUtil.formatIECByteSizeString(allocatedBytes / Math.max(1, written)),
+                ModelStringUtil.formatIECByteSizeString((long) (allocatedBytes / seconds)));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record TaskStats(ProcessorResult result,
+                             long elapsedNanos,
+                             long cpuNanos,
+                             long allocatedBytes) {
+
+    }
+}
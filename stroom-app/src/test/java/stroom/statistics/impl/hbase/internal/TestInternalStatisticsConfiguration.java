@@ -14,6 +14,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,6 +23,9 @@ class TestInternalStatisticsConfiguration extends AbstractCoreIntegrationTest {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TestInternalStatisticsConfiguration.class);
 
+    // Keys with no store in the stroom-content repo, so they have no docrefs until an admin adds them.
+    private static final Set<InternalStatisticKey> OPT_IN_KEYS = Set.of(InternalStatisticKey.PIPELINE_ELEMENT_TIME);
+
     @Inject
     private InternalStatisticsConfig internalStatisticsConfig;
 
@@ -41,22 +45,24 @@ class TestInternalStatisticsConfiguration extends AbstractCoreIntegrationTest {
 
         final List<String> enabledStoreTypes = internalStatisticsConfig.getEnabledStoreTypes();
 
-        Arrays.stream(InternalStatisticKey.values()).forEach(key -> {
-            LOGGER.info("Checking docRefs for key {}", key);
-            final List<DocRef> docRefs = internalStatisticsConfig.getEnabledDocRefs(key);
+        Arrays.stream(InternalStatisticKey.values())
+                .filter(key -> !OPT_IN_KEYS.contains(key))
+                .forEach(key -> {
+                    LOGGER.info("Checking docRefs for key {}", key);
+                    final List<DocRef> docRefs = internalStatisticsConfig.getEnabledDocRefs(key);
 
-            assertThat(docRefs)
-                    .isNotNull();
+                    assertThat(docRefs)
+                            .isNotNull();
 
-            assertThat(docRefs)
-                    .hasSize(enabledStoreTypes.size());
+                    assertThat(docRefs)
+                            .hasSize(enabledStoreTypes.size());
 
-            assertThat(docRefs.stream()
-                    .map(DocRef::getType)
-                    .collect(Collectors.toList())
-            ).containsExactlyInAnyOrder(
-                    enabledStoreTypes.toArray(new String[]{}));
-        });
+                    assertThat(docRefs.stream()
+                            .map(DocRef::getType)
+                            .collect(Collectors.toList())
+                    ).containsExactlyInAnyOrder(
+                            enabledStoreTypes.toArray(new String[]{}));
+                });
     }
 
     @Test
@@ -69,21 +75,23 @@ class TestInternalStatisticsConfiguration extends AbstractCoreIntegrationTest {
 
         final List<String> enabledStoreTypes = internalStatisticsConfig.getEnabledStoreTypes();
 
-        Arrays.stream(InternalStatisticKey.values()).forEach(key -> {
-            LOGGER.info("Checking docRefs for key {}", key);
-            final List<DocRef> docRefs = internalStatisticsConfig.getEnabledDocRefs(key);
+        Arrays.stream(InternalStatisticKey.values())
+                .filter(key -> !OPT_IN_KEYS.contains(key))
+                .forEach(key -> {
+                    LOGGER.info("Checking docRefs for key {}", key);
+                    final List<DocRef> docRefs = internalStatisticsConfig.getEnabledDocRefs(key);
 
-            assertThat(docRefs)
-                    .isNotNull();
+                    assertThat(docRefs)
+                            .isNotNull();
 
-            assertThat(docRefs)
-                    .hasSize(enabledStoreTypes.size());
+                    assertThat(docRefs)
+                            .hasSize(enabledStoreTypes.size());
 
-            assertThat(docRefs.stream()
-                    .map(DocRef::getType)
-                    .collect(Collectors.toList())
-            ).containsExactlyInAnyOrder(
-                    enabledStoreTypes.toArray(new String[]{}));
-        });
+                    assertThat(docRefs.stream()
+                            .map(DocRef::getType)
+                            .collect(Collectors.toList())
+                    ).containsExactlyInAnyOrder(
+                            enabledStoreTypes.toArray(new String[]{}));
+                });
     }
 }
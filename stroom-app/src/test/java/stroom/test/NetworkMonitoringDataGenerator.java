@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Generates synthetic raw event data in the same CSV format as
+ * {@link CommonTranslationTestHelper#VALID_RESOURCE_NAME} so that it can be translated by the
+ * standard test event pipeline in any volume. The device, user and server names are drawn from
+ * the same small sets as the sample data so reference data lookups behave the same way.
+ */
+public class NetworkMonitoringDataGenerator {
+
+    private static final String HEADING =
+            "Date,Time,EventType,Device,UserName,ID,ErrorCode,IPAddress,Server,Message";
+    private static final String[] EVENT_TYPES = {"authenticationFailed", "authorisationFailed"};
+    private static final String[] ERROR_CODES = {"E0123", "E0567"};
+    private static final String[] MESSAGES = {
+            "Invalid password",
+            "A message that I made up 1",
+            "A message that I made up 2",
+            "Another message that I made up 1"};
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2007, 8, 18, 9, 49, 51);
+
+    private NetworkMonitoringDataGenerator() {
+        // Static utils only.
+    }
+
+    /**
+     * Write a file of records.
+     *
+     * @param file        The file to write.
+     * @param recordCount The number of records to write, excluding the heading.
+     * @param seed        The random seed so that repeated runs produce the same data.
+     * @return The size of the file in bytes.
+     */
+    public static long generate(final Path file, final int recordCount, final long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder sb = new StringBuilder();
+        try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADING);
+            writer.write('\n');
+
+            LocalDateTime time = START_TIME;
+            for (int i = 0; i < recordCount; i++) {
+                time = time.plusSeconds(random.nextInt(60));
+                final int device = random.nextInt(10);
+
+                sb.setLength(0);
+                sb.append(DATE_FORMAT.format(time))
+                        .append(',')
+                        .append(TIME_FORMAT.format(time))
+                        .append(',')
+                        .append(EVENT_TYPES[random.nextInt(EVENT_TYPES.length)])
+                        .append(",device")
+                        .append(device)
+                        .append(",user")
+                        .append(1 + random.nextInt(6))
+                        .append(",192.168.0.")
+                        .append(1 + random.nextInt(254))
+                        .append(',')
+                        .append(ERROR_CODES[random.nextInt(ERROR_CODES.length)])
+                        .append(",192.168.0.")
+                        .append(1 + random.nextInt(254))
+                        .append(",server")
+                        .append(device)
+                        .append(',')
+                        .append(MESSAGES[random.nextInt(MESSAGES.length)])
+                        .append('\n');
+                writer.append(sb);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            return Files.size(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
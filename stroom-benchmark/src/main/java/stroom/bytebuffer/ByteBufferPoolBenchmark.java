@@ -0,0 +1,73 @@
+package stroom.bytebuffer;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.bytebuffer.impl6.ByteBufferPoolImpl6;
+import stroom.bytebuffer.impl6.ByteBufferPoolImpl7;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compares the {@link ByteBufferPool} implementations when several threads are borrowing
+ * and returning buffers, as happens during reference data lookups.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+@Threads(4)
+public class ByteBufferPoolBenchmark {
+
+    @Benchmark
+    public void getBuffer(final ExecutionPlan plan, final Blackhole blackhole) {
+        try (final PooledByteBuffer pooledByteBuffer = plan.byteBufferPool.getPooledByteBuffer(plan.minCapacity)) {
+            final ByteBuffer byteBuffer = pooledByteBuffer.getByteBuffer();
+            byteBuffer.putLong(0, 123L);
+            blackhole.consume(byteBuffer.getLong(0));
+        }
+    }
+
+    @Benchmark
+    public void getBufferPair(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.byteBufferPool.doWithBufferPair(plan.minCapacity, plan.minCapacity, (keyBuffer, valueBuffer) -> {
+            keyBuffer.putLong(0, 123L);
+            valueBuffer.putLong(0, 456L);
+            blackhole.consume(keyBuffer.getLong(0) + valueBuffer.getLong(0));
+        });
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"4", "5", "6", "7"})
+        public int impl;
+
+        @Param({"10", "1000", "100000"})
+        public int minCapacity;
+
+        public ByteBufferPool byteBufferPool;
+
+        @Setup
+        public void setUp() {
+            byteBufferPool = switch (impl) {
+                case 4 -> new ByteBufferPoolImpl4(ByteBufferPoolConfig::new);
+                case 5 -> new ByteBufferPoolImpl5();
+                case 6 -> new ByteBufferPoolImpl6(ByteBufferPoolConfig::new);
+                case 7 -> new ByteBufferPoolImpl7(new ByteBufferFactoryImpl());
+                default -> throw new IllegalArgumentException("Unknown impl " + impl);
+            };
+        }
+    }
+}
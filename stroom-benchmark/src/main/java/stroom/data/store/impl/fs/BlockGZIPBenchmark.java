@@ -0,0 +1,109 @@
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.FileUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading a whole block GZIP file, as the stream store does for every
+ * stream it writes and reads.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BlockGZIPBenchmark {
+
+    @Benchmark
+    public void write(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        final Path file = plan.dir.resolve("write.bgz");
+        try (final OutputStream outputStream = new BlockGZIPOutputFile(file, plan.blockSize)) {
+            outputStream.write(plan.data);
+        }
+        blackhole.consume(Files.size(file));
+    }
+
+    @Benchmark
+    public void read(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        long total = 0;
+        try (final InputStream inputStream = new BlockGZIPInputFile(plan.file)) {
+            int len;
+            while ((len = inputStream.read(plan.buffer)) != -1) {
+                total += len;
+            }
+        }
+        blackhole.consume(total);
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        @Param({"100000", "1000000"})
+        public int blockSize;
+
+        @Param({"10000000"})
+        public int dataSize;
+
+        public Path dir;
+        public Path file;
+        public byte[] data;
+        public final byte[] buffer = new byte[8192];
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("stroom-benchmark");
+            data = createData(dataSize);
+            file = dir.resolve("read.bgz");
+            try (final OutputStream outputStream = new BlockGZIPOutputFile(file, blockSize)) {
+                outputStream.write(data);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            FileUtil.deleteDir(dir);
+        }
+    }
+
+    /**
+     * @return Repetitive event like text that compresses in a similar way to real data.
+     */
+    static byte[] createData(final int size) {
+        final StringBuilder sb = new StringBuilder(size + 200);
+        int i = 0;
+        while (sb.length() < size) {
+            sb.append("2025-06-10T12:34:56.")
+                    .append(i % 1000)
+                    .append("Z,OPEN,user")
+                    .append(i % 97)
+                    .append(",D:\\TranslationKit\\example\\VerySimple\\OpenFileEvents")
+                    .append(i)
+                    .append(".txt\n");
+            i++;
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package stroom.data.store.impl.fs;
+
+import stroom.data.store.api.SegmentOutputStream;
+import stroom.util.io.FileUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures seeking to segments of a segmented block GZIP stream, as happens when the data
+ * viewer or stepper shows a single record of a large stream.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RASegmentInputStreamBenchmark {
+
+    @Benchmark
+    public void readRandomSegment(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        final long segment = ThreadLocalRandom.current().nextLong(plan.segmentCount);
+        try (final RASegmentInputStream inputStream = plan.open()) {
+            inputStream.include(segment);
+            blackhole.consume(drain(inputStream, plan.buffer));
+        }
+    }
+
+    @Benchmark
+    public void readLastSegment(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        try (final RASegmentInputStream inputStream = plan.open()) {
+            inputStream.include(inputStream.count() - 1);
+            blackhole.consume(drain(inputStream, plan.buffer));
+        }
+    }
+
+    @Benchmark
+    public void readAllButFirstSegment(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        try (final RASegmentInputStream inputStream = plan.open()) {
+            inputStream.exclude(0);
+            blackhole.consume(drain(inputStream, plan.buffer));
+        }
+    }
+
+    private static long drain(final RASegmentInputStream inputStream, final byte[] buffer) throws IOException {
+        long total = 0;
+        int len;
+        while ((len = inputStream.read(buffer)) != -1) {
+            total += len;
+        }
+        return total;
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        @Param({"1000", "100000"})
+        public int segmentCount;
+
+        public Path dir;
+        public Path dataFile;
+        public Path indexFile;
+        public final byte[] buffer = new byte[8192];
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("stroom-benchmark");
+            dataFile = dir.resolve("test.bgz");
+            indexFile = dir.resolve("test.idx");
+            try (final OutputStream dataStream = new BlockGZIPOutputFile(dataFile);
+                    final SegmentOutputStream outputStream = new RASegmentOutputStream(dataStream, () ->
+                            Files.newOutputStream(indexFile))) {
+                for (int i = 0; i < segmentCount; i++) {
+                    if (i > 0) {
+                        outputStream.addSegment();
+                    }
+                    outputStream.write(("<record><data name=\"Action\" value=\"OPEN\"/>" +
+                            "<data name=\"User\" value=\"user" + i + "\"/>" +
+                            "<data name=\"File\" value=\"D:\\example\\OpenFileEvents" + i + ".txt\"/></record>\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        RASegmentInputStream open() throws IOException {
+            return new RASegmentInputStream(
+                    new BlockGZIPInputFile(dataFile),
+                    new UncompressedInputStream(indexFile, true));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            FileUtil.deleteDir(dir);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package stroom.expression.matcher;
+
+import stroom.dictionary.api.WordListProvider;
+import stroom.dictionary.shared.DictionaryDoc;
+import stroom.docref.DocRef;
+import stroom.query.api.DateTimeSettings;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionOperator.Op;
+import stroom.query.api.ExpressionTerm;
+import stroom.query.api.ExpressionTerm.Condition;
+import stroom.query.api.datasource.QueryField;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Measures matching attribute maps against a receipt/retention style rule, both interpreted
+ * and compiled. The attributes only match the last of the OR'd feed terms so every term
+ * is evaluated.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+@Threads(4)
+public class ExpressionMatcherBenchmark {
+
+    private static final QueryField FEED = QueryField.createText("Feed");
+    private static final QueryField TYPE = QueryField.createText("Type");
+    private static final QueryField SIZE = QueryField.createLong("Size");
+
+    @Benchmark
+    public void interpreted(final ExecutionPlan plan, final Blackhole blackhole) {
+        blackhole.consume(plan.expressionMatcher.match(plan.attributeMap, plan.expression));
+    }
+
+    @Benchmark
+    public void compiled(final ExecutionPlan plan, final Blackhole blackhole) {
+        blackhole.consume(plan.compiledExpressionMatcher.match(plan.attributeMap));
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"1", "50"})
+        public int feedTermCount;
+
+        @Param({"10", "10000"})
+        public int dictionarySize;
+
+        public ExpressionMatcher expressionMatcher;
+        public ExpressionOperator expression;
+        public CompiledExpressionMatcher compiledExpressionMatcher;
+        public Map<String, Object> attributeMap;
+
+        @Setup
+        public void setUp() {
+            final DocRef docRef = DictionaryDoc.buildDocRef()
+                    .randomUuid()
+                    .name("types")
+                    .build();
+            final String[] words = IntStream.range(0, dictionarySize)
+                    .mapToObj(i -> "TYPE_" + i)
+                    .toArray(String[]::new);
+            final WordListProvider wordListProvider = Mockito.mock(WordListProvider.class);
+            Mockito.when(wordListProvider.getWords(docRef))
+                    .thenReturn(words);
+
+            expressionMatcher = new ExpressionMatcher(
+                    Map.of(FEED.getFldName(), FEED,
+                            TYPE.getFldName(), TYPE,
+                            SIZE.getFldName(), SIZE),
+                    wordListProvider,
+                    null,
+                    DateTimeSettings.builder().build());
+
+            final ExpressionOperator.Builder feeds = ExpressionOperator.builder().op(Op.OR);
+            for (int i = 0; i < feedTermCount; i++) {
+                feeds.addTerm(FEED.getFldName(), Condition.EQUALS, "FEED_" + i + "*");
+            }
+            expression = ExpressionOperator.builder()
+                    .addTerm(SIZE.getFldName(), Condition.BETWEEN, "100,100000")
+                    .addOperator(feeds.build())
+                    .addTerm(ExpressionTerm.builder()
+                            .field(TYPE.getFldName())
+                            .condition(Condition.IN_DICTIONARY)
+                            .docRef(docRef)
+                            .build())
+                    .build();
+            compiledExpressionMatcher = expressionMatcher.compile(expression);
+
+            attributeMap = Map.of(
+                    FEED.getFldName(), "FEED_" + (feedTermCount - 1) + "_EVENTS",
+                    TYPE.getFldName(), "TYPE_" + (dictionarySize - 1),
+                    SIZE.getFldName(), 1234L);
+        }
+    }
+}
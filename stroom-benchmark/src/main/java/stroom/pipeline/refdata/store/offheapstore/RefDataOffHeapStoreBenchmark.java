@@ -0,0 +1,132 @@
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.bytebuffer.PooledByteBufferOutputStream;
+import stroom.pipeline.refdata.ReferenceDataConfig;
+import stroom.pipeline.refdata.ReferenceDataLmdbConfig;
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.RefDataStore;
+import stroom.pipeline.refdata.store.RefDataStoreFactory;
+import stroom.pipeline.refdata.store.RefDataStoreTestModule;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.pipeline.refdata.store.StagingValueOutputStream;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.pipeline.refdata.store.ValueStoreHashAlgorithm;
+import stroom.util.io.FileUtil;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures key/value lookups against a loaded reference data store, as the XSLT lookup()
+ * function does for each record it processes.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+@Threads(4)
+public class RefDataOffHeapStoreBenchmark {
+
+    private static final String MAP_NAME = "USER_TO_LOCATION";
+
+    @Benchmark
+    public void supplyValue(final ExecutionPlan plan, final Blackhole blackhole) {
+        blackhole.consume(plan.refDataStore.getValueProxy(plan.mapDefinition, plan.randomKey())
+                .supplyValue());
+    }
+
+    @Benchmark
+    public void consumeBytes(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.refDataStore.getValueProxy(plan.mapDefinition, plan.randomKey())
+                .consumeBytes(typedByteBuffer -> blackhole.consume(typedByteBuffer.getByteBuffer().remaining()));
+    }
+
+    @Benchmark
+    public void missingKey(final ExecutionPlan plan, final Blackhole blackhole) {
+        blackhole.consume(plan.refDataStore.getValueProxy(plan.mapDefinition, "MISSING_KEY")
+                .supplyValue());
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"1000", "1000000"})
+        public int entryCount;
+
+        public Path dir;
+        public RefDataStore refDataStore;
+        public MapDefinition mapDefinition;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("stroom-benchmark");
+            final ReferenceDataConfig referenceDataConfig = new ReferenceDataConfig()
+                    .withLmdbConfig(new ReferenceDataLmdbConfig()
+                            .withLocalDir(dir.toAbsolutePath().toString())
+                            .withReaderBlockedByWriter(false));
+            final Injector injector = Guice.createInjector(new RefDataStoreTestModule(
+                    () -> referenceDataConfig,
+                    () -> dir,
+                    () -> dir));
+            refDataStore = injector.getInstance(RefDataStoreFactory.class).getOffHeapStore();
+
+            final RefStreamDefinition refStreamDefinition = RefDataStoreTestModule.REF_STREAM_1_DEF;
+            mapDefinition = new MapDefinition(refStreamDefinition, MAP_NAME);
+            final ValueStoreHashAlgorithm valueStoreHashAlgorithm = injector.getInstance(
+                    ValueStoreHashAlgorithm.class);
+            final PooledByteBufferOutputStream.Factory outputStreamFactory = injector.getInstance(
+                    PooledByteBufferOutputStream.Factory.class);
+
+            refDataStore.doWithLoaderUnlessComplete(refStreamDefinition, System.currentTimeMillis(), loader -> {
+                loader.initialise(false);
+                loader.setCommitInterval(10_000);
+                try (final StagingValueOutputStream stagingValueOutputStream = new StagingValueOutputStream(
+                        valueStoreHashAlgorithm,
+                        outputStreamFactory)) {
+                    for (int i = 0; i < entryCount; i++) {
+                        stagingValueOutputStream.clear();
+                        stagingValueOutputStream.write("location" + (i % 500));
+                        stagingValueOutputStream.setTypeId(StringValue.TYPE_ID);
+                        loader.put(mapDefinition, key(i), stagingValueOutputStream);
+                    }
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                loader.completeProcessing();
+            });
+        }
+
+        String randomKey() {
+            return key(ThreadLocalRandom.current().nextInt(entryCount));
+        }
+
+        private static String key(final int i) {
+            return "user" + i;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            FileUtil.deleteDir(dir);
+        }
+    }
+}
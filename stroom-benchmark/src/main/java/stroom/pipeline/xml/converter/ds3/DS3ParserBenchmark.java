@@ -0,0 +1,182 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import stroom.pipeline.DefaultLocationFactory;
+import stroom.pipeline.errorhandler.ErrorHandlerAdaptor;
+import stroom.pipeline.errorhandler.LoggingErrorReceiver;
+import stroom.util.xml.SAXParserFactoryFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing CSV data with a Data Splitter. The config is parsed without the schema
+ * validation that {@link DS3ParserFactory} does as it only affects the setup.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DS3ParserBenchmark {
+
+    private static final String CSV_WITH_HEADER_CONFIG = """
+            <?xml version="1.1" encoding="UTF-8"?>
+            <dataSplitter xmlns="data-splitter:3" version="3.0">
+              <split delimiter="\\n" maxMatch="1">
+                <group>
+                  <split delimiter="," containerStart="&#34;" containerEnd="&#34;">
+                    <var id="heading" />
+                  </split>
+                </group>
+              </split>
+              <split delimiter="\\n">
+                <group value="$1">
+                  <split delimiter="," containerStart="&#34;" containerEnd="&#34;">
+                    <data name="$heading$1" value="$1" />
+                  </split>
+                </group>
+              </split>
+            </dataSplitter>
+            """;
+
+    // Has no header so records can be parsed in parallel.
+    private static final String CSV_CONFIG = """
+            <?xml version="1.1" encoding="UTF-8"?>
+            <dataSplitter xmlns="data-splitter:3" version="3.0">
+              <split delimiter="\\n">
+                <group value="$1">
+                  <split delimiter=",">
+                    <data value="$1" />
+                  </split>
+                </group>
+              </split>
+            </dataSplitter>
+            """;
+
+    private static final String REGEX_CONFIG = """
+            <?xml version="1.1" encoding="UTF-8"?>
+            <dataSplitter xmlns="data-splitter:3" version="3.0">
+              <regex pattern="^([^,]+),([^,]+),([^,]+),([^\\n]+)\\n">
+                <data name="Time" value="$1" />
+                <data name="Action" value="$2" />
+                <data name="User" value="$3" />
+                <data name="File" value="$4" />
+              </regex>
+            </dataSplitter>
+            """;
+
+    @Benchmark
+    public void parse(final ExecutionPlan plan, final Blackhole blackhole) throws Exception {
+        final XMLReader xmlReader = plan.createParser();
+        final CountingHandler handler = new CountingHandler();
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(new StringReader(plan.input)));
+        blackhole.consume(handler.elementCount);
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        @Param({"csv", "csvWithHeader", "regex"})
+        public String config;
+
+        @Param({"10000"})
+        public int lineCount;
+
+        // Only the csv config can be parsed in parallel, the others ignore this.
+        @Param({"1", "4"})
+        public int threads;
+
+        public String input;
+        private RootFactory rootFactory;
+        private ErrorHandlerAdaptor errorHandler;
+        private ExecutorService executorService;
+
+        @Setup
+        public void setUp() throws Exception {
+            errorHandler = new ErrorHandlerAdaptor(
+                    "DS3Parser",
+                    new DefaultLocationFactory(),
+                    new LoggingErrorReceiver());
+
+            rootFactory = new RootFactory();
+            final XMLReader configReader = SAXParserFactoryFactory.newInstance().newSAXParser().getXMLReader();
+            configReader.setContentHandler(new ConfigFilter(rootFactory));
+            configReader.setErrorHandler(errorHandler);
+            configReader.parse(new InputSource(new StringReader(switch (config) {
+                case "csv" -> CSV_CONFIG;
+                case "csvWithHeader" -> CSV_WITH_HEADER_CONFIG;
+                case "regex" -> REGEX_CONFIG;
+                default -> throw new IllegalArgumentException("Unknown config " + config);
+            })));
+            rootFactory.compile();
+
+            final StringBuilder sb = new StringBuilder();
+            if ("csvWithHeader".equals(config)) {
+                sb.append("Time,Action,User,File\n");
+            }
+            for (int i = 1; i <= lineCount; i++) {
+                sb.append("01/01/2009:00:00:01")
+                        .append(i)
+                        .append(",OPEN")
+                        .append(i)
+                        .append(",userone")
+                        .append(i)
+                        .append(",D:\\TranslationKit\\example\\VerySimple\\OpenFileEvents")
+                        .append(i)
+                        .append(".txt\n");
+            }
+            input = sb.toString();
+            executorService = Executors.newFixedThreadPool(threads);
+        }
+
+        @TearDown
+        public void tearDown() {
+            executorService.shutdown();
+        }
+
+        XMLReader createParser() {
+            final DS3Parser parser = new DS3Parser(
+                    rootFactory,
+                    RootFactory.MIN_BUFFER_SIZE,
+                    rootFactory.getBufferSize());
+            // Use small chunks so that the test data is split between the threads.
+            parser.setParallelism(threads, executorService, 64 * 1024);
+            parser.setErrorHandler(errorHandler);
+            return parser;
+        }
+    }
+
+    private static class CountingHandler extends DefaultHandler {
+
+        private long elementCount;
+
+        @Override
+        public void startElement(final String uri,
+                                 final String localName,
+                                 final String qName,
+                                 final Attributes attributes) {
+            elementCount++;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures aggregating rows into a single group with the generator for an aggregate
+ * function, as the search result stores do for every row that is added.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeneratorBenchmark {
+
+    @Benchmark
+    public void aggregate(final ExecutionPlan plan, final Blackhole blackhole) {
+        final StoredValues storedValues = plan.valueReferenceIndex.createStoredValues();
+        for (final Val[] row : plan.rows) {
+            plan.generator.set(row, storedValues);
+        }
+        blackhole.consume(plan.generator.eval(storedValues, null));
+    }
+
+    @Benchmark
+    public void merge(final ExecutionPlan plan, final Blackhole blackhole) {
+        final StoredValues storedValues = plan.valueReferenceIndex.createStoredValues();
+        for (final Val[] row : plan.rows) {
+            final StoredValues rowValues = plan.valueReferenceIndex.createStoredValues();
+            plan.generator.set(row, rowValues);
+            plan.generator.merge(storedValues, rowValues);
+        }
+        blackhole.consume(plan.generator.eval(storedValues, null));
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        @Param({
+                "count()",
+                "sum(${val2})",
+                "average(${val2})",
+                "max(${val2})",
+                "stDev(${val2})",
+                "countUnique(${val1})",
+                "countUniqueApprox(${val1})"})
+        public String expression;
+
+        @Param({"10000"})
+        public int rowCount;
+
+        public ValueReferenceIndex valueReferenceIndex;
+        public Generator generator;
+        public Val[][] rows;
+
+        @Setup
+        public void setUp() throws ParseException {
+            final FieldIndex fieldIndex = new FieldIndex();
+            fieldIndex.create("val1");
+            fieldIndex.create("val2");
+            final ExpressionParser parser = new ExpressionParser(new ParamFactory(new HashMap<>()));
+            final Expression exp = parser.parse(new ExpressionContext(), fieldIndex, expression);
+            valueReferenceIndex = new ValueReferenceIndex();
+            exp.addValueReferences(valueReferenceIndex);
+            generator = exp.createGenerator();
+
+            rows = new Val[rowCount][];
+            for (int i = 0; i < rowCount; i++) {
+                rows[i] = new Val[]{
+                        ValString.create("user" + (i % 1000)),
+                        ValLong.create(i % 1234)};
+            }
+        }
+    }
+}
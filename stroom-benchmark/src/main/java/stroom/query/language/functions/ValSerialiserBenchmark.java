@@ -0,0 +1,66 @@
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.KryoDataReader;
+import stroom.query.language.functions.ref.KryoDataWriter;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures writing and reading a row of values with Kryo, as the search result stores do
+ * when they serialise rows to LMDB or send them between nodes.
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.Throughput)
+public class ValSerialiserBenchmark {
+
+    @Benchmark
+    public void write(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.output.reset();
+        ValSerialiser.writeArray(new KryoDataWriter(plan.output), plan.values);
+        blackhole.consume(plan.output.position());
+    }
+
+    @Benchmark
+    public void read(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.input.setPosition(0);
+        blackhole.consume(ValSerialiser.readArray(new KryoDataReader(plan.input)));
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        public Val[] values;
+        public Output output;
+        public Input input;
+
+        @Setup
+        public void setUp() {
+            values = new Val[]{
+                    ValString.create("user123"),
+                    ValString.create("D:\\TranslationKit\\example\\VerySimple\\OpenFileEvents.txt"),
+                    ValLong.create(1234567L),
+                    ValInteger.create(42),
+                    ValDouble.create(12.34),
+                    ValDate.create(1_749_558_896_789L),
+                    ValBoolean.TRUE,
+                    ValNull.INSTANCE};
+
+            output = new Output(1024, -1);
+            ValSerialiser.writeArray(new KryoDataWriter(output), values);
+            input = new Input(output.toBytes());
+        }
+    }
+}
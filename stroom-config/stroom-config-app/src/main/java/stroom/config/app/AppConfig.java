@@ -28,6 +28,8 @@ import stroom.config.common.NodeUriConfig;
 import stroom.config.common.PublicUriConfig;
 import stroom.config.common.UiUriConfig;
 import stroom.core.receive.AutoContentCreationConfig;
+import stroom.core.receive.ReceiveSpoolConfig;
+import stroom.core.receive.ReceiveZipConfig;
 import stroom.dashboard.impl.DashboardConfig;
 import stroom.docstore.impl.db.DocStoreConfig;
 import stroom.event.logging.impl.LoggingConfig;
@@ -116,6 +118,8 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
     public static final String PROP_NAME_QUERY_HISTORY = "queryHistory";
     public static final String PROP_NAME_RECEIVE = "receive";
     public static final String PROP_NAME_RECEIPT_POLICY = "receiptPolicy";
+    public static final String PROP_NAME_RECEIVE_SPOOL = "receiveSpool";
+    public static final String PROP_NAME_RECEIVE_ZIP = "receiveZip";
     public static final String PROP_NAME_S3 = "s3";
     public static final String PROP_NAME_SEARCH = "search";
     public static final String PROP_NAME_SECURITY = "security";
@@ -164,6 +168,8 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
     private final IndexFieldDbConfig queryDataSourceConfig;
     private final ReceiveDataConfig receiveDataConfig;
     private final StroomReceiptPolicyConfig receiptPolicyConfig;
+    private final ReceiveSpoolConfig receiveSpoolConfig;
+    private final ReceiveZipConfig receiveZipConfig;
     private final S3Config s3Config;
     private final SearchConfig searchConfig;
     private final SecurityConfig securityConfig;
@@ -217,6 +223,8 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
                 new IndexFieldDbConfig(),
                 new ReceiveDataConfig(),
                 new StroomReceiptPolicyConfig(),
+                new ReceiveSpoolConfig(),
+                new ReceiveZipConfig(),
                 new S3Config(),
                 new SearchConfig(),
                 new SecurityConfig(),
@@ -269,6 +277,8 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
                      @JsonProperty(PROP_NAME_QUERY_DATASOURCE) final IndexFieldDbConfig queryDataSourceConfig,
                      @JsonProperty(PROP_NAME_RECEIVE) final ReceiveDataConfig receiveDataConfig,
                      @JsonProperty(PROP_NAME_RECEIPT_POLICY) final StroomReceiptPolicyConfig receiptPolicyConfig,
+                     @JsonProperty(PROP_NAME_RECEIVE_SPOOL) final ReceiveSpoolConfig receiveSpoolConfig,
+                     @JsonProperty(PROP_NAME_RECEIVE_ZIP) final ReceiveZipConfig receiveZipConfig,
                      @JsonProperty(PROP_NAME_S3) final S3Config s3Config,
                      @JsonProperty(PROP_NAME_SEARCH) final SearchConfig searchConfig,
                      @JsonProperty(PROP_NAME_SECURITY) final SecurityConfig securityConfig,
@@ -317,6 +327,8 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
         this.queryDataSourceConfig = queryDataSourceConfig;
         this.receiveDataConfig = receiveDataConfig;
         this.receiptPolicyConfig = receiptPolicyConfig;
+        this.receiveSpoolConfig = receiveSpoolConfig;
+        this.receiveZipConfig = receiveZipConfig;
         this.s3Config = s3Config;
         this.searchConfig = searchConfig;
         this.securityConfig = securityConfig;
@@ -530,6 +542,20 @@ public class AppConfig extends AbstractConfig implements IsStroomConfig {
         return receiptPolicyConfig;
     }
 
+    @JsonProperty(PROP_NAME_RECEIVE_SPOOL)
+    @JsonPropertyDescription("Configuration for spooling data received by the datafeed servlet to local disk " +
+            "so it can be acknowledged before it is added to the stream store")
+    public ReceiveSpoolConfig getReceiveSpoolConfig() {
+        return receiveSpoolConfig;
+    }
+
+    @JsonProperty(PROP_NAME_RECEIVE_ZIP)
+    @JsonPropertyDescription("Configuration for how zip files received by the datafeed servlet are " +
+            "added to the stream store")
+    public ReceiveZipConfig getReceiveZipConfig() {
+        return receiveZipConfig;
+    }
+
     @JsonProperty(PROP_NAME_LOGGING)
     public LoggingConfig getRequestLoggingConfig() {
         return loggingConfig;
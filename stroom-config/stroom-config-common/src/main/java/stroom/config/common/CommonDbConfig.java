@@ -1,5 +1,6 @@
 package stroom.config.common;
 
+import stroom.util.config.annotations.RequiresRestart;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.BootStrapConfig;
@@ -7,12 +8,21 @@ import stroom.util.shared.BootStrapConfig;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import jakarta.validation.constraints.Min;
+
+import java.util.Objects;
 
 @BootStrapConfig
 public class CommonDbConfig extends AbstractDbConfig {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(CommonDbConfig.class);
 
+    public static final String PROP_NAME_MIGRATION_THREADS = "migrationThreads";
+    static final int DEFAULT_MIGRATION_THREADS = 4;
+
+    private final int migrationThreads;
+
     public CommonDbConfig() {
         // IMPORTANT - setting the defaults in this way means that they will be ignored by
         // jackson when it de-serialises the yaml. We rely on mergeConfig() being aware of these
@@ -23,13 +33,26 @@ public class CommonDbConfig extends AbstractDbConfig {
                         ConnectionConfig.DEFAULT_JDBC_DRIVER_USERNAME,
                         ConnectionConfig.DEFAULT_JDBC_DRIVER_PASSWORD),
                 new ConnectionPoolConfig());
+        this.migrationThreads = DEFAULT_MIGRATION_THREADS;
     }
 
     @SuppressWarnings("unused")
     @JsonCreator
     public CommonDbConfig(@JsonProperty("connection") final ConnectionConfig connectionConfig,
-                          @JsonProperty("connectionPool") final ConnectionPoolConfig connectionPoolConfig) {
+                          @JsonProperty("connectionPool") final ConnectionPoolConfig connectionPoolConfig,
+                          @JsonProperty(PROP_NAME_MIGRATION_THREADS) final Integer migrationThreads) {
         super(connectionConfig, connectionPoolConfig);
+        this.migrationThreads = Objects.requireNonNullElse(migrationThreads, DEFAULT_MIGRATION_THREADS);
+    }
+
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("The maximum number of database modules whose Flyway migrations will run " +
+            "concurrently on boot. Each migration holds up to two connections so the number used is also " +
+            "limited to half of the maxPoolSize. Set to 1 to migrate the modules one at a time.")
+    @JsonProperty(PROP_NAME_MIGRATION_THREADS)
+    @Min(1)
+    public int getMigrationThreads() {
+        return migrationThreads;
     }
 
     /**
@@ -92,4 +115,17 @@ public class CommonDbConfig extends AbstractDbConfig {
 //        connectionConfig.setPassword(ConnectionConfig.DEFAULT_JDBC_DRIVER_PASSWORD);
 //    }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        final CommonDbConfig that = (CommonDbConfig) o;
+        return migrationThreads == that.migrationThreads;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), migrationThreads);
+    }
 }
@@ -195,6 +195,24 @@ public class ConfigProvidersModule extends AbstractModule {
                 stroom.core.receive.AutoContentCreationConfig.class);
     }
 
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.core.receive.ReceiveSpoolConfig getReceiveSpoolConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.core.receive.ReceiveSpoolConfig.class);
+    }
+
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.core.receive.ReceiveZipConfig getReceiveZipConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.core.receive.ReceiveZipConfig.class);
+    }
+
     @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -377,6 +395,24 @@ public class ConfigProvidersModule extends AbstractModule {
                 stroom.lmdb.LmdbLibraryConfig.class);
     }
 
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.meta.impl.MetaIndexConfig getMetaIndexConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.meta.impl.MetaIndexConfig.class);
+    }
+
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.meta.impl.MetaPartitionConfig getMetaPartitionConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.meta.impl.MetaPartitionConfig.class);
+    }
+
     @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -458,6 +494,15 @@ public class ConfigProvidersModule extends AbstractModule {
                 stroom.pipeline.filter.XsltConfig.class);
     }
 
+    @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.pipeline.profiling.PipelineProfilingConfig getPipelineProfilingConfig(
+            final ConfigMapper configMapper) {
+        return configMapper.getConfigObject(
+                stroom.pipeline.profiling.PipelineProfilingConfig.class);
+    }
+
     @Generated("stroom.config.global.impl.GenerateConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -16,15 +16,18 @@
 
 package stroom.core.receive;
 
+import stroom.lifecycle.api.LifecycleBinder;
 import stroom.receive.common.CertificateExtractorImpl;
 import stroom.receive.common.ContentAutoCreationAttrMapFilterFactory;
 import stroom.receive.common.FeedStatusService;
 import stroom.receive.common.ReceiptIdGenerator;
 import stroom.receive.common.RequestHandler;
+import stroom.util.RunnableWrapper;
 import stroom.util.cert.CertificateExtractor;
 import stroom.util.guice.RestResourcesBinder;
 
 import com.google.inject.AbstractModule;
+import jakarta.inject.Inject;
 
 public class ReceiveDataModule extends AbstractModule {
 
@@ -41,5 +44,25 @@ public class ReceiveDataModule extends AbstractModule {
 
         RestResourcesBinder.create(binder())
                 .bind(ContentTemplateResourceImpl.class);
+
+        LifecycleBinder.create(binder())
+                .bindStartupTaskTo(ReceiveSpoolStartup.class)
+                .bindShutdownTaskTo(ReceiveSpoolShutdown.class);
+    }
+
+    private static class ReceiveSpoolStartup extends RunnableWrapper {
+
+        @Inject
+        ReceiveSpoolStartup(final ReceiveSpool receiveSpool) {
+            super(receiveSpool::start);
+        }
+    }
+
+    private static class ReceiveSpoolShutdown extends RunnableWrapper {
+
+        @Inject
+        ReceiveSpoolShutdown(final ReceiveSpool receiveSpool) {
+            super(receiveSpool::stop);
+        }
     }
 }
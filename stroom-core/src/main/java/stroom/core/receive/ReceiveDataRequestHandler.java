@@ -28,14 +28,10 @@ import stroom.receive.common.ReceiptIdGenerator;
 import stroom.receive.common.ReceiveDataConfig;
 import stroom.receive.common.RequestAuthenticator;
 import stroom.receive.common.RequestHandler;
-import stroom.receive.common.StreamTargetStreamHandlers;
 import stroom.receive.common.StroomStreamException;
-import stroom.receive.common.StroomStreamProcessor;
 import stroom.receive.common.StroomStreamStatus;
 import stroom.security.api.SecurityContext;
 import stroom.security.api.UserIdentity;
-import stroom.task.api.TaskContextFactory;
-import stroom.task.api.TaskProgressHandler;
 import stroom.util.cert.CertificateExtractor;
 import stroom.util.concurrent.UniqueId;
 import stroom.util.logging.LambdaLogger;
@@ -55,7 +51,6 @@ import java.io.PrintWriter;
 import java.time.Instant;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -64,7 +59,8 @@ import java.util.stream.Collectors;
  * </p>
  * <p>
  * Performs authentication, passes the attributeMap to the chain of {@link AttributeMapFilter}s
- * then for anything that passes,  streams it to disk.
+ * then for anything that passes,  streams it to disk. If the {@link ReceiveSpool} is accepting data,
+ * the data is spooled and acknowledged, then added to the stream store later.
  * </p>
  */
 class ReceiveDataRequestHandler implements RequestHandler {
@@ -73,8 +69,8 @@ class ReceiveDataRequestHandler implements RequestHandler {
 
     private final SecurityContext securityContext;
     private final AttributeMapFilterFactory attributeMapFilterFactory;
-    private final StreamTargetStreamHandlers streamTargetStreamHandlerProvider;
-    private final TaskContextFactory taskContextFactory;
+    private final ReceivedDataWriter receivedDataWriter;
+    private final ReceiveSpool receiveSpool;
     private final RequestAuthenticator requestAuthenticator;
     private final CertificateExtractor certificateExtractor;
     private final ReceiptIdGenerator receiptIdGenerator;
@@ -86,8 +82,8 @@ class ReceiveDataRequestHandler implements RequestHandler {
     @Inject
     public ReceiveDataRequestHandler(final SecurityContext securityContext,
                                      final AttributeMapFilterFactory attributeMapFilterFactory,
-                                     final StreamTargetStreamHandlers streamTargetStreamHandlerProvider,
-                                     final TaskContextFactory taskContextFactory,
+                                     final ReceivedDataWriter receivedDataWriter,
+                                     final ReceiveSpool receiveSpool,
                                      final RequestAuthenticator requestAuthenticator,
                                      final CertificateExtractor certificateExtractor,
                                      final ReceiptIdGenerator receiptIdGenerator,
@@ -97,8 +93,8 @@ class ReceiveDataRequestHandler implements RequestHandler {
                                      final Provider<ReceiveDataConfig> receiveDataConfigProvider) {
         this.securityContext = securityContext;
         this.attributeMapFilterFactory = attributeMapFilterFactory;
-        this.streamTargetStreamHandlerProvider = streamTargetStreamHandlerProvider;
-        this.taskContextFactory = taskContextFactory;
+        this.receivedDataWriter = receivedDataWriter;
+        this.receiveSpool = receiveSpool;
         this.requestAuthenticator = requestAuthenticator;
         this.certificateExtractor = certificateExtractor;
         this.receiptIdGenerator = receiptIdGenerator;
@@ -139,7 +135,11 @@ class ReceiveDataRequestHandler implements RequestHandler {
                             "Receiving data - feed: '{}', type: {}, receiptId: {}, attributeMap: {}",
                             feedName, typeName, receiptId, attributeMapToString(attributeMap)));
 
-                    receiveData(request, feedName, typeName, attributeMap, receivedTime);
+                    if (receiveSpool.isAccepting()) {
+                        spoolData(request, attributeMap, receivedTime);
+                    } else {
+                        receiveData(request, feedName, typeName, attributeMap, receivedTime);
+                    }
                 } else {
                     // Drop the data.
                     final String feedName = getFeedName(attributeMap);
@@ -182,24 +182,29 @@ class ReceiveDataRequestHandler implements RequestHandler {
                              final String typeName,
                              final AttributeMap attributeMap,
                              final Instant receivedTime) {
-        taskContextFactory.context("Receiving Data", taskContext -> {
-
-            final Consumer<Long> progressHandler = new TaskProgressHandler(
-                    taskContext, "Receiving " + feedName + " - ");
-
-            try (final InputStream inputStream = request.getInputStream()) {
-                streamTargetStreamHandlerProvider.handle(feedName, typeName, attributeMap, handler -> {
-                    final StroomStreamProcessor stroomStreamProcessor = new StroomStreamProcessor(
-                            attributeMap,
-                            handler,
-                            progressHandler);
-                    stroomStreamProcessor.processInputStream(inputStream, "", receivedTime);
-                });
-            } catch (final RuntimeException | IOException e) {
-                LOGGER.debug(e.getMessage(), e);
-                throw StroomStreamException.create(e, attributeMap);
-            }
-        }).run();
+        try (final InputStream inputStream = request.getInputStream()) {
+            receivedDataWriter.write(
+                    "Receiving Data",
+                    feedName,
+                    typeName,
+                    attributeMap,
+                    inputStream,
+                    receivedTime);
+        } catch (final IOException e) {
+            LOGGER.debug(e.getMessage(), e);
+            throw StroomStreamException.create(e, attributeMap);
+        }
+    }
+
+    private void spoolData(final HttpServletRequest request,
+                           final AttributeMap attributeMap,
+                           final Instant receivedTime) {
+        try (final InputStream inputStream = request.getInputStream()) {
+            receiveSpool.spool(attributeMap, receivedTime, inputStream);
+        } catch (final RuntimeException | IOException e) {
+            LOGGER.debug(e.getMessage(), e);
+            throw StroomStreamException.create(e, attributeMap);
+        }
     }
 
     private void logSuccess(final StroomStreamStatus stroomStreamStatus) {
@@ -0,0 +1,472 @@
+package stroom.core.receive;
+
+import stroom.meta.api.AttributeMap;
+import stroom.meta.api.AttributeMapUtil;
+import stroom.meta.api.StandardHeaderArguments;
+import stroom.receive.common.StroomStreamException;
+import stroom.security.api.SecurityContext;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.TaskContextFactory;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.util.io.PathCreator;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.metrics.Metrics;
+import stroom.util.shared.NullSafe;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A write-ahead spool for data received by the datafeed servlet.
+ * <p>
+ * Each request is streamed into its own spool file, made durable and then acknowledged, so the
+ * client does not have to wait for the data to be unpacked into the stream store. A pool of workers
+ * then take the oldest spool files and add them to the store, deleting each file once it has been
+ * added. Spool files left behind by a shutdown are picked up again on the next start, so delivery
+ * to the store is at least once.
+ * <p>
+ * A spool file holds a format version, the received time and the attribute map of the request,
+ * followed by the request body exactly as it was posted.
+ */
+@Singleton
+class ReceiveSpool {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ReceiveSpool.class);
+
+    static final String ENTRY_EXTENSION = ".spl";
+    static final String TEMP_EXTENSION = ".tmp";
+    static final String FAILED_DIR = "failed";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TASK_NAME = "Receiving Spooled Data";
+    private static final String THREAD_POOL_NAME = "Receive Spool";
+    private static final String WORKER_TASK_NAME = "Receive Spool Worker";
+
+    private final Provider<ReceiveSpoolConfig> receiveSpoolConfigProvider;
+    private final PathCreator pathCreator;
+    private final ReceivedDataWriter receivedDataWriter;
+    private final SecurityContext securityContext;
+    private final ExecutorProvider executorProvider;
+    private final TaskContextFactory taskContextFactory;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong spoolSize = new AtomicLong();
+    // Every entry in the spool, oldest first.
+    private final ConcurrentSkipListMap<Long, SpoolEntry> entries = new ConcurrentSkipListMap<>();
+    // The entries waiting for a worker.
+    private final DelayQueue<SpoolEntry> queue = new DelayQueue<>();
+
+    // Group commit of the spool dir so concurrent requests share the cost of syncing it.
+    private final Object dirSyncLock = new Object();
+    private final AtomicLong dirSyncRequests = new AtomicLong();
+    private long dirSyncedUpTo;
+
+    private final Timer spoolTimer;
+    private final Timer processTimer;
+    private final Counter failedCounter;
+
+    private volatile Path spoolDir;
+    private volatile boolean running;
+    // The workers run for as long as the spool does, so are tracked to be stopped.
+    private volatile CompletableFuture<Void> workers;
+    private final Set<Thread> workerThreads = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    ReceiveSpool(final Provider<ReceiveSpoolConfig> receiveSpoolConfigProvider,
+                 final PathCreator pathCreator,
+                 final ReceivedDataWriter receivedDataWriter,
+                 final SecurityContext securityContext,
+                 final ExecutorProvider executorProvider,
+                 final TaskContextFactory taskContextFactory,
+                 final Metrics metrics) {
+        this.receiveSpoolConfigProvider = receiveSpoolConfigProvider;
+        this.pathCreator = pathCreator;
+        this.receivedDataWriter = receivedDataWriter;
+        this.securityContext = securityContext;
+        this.executorProvider = executorProvider;
+        this.taskContextFactory = taskContextFactory;
+
+        metrics.registrationBuilder(getClass())
+                .addNamePart(Metrics.COUNT)
+                .gauge(entries::size)
+                .register();
+        metrics.registrationBuilder(getClass())
+                .addNamePart(Metrics.SIZE_IN_BYTES)
+                .gauge(spoolSize::get)
+                .register();
+        metrics.registrationBuilder(getClass())
+                .addNamePart(Metrics.AGE_MS)
+                .gauge(this::getOldestEntryAgeMs)
+                .register();
+        this.spoolTimer = metrics.registrationBuilder(getClass())
+                .addNamePart(Metrics.WRITE)
+                .timer()
+                .createAndRegister();
+        this.processTimer = metrics.registrationBuilder(getClass())
+                .addNamePart(Metrics.READ)
+                .timer()
+                .createAndRegister();
+        this.failedCounter = metrics.registrationBuilder(getClass())
+                .addNamePart("failed")
+                .addNamePart(Metrics.COUNT)
+                .counter()
+                .createAndRegister();
+    }
+
+    /**
+     * @return True if the spool is running and has room for more data. If false, received data
+     * should be added to the stream store directly.
+     */
+    boolean isAccepting() {
+        return running &&
+               spoolSize.get() < receiveSpoolConfigProvider.get().getMaxSpoolSize().getBytes();
+    }
+
+    /**
+     * Write the request to the spool. Once this method returns the data is on disk and will be
+     * added to the stream store by a worker, so the request can be acknowledged.
+     */
+    void spool(final AttributeMap attributeMap,
+               final Instant receivedTime,
+               final InputStream inputStream) throws IOException {
+        final Path dir = spoolDir;
+        final boolean syncEnabled = receiveSpoolConfigProvider.get().isSyncEnabled();
+        final long seq = sequence.incrementAndGet();
+        final Path tempFile = dir.resolve(createFileName(seq) + TEMP_EXTENSION);
+        final Path file = dir.resolve(createFileName(seq) + ENTRY_EXTENSION);
+
+        final long size;
+        final Timer.Context timerContext = spoolTimer.time();
+        try {
+            try (final FileChannel channel = FileChannel.open(
+                    tempFile,
+                    StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                final DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(
+                        Channels.newOutputStream(channel), BUFFER_SIZE));
+                writeHeader(outputStream, attributeMap, receivedTime);
+                inputStream.transferTo(outputStream);
+                outputStream.flush();
+                if (syncEnabled) {
+                    channel.force(true);
+                }
+                size = channel.size();
+            }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE);
+            if (syncEnabled) {
+                syncSpoolDir(dir);
+            }
+        } catch (final IOException | RuntimeException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        } finally {
+            timerContext.stop();
+        }
+
+        LOGGER.debug("Spooled {} bytes to {}", size, file);
+        addEntry(new SpoolEntry(seq, file, size, System.currentTimeMillis()));
+    }
+
+    void start() {
+        final ReceiveSpoolConfig config = receiveSpoolConfigProvider.get();
+        if (!config.isEnabled()) {
+            LOGGER.debug("Receive spool is disabled");
+            return;
+        }
+
+        final Path dir = pathCreator.toAppPath(config.getSpoolDir());
+        try {
+            Files.createDirectories(dir.resolve(FAILED_DIR));
+            recover(dir);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(LogUtil.message(
+                    "Unable to start receive spool in {}: {}", dir, e.getMessage()), e);
+        }
+        spoolDir = dir;
+
+        final Executor executor = executorProvider.get(ThreadPoolImpl.builder(THREAD_POOL_NAME)
+                .maxThreads(config.getWorkerThreads())
+                .build());
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[config.getWorkerThreads()];
+        running = true;
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(
+                    taskContextFactory.context(WORKER_TASK_NAME, taskContext -> runWorker()),
+                    executor);
+        }
+        workers = CompletableFuture.allOf(futures);
+        LOGGER.info("Started receive spool in {} with {} entries ({} bytes) to process",
+                dir, entries.size(), spoolSize.get());
+    }
+
+    void stop() {
+        final CompletableFuture<Void> runningWorkers = workers;
+        if (runningWorkers != null) {
+            // Stop accepting new data then interrupt the workers. Anything not yet processed will
+            // be picked up on the next start.
+            running = false;
+            workers = null;
+            workerThreads.forEach(Thread::interrupt);
+            try {
+                runningWorkers.get(1, TimeUnit.MINUTES);
+            } catch (final TimeoutException e) {
+                LOGGER.warn("Timed out waiting for receive spool workers to stop");
+            } catch (final ExecutionException e) {
+                LOGGER.error("Error stopping receive spool workers: {}", e.getMessage(), e);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            LOGGER.info("Stopped receive spool with {} entries ({} bytes) still to process",
+                    entries.size(), spoolSize.get());
+        }
+    }
+
+    private void recover(final Path dir) throws IOException {
+        long maxSeq = 0;
+        try (final Stream<Path> stream = Files.list(dir)) {
+            for (final Path path : stream.toList()) {
+                final String fileName = path.getFileName().toString();
+                if (fileName.endsWith(TEMP_EXTENSION)) {
+                    // A request that was never acknowledged.
+                    LOGGER.debug("Deleting incomplete spool file {}", path);
+                    Files.delete(path);
+                } else if (fileName.endsWith(ENTRY_EXTENSION)) {
+                    final long seq = parseSequence(fileName);
+                    maxSeq = Math.max(maxSeq, seq);
+                    addEntry(new SpoolEntry(
+                            seq,
+                            path,
+                            Files.size(path),
+                            Files.getLastModifiedTime(path).toMillis()));
+                }
+            }
+        }
+        sequence.set(maxSeq);
+    }
+
+    private void runWorker() {
+        // The thread belongs to a shared pool so it is only interrupted by stop() while it is
+        // running this worker.
+        final Thread thread = Thread.currentThread();
+        workerThreads.add(thread);
+        try {
+            while (running && !thread.isInterrupted()) {
+                final SpoolEntry entry = queue.take();
+                securityContext.asProcessingUser(() -> process(entry));
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.debug("Receive spool worker interrupted");
+        } finally {
+            workerThreads.remove(thread);
+            // Don't leave the interrupt set on a pooled thread.
+            Thread.interrupted();
+        }
+    }
+
+    private void process(final SpoolEntry entry) {
+        final Timer.Context timerContext = processTimer.time();
+        try (final DataInputStream inputStream = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(entry.file), BUFFER_SIZE))) {
+            final int formatVersion = inputStream.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unknown spool file format version " + formatVersion);
+            }
+            final Instant receivedTime = Instant.ofEpochMilli(inputStream.readLong());
+            final byte[] header = inputStream.readNBytes(inputStream.readInt());
+            final AttributeMap attributeMap = new AttributeMap();
+            AttributeMapUtil.read(header, attributeMap);
+
+            receivedDataWriter.write(
+                    TASK_NAME,
+                    NullSafe.string(attributeMap.get(StandardHeaderArguments.FEED)),
+                    NullSafe.string(attributeMap.get(StandardHeaderArguments.TYPE)),
+                    attributeMap,
+                    inputStream,
+                    receivedTime);
+
+            LOGGER.debug("Processed spool file {}", entry.file);
+            removeEntry(entry);
+            Files.delete(entry.file);
+        } catch (final IOException | RuntimeException e) {
+            handleFailure(entry, e);
+        } finally {
+            timerContext.stop();
+        }
+    }
+
+    private void handleFailure(final SpoolEntry entry, final Exception e) {
+        if (Thread.currentThread().isInterrupted()) {
+            // Shutting down, so leave the entry for the next start.
+            LOGGER.debug("Abandoned spool file {} on shutdown", entry.file);
+            return;
+        }
+
+        entry.attempts++;
+        final ReceiveSpoolConfig config = receiveSpoolConfigProvider.get();
+        // The sender was acknowledged when the data was spooled so can't be told about a 4xx status,
+        // but retrying won't change it, so the file goes straight to the failed dir for an admin.
+        final boolean retryable = !(e instanceof final StroomStreamException stroomStreamException) ||
+                                  stroomStreamException.getStroomStatusCode().getHttpCode() >= 500;
+        if (retryable && entry.attempts < config.getMaxAttempts()) {
+            LOGGER.warn("Error adding spool file {} to the stream store (attempt {} of {}), will retry: {}",
+                    entry.file, entry.attempts, config.getMaxAttempts(), e.getMessage());
+            LOGGER.debug(e.getMessage(), e);
+            entry.notBefore = System.currentTimeMillis() + config.getRetryDelay().toMillis();
+            queue.add(entry);
+        } else {
+            LOGGER.error("Error adding spool file {} to the stream store, moving it to {}: {}",
+                    entry.file, FAILED_DIR, e.getMessage(), e);
+            failedCounter.inc();
+            removeEntry(entry);
+            try {
+                Files.move(entry.file, entry.file.resolveSibling(FAILED_DIR).resolve(entry.file.getFileName()));
+            } catch (final IOException e2) {
+                LOGGER.error("Unable to move spool file {}: {}", entry.file, e2.getMessage(), e2);
+            }
+        }
+    }
+
+    private void addEntry(final SpoolEntry entry) {
+        spoolSize.addAndGet(entry.size);
+        entries.put(entry.seq, entry);
+        queue.add(entry);
+    }
+
+    private void removeEntry(final SpoolEntry entry) {
+        if (entries.remove(entry.seq) != null) {
+            spoolSize.addAndGet(-entry.size);
+        }
+    }
+
+    private long getOldestEntryAgeMs() {
+        final Entry<Long, SpoolEntry> oldest = entries.firstEntry();
+        return oldest == null
+                ? 0
+                : System.currentTimeMillis() - oldest.getValue().spoolTime;
+    }
+
+    /**
+     * Make sure the spool files renamed so far are durable. Threads that arrive while a sync is
+     * in progress wait for it, then the first of them syncs on behalf of the rest.
+     */
+    private void syncSpoolDir(final Path dir) {
+        final long ticket = dirSyncRequests.incrementAndGet();
+        synchronized (dirSyncLock) {
+            if (dirSyncedUpTo >= ticket) {
+                return;
+            }
+            final long upTo = dirSyncRequests.get();
+            syncDirectory(dir);
+            dirSyncedUpTo = upTo;
+        }
+    }
+
+    private static void syncDirectory(final Path dir) {
+        try (final FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (final IOException e) {
+            // Some platforms, e.g. Windows, can't open a directory, in which case the rename is as
+            // durable as we can make it.
+            LOGGER.debug("Unable to sync {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static void writeHeader(final DataOutputStream outputStream,
+                                    final AttributeMap attributeMap,
+                                    final Instant receivedTime) throws IOException {
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+        AttributeMapUtil.write(attributeMap, header);
+        outputStream.writeInt(FORMAT_VERSION);
+        outputStream.writeLong(receivedTime.toEpochMilli());
+        outputStream.writeInt(header.size());
+        header.writeTo(outputStream);
+    }
+
+    private static String createFileName(final long seq) {
+        return String.format("%019d", seq);
+    }
+
+    private static long parseSequence(final String fileName) {
+        return Long.parseLong(fileName.substring(0, fileName.length() - ENTRY_EXTENSION.length()));
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException e) {
+            LOGGER.error("Unable to delete {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static final class SpoolEntry implements Delayed {
+
+        private final long seq;
+        private final Path file;
+        private final long size;
+        private final long spoolTime;
+        // Only changed by the worker that has taken the entry off the queue.
+        private long notBefore;
+        private int attempts;
+
+        private SpoolEntry(final long seq, final Path file, final long size, final long spoolTime) {
+            this.seq = seq;
+            this.file = file;
+            this.size = size;
+            this.spoolTime = spoolTime;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(notBefore - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            final SpoolEntry that = (SpoolEntry) other;
+            // Oldest first once they are due.
+            final int compare = Long.compare(notBefore, that.notBefore);
+            return compare != 0
+                    ? compare
+                    : Long.compare(seq, that.seq);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package stroom.core.receive;
+
+import stroom.util.config.annotations.RequiresRestart;
+import stroom.util.config.annotations.RequiresRestart.RestartScope;
+import stroom.util.io.ByteSize;
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+import stroom.util.time.StroomDuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Objects;
+
+@JsonPropertyOrder(alphabetic = true)
+public class ReceiveSpoolConfig extends AbstractConfig implements IsStroomConfig {
+
+    public static final String DEFAULT_SPOOL_DIR = "receive_spool";
+
+    @RequiresRestart(RestartScope.SYSTEM)
+    @JsonProperty
+    @JsonPropertyDescription("If true, data posted to the datafeed servlet is written to a local spool " +
+            "directory and acknowledged as soon as it is safely on disk. Background workers then add the " +
+            "spooled data to the stream store. If false, data is added to the stream store before the " +
+            "request is acknowledged.")
+    private final boolean enabled;
+
+    @NotBlank
+    @RequiresRestart(RestartScope.SYSTEM)
+    @JsonProperty
+    @JsonPropertyDescription("The directory to spool received data in. If the path is relative it will be " +
+            "relative to the Stroom home directory. It should be on local storage that survives a restart.")
+    private final String spoolDir;
+
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("The maximum total size of the data waiting in the spool. Once it is reached, " +
+            "new requests are added to the stream store before they are acknowledged, as if the spool was " +
+            "not enabled, until the workers have caught up. In IEC units, e.g. '10G'.")
+    private final ByteSize maxSpoolSize;
+
+    @Min(1)
+    @RequiresRestart(RestartScope.SYSTEM)
+    @JsonProperty
+    @JsonPropertyDescription("The number of background workers adding spooled data to the stream store.")
+    private final int workerThreads;
+
+    @JsonProperty
+    @JsonPropertyDescription("If true, spooled data is synced to disk before the request is acknowledged. " +
+            "Each request syncs its own file but concurrent requests share the sync of the spool directory. " +
+            "Only set this to false if losing acknowledged data on a power failure is acceptable.")
+    private final boolean syncEnabled;
+
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("How long to wait before trying to add spooled data to the stream store again " +
+            "after a failure. In ISO-8601 duration format, e.g. 'PT1M'")
+    private final StroomDuration retryDelay;
+
+    @Min(1)
+    @JsonProperty
+    @JsonPropertyDescription("The number of times to try to add spooled data to the stream store before " +
+            "moving it to the 'failed' sub-directory of the spool directory.")
+    private final int maxAttempts;
+
+    public ReceiveSpoolConfig() {
+        enabled = false;
+        spoolDir = DEFAULT_SPOOL_DIR;
+        maxSpoolSize = ByteSize.ofGibibytes(10);
+        workerThreads = 2;
+        syncEnabled = true;
+        retryDelay = StroomDuration.ofMinutes(1);
+        maxAttempts = 10;
+    }
+
+    @JsonCreator
+    public ReceiveSpoolConfig(@JsonProperty("enabled") final boolean enabled,
+                              @JsonProperty("spoolDir") final String spoolDir,
+                              @JsonProperty("maxSpoolSize") final ByteSize maxSpoolSize,
+                              @JsonProperty("workerThreads") final int workerThreads,
+                              @JsonProperty("syncEnabled") final boolean syncEnabled,
+                              @JsonProperty("retryDelay") final StroomDuration retryDelay,
+                              @JsonProperty("maxAttempts") final int maxAttempts) {
+        this.enabled = enabled;
+        this.spoolDir = spoolDir;
+        this.maxSpoolSize = maxSpoolSize;
+        this.workerThreads = workerThreads;
+        this.syncEnabled = syncEnabled;
+        this.retryDelay = retryDelay;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getSpoolDir() {
+        return spoolDir;
+    }
+
+    public ByteSize getMaxSpoolSize() {
+        return maxSpoolSize;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public boolean isSyncEnabled() {
+        return syncEnabled;
+    }
+
+    public StroomDuration getRetryDelay() {
+        return retryDelay;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiveSpoolConfig{" +
+                "enabled=" + enabled +
+                ", spoolDir='" + spoolDir + '\'' +
+                ", maxSpoolSize=" + maxSpoolSize +
+                ", workerThreads=" + workerThreads +
+                ", syncEnabled=" + syncEnabled +
+                ", retryDelay=" + retryDelay +
+                ", maxAttempts=" + maxAttempts +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ReceiveSpoolConfig that = (ReceiveSpoolConfig) o;
+        return enabled == that.enabled &&
+                workerThreads == that.workerThreads &&
+                syncEnabled == that.syncEnabled &&
+                maxAttempts == that.maxAttempts &&
+                Objects.equals(spoolDir, that.spoolDir) &&
+                Objects.equals(maxSpoolSize, that.maxSpoolSize) &&
+                Objects.equals(retryDelay, that.retryDelay);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, spoolDir, maxSpoolSize, workerThreads, syncEnabled, retryDelay, maxAttempts);
+    }
+}
@@ -0,0 +1,92 @@
+package stroom.core.receive;
+
+import stroom.util.io.ByteSize;
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Objects;
+
+@JsonPropertyOrder(alphabetic = true)
+public class ReceiveZipConfig extends AbstractConfig implements IsStroomConfig {
+
+    @JsonProperty
+    @JsonPropertyDescription("If true, large zip files posted to the datafeed servlet are written to a " +
+            "temporary file and the entries for different feeds are then added to the stream store in " +
+            "parallel. Entries for the same feed are always added in the order they appear in the zip. " +
+            "If false, zip entries are added one at a time as the zip is streamed in.")
+    private final boolean parallelEnabled;
+
+    @Min(1)
+    @JsonProperty
+    @JsonPropertyDescription("The maximum number of threads used to add the entries of a single zip file " +
+            "to the stream store.")
+    private final int maxThreads;
+
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("Zip files with a Content-Length smaller than this are always streamed. Zip " +
+            "files with no Content-Length are treated as large. In IEC units, e.g. '10M'.")
+    private final ByteSize minParallelSize;
+
+    public ReceiveZipConfig() {
+        parallelEnabled = false;
+        maxThreads = 4;
+        minParallelSize = ByteSize.ofMebibytes(10);
+    }
+
+    @JsonCreator
+    public ReceiveZipConfig(@JsonProperty("parallelEnabled") final boolean parallelEnabled,
+                            @JsonProperty("maxThreads") final int maxThreads,
+                            @JsonProperty("minParallelSize") final ByteSize minParallelSize) {
+        this.parallelEnabled = parallelEnabled;
+        this.maxThreads = maxThreads;
+        this.minParallelSize = minParallelSize;
+    }
+
+    public boolean isParallelEnabled() {
+        return parallelEnabled;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public ByteSize getMinParallelSize() {
+        return minParallelSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceiveZipConfig{" +
+                "parallelEnabled=" + parallelEnabled +
+                ", maxThreads=" + maxThreads +
+                ", minParallelSize=" + minParallelSize +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ReceiveZipConfig that = (ReceiveZipConfig) o;
+        return parallelEnabled == that.parallelEnabled &&
+                maxThreads == that.maxThreads &&
+                Objects.equals(minParallelSize, that.minParallelSize);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(parallelEnabled, maxThreads, minParallelSize);
+    }
+}
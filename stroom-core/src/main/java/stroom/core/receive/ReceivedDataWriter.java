@@ -0,0 +1,167 @@
+package stroom.core.receive;
+
+import stroom.meta.api.AttributeMap;
+import stroom.meta.api.AttributeMapUtil;
+import stroom.meta.api.StandardHeaderArguments;
+import stroom.proxy.StroomStatusCode;
+import stroom.receive.common.StreamTargetStreamHandlers;
+import stroom.receive.common.StroomStreamException;
+import stroom.receive.common.StroomStreamProcessor;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.TaskContext;
+import stroom.task.api.TaskContextFactory;
+import stroom.task.api.TaskProgressHandler;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
+import stroom.util.io.TempDirProvider;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Unpacks received data into the stream store, whether it has come straight from a datafeed
+ * request or from the {@link ReceiveSpool}.
+ */
+class ReceivedDataWriter {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ReceivedDataWriter.class);
+
+    // Limit the threads used by all concurrent receipts. The workers only wait on the receiving
+    // thread so queueing excess workers is safe.
+    private static final ThreadPool THREAD_POOL = ThreadPoolImpl.builder("Receive Zip Entries")
+            .maxThreads(Math.max(2, Runtime.getRuntime().availableProcessors()))
+            .build();
+
+    private final StreamTargetStreamHandlers streamTargetStreamHandlerProvider;
+    private final TaskContextFactory taskContextFactory;
+    private final ExecutorProvider executorProvider;
+    private final TempDirProvider tempDirProvider;
+    private final Provider<ReceiveZipConfig> receiveZipConfigProvider;
+
+    @Inject
+    ReceivedDataWriter(final StreamTargetStreamHandlers streamTargetStreamHandlerProvider,
+                       final TaskContextFactory taskContextFactory,
+                       final ExecutorProvider executorProvider,
+                       final TempDirProvider tempDirProvider,
+                       final Provider<ReceiveZipConfig> receiveZipConfigProvider) {
+        this.streamTargetStreamHandlerProvider = streamTargetStreamHandlerProvider;
+        this.taskContextFactory = taskContextFactory;
+        this.executorProvider = executorProvider;
+        this.tempDirProvider = tempDirProvider;
+        this.receiveZipConfigProvider = receiveZipConfigProvider;
+    }
+
+    /**
+     * @throws StroomStreamException If the data could not be added to the store.
+     */
+    void write(final String taskName,
+               final String feedName,
+               final String typeName,
+               final AttributeMap attributeMap,
+               final InputStream inputStream,
+               final Instant receivedTime) {
+        taskContextFactory.context(taskName, taskContext -> {
+
+            final Consumer<Long> progressHandler = new TaskProgressHandler(
+                    taskContext, "Receiving " + feedName + " - ");
+
+            try {
+                if (isParallelZip(attributeMap)) {
+                    writeParallel(taskContext, feedName, typeName, attributeMap, inputStream, progressHandler);
+                } else {
+                    streamTargetStreamHandlerProvider.handle(feedName, typeName, attributeMap, handler -> {
+                        final StroomStreamProcessor stroomStreamProcessor = new StroomStreamProcessor(
+                                attributeMap,
+                                handler,
+                                progressHandler);
+                        stroomStreamProcessor.processInputStream(inputStream, "", receivedTime);
+                    });
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.debug(e.getMessage(), e);
+                throw StroomStreamException.create(e, attributeMap);
+            }
+        }).run();
+    }
+
+    private boolean isParallelZip(final AttributeMap attributeMap) {
+        final ReceiveZipConfig receiveZipConfig = receiveZipConfigProvider.get();
+        if (!receiveZipConfig.isParallelEnabled()) {
+            return false;
+        }
+        final String compression = AttributeMapUtil.validateAndNormaliseCompression(
+                attributeMap,
+                compressionVal -> new StroomStreamException(
+                        StroomStatusCode.UNKNOWN_COMPRESSION, attributeMap, compressionVal));
+        if (!StandardHeaderArguments.COMPRESSION_ZIP.equalsIgnoreCase(compression)) {
+            return false;
+        }
+
+        // Small zips are not worth the extra write to disk.
+        final String contentLength = attributeMap.get(StandardHeaderArguments.CONTENT_LENGTH);
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength.trim()) >= receiveZipConfig.getMinParallelSize().getBytes();
+            } catch (final NumberFormatException e) {
+                LOGGER.debug("Unable to parse content length '{}'", contentLength);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spill the zip to a temporary file so the entries for each feed can be read independently,
+     * then add the feeds to the store in parallel.
+     */
+    private void writeParallel(final TaskContext taskContext,
+                               final String feedName,
+                               final String typeName,
+                               final AttributeMap attributeMap,
+                               final InputStream inputStream,
+                               final Consumer<Long> progressHandler) {
+        final int maxThreads = receiveZipConfigProvider.get().getMaxThreads();
+        final Executor executor = executorProvider.get(THREAD_POOL);
+        // Run the workers as child tasks so they have the user and can be seen and terminated.
+        final Executor childExecutor = runnable -> executor.execute(taskContextFactory.childContext(
+                taskContext,
+                "Receive Zip Entries",
+                childTaskContext -> runnable.run()));
+
+        Path zipFile = null;
+        try {
+            zipFile = Files.createTempFile(tempDirProvider.get(), "receive_", ".zip");
+            final Path path = zipFile;
+            Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.debug("Written {} zip to {}", feedName, path);
+
+            streamTargetStreamHandlerProvider.handleMultiple(feedName, typeName, attributeMap, handlerFactory -> {
+                final StroomStreamProcessor stroomStreamProcessor = new StroomStreamProcessor(
+                        attributeMap,
+                        null,
+                        progressHandler);
+                stroomStreamProcessor.processZipFile(path, feedName, handlerFactory, childExecutor, maxThreads);
+            });
+        } catch (final IOException e) {
+            throw StroomStreamException.create(e, attributeMap);
+        } finally {
+            if (zipFile != null) {
+                try {
+                    Files.deleteIfExists(zipFile);
+                } catch (final IOException e) {
+                    LOGGER.error("Unable to delete temporary file {}", zipFile, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package stroom.core.receive;
+
+import stroom.meta.api.AttributeMap;
+import stroom.meta.api.StandardHeaderArguments;
+import stroom.proxy.StroomStatusCode;
+import stroom.receive.common.StroomStreamException;
+import stroom.security.mock.MockSecurityContext;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.task.shared.ThreadPool;
+import stroom.test.common.MockMetrics;
+import stroom.util.io.ByteSize;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+import stroom.util.time.StroomDuration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+class TestReceiveSpool {
+
+    private static final Instant RECEIVED_TIME = Instant.parse("2025-06-10T12:34:56.789Z");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSpoolAndProcess() throws Exception {
+        final Map<String, String> received = new ConcurrentHashMap<>();
+        final ReceivedDataWriter writer = Mockito.mock(ReceivedDataWriter.class);
+        doAnswer(invocation -> {
+            final String feedName = invocation.getArgument(1);
+            final AttributeMap attributeMap = invocation.getArgument(3);
+            final InputStream inputStream = invocation.getArgument(4);
+            assertThat(attributeMap.get("foo"))
+                    .isEqualTo("bar");
+            assertThat((Instant) invocation.getArgument(5))
+                    .isEqualTo(RECEIVED_TIME);
+            received.put(feedName, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            return null;
+        }).when(writer).write(anyString(), anyString(), anyString(), any(), any(), any());
+
+        final ReceiveSpool receiveSpool = createSpool(writer, StroomDuration.ofMinutes(1));
+        receiveSpool.start();
+        try {
+            assertThat(receiveSpool.isAccepting())
+                    .isTrue();
+
+            spool(receiveSpool, "FEED_1", "data 1");
+            spool(receiveSpool, "FEED_2", "data 2");
+
+            waitFor(() -> received.size() == 2);
+            assertThat(received)
+                    .containsEntry("FEED_1", "data 1")
+                    .containsEntry("FEED_2", "data 2");
+            waitFor(() -> listSpoolFiles().isEmpty());
+        } finally {
+            receiveSpool.stop();
+        }
+        assertThat(receiveSpool.isAccepting())
+                .isFalse();
+    }
+
+    @Test
+    void testRecoverOnStart() throws Exception {
+        // Fail with a retryable error and a long retry delay so the entry stays in the spool.
+        final ReceivedDataWriter failingWriter = Mockito.mock(ReceivedDataWriter.class);
+        doThrow(new RuntimeException("DB is down"))
+                .when(failingWriter).write(anyString(), anyString(), anyString(), any(), any(), any());
+        final ReceiveSpool receiveSpool1 = createSpool(failingWriter, StroomDuration.ofHours(1));
+        receiveSpool1.start();
+        try {
+            spool(receiveSpool1, "FEED_1", "data 1");
+            waitFor(() -> Mockito.mockingDetails(failingWriter).getInvocations().size() == 1);
+        } finally {
+            receiveSpool1.stop();
+        }
+        assertThat(listSpoolFiles())
+                .hasSize(1);
+
+        final Map<String, String> received = new ConcurrentHashMap<>();
+        final ReceivedDataWriter writer = Mockito.mock(ReceivedDataWriter.class);
+        doAnswer(invocation -> {
+            final InputStream inputStream = invocation.getArgument(4);
+            received.put(invocation.getArgument(1), new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            return null;
+        }).when(writer).write(anyString(), anyString(), anyString(), any(), any(), any());
+        final ReceiveSpool receiveSpool2 = createSpool(writer, StroomDuration.ofHours(1));
+        receiveSpool2.start();
+        try {
+            waitFor(() -> received.size() == 1);
+            assertThat(received)
+                    .containsEntry("FEED_1", "data 1");
+            waitFor(() -> listSpoolFiles().isEmpty());
+
+            // New entries must not reuse the recovered sequence numbers.
+            spool(receiveSpool2, "FEED_2", "data 2");
+            waitFor(() -> received.size() == 2);
+        } finally {
+            receiveSpool2.stop();
+        }
+    }
+
+    @Test
+    void testRejectedDataMovedToFailed() throws Exception {
+        final ReceivedDataWriter writer = Mockito.mock(ReceivedDataWriter.class);
+        doThrow(new StroomStreamException(StroomStatusCode.UNEXPECTED_DATA_TYPE, new AttributeMap()))
+                .when(writer).write(anyString(), anyString(), anyString(), any(), any(), any());
+
+        final ReceiveSpool receiveSpool = createSpool(writer, StroomDuration.ofMinutes(1));
+        receiveSpool.start();
+        try {
+            spool(receiveSpool, "FEED_1", "data 1");
+
+            final Path failedDir = tempDir.resolve(ReceiveSpoolConfig.DEFAULT_SPOOL_DIR)
+                    .resolve(ReceiveSpool.FAILED_DIR);
+            waitFor(() -> listFiles(failedDir).size() == 1);
+            assertThat(listSpoolFiles())
+                    .isEmpty();
+        } finally {
+            receiveSpool.stop();
+        }
+        Mockito.verify(writer, Mockito.times(1))
+                .write(anyString(), anyString(), anyString(), any(), any(), any());
+    }
+
+    private ReceiveSpool createSpool(final ReceivedDataWriter writer, final StroomDuration retryDelay) {
+        final ReceiveSpoolConfig config = new ReceiveSpoolConfig(
+                true,
+                ReceiveSpoolConfig.DEFAULT_SPOOL_DIR,
+                ByteSize.ofMebibytes(10),
+                2,
+                true,
+                retryDelay,
+                3);
+        final PathCreator pathCreator = new SimplePathCreator(() -> tempDir, () -> tempDir);
+        final ExecutorProvider executorProvider = Mockito.mock(ExecutorProvider.class);
+        Mockito.when(executorProvider.get(any(ThreadPool.class))).thenReturn(command -> {
+            final Thread thread = new Thread(command);
+            thread.setDaemon(true);
+            thread.start();
+        });
+        return new ReceiveSpool(
+                () -> config,
+                pathCreator,
+                writer,
+                new MockSecurityContext(),
+                executorProvider,
+                new SimpleTaskContextFactory(),
+                new MockMetrics());
+    }
+
+    private void spool(final ReceiveSpool receiveSpool,
+                       final String feedName,
+                       final String data) throws IOException {
+        final AttributeMap attributeMap = new AttributeMap();
+        attributeMap.put(StandardHeaderArguments.FEED, feedName);
+        attributeMap.put(StandardHeaderArguments.TYPE, "Raw Events");
+        attributeMap.put("foo", "bar");
+        receiveSpool.spool(
+                attributeMap,
+                RECEIVED_TIME,
+                new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private List<Path> listSpoolFiles() {
+        return listFiles(tempDir.resolve(ReceiveSpoolConfig.DEFAULT_SPOOL_DIR)).stream()
+                .filter(path -> path.getFileName().toString().endsWith(ReceiveSpool.ENTRY_EXTENSION))
+                .toList();
+    }
+
+    private static List<Path> listFiles(final Path dir) {
+        try (final Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(Files::isRegularFile).toList();
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void waitFor(final BooleanSupplier condition) throws InterruptedException {
+        final long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis())
+                    .as("Timed out waiting for condition")
+                    .isLessThan(end);
+            Thread.sleep(10);
+        }
+    }
+}
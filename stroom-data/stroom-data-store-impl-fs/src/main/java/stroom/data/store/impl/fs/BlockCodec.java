@@ -0,0 +1,167 @@
+package stroom.data.store.impl.fs;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipParameters;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * How the blocks in a block compressed file are compressed. The codec is identified by the
+ * version marker at the start of the file so files using different codecs can be read side by side.
+ * <p>
+ * A compression level of {@link #DEFAULT_COMPRESSION_LEVEL} means the default for the codec.
+ *
+ * @see BlockGZIPConstants
+ */
+enum BlockCodec {
+
+    /**
+     * The original format. Each block is a GZIP stream.
+     */
+    GZIP(BlockGZIPConstants.BLOCK_GZIP_V1_IDENTIFIER, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION) {
+        @Override
+        void compress(final byte[] src,
+                      final int srcLen,
+                      final int compressionLevel,
+                      final BlockByteArrayOutputStream out) throws IOException {
+            final GzipParameters gzipParameters = new GzipParameters();
+            gzipParameters.setCompressionLevel(compressionLevel);
+            try (final GzipCompressorOutputStream gzipOutputStream =
+                    new GzipCompressorOutputStream(out, gzipParameters)) {
+                gzipOutputStream.write(src, 0, srcLen);
+            }
+        }
+
+        @Override
+        int decompress(final byte[] src, final int srcLen, final byte[] dest) throws IOException {
+            try (final InputStream inputStream =
+                    new GzipCompressorInputStream(new ByteArrayInputStream(src, 0, srcLen))) {
+                return inputStream.readNBytes(dest, 0, dest.length);
+            }
+        }
+    },
+
+    /**
+     * Each block is a Zstandard frame. Decompresses several times faster than GZIP for a similar
+     * compressed size.
+     */
+    ZSTD(BlockGZIPConstants.BLOCK_ZSTD_V1_IDENTIFIER, 1, 22) {
+        @Override
+        void compress(final byte[] src,
+                      final int srcLen,
+                      final int compressionLevel,
+                      final BlockByteArrayOutputStream out) throws IOException {
+            final int level = compressionLevel == DEFAULT_COMPRESSION_LEVEL
+                    ? ZSTD_DEFAULT_COMPRESSION_LEVEL
+                    : compressionLevel;
+            final byte[] dest = new byte[(int) Zstd.compressBound(srcLen)];
+            final long len = Zstd.compressByteArray(dest, 0, dest.length, src, 0, srcLen, level);
+            if (Zstd.isError(len)) {
+                throw new IOException("Error compressing block: " + Zstd.getErrorName(len));
+            }
+            out.write(dest, 0, (int) len);
+        }
+
+        @Override
+        int decompress(final byte[] src, final int srcLen, final byte[] dest) throws IOException {
+            final long len = Zstd.decompressByteArray(dest, 0, dest.length, src, 0, srcLen);
+            if (Zstd.isError(len)) {
+                throw new IOException("Error decompressing block: " + Zstd.getErrorName(len));
+            }
+            return (int) len;
+        }
+    },
+
+    /**
+     * Each block is a raw LZ4 block. The fastest to write and read but gives larger files. The default
+     * level uses the fast compressor, levels 1-17 use the slower high compression compressor.
+     */
+    LZ4(BlockGZIPConstants.BLOCK_LZ4_V1_IDENTIFIER, 1, 17) {
+        @Override
+        void compress(final byte[] src,
+                      final int srcLen,
+                      final int compressionLevel,
+                      final BlockByteArrayOutputStream out) {
+            final LZ4Compressor compressor = compressionLevel == DEFAULT_COMPRESSION_LEVEL
+                    ? LZ4Factory.fastestInstance().fastCompressor()
+                    : LZ4Factory.fastestInstance().highCompressor(compressionLevel);
+            final byte[] dest = new byte[compressor.maxCompressedLength(srcLen)];
+            final int len = compressor.compress(src, 0, srcLen, dest, 0, dest.length);
+            out.write(dest, 0, len);
+        }
+
+        @Override
+        int decompress(final byte[] src, final int srcLen, final byte[] dest) throws IOException {
+            try {
+                return LZ4Factory.fastestInstance()
+                        .safeDecompressor()
+                        .decompress(src, 0, srcLen, dest, 0, dest.length);
+            } catch (final LZ4Exception e) {
+                throw new IOException("Error decompressing block: " + e.getMessage(), e);
+            }
+        }
+    };
+
+    static final int DEFAULT_COMPRESSION_LEVEL = -1;
+    // The level zstd itself uses by default
+    private static final int ZSTD_DEFAULT_COMPRESSION_LEVEL = 3;
+
+    private final byte[] identifier;
+    private final int minCompressionLevel;
+    private final int maxCompressionLevel;
+
+    BlockCodec(final byte[] identifier, final int minCompressionLevel, final int maxCompressionLevel) {
+        this.identifier = identifier;
+        this.minCompressionLevel = minCompressionLevel;
+        this.maxCompressionLevel = maxCompressionLevel;
+    }
+
+    /**
+     * @return The codec for a version marker or null if the marker is not one we know.
+     */
+    static BlockCodec fromIdentifier(final byte[] identifier) {
+        for (final BlockCodec codec : values()) {
+            if (Arrays.equals(codec.identifier, identifier)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+
+    byte[] getIdentifier() {
+        return identifier;
+    }
+
+    void validateCompressionLevel(final int compressionLevel) {
+        if (compressionLevel != DEFAULT_COMPRESSION_LEVEL
+            && (compressionLevel < minCompressionLevel || compressionLevel > maxCompressionLevel)) {
+            throw new IllegalArgumentException("Invalid compression level " + compressionLevel + " for " + this +
+                                               ", expecting " + DEFAULT_COMPRESSION_LEVEL + " or " +
+                                               minCompressionLevel + " to " + maxCompressionLevel);
+        }
+    }
+
+    /**
+     * Append the compressed form of the supplied data to out.
+     */
+    abstract void compress(byte[] src,
+                           int srcLen,
+                           int compressionLevel,
+                           BlockByteArrayOutputStream out) throws IOException;
+
+    /**
+     * Decompress a whole block into dest, which must be big enough to hold the block.
+     *
+     * @return The number of uncompressed bytes.
+     */
+    abstract int decompress(byte[] src, int srcLen, byte[] dest) throws IOException;
+}
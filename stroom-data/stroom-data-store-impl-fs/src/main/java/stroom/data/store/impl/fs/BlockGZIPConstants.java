@@ -25,6 +25,10 @@ import stroom.util.io.StreamUtil;
  * Data Length] [Index Position] [EOF Position] [Magic Marker] [Block Size]
  * [Block Data] [Magic Marker] [Block Size] [Block Data] ... [Magic Marker] <-
  * (Index Position) [Un-Compressed Index Data] [EOF] <- (EOF)
+ * <p>
+ * The version marker identifies how the block data is compressed, see {@link BlockCodec}. 'BGZ1'
+ * blocks are GZIP, 'BZS1' blocks are Zstandard frames and 'BLZ1' blocks are raw LZ4 blocks. The
+ * layout is the same for all of them.
  */
 final class BlockGZIPConstants {
 
@@ -52,6 +56,14 @@ final class BlockGZIPConstants {
      * Written at the start to identify .
      */
     static final byte[] BLOCK_GZIP_V1_IDENTIFIER = "BGZ1".getBytes(StreamUtil.DEFAULT_CHARSET);
+    /**
+     * Written at the start to identify a block file with Zstandard compressed blocks.
+     */
+    static final byte[] BLOCK_ZSTD_V1_IDENTIFIER = "BZS1".getBytes(StreamUtil.DEFAULT_CHARSET);
+    /**
+     * Written at the start to identify a block file with LZ4 compressed blocks.
+     */
+    static final byte[] BLOCK_LZ4_V1_IDENTIFIER = "BLZ1".getBytes(StreamUtil.DEFAULT_CHARSET);
     private static final byte MAGIC_HIGH = 127;
     private static final byte MAGIC_LOW = -128;
     /**
@@ -19,9 +19,7 @@ package stroom.data.store.impl.fs;
 import stroom.util.io.FileUtil;
 
 import jakarta.validation.constraints.NotNull;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
@@ -46,6 +44,7 @@ class BlockGZIPFileVerifier {
     private final LongBuffer longBuffer = ByteBuffer.wrap(longRawBuffer).asLongBuffer();
     private final byte[] magicMarkerRawBufffer = new byte[BlockGZIPConstants.MAGIC_MARKER.length];
     private final byte[] headerMarkerRawBuffer = new byte[BlockGZIPConstants.BLOCK_GZIP_V1_IDENTIFIER.length];
+    private BlockCodec codec;
 
     /**
      * Constructor to open a Block GZIP File.
@@ -82,6 +81,7 @@ class BlockGZIPFileVerifier {
 
         System.out.println("Header Info");
         System.out.println("===========");
+        System.out.println("codec=" + codec);
         System.out.println("blockSize=" + blockSize);
         System.out.println("dataLength=" + dataLength);
         System.out.println("idxStart=" + idxStart);
@@ -120,10 +120,11 @@ class BlockGZIPFileVerifier {
             System.out.println("Block " + i + " Index " + realPos + " is OK");
         }
 
-        System.out.println("GZIP Content");
+        System.out.println("Block Content");
         System.out.println("=============");
 
         final BlockByteArrayOutputStream buffer = new BlockByteArrayOutputStream();
+        final byte[] blockBuffer = new byte[blockSize];
 
         for (int i = 0; i <= numberOfBlocks; i++) {
             readMagicMarker(blockStarts.get(i));
@@ -133,16 +134,9 @@ class BlockGZIPFileVerifier {
 
             fillBuffer(stream, buffer, gzipSize);
 
-            System.out.println("Checking Block " + i + " GZIP Format");
+            System.out.println("Checking Block " + i + " " + codec + " Format");
 
-            final ByteArrayInputStream is = new ByteArrayInputStream(buffer.getRawBuffer(), 0, buffer.size());
-            try (final GzipCompressorInputStream gzip = new GzipCompressorInputStream(is)) {
-                int byteRead;
-                while ((byteRead = gzip.read()) != -1) {
-                    // Do something to get around check style
-                    byteRead += byteRead;
-                }
-            }
+            codec.decompress(buffer.getRawBuffer(), buffer.size(), blockBuffer);
         }
     }
 
@@ -219,7 +213,8 @@ class BlockGZIPFileVerifier {
 
     private void readHeaderMarker() throws IOException {
         fillBuffer(stream, headerMarkerRawBuffer, 0, headerMarkerRawBuffer.length);
-        if (!checkEqualBuffer(BlockGZIPConstants.BLOCK_GZIP_V1_IDENTIFIER, headerMarkerRawBuffer)) {
+        codec = BlockCodec.fromIdentifier(headerMarkerRawBuffer);
+        if (codec == null) {
             throw new IOException("Does not look like a Block GZIP V1 Stream \"" +
                     FileUtil.getCanonicalPath(path) +
                     "\"");
@@ -22,20 +22,24 @@ import jakarta.validation.constraints.NotNull;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.LongBuffer;
 
 /**
+ * Reads a block compressed file. The {@link BlockCodec} is determined from the version marker so
+ * this can read files written with any codec.
+ *
  * @see BlockGZIPConstants
  */
 abstract class BlockGZIPInput extends InputStream implements SeekableInputStream {
 
     /**
-     * Pointer to the current GZIPstream
+     * Pointer to the current GZIPstream, or the decompressed block for other codecs
      */
-    GzipCompressorInputStream currentStream;
+    InputStream currentStream;
     /**
      * We read data into a buffer (rather than hit the RA file)
      */
@@ -47,15 +51,12 @@ abstract class BlockGZIPInput extends InputStream implements SeekableInputStream
     /**
      * Header info
      */
+    private BlockCodec codec;
     int blockSize;
     private int blockCount = 0;
     long idxStart;
     long dataLength;
     protected long eof;
-    /**
-     * When using seek etc we check the index.
-     */
-    boolean checkedIndex = false;
     /**
      * Used a a buffer to read longs into
      */
@@ -69,6 +70,11 @@ abstract class BlockGZIPInput extends InputStream implements SeekableInputStream
      * Used for debug purposes
      */
     private long currentBlockRawGzipSize = 0;
+    /**
+     * Buffers used to decompress whole blocks for codecs other than GZIP
+     */
+    private byte[] compressedBlockBuffer;
+    private byte[] blockBuffer;
 
     /**
      * Constructor to open a Block GZIP File.
@@ -195,7 +201,8 @@ abstract class BlockGZIPInput extends InputStream implements SeekableInputStream
      */
     private void readHeaderMarker() throws IOException {
         fillFromRawStreamBuffer(headerMarkerRawBuffer);
-        if (!checkEqualBuffer(BlockGZIPConstants.BLOCK_GZIP_V1_IDENTIFIER, headerMarkerRawBuffer)) {
+        codec = BlockCodec.fromIdentifier(headerMarkerRawBuffer);
+        if (codec == null) {
             invalid("Does not look like a Block GZIP V1 Stream");
         }
     }
@@ -239,7 +246,28 @@ abstract class BlockGZIPInput extends InputStream implements SeekableInputStream
         blockCount++;
         readMagicMarker();
         currentBlockRawGzipSize = readLong();
-        currentStream = new GzipCompressorInputStream(new GzipInputStreamAdaptor());
+        if (BlockCodec.GZIP.equals(codec)) {
+            currentStream = new GzipCompressorInputStream(new GzipInputStreamAdaptor());
+        } else {
+            currentStream = decompressBlock();
+        }
+    }
+
+    /**
+     * Codecs other than GZIP don't stream so decompress the whole block into a buffer.
+     */
+    private InputStream decompressBlock() throws IOException {
+        final int compressedSize = getCurrentBlockRawGzipSize();
+        if (compressedBlockBuffer == null || compressedBlockBuffer.length < compressedSize) {
+            compressedBlockBuffer = new byte[compressedSize];
+        }
+        fillBuffer(currentRawStreamBuffer, compressedBlockBuffer, 0, compressedSize);
+
+        if (blockBuffer == null) {
+            blockBuffer = new byte[blockSize];
+        }
+        final int uncompressedSize = codec.decompress(compressedBlockBuffer, compressedSize, blockBuffer);
+        return new ByteArrayInputStream(blockBuffer, 0, uncompressedSize);
     }
 
     /**
@@ -255,7 +283,7 @@ abstract class BlockGZIPInput extends InputStream implements SeekableInputStream
         closeCurrentStream();
     }
 
-    private void closeCurrentStream() throws IOException {
+    void closeCurrentStream() throws IOException {
         if (currentStream != null) {
             currentStream.close();
             currentStream = null;
@@ -383,6 +411,10 @@ abstract class BlockGZIPInput extends InputStream implements SeekableInputStream
         return blockCount;
     }
 
+    BlockCodec getCodec() {
+        return codec;
+    }
+
     /**
      * Adaptor to create a stream over the raw buffer and ensures that we don't
      * read more than we are allowed to (for the gzip stream)
@@ -18,8 +18,10 @@ package stroom.data.store.impl.fs;
 
 import stroom.util.io.FileUtil;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
@@ -27,6 +29,11 @@ import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 
 /**
+ * Random access reads of a block compressed file. The block index is memory mapped the first time
+ * we seek so moving between blocks does not need to read the index from the file. If a
+ * {@link DecompressedBlockCache} is supplied, blocks loaded by a seek are shared with other readers
+ * of the same file.
+ *
  * @see BlockGZIPConstants
  */
 class BlockGZIPInputFile extends BlockGZIPInput {
@@ -37,10 +44,28 @@ class BlockGZIPInputFile extends BlockGZIPInput {
     // File pointer
     private final Path file;
 
+    // Blocks loaded by seeking, may be null
+    private final DecompressedBlockCache blockCache;
+
+    // Mapped the first time we need it
+    private ByteBuffer blockIndex;
+
+    // Where the raw stream must be moved to before the next block is started or -1 if it is
+    // already there.
+    private long nextBlockStart = -1;
+
     /**
      * Constructor to open a Block GZIP File.
      */
     BlockGZIPInputFile(final Path bgz) throws IOException {
+        this(bgz, null);
+    }
+
+    /**
+     * Constructor to open a Block GZIP File that shares blocks loaded by seeking with other readers.
+     */
+    BlockGZIPInputFile(final Path bgz, final DecompressedBlockCache blockCache) throws IOException {
+        this.blockCache = blockCache;
         this.raFile = FileChannel.open(bgz, StandardOpenOption.READ);
         try {
             this.file = bgz;
@@ -58,6 +83,7 @@ class BlockGZIPInputFile extends BlockGZIPInput {
      */
     BlockGZIPInputFile(final Path bgz, final int rawBufferSize) throws IOException {
         super(rawBufferSize);
+        this.blockCache = null;
         this.raFile = FileChannel.open(bgz, StandardOpenOption.READ);
         try {
             this.file = bgz;
@@ -89,22 +115,6 @@ class BlockGZIPInputFile extends BlockGZIPInput {
      */
     @Override
     public long skip(final long n) throws IOException {
-        // The first seek we do we check the index
-        if (!checkedIndex) {
-            // Record the current position in case we don't switch blocks
-            final long originalPos = raFile.position();
-            final BlockBufferedInputStream originalRawBuffer = currentRawStreamBuffer;
-            raFile.position(idxStart);
-            // Must create a new buffer as we switch back the old one
-            currentRawStreamBuffer = createBufferedInputStream(false);
-            readMagicMarker();
-            checkedIndex = true;
-            // Move Back
-            raFile.position(originalPos);
-            // Switch back the old one
-            currentRawStreamBuffer = originalRawBuffer;
-        }
-
         final long currentBlockNumber = position / blockSize;
 
         // Find the new offset in the file.
@@ -123,16 +133,14 @@ class BlockGZIPInputFile extends BlockGZIPInput {
 
         // Moving block?
         if ((currentBlockNumber != newBlockNumber)) {
-            // Read our index
-            raFile.position(idxStart
-                    + BlockGZIPConstants.LONG_BYTES
-                    + (newBlockNumber * BlockGZIPConstants.LONG_BYTES));
-            currentRawStreamBuffer = createBufferedInputStream(true);
-            final long seekPos = readLong();
-            raFile.position(seekPos);
-            currentRawStreamBuffer = createBufferedInputStream(true);
-            startGzipBlock();
-            currentStream.skip(newBlockOffset);
+            if (position == dataLength && newBlockOffset == 0) {
+                // At the end of the last block so there is no block to move to
+                closeCurrentStream();
+                nextBlockStart = -1;
+            } else {
+                startBlock(newBlockNumber);
+                currentStream.skip(newBlockOffset);
+            }
         } else {
             // Start a BGZIP block
             if (currentStream == null) {
@@ -204,19 +212,94 @@ class BlockGZIPInputFile extends BlockGZIPInput {
             final long blockNumber = newPosition / blockSize;
             final long blockOffset = newPosition % blockSize;
 
-            // Read our index
-            raFile.position(idxStart + BlockGZIPConstants.LONG_BYTES + (blockNumber * BlockGZIPConstants.LONG_BYTES));
-            currentRawStreamBuffer = createBufferedInputStream(true);
-            final long seekPos = readLong();
-            raFile.position(seekPos);
-            currentRawStreamBuffer = createBufferedInputStream(true);
-            startGzipBlock();
+            startBlock(blockNumber);
             currentStream.skip(blockOffset);
 
             position = newPosition;
         }
     }
 
+    /**
+     * Start reading a block we have sought to.
+     */
+    private void startBlock(final long blockNumber) throws IOException {
+        closeCurrentStream();
+        if (blockCache == null) {
+            nextBlockStart = getBlockStart(blockNumber);
+            startGzipBlock();
+        } else {
+            currentStream = new ByteArrayInputStream(
+                    blockCache.get(file, eof, blockNumber, () -> readBlock(blockNumber)));
+            // Carry on from the next block if we read past the end of this one
+            nextBlockStart = blockNumber + 1 < getIndexSize()
+                    ? getBlockStart(blockNumber + 1)
+                    : -1;
+        }
+    }
+
+    @Override
+    void startGzipBlock() throws IOException {
+        if (nextBlockStart != -1) {
+            raFile.position(nextBlockStart);
+            currentRawStreamBuffer = createBufferedInputStream(true);
+            nextBlockStart = -1;
+        }
+        super.startGzipBlock();
+    }
+
+    /**
+     * Read and decompress a whole block. Uses positional reads so the raw stream is not moved.
+     */
+    private byte[] readBlock(final long blockNumber) throws IOException {
+        final long blockStart = getBlockStart(blockNumber);
+        final ByteBuffer header = ByteBuffer.allocate(
+                BlockGZIPConstants.MAGIC_MARKER.length + BlockGZIPConstants.LONG_BYTES);
+        readFully(header, blockStart);
+        if (!header.slice(0, BlockGZIPConstants.MAGIC_MARKER.length)
+                .equals(ByteBuffer.wrap(BlockGZIPConstants.MAGIC_MARKER))) {
+            invalid("Failed to find block sync point " + blockNumber);
+        }
+        final byte[] compressed = new byte[(int) header.getLong(BlockGZIPConstants.MAGIC_MARKER.length)];
+        readFully(ByteBuffer.wrap(compressed), blockStart + header.capacity());
+
+        final byte[] block = new byte[(int) Math.min(blockSize, dataLength - (blockNumber * blockSize))];
+        final int len = getCodec().decompress(compressed, compressed.length, block);
+        if (len != block.length) {
+            invalid("Block " + blockNumber + " is too short");
+        }
+        return block;
+    }
+
+    private void readFully(final ByteBuffer buffer, final long pos) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (raFile.read(buffer, pos + buffer.position()) == -1) {
+                throw new IOException("Unable to fill buffer");
+            }
+        }
+    }
+
+    private long getBlockStart(final long blockNumber) throws IOException {
+        return getBlockIndex().getLong(
+                BlockGZIPConstants.MAGIC_MARKER.length + (int) (blockNumber * BlockGZIPConstants.LONG_BYTES));
+    }
+
+    private long getIndexSize() throws IOException {
+        return (getBlockIndex().capacity() - BlockGZIPConstants.MAGIC_MARKER.length) / BlockGZIPConstants.LONG_BYTES;
+    }
+
+    private ByteBuffer getBlockIndex() throws IOException {
+        if (blockIndex == null) {
+            final ByteBuffer mapped = raFile.map(FileChannel.MapMode.READ_ONLY, idxStart, eof - idxStart);
+            if (mapped.capacity() < BlockGZIPConstants.MAGIC_MARKER.length
+                || !mapped.slice(0, BlockGZIPConstants.MAGIC_MARKER.length)
+                    .equals(ByteBuffer.wrap(BlockGZIPConstants.MAGIC_MARKER))) {
+                invalid("Failed to find index sync point");
+            }
+            blockIndex = mapped;
+        }
+        return blockIndex;
+    }
+
     /**
      * Where we are at in the stream.
      */
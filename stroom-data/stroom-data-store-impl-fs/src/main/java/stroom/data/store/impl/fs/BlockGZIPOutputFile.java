@@ -22,22 +22,39 @@ import stroom.util.io.SeekableOutputStream;
 import stroom.util.io.StreamCloser;
 
 import jakarta.validation.constraints.NotNull;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
+ * Writes a block compressed file using GZIP or another {@link BlockCodec}.
+ * <p>
+ * Each block is buffered uncompressed until it is full. If an {@link Executor} is supplied the
+ * full block is compressed on it while the next block is filled, otherwise it is compressed on
+ * the writing thread. Either way blocks are written to the file in order so the file is the same.
+ *
  * @see BlockGZIPConstants
  */
 class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
 
+    // How many full blocks we will hold in memory waiting to be compressed and written
+    // before we wait for the oldest one.
+    private static final int MAX_PENDING_BLOCKS = 4;
+    // Don't allocate a whole block up front as many streams are small.
+    private static final int INITIAL_BLOCK_BUFFER_SIZE = 8192;
+
     // We have in built locking while open
     private final Path finalFile;
     private final Path lockFile;
@@ -45,25 +62,28 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
     // The file we write to
     private final FileChannel raFile;
 
-    // The main buffer used (typically holds 2 longs and the the GZIP output).
-    // We use 'big' buffer (that holds the whole block) as we go back and write
-    // the block size at the end of processing.
+    // The main buffer used for the header (typically holds 2 longs).
     private final BlockByteArrayOutputStream mainBuffer;
     // Our index buffer we append on at the end.
     private final BlockByteArrayOutputStream indexBuffer;
     // Use to help track non-closed streams
     private final StreamCloser streamCloser = new BasicStreamCloser();
-    // The stream - we hold a buffer onto it as well
-    private BufferedOutputStream currentStreamBuffer;
-    private GzipCompressorOutputStream currentStreamGzip;
+    // The uncompressed data for the current block
+    private BlockByteArrayOutputStream currentBlock;
+    // Compressed blocks (marker, block size and GZIP output) in the order they must be written
+    private final Deque<CompletableFuture<BlockByteArrayOutputStream>> pendingBlocks = new ArrayDeque<>();
     // The block size we are using
     private final int blockSize;
+    // How blocks are compressed
+    private final BlockCodec codec;
+    // The compression level for the codec
+    private final int compressionLevel;
+    // Where blocks are compressed, null to compress on this thread
+    private final Executor executor;
     // The current 'logical' uncompressed data item we have written
     private long position = 0;
     // The current block number we are on
     private long blockCount = 0;
-    // ((blockCount+1) * blockSize)
-    private long currentBlockEndPos = 0;
     private boolean closed;
 
     /**
@@ -77,7 +97,30 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
      * @see BlockGZIPConstants
      */
     BlockGZIPOutputFile(final Path file, final int blockSize) throws IOException {
+        this(file, blockSize, BlockCodec.GZIP, BlockCodec.DEFAULT_COMPRESSION_LEVEL, null);
+    }
+
+    /**
+     * @param codec            How to compress the blocks.
+     * @param compressionLevel The compression level for the codec or
+     *                         {@link BlockCodec#DEFAULT_COMPRESSION_LEVEL}.
+     * @param executor         Where to compress full blocks. If null blocks are compressed on
+     *                         the thread writing to this stream.
+     * @see BlockGZIPConstants
+     */
+    BlockGZIPOutputFile(final Path file,
+                        final int blockSize,
+                        final BlockCodec codec,
+                        final int compressionLevel,
+                        final Executor executor) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize);
+        }
+        codec.validateCompressionLevel(compressionLevel);
         this.blockSize = blockSize;
+        this.codec = codec;
+        this.compressionLevel = compressionLevel;
+        this.executor = executor;
         this.mainBuffer = new BlockByteArrayOutputStream();
         this.indexBuffer = new BlockByteArrayOutputStream();
 
@@ -97,7 +140,7 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
                 StandardOpenOption.WRITE);
         try {
             // Write a marker
-            mainBuffer.write(BlockGZIPConstants.BLOCK_GZIP_V1_IDENTIFIER);
+            mainBuffer.write(codec.getIdentifier());
             // At the start of the block file write the block size an empty place
             // for the index offset and the marker
             // we
@@ -142,58 +185,107 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
     }
 
     /**
-     * Start a new burst of GZIP Block Content (with a marker).
+     * Hand the full block off to be compressed and write any blocks that are ready.
      */
     private void endGzipBlock() throws IOException {
         blockCount++;
 
-        currentStreamBuffer.flush();
-        currentStreamGzip.flush();
-        currentStreamGzip.finish();
-
-        // Block Compressed size is size of stream less magic marker less block
-        // size header (2 longs)
-        final long rawBlockSize = mainBuffer.size() - BlockGZIPConstants.LONG_BYTES - BlockGZIPConstants.LONG_BYTES;
-        mainBuffer.overwriteLongAtOffset(BlockGZIPConstants.LONG_BYTES, rawBlockSize);
+        final BlockByteArrayOutputStream block = currentBlock;
+        currentBlock = null;
 
-        flushMainBuffer();
+        if (executor == null) {
+            writeBlock(compressBlock(block, codec, compressionLevel));
+        } else {
+            CompletableFuture<BlockByteArrayOutputStream> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return compressBlock(block, codec, compressionLevel);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, executor);
+            } catch (final RejectedExecutionException e) {
+                // Probably shutting down so just do it ourselves.
+                future = CompletableFuture.completedFuture(compressBlock(block, codec, compressionLevel));
+            }
+            pendingBlocks.add(future);
 
-        currentStreamBuffer = null;
-        currentStreamGzip = null;
+            // Write what we can without waiting, then wait if we are too far ahead.
+            while (!pendingBlocks.isEmpty()
+                   && (pendingBlocks.peekFirst().isDone() || pendingBlocks.size() > MAX_PENDING_BLOCKS)) {
+                writeBlock(awaitBlock(pendingBlocks.removeFirst()));
+            }
+        }
     }
 
-    private void startGzipBlock() throws IOException {
-        // At what point to we start a new block
-        currentBlockEndPos = (blockCount + 1) * blockSize;
+    private void writePendingBlocks() throws IOException {
+        while (!pendingBlocks.isEmpty()) {
+            writeBlock(awaitBlock(pendingBlocks.removeFirst()));
+        }
+    }
 
-        // Record the start Pos
-        final long currentRawBlockStartPos = raFile.position();
+    private BlockByteArrayOutputStream awaitBlock(final CompletableFuture<BlockByteArrayOutputStream> future)
+            throws IOException {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof final UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            } else if (e.getCause() instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Error compressing block for " + lockFile, e.getCause());
+        }
+    }
 
+    private void writeBlock(final BlockByteArrayOutputStream compressedBlock) throws IOException {
         // Record the index
-        indexBuffer.writeLong(currentRawBlockStartPos);
+        indexBuffer.writeLong(raFile.position());
+        raFile.write(ByteBuffer.wrap(compressedBlock.getRawBuffer(), 0, compressedBlock.size()));
+    }
+
+    /**
+     * @return The marker, the compressed size and the compressed data for the block.
+     */
+    private static BlockByteArrayOutputStream compressBlock(final BlockByteArrayOutputStream block,
+                                                            final BlockCodec codec,
+                                                            final int compressionLevel) throws IOException {
+        final BlockByteArrayOutputStream compressedBlock = new BlockByteArrayOutputStream(
+                Math.max(64, block.size() / 2));
 
         // Marker
-        mainBuffer.write(BlockGZIPConstants.MAGIC_MARKER);
+        compressedBlock.write(BlockGZIPConstants.MAGIC_MARKER);
 
         // Write some bytes for the long we will do later
-        mainBuffer.writeLong(0);
+        compressedBlock.writeLong(0);
+
+        codec.compress(block.getRawBuffer(), block.size(), compressionLevel, compressedBlock);
+
+        // Block Compressed size is size of stream less magic marker less block
+        // size header (2 longs)
+        final long rawBlockSize = compressedBlock.size()
+                                  - BlockGZIPConstants.LONG_BYTES
+                                  - BlockGZIPConstants.LONG_BYTES;
+        compressedBlock.overwriteLongAtOffset(BlockGZIPConstants.LONG_BYTES, rawBlockSize);
+        return compressedBlock;
+    }
 
-        // Connect a new GZIP stream
-        currentStreamGzip = new GzipCompressorOutputStream(mainBuffer);
-        currentStreamBuffer = new BufferedOutputStream(currentStreamGzip, FileSystemUtil.STREAM_BUFFER_SIZE);
+    private void startGzipBlock() {
+        currentBlock = new BlockByteArrayOutputStream(Math.min(blockSize, INITIAL_BLOCK_BUFFER_SIZE));
     }
 
     @Override
     public void write(final int b) throws IOException {
-        if (currentStreamBuffer == null) {
+        if (currentBlock == null) {
             startGzipBlock();
         }
         // Write a single byte
-        currentStreamBuffer.write(b);
+        currentBlock.write(b);
         position++;
 
         // Have we moved onto the next block?
-        if (position == currentBlockEndPos) {
+        if (currentBlock.size() == blockSize) {
             endGzipBlock();
         }
     }
@@ -206,31 +298,25 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
 
     @Override
     public void write(@NotNull final byte[] bytes, final int offset, final int length) throws IOException {
-        if (currentStreamBuffer == null) {
-            startGzipBlock();
-        }
-
-        // Find out how many bytes are left to write in the current block
-        final int bytesLeftInBlock = (int) (currentBlockEndPos - position);
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            if (currentBlock == null) {
+                startGzipBlock();
+            }
 
-        // These bytes will fit in this block
-        if (length <= bytesLeftInBlock) {
-            currentStreamBuffer.write(bytes, offset, length);
-            position += length;
+            // Find out how many bytes are left to write in the current block
+            final int bytesLeftInBlock = blockSize - currentBlock.size();
+            final int len = Math.min(remaining, bytesLeftInBlock);
+            currentBlock.write(bytes, off, len);
+            position += len;
+            off += len;
+            remaining -= len;
 
-            if (length == bytesLeftInBlock) {
+            if (len == bytesLeftInBlock) {
                 endGzipBlock();
             }
-
-        } else {
-            // We need to split this up - write the first half
-            currentStreamBuffer.write(bytes, offset, bytesLeftInBlock);
-            position += bytesLeftInBlock;
-            endGzipBlock();
-            // Now have ago again with the reminder
-            write(bytes, offset + bytesLeftInBlock, length - bytesLeftInBlock);
         }
-
     }
 
     @Override
@@ -239,10 +325,11 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
             if (!closed) {
                 closed = true;
 
-                if (currentStreamBuffer != null) {
+                if (currentBlock != null && currentBlock.size() > 0) {
                     // End the data stream
                     endGzipBlock();
                 }
+                writePendingBlocks();
 
                 // Record where we are going to start writing the index
                 final long idxStart = raFile.position();
@@ -288,12 +375,7 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
     @Override
     public void flush() throws IOException {
         // We ignore flush to the file as the stream store does not allow it for
-        // performance reasons.
-
-        // We only flush to our buffer (not all the way to the file)
-        if (currentStreamBuffer != null) {
-            currentStreamBuffer.flush();
-        }
+        // performance reasons. Data is held in our block buffer until the block is full.
     }
 
     @Override
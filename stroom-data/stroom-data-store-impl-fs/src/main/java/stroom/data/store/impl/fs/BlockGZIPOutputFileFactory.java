@@ -0,0 +1,76 @@
+package stroom.data.store.impl.fs;
+
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.api.ThreadPoolImpl.QueueFullPolicy;
+import stroom.task.shared.ThreadPool;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates {@link BlockGZIPOutputFile} instances using the block size, codec and compression level
+ * configured for the stream type. Blocks from all streams are compressed on a single shared
+ * pool. When the pool's threads and its short queue are all taken the writing thread compresses
+ * the block itself, so the pool adds compression threads to the writers rather than capping them.
+ */
+class BlockGZIPOutputFileFactory {
+
+    private static final String THREAD_POOL_NAME = "Block Compression";
+
+    private final Provider<FsVolumeConfig> fsVolumeConfigProvider;
+    private final ExecutorProvider executorProvider;
+
+    @Inject
+    BlockGZIPOutputFileFactory(final Provider<FsVolumeConfig> fsVolumeConfigProvider,
+                               final ExecutorProvider executorProvider) {
+        this.fsVolumeConfigProvider = fsVolumeConfigProvider;
+        this.executorProvider = executorProvider;
+    }
+
+    BlockGZIPOutputFile create(final String streamTypeName, final Path file) throws IOException {
+        final FsVolumeConfig fsVolumeConfig = fsVolumeConfigProvider.get();
+        final int blockSize = fsVolumeConfig.getMetaTypeBlockSize(streamTypeName)
+                .orElse(BlockGZIPConstants.DEFAULT_BLOCK_SIZE);
+        final BlockCodec codec = fsVolumeConfig.getMetaTypeCompressionCodec(streamTypeName)
+                .map(BlockGZIPOutputFileFactory::parseCodec)
+                .orElse(BlockCodec.GZIP);
+        final int compressionLevel = fsVolumeConfig.getMetaTypeCompressionLevel(streamTypeName)
+                .orElse(BlockCodec.DEFAULT_COMPRESSION_LEVEL);
+        return new BlockGZIPOutputFile(
+                file,
+                blockSize,
+                codec,
+                compressionLevel,
+                getExecutor(fsVolumeConfig.getBlockCompressionThreads()));
+    }
+
+    static BlockCodec parseCodec(final String codecName) {
+        try {
+            return BlockCodec.valueOf(codecName.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown block compression codec '" + codecName +
+                    "', expecting one of GZIP, ZSTD or LZ4");
+        }
+    }
+
+    private Executor getExecutor(final int threads) {
+        if (threads <= 0 || executorProvider == null) {
+            return null;
+        }
+        // The pool is keyed on its settings so a change to the thread count gives a new pool.
+        // Keep the queue short so a busy pool pushes the work back onto the writers rather than
+        // building up a backlog of uncompressed blocks in memory.
+        final ThreadPool threadPool = ThreadPoolImpl.builder(THREAD_POOL_NAME)
+                .maxThreads(threads)
+                .maxQueueSize(threads)
+                .queueFullPolicy(QueueFullPolicy.CALLER_RUNS)
+                .build();
+        return executorProvider.get(threadPool);
+    }
+}
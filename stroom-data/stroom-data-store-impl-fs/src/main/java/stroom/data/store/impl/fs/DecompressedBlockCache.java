@@ -0,0 +1,66 @@
+package stroom.data.store.impl.fs;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Holds recently decompressed blocks of block compressed ('bgz') files so that readers jumping
+ * around the same streams, e.g. the data viewer or search extraction, don't have to decompress
+ * the same blocks again. Only blocks loaded by a seek are cached so a reader scanning a whole
+ * stream doesn't push the hot blocks out.
+ */
+@Singleton
+class DecompressedBlockCache {
+
+    private static final String CACHE_NAME = "Decompressed Block Cache";
+
+    private final StroomCache<Key, byte[]> cache;
+
+    @Inject
+    DecompressedBlockCache(final CacheManager cacheManager,
+                           final Provider<FsVolumeConfig> fsVolumeConfigProvider) {
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> fsVolumeConfigProvider.get().getDecompressedBlockCache());
+    }
+
+    /**
+     * @param file        The block compressed file.
+     * @param fileSize    The size of the file, so a file that has been replaced is not confused
+     *                    with the old one.
+     * @param blockNumber The block within the file.
+     * @param loader      Decompresses the block if it is not in the cache.
+     */
+    byte[] get(final Path file,
+               final long fileSize,
+               final long blockNumber,
+               final SupplierWithIO<byte[]> loader) throws IOException {
+        try {
+            return cache.get(new Key(file, fileSize, blockNumber), k -> {
+                try {
+                    return loader.getWithIO();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Key(Path file, long fileSize, long blockNumber) {
+
+    }
+}
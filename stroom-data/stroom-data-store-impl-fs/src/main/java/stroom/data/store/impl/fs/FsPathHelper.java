@@ -71,14 +71,20 @@ class FsPathHelper {
     private final FsFeedPathDao fileSystemFeedPaths;
     private final FsTypePathDao fileSystemTypePaths;
     private final StreamTypeExtensions streamTypeExtensions;
+    private final BlockGZIPOutputFileFactory blockGZIPOutputFileFactory;
+    private final DecompressedBlockCache decompressedBlockCache;
 
     @Inject
     FsPathHelper(final FsFeedPathDao fileSystemFeedPaths,
                  final FsTypePathDao fileSystemTypePaths,
-                 final StreamTypeExtensions streamTypeExtensions) {
+                 final StreamTypeExtensions streamTypeExtensions,
+                 final BlockGZIPOutputFileFactory blockGZIPOutputFileFactory,
+                 final DecompressedBlockCache decompressedBlockCache) {
         this.fileSystemFeedPaths = fileSystemFeedPaths;
         this.fileSystemTypePaths = fileSystemTypePaths;
         this.streamTypeExtensions = streamTypeExtensions;
+        this.blockGZIPOutputFileFactory = blockGZIPOutputFileFactory;
+        this.decompressedBlockCache = decompressedBlockCache;
     }
 
     static boolean isStreamFile(final Path path) {
@@ -116,9 +122,13 @@ class FsPathHelper {
             throw new IllegalArgumentException("Must Have a non-null stream type");
         }
         if (FileStoreType.bgz.equals(getFileStoreType(streamTypeName))) {
-            return new BlockGZIPInputFile(file);
+            return new BlockGZIPInputFile(file, decompressedBlockCache);
         }
-        return new UncompressedInputStream(file, isStreamTypeLazy(streamTypeName));
+        if (isStreamTypeLazy(streamTypeName)) {
+            // The segment and boundary indexes are binary searched so map them.
+            return MappedInputStream.create(file);
+        }
+        return new UncompressedInputStream(file, false);
     }
 
     /**
@@ -149,7 +159,7 @@ class FsPathHelper {
         OutputStream outputStream = null;
         if (FileStoreType.bgz.equals(getFileStoreType(streamTypeName))) {
             try {
-                outputStream = new BlockGZIPOutputFile(file);
+                outputStream = blockGZIPOutputFileFactory.create(streamTypeName, file);
             } catch (final IOException e) {
                 ioEx = e;
             }
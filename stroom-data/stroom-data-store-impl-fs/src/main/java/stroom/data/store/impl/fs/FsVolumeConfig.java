@@ -13,6 +13,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 
 import java.util.List;
@@ -54,6 +55,14 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
     //    private final Map<String, String> metaTypeExtensionsReverseMap;
     private final StroomDuration maxVolumeStateAge;
     private final CacheConfig volumeCache;
+    private final CacheConfig decompressedBlockCache;
+    private final int blockCompressionThreads;
+    // stream type name => uncompressed block size in bytes
+    private final Map<String, Integer> metaTypeBlockSizes;
+    // stream type name => block codec, e.g. 'GZIP'
+    private final Map<String, String> metaTypeCompressionCodecs;
+    // stream type name => codec compression level
+    private final Map<String, Integer> metaTypeCompressionLevels;
 
     public FsVolumeConfig() {
         volumeSelector = "RoundRobin";
@@ -80,6 +89,15 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 .maximumSize(1000L)
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
                 .build();
+        // Blocks are 1MB by default so keep this small
+        decompressedBlockCache = CacheConfig.builder()
+                .maximumSize(50L)
+                .expireAfterAccess(StroomDuration.ofMinutes(10))
+                .build();
+        blockCompressionThreads = 4;
+        metaTypeBlockSizes = new TreeMap<>();
+        metaTypeCompressionCodecs = new TreeMap<>();
+        metaTypeCompressionLevels = new TreeMap<>();
     }
 
     @JsonCreator
@@ -95,7 +113,12 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
             @JsonProperty("metaTypeExtensions") final Map<String, String> metaTypeExtensions,
             @JsonProperty("findOrphanedMetaBatchSize") final int findOrphanedMetaBatchSize,
             @JsonProperty("maxVolumeStateAge") final StroomDuration maxVolumeStateAge,
-            @JsonProperty("volumeCache") final CacheConfig volumeCache) {
+            @JsonProperty("volumeCache") final CacheConfig volumeCache,
+            @JsonProperty("decompressedBlockCache") final CacheConfig decompressedBlockCache,
+            @JsonProperty("blockCompressionThreads") final int blockCompressionThreads,
+            @JsonProperty("metaTypeBlockSizes") final Map<String, Integer> metaTypeBlockSizes,
+            @JsonProperty("metaTypeCompressionCodecs") final Map<String, String> metaTypeCompressionCodecs,
+            @JsonProperty("metaTypeCompressionLevels") final Map<String, Integer> metaTypeCompressionLevels) {
 
         this.volumeSelector = volumeSelector;
         this.defaultStreamVolumePaths = defaultStreamVolumePaths;
@@ -108,6 +131,11 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
         this.findOrphanedMetaBatchSize = findOrphanedMetaBatchSize;
         this.maxVolumeStateAge = maxVolumeStateAge;
         this.volumeCache = volumeCache;
+        this.decompressedBlockCache = decompressedBlockCache;
+        this.blockCompressionThreads = blockCompressionThreads;
+        this.metaTypeBlockSizes = metaTypeBlockSizes;
+        this.metaTypeCompressionCodecs = metaTypeCompressionCodecs;
+        this.metaTypeCompressionLevels = metaTypeCompressionLevels;
     }
 
     @JsonPropertyDescription("How should volumes be selected for use? Possible volume selectors " +
@@ -178,7 +206,12 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 metaTypeExtensions,
                 findOrphanedMetaBatchSize,
                 maxVolumeStateAge,
-                volumeCache);
+                volumeCache,
+                decompressedBlockCache,
+                blockCompressionThreads,
+                metaTypeBlockSizes,
+                metaTypeCompressionCodecs,
+                metaTypeCompressionLevels);
     }
 
     public FsVolumeConfig withVolumeSelector(final String volumeSelector) {
@@ -193,7 +226,12 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 metaTypeExtensions,
                 findOrphanedMetaBatchSize,
                 maxVolumeStateAge,
-                volumeCache);
+                volumeCache,
+                decompressedBlockCache,
+                blockCompressionThreads,
+                metaTypeBlockSizes,
+                metaTypeCompressionCodecs,
+                metaTypeCompressionLevels);
     }
 
     @JsonPropertyDescription("Map of meta type names to their file extension. " +
@@ -228,6 +266,73 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
         return volumeCache;
     }
 
+    @JsonPropertyDescription("The cache of decompressed blocks from block compressed ('bgz') files that " +
+            "is shared by all readers on this node. Only blocks read after seeking within a stream, e.g. " +
+            "by the data viewer or search extraction, are cached. Each entry is one block so the size " +
+            "should be kept small.")
+    public CacheConfig getDecompressedBlockCache() {
+        return decompressedBlockCache;
+    }
+
+    @Min(0)
+    @JsonPropertyDescription("The number of threads shared by all stream writers to compress blocks of " +
+            "block compressed ('bgz') files with. Blocks are still written to the file in order. " +
+            "When all these threads are busy, the thread writing the stream compresses the block itself. " +
+            "A value of zero means blocks are always compressed on the thread writing the stream.")
+    public int getBlockCompressionThreads() {
+        return blockCompressionThreads;
+    }
+
+    @JsonPropertyDescription("Map of meta type names to the size in bytes of the uncompressed blocks in " +
+            "block compressed ('bgz') files. Larger blocks compress better but mean more data has to be " +
+            "decompressed to read a part of a stream. If a meta type does not have an entry in this map then " +
+            "blocks of 1000000 bytes will be used. Changes only apply to new streams.")
+    public Map<String, Integer> getMetaTypeBlockSizes() {
+        return metaTypeBlockSizes;
+    }
+
+    @JsonIgnore
+    public Optional<Integer> getMetaTypeBlockSize(final String metaTypeName) {
+        return getMetaTypeValue(metaTypeBlockSizes, metaTypeName);
+    }
+
+    @JsonPropertyDescription("Map of meta type names to the codec used to compress the blocks of block " +
+            "compressed ('bgz') files. Possible codecs are 'GZIP', 'ZSTD' and 'LZ4'. 'ZSTD' and 'LZ4' " +
+            "decompress much faster than 'GZIP'. If a meta type does not have an entry in this map then " +
+            "'GZIP' will be used. Changes only apply to new streams, existing streams can still be read.")
+    public Map<String, String> getMetaTypeCompressionCodecs() {
+        return metaTypeCompressionCodecs;
+    }
+
+    @JsonIgnore
+    public Optional<String> getMetaTypeCompressionCodec(final String metaTypeName) {
+        return getMetaTypeValue(metaTypeCompressionCodecs, metaTypeName);
+    }
+
+    @JsonPropertyDescription("Map of meta type names to the compression level used for block compressed " +
+            "('bgz') files. Valid levels depend on the codec, 1 to 9 for 'GZIP', 1 to 22 for 'ZSTD' and " +
+            "1 to 17 for 'LZ4', or -1 for the default level of the codec. Higher levels give smaller files " +
+            "but take longer to write. If a meta type does not have an entry in this map then the default " +
+            "level will be used. Changes only apply to new streams.")
+    public Map<String, Integer> getMetaTypeCompressionLevels() {
+        return metaTypeCompressionLevels;
+    }
+
+    @JsonIgnore
+    public Optional<Integer> getMetaTypeCompressionLevel(final String metaTypeName) {
+        return getMetaTypeValue(metaTypeCompressionLevels, metaTypeName);
+    }
+
+    private static <T> Optional<T> getMetaTypeValue(final Map<String, T> map, final String metaTypeName) {
+        if (map == null
+                || metaTypeName == null
+                || metaTypeName.isBlank()) {
+            return Optional.empty();
+        } else {
+            return Optional.ofNullable(map.get(metaTypeName));
+        }
+    }
+
     @Override
     public String toString() {
         return "FsVolumeConfig{" +
@@ -242,6 +347,11 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 ", metaTypeExtensions=" + metaTypeExtensions +
                 ", maxVolumeStateAge=" + maxVolumeStateAge +
                 ", volumeCache=" + volumeCache +
+                ", decompressedBlockCache=" + decompressedBlockCache +
+                ", blockCompressionThreads=" + blockCompressionThreads +
+                ", metaTypeBlockSizes=" + metaTypeBlockSizes +
+                ", metaTypeCompressionCodecs=" + metaTypeCompressionCodecs +
+                ", metaTypeCompressionLevels=" + metaTypeCompressionLevels +
                 '}';
     }
 }
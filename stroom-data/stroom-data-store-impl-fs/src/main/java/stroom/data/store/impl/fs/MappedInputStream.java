@@ -0,0 +1,119 @@
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.SeekableInputStream;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A stream over a memory mapped file. Used for the segment and boundary indexes which are small
+ * but are binary searched so seek a lot. A seek is just a change of position rather than a reposition
+ * of the file and a refill of a buffer.
+ * <p>
+ * A missing file is treated as a blank stream.
+ */
+class MappedInputStream extends InputStream implements SeekableInputStream {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final ByteBuffer buffer;
+    private long lastMarkPosition;
+
+    private MappedInputStream(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return A mapped stream or an {@link UncompressedInputStream} if the file is too big to map in one go.
+     */
+    static InputStream create(final Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return new MappedInputStream(EMPTY);
+        }
+        try (final FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = fileChannel.size();
+            if (size > Integer.MAX_VALUE) {
+                return new UncompressedInputStream(file, true);
+            }
+            // The mapping stays valid after the channel is closed
+            return new MappedInputStream(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    @Override
+    public int read() {
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(@NotNull final byte[] b, final int off, final int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        final int read = Math.min(len, buffer.remaining());
+        buffer.get(b, off, read);
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public long getPosition() {
+        return buffer.position();
+    }
+
+    @Override
+    public long getSize() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public void seek(final long pos) throws IOException {
+        if (pos < 0) {
+            throw new IOException("Seek past beginning of file");
+        }
+        buffer.position((int) Math.min(pos, buffer.capacity()));
+    }
+
+    @Override
+    public void mark(final int readlimit) {
+        lastMarkPosition = buffer.position();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        seek(lastMarkPosition);
+    }
+
+    /**
+     * @param n bytes to skip
+     * @return how many we skipped
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        final long position = buffer.position();
+        seek(position + n);
+        return buffer.position() - position;
+    }
+}
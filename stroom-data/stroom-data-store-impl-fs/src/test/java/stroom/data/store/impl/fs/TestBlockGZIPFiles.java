@@ -16,8 +16,11 @@
 
 package stroom.data.store.impl.fs;
 
+import stroom.cache.impl.CacheManagerImpl;
 import stroom.util.io.FileUtil;
 import stroom.util.io.StreamUtil;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -29,11 +32,29 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class TestBlockGZIPFiles {
 
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(TestBlockGZIPFiles.class);
+
     @TempDir
     Path tempDir;
 
@@ -123,6 +144,167 @@ class TestBlockGZIPFiles {
 
     }
 
+    @Test
+    void testParallelCompression() throws IOException {
+        final Random random = new Random(1);
+        final byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) {
+            // Compressible but not trivially so
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+
+        final Path sequentialFile = tempDir.resolve("sequential.bgz");
+        final Path parallelFile = tempDir.resolve("parallel.bgz");
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            for (final int level : new int[]{Deflater.DEFAULT_COMPRESSION, Deflater.BEST_SPEED}) {
+                try (final OutputStream outputStream = new BlockGZIPOutputFile(
+                        sequentialFile, 1000, BlockCodec.GZIP, level, null)) {
+                    writeInChunks(outputStream, data, random);
+                }
+                final BlockGZIPOutputFile parallelOutputStream = new BlockGZIPOutputFile(
+                        parallelFile, 1000, BlockCodec.GZIP, level, executorService);
+                try (parallelOutputStream) {
+                    writeInChunks(parallelOutputStream, data, random);
+                }
+
+                assertThat(parallelOutputStream.getBlockCount())
+                        .isEqualTo(100);
+                // Same blocks, index and header whichever thread compressed the blocks
+                assertThat(Files.readAllBytes(parallelFile))
+                        .isEqualTo(Files.readAllBytes(sequentialFile));
+
+                try (final InputStream inputStream = new BlockGZIPInputFile(parallelFile)) {
+                    assertThat(inputStream.readAllBytes())
+                            .isEqualTo(data);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testMultipleWritersWithBusyPool() throws Exception {
+        final Random random = new Random(1);
+        final byte[] data = new byte[200_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        final int writerCount = 4;
+
+        // One compression thread and a short queue, as the shared pool is set up, so most blocks
+        // should be compressed by the writers themselves.
+        final Set<String> compressingThreads = ConcurrentHashMap.newKeySet();
+        final ThreadPoolExecutor compressionPool = new ThreadPoolExecutor(
+                1,
+                1,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        final Executor executor = command -> compressionPool.execute(() -> {
+            compressingThreads.add(Thread.currentThread().getName());
+            command.run();
+        });
+        final ExecutorService writers = Executors.newFixedThreadPool(writerCount);
+        try {
+            final long startNanos = System.nanoTime();
+            final List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < writerCount; i++) {
+                final Path file = tempDir.resolve("writer" + i + ".bgz");
+                futures.add(writers.submit(() -> {
+                    try (final OutputStream outputStream = new BlockGZIPOutputFile(
+                            file, 1000, BlockCodec.GZIP, BlockCodec.DEFAULT_COMPRESSION_LEVEL, executor)) {
+                        writeInChunks(outputStream, data, new Random(2));
+                    }
+                    return file;
+                }));
+            }
+            for (final Future<Path> future : futures) {
+                try (final InputStream inputStream = new BlockGZIPInputFile(future.get())) {
+                    assertThat(inputStream.readAllBytes())
+                            .isEqualTo(data);
+                }
+            }
+            LOGGER.info("{} writers wrote {} blocks each in {}ms, compressing on {} threads",
+                    writerCount,
+                    data.length / 1000,
+                    Duration.ofNanos(System.nanoTime() - startNanos).toMillis(),
+                    compressingThreads.size());
+
+            // Compression is not limited to the single pool thread.
+            assertThat(compressingThreads)
+                    .hasSizeGreaterThan(1);
+        } finally {
+            writers.shutdownNow();
+            compressionPool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCodecs() throws IOException {
+        final Random random = new Random(1);
+        final byte[] data = new byte[10_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+
+        for (final BlockCodec codec : BlockCodec.values()) {
+            final Path file = tempDir.resolve(codec + ".bgz");
+            final BlockGZIPOutputFile outputStream = new BlockGZIPOutputFile(
+                    file, 1000, codec, BlockCodec.DEFAULT_COMPRESSION_LEVEL, null);
+            try (outputStream) {
+                writeInChunks(outputStream, data, random);
+            }
+            assertThat(outputStream.getBlockCount())
+                    .isEqualTo(10);
+            assertThat(BlockCodec.fromIdentifier(Arrays.copyOf(Files.readAllBytes(file), 4)))
+                    .isEqualTo(codec);
+
+            try (final BlockGZIPInputFile inputStream = new BlockGZIPInputFile(file)) {
+                assertThat(inputStream.readAllBytes())
+                        .as(codec.toString())
+                        .isEqualTo(data);
+
+                // Seek back across blocks
+                inputStream.seek(4_321);
+                assertThat(inputStream.read())
+                        .isEqualTo(data[4_321] & 0xFF);
+                inputStream.seek(10);
+                assertThat(inputStream.skip(1_990))
+                        .isEqualTo(1_990);
+                assertThat(inputStream.read())
+                        .isEqualTo(data[2_000] & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    void testCompressionLevels() {
+        final Path file = tempDir.resolve("test.bgz");
+        assertThatThrownBy(() -> new BlockGZIPOutputFile(file, 1000, BlockCodec.GZIP, 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BlockGZIPOutputFile(file, 1000, BlockCodec.ZSTD, 23, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(BlockGZIPOutputFileFactory.parseCodec(" zstd "))
+                .isEqualTo(BlockCodec.ZSTD);
+        assertThatThrownBy(() -> BlockGZIPOutputFileFactory.parseCodec("snappy"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("snappy");
+    }
+
+    private void writeInChunks(final OutputStream outputStream,
+                               final byte[] data,
+                               final Random random) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            final int length = Math.min(data.length - offset, random.nextInt(2500));
+            outputStream.write(data, offset, length);
+            offset += length;
+        }
+    }
+
     private void testWriteAndRead(final int blockSize, final int fileSize) throws IOException {
         final Path file = Files.createTempFile(tempDir, "test", ".bgz");
         FileUtil.deleteFile(file);
@@ -251,4 +433,46 @@ class TestBlockGZIPFiles {
 
     }
 
+    @Test
+    void testSeekingWithBlockCache() throws IOException {
+        final Path file = tempDir.resolve("test.bgz");
+        final byte[] data = new byte[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        try (final OutputStream outputStream = new BlockGZIPOutputFile(file, 10)) {
+            outputStream.write(data);
+        }
+
+        final DecompressedBlockCache blockCache = new DecompressedBlockCache(
+                new CacheManagerImpl(),
+                FsVolumeConfig::new);
+
+        // Two readers sharing the blocks
+        try (final BlockGZIPInputFile inputStream1 = new BlockGZIPInputFile(file, blockCache);
+                final BlockGZIPInputFile inputStream2 = new BlockGZIPInputFile(file, blockCache)) {
+            for (final BlockGZIPInputFile inputStream : List.of(inputStream1, inputStream2)) {
+                for (int i = 94; i >= 0; i -= 7) {
+                    inputStream.seek(i);
+                    assertThat(inputStream.read())
+                            .isEqualTo(i);
+                    // Read on into the following blocks
+                    final byte[] bytes = new byte[30];
+                    StreamUtil.fillBuffer(inputStream, bytes, 0, Math.min(30, 99 - i));
+                    assertThat(Arrays.copyOf(bytes, Math.min(30, 99 - i)))
+                            .isEqualTo(Arrays.copyOfRange(data, i + 1, Math.min(i + 31, 100)));
+                }
+            }
+
+            // The end of the data is the end of the last block
+            inputStream1.seek(0);
+            assertThat(inputStream1.skip(100))
+                    .isEqualTo(100);
+            assertThat(inputStream1.read())
+                    .isEqualTo(-1);
+            inputStream1.seek(95);
+            assertThat(inputStream1.read())
+                    .isEqualTo(95);
+        }
+    }
 }
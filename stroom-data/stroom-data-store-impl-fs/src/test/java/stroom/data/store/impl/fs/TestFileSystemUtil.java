@@ -99,7 +99,9 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                new BlockGZIPOutputFileFactory(FsVolumeConfig::new, null),
+                null);
 
         final Path volumePath = Paths.get(buildTestVolume().getPath());
         final Path rootFile = fileSystemStreamPathHelper.getRootPath(volumePath, meta, StreamTypeNames.EVENTS);
@@ -123,7 +125,9 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                new BlockGZIPOutputFileFactory(FsVolumeConfig::new, null),
+                null);
 
         final Path volumePath = Paths.get(buildTestVolume().getPath());
         final Path rootFile = fileSystemStreamPathHelper.getRootPath(volumePath, meta,
@@ -281,7 +285,9 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                new BlockGZIPOutputFileFactory(FsVolumeConfig::new, null),
+                null);
 
         final Path path = Paths.get("");
         assertThat(fileSystemStreamPathHelper.getRootPath(path, meta, StreamTypeNames.EVENTS))
@@ -303,7 +309,9 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                new BlockGZIPOutputFileFactory(FsVolumeConfig::new, null),
+                null);
 
         final Path path = Paths.get("");
         assertThat(fileSystemStreamPathHelper.getRootPath(path, meta, StreamTypeNames.EVENTS))
@@ -154,6 +154,25 @@ class TestRASegmentStreams {
         assertThat(StreamUtil.streamToString(is)).isEqualTo(A + B + D);
     }
 
+    @Test
+    void testMappedIndex() throws IOException {
+        is = new RASegmentInputStream(new BlockGZIPInputFile(dir.resolve("test.dat")),
+                MappedInputStream.create(dir.resolve("test.idx")));
+
+        assertThat(is.count()).isEqualTo(N4);
+        is.include(N1);
+        is.include(N2);
+
+        assertThat(StreamUtil.streamToString(is)).isEqualTo(B + C);
+
+        // A missing index means a single segment
+        is = new RASegmentInputStream(new BlockGZIPInputFile(dir.resolve("test.dat")),
+                MappedInputStream.create(dir.resolve("missing.idx")));
+
+        assertThat(is.count()).isEqualTo(N1);
+        assertThat(StreamUtil.streamToString(is)).isEqualTo(A + B + C + D);
+    }
+
     @Test
     void testEmptySegmentedStream() throws IOException {
         try (final SegmentOutputStream os = new RASegmentOutputStream(new BlockGZIPOutputFile(dir.resolve("test.dat")),
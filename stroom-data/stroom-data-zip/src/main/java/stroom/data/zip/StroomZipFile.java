@@ -61,6 +61,18 @@ public class StroomZipFile implements AutoCloseable {
         return null;
     }
 
+    /**
+     * @return The uncompressed size of the entry or -1 if the entry does not exist or
+     * its size is not known.
+     */
+    public long getSize(final String baseName, final StroomZipFileType fileType) {
+        final ZipArchiveEntry entry = getEntry(baseName, fileType);
+        if (entry != null) {
+            return entry.getSize();
+        }
+        return -1;
+    }
+
     public boolean containsEntry(final String baseName, final StroomZipFileType fileType) {
         return getEntry(baseName, fileType) != null;
     }
@@ -9,7 +9,9 @@ import stroom.util.shared.NullSafe;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Provides;
+import com.google.inject.multibindings.Multibinder;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
@@ -40,6 +42,12 @@ public abstract class AbstractDataSourceProviderModule<
         NullSafe.consume(getConnectionProviderType(), type ->
                 GuiceUtil.buildMultiBinder(binder(), DataSource.class)
                         .addBinding(getConnectionProviderType()));
+
+        // MultiBind the migration so all modules can be migrated concurrently on boot.
+        NullSafe.consume(getConnectionProviderType(), type ->
+                Multibinder.newSetBinder(binder(), DbModuleMigration.class)
+                        .addBinding()
+                        .toInstance(new DbModuleMigration(getModuleName(), Key.get(type))));
     }
 
     /**
@@ -0,0 +1,152 @@
+package stroom.db.util;
+
+import stroom.config.common.CommonDbConfig;
+import stroom.config.common.ConnectionPoolConfig;
+import stroom.util.logging.AsciiTable;
+import stroom.util.logging.AsciiTable.Column;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.NullSafe;
+import stroom.util.thread.CustomThreadFactory;
+import stroom.util.thread.StroomThreadGroup;
+
+import com.google.inject.Injector;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the Flyway migrations of all the DB modules. Each module has its own Flyway history
+ * table and no module migration depends on another, so the modules are migrated concurrently.
+ * The number of concurrent migrations is limited by {@link CommonDbConfig#getMigrationThreads()}
+ * and by the size of the connection pool that the modules share.
+ */
+public class DbMigrationRunner {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(DbMigrationRunner.class);
+
+    // Flyway holds a connection for its lock on the history table as well as the one
+    // used to run the migration.
+    private static final int CONNECTIONS_PER_MIGRATION = 2;
+
+    private final Injector injector;
+    private final Provider<CommonDbConfig> commonDbConfigProvider;
+
+    @Inject
+    public DbMigrationRunner(final Injector injector,
+                             final Provider<CommonDbConfig> commonDbConfigProvider) {
+        this.injector = injector;
+        this.commonDbConfigProvider = commonDbConfigProvider;
+    }
+
+    /**
+     * Migrate all the supplied modules, returning once they are all migrated.
+     *
+     * @return The time taken to migrate each module.
+     */
+    public List<ModuleTiming> migrate(final Collection<DbModuleMigration> moduleMigrations) {
+        if (!NullSafe.hasItems(moduleMigrations)) {
+            return List.of();
+        }
+
+        final int threads = getThreadCount(moduleMigrations.size());
+        LOGGER.info("Migrating {} database modules using {} thread(s)", moduleMigrations.size(), threads);
+
+        final DurationTimer timer = DurationTimer.start();
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads, new CustomThreadFactory(
+                "DB Migration #",
+                StroomThreadGroup.instance(),
+                Thread.NORM_PRIORITY));
+        try {
+            // Use a stable order so the logs can be compared between boots.
+            final List<CompletableFuture<ModuleTiming>> futures = moduleMigrations.stream()
+                    .sorted(Comparator.comparing(DbModuleMigration::getModuleName))
+                    .map(moduleMigration -> CompletableFuture.supplyAsync(
+                            () -> migrate(moduleMigration), executorService))
+                    .toList();
+
+            final List<ModuleTiming> timings = new ArrayList<>(futures.size());
+            RuntimeException firstError = null;
+            for (final CompletableFuture<ModuleTiming> future : futures) {
+                try {
+                    timings.add(future.join());
+                } catch (final CompletionException e) {
+                    if (firstError == null) {
+                        firstError = e.getCause() instanceof final RuntimeException runtimeException
+                                ? runtimeException
+                                : e;
+                    }
+                }
+            }
+
+            logTimings(timings, timer.get());
+            if (firstError != null) {
+                throw firstError;
+            }
+            return timings;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private ModuleTiming migrate(final DbModuleMigration moduleMigration) {
+        final DurationTimer timer = DurationTimer.start();
+        try {
+            // Getting the connection provider triggers the migration.
+            injector.getInstance(moduleMigration.getConnectionProviderKey());
+        } catch (final RuntimeException e) {
+            LOGGER.error("Error migrating database module {} after {}: {}",
+                    moduleMigration.getModuleName(), timer, e.getMessage(), e);
+            throw e;
+        }
+        return new ModuleTiming(moduleMigration.getModuleName(), timer.get());
+    }
+
+    int getThreadCount(final int moduleCount) {
+        final CommonDbConfig commonDbConfig = commonDbConfigProvider.get();
+        final int maxPoolSize = NullSafe.getOrElse(
+                commonDbConfig,
+                CommonDbConfig::getConnectionPoolConfig,
+                ConnectionPoolConfig::getMaxPoolSize,
+                CONNECTIONS_PER_MIGRATION);
+        final int connectionBudget = Math.max(1, maxPoolSize / CONNECTIONS_PER_MIGRATION);
+        return Math.max(1, Math.min(moduleCount, Math.min(commonDbConfig.getMigrationThreads(), connectionBudget)));
+    }
+
+    private void logTimings(final List<ModuleTiming> timings, final Duration totalDuration) {
+        final Duration sumOfDurations = timings.stream()
+                .map(ModuleTiming::duration)
+                .reduce(Duration.ZERO, Duration::plus);
+
+        LOGGER.info(() -> LogUtil.message(
+                "Migrated {} database modules in {} (sum of module times {})\n{}",
+                timings.size(),
+                totalDuration,
+                sumOfDurations,
+                AsciiTable.builder(timings.stream()
+                                .sorted(Comparator.comparing(ModuleTiming::duration).reversed())
+                                .toList())
+                        .withColumn(Column.of("Module", ModuleTiming::moduleName))
+                        .withColumn(Column.of("Duration", moduleTiming -> moduleTiming.duration().toString()))
+                        .build()));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    public record ModuleTiming(String moduleName, Duration duration) {
+
+    }
+}
@@ -0,0 +1,54 @@
+package stroom.db.util;
+
+import com.google.inject.Key;
+
+import java.util.Objects;
+import javax.sql.DataSource;
+
+/**
+ * Identifies the connection provider of a DB module. Getting the connection provider from the
+ * injector runs the Flyway migration for that module, see
+ * {@link AbstractDataSourceProviderModule#getConnectionProvider}.
+ */
+public class DbModuleMigration {
+
+    private final String moduleName;
+    private final Key<? extends DataSource> connectionProviderKey;
+
+    public DbModuleMigration(final String moduleName,
+                             final Key<? extends DataSource> connectionProviderKey) {
+        this.moduleName = Objects.requireNonNull(moduleName);
+        this.connectionProviderKey = Objects.requireNonNull(connectionProviderKey);
+    }
+
+    public String getModuleName() {
+        return moduleName;
+    }
+
+    public Key<? extends DataSource> getConnectionProviderKey() {
+        return connectionProviderKey;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final DbModuleMigration that = (DbModuleMigration) o;
+        return moduleName.equals(that.moduleName)
+               && connectionProviderKey.equals(that.connectionProviderKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(moduleName, connectionProviderKey);
+    }
+
+    @Override
+    public String toString() {
+        return moduleName;
+    }
+}
@@ -0,0 +1,128 @@
+package stroom.db.util;
+
+import stroom.config.common.CommonDbConfig;
+import stroom.config.common.ConnectionConfig;
+import stroom.config.common.ConnectionPoolConfig;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestDbMigrationRunner {
+
+    @Test
+    void testConcurrentMigration() {
+        final int moduleCount = 4;
+        final CountDownLatch allStarted = new CountDownLatch(moduleCount);
+        final AtomicInteger migrationCount = new AtomicInteger();
+
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                IntStream.range(0, moduleCount).forEach(i ->
+                        bind(Key.get(DataSource.class, Names.named("module" + i)))
+                                .toProvider(() -> {
+                                    migrationCount.incrementAndGet();
+                                    // Each migration waits for all the others to start so this
+                                    // would time out if they were run one at a time.
+                                    allStarted.countDown();
+                                    try {
+                                        assertThat(allStarted.await(5, TimeUnit.SECONDS))
+                                                .isTrue();
+                                    } catch (final InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                    }
+                                    return Mockito.mock(DataSource.class);
+                                })
+                                .in(Singleton.class));
+            }
+        });
+
+        final DbMigrationRunner runner = new DbMigrationRunner(injector, () -> createConfig(moduleCount, 30));
+        final List<DbMigrationRunner.ModuleTiming> timings = runner.migrate(createMigrations(moduleCount));
+
+        assertThat(timings)
+                .extracting(DbMigrationRunner.ModuleTiming::moduleName)
+                .containsExactlyInAnyOrder("module0", "module1", "module2", "module3");
+        assertThat(migrationCount)
+                .hasValue(moduleCount);
+
+        // The connection providers are singletons so getting them again must not migrate again.
+        injector.getInstance(Key.get(DataSource.class, Names.named("module0")));
+        assertThat(migrationCount)
+                .hasValue(moduleCount);
+    }
+
+    @Test
+    void testFailure() {
+        final Injector injector = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Key.get(DataSource.class, Names.named("module0")))
+                        .toProvider(() -> Mockito.mock(DataSource.class));
+                bind(Key.get(DataSource.class, Names.named("module1")))
+                        .toProvider(() -> {
+                            throw new IllegalStateException("Migration failed");
+                        });
+            }
+        });
+
+        final DbMigrationRunner runner = new DbMigrationRunner(injector, () -> createConfig(4, 30));
+
+        assertThatThrownBy(() -> runner.migrate(createMigrations(2)))
+                .hasRootCauseMessage("Migration failed");
+    }
+
+    @Test
+    void testThreadCount() {
+        // Limited by the number of modules
+        assertThat(new DbMigrationRunner(null, () -> createConfig(4, 30)).getThreadCount(2))
+                .isEqualTo(2);
+        // Limited by config
+        assertThat(new DbMigrationRunner(null, () -> createConfig(4, 30)).getThreadCount(20))
+                .isEqualTo(4);
+        // Limited by the connection pool
+        assertThat(new DbMigrationRunner(null, () -> createConfig(10, 6)).getThreadCount(20))
+                .isEqualTo(3);
+        assertThat(new DbMigrationRunner(null, () -> createConfig(10, 1)).getThreadCount(20))
+                .isEqualTo(1);
+    }
+
+    private List<DbModuleMigration> createMigrations(final int moduleCount) {
+        return IntStream.range(0, moduleCount)
+                .mapToObj(i -> new DbModuleMigration(
+                        "module" + i,
+                        Key.get(DataSource.class, Names.named("module" + i))))
+                .toList();
+    }
+
+    private CommonDbConfig createConfig(final int migrationThreads, final int maxPoolSize) {
+        final ConnectionPoolConfig defaults = new ConnectionPoolConfig();
+        final ConnectionPoolConfig connectionPoolConfig = new ConnectionPoolConfig(
+                defaults.getCachePrepStmts(),
+                defaults.getPrepStmtCacheSize(),
+                defaults.getPrepStmtCacheSqlLimit(),
+                defaults.getConnectionTimeout(),
+                defaults.getIdleTimeout(),
+                defaults.getMaxLifetime(),
+                defaults.getLeakDetectionThreshold(),
+                defaults.getMinimumIdle(),
+                maxPoolSize);
+        return new CommonDbConfig(new ConnectionConfig(), connectionPoolConfig, migrationThreads);
+    }
+}
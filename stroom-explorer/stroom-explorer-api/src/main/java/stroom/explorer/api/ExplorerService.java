@@ -99,6 +99,12 @@ public interface ExplorerService extends Clearable {
 
     void rebuildTree();
 
+    /**
+     * Bring the node for docRef in the explorer tree up to date with the database, e.g. after it
+     * has been created, moved or deleted, without rebuilding the whole tree.
+     */
+    void updateTree(DocRef docRef);
+
     List<DocumentType> getTypes();
 
     /**
@@ -165,6 +165,89 @@ public abstract class AbstractTreeModel<K> {
         return keyToNodeMap.containsKey(getNodeKey(node));
     }
 
+    /**
+     * Add a node under parent or, if the model already holds a node with the same key, replace it
+     * and move it under parent, keeping its descendants. parent must be the node held in this model
+     * or null for a root node. Any node info should be re-added once all changes have been made, see
+     * {@link AbstractTreeModel#clearNodeInfo()}.
+     */
+    public void addOrReplace(final ExplorerNode parent, final ExplorerNode node) {
+        final K key = getNodeKey(node);
+        final ExplorerNode oldNode = keyToNodeMap.get(key);
+        if (oldNode != null) {
+            unlinkFromParent(key, oldNode);
+            keyToNodeMap.remove(key);
+        }
+
+        add(parent, node);
+
+        // Link any children to the new version of the node.
+        final Set<ExplorerNode> children = parentKeyToChildNodesMap.get(key);
+        if (children != null) {
+            for (final ExplorerNode child : children) {
+                childKeyToParentNodeMap.put(getNodeKey(child), node);
+            }
+        }
+    }
+
+    /**
+     * Remove a node and all of its descendants.
+     *
+     * @return True if the node was found.
+     */
+    public boolean remove(final ExplorerNode node) {
+        final K key = getNodeKey(node);
+        final ExplorerNode oldNode = keyToNodeMap.get(key);
+        if (oldNode == null) {
+            return false;
+        }
+        unlinkFromParent(key, oldNode);
+        removeDescendants(key);
+        return true;
+    }
+
+    private void removeDescendants(final K key) {
+        final Set<ExplorerNode> children = parentKeyToChildNodesMap.remove(key);
+        if (children != null) {
+            for (final ExplorerNode child : children) {
+                final K childKey = getNodeKey(child);
+                childKeyToParentNodeMap.remove(childKey);
+                removeDescendants(childKey);
+            }
+        }
+        keyToNodeMap.remove(key);
+        keyToNodeInfoMap.remove(key);
+        parentKeyToChildNodesWithInfoMap.remove(key);
+    }
+
+    private void unlinkFromParent(final K key, final ExplorerNode node) {
+        final ExplorerNode parent = childKeyToParentNodeMap.remove(key);
+        final K parentKey = getNodeKey(parent);
+        final Set<ExplorerNode> siblings = parentKeyToChildNodesMap.get(parentKey);
+        if (siblings != null) {
+            siblings.remove(node);
+            if (siblings.isEmpty()) {
+                parentKeyToChildNodesMap.remove(parentKey);
+            }
+        }
+    }
+
+    /**
+     * Remove all node info, e.g. so it can be added again after nodes have been moved or removed.
+     */
+    public void clearNodeInfo() {
+        keyToNodeInfoMap.clear();
+        parentKeyToChildNodesWithInfoMap.clear();
+    }
+
+    /**
+     * Work out the set of all tags again, e.g. after nodes have been replaced or removed.
+     */
+    public void rebuildAllTags() {
+        allTags = new HashSet<>();
+        keyToNodeMap.values().forEach(this::recordNodeTags);
+    }
+
 //    /**
 //     * Replaces an existing node with the supplied one. The new node will
 //     * be linked to the previous node's parent and children. If the key is
@@ -393,6 +476,22 @@ public abstract class AbstractTreeModel<K> {
         return newNode;
     }
 
+    /**
+     * Make this model a deep copy of another, so that changes to one do not affect the other.
+     */
+    protected void copyFrom(final AbstractTreeModel<K> other) {
+        keyToNodeMap = new HashMap<>(other.keyToNodeMap);
+        childKeyToParentNodeMap = new HashMap<>(other.childKeyToParentNodeMap);
+        parentKeyToChildNodesMap = new HashMap<>(other.parentKeyToChildNodesMap.size());
+        other.parentKeyToChildNodesMap.forEach((key, childNodes) ->
+                parentKeyToChildNodesMap.put(key, new LinkedHashSet<>(childNodes)));
+        keyToNodeInfoMap = new HashMap<>(other.keyToNodeInfoMap);
+        parentKeyToChildNodesWithInfoMap = new HashMap<>(other.parentKeyToChildNodesWithInfoMap.size());
+        other.parentKeyToChildNodesWithInfoMap.forEach((key, childNodes) ->
+                parentKeyToChildNodesWithInfoMap.put(key, new HashSet<>(childNodes)));
+        allTags = new HashSet<>(other.allTags);
+    }
+
     @Override
     public AbstractTreeModel<K> clone() {
         try {
@@ -50,10 +50,10 @@ import stroom.explorer.shared.NodeFlag;
 import stroom.explorer.shared.NodeFlag.NodeFlagGroups;
 import stroom.explorer.shared.PermissionInheritance;
 import stroom.explorer.shared.StandardExplorerTags;
+import stroom.expression.matcher.CompiledExpressionMatcher;
 import stroom.expression.matcher.ExpressionMatcher;
 import stroom.expression.matcher.TermMatcher;
 import stroom.gitrepo.shared.GitRepoDoc;
-import stroom.query.api.ExpressionOperator;
 import stroom.query.api.ExpressionTerm.Condition;
 import stroom.query.api.ExpressionUtil;
 import stroom.query.common.v2.ExpressionPredicateFactory;
@@ -546,9 +546,10 @@ class ExplorerServiceImpl
     private Set<DocRef> getDescendants(final DocRef folder, final String type, final int maxDepth) {
         final UnmodifiableTreeModel masterTreeModel = explorerTreeModel.getModel();
         if (masterTreeModel != null) {
-            final Set<DocRef> refs = new HashSet<>();
+            final List<DocRef> refs = new ArrayList<>();
             addChildren(folder, type, 0, maxDepth, masterTreeModel, refs);
-            return refs;
+            // Check the permissions of all the matching descendants in one go.
+            return new HashSet<>(securityContext.filterDocumentPermission(refs, DocumentPermission.USE));
         }
 
         return Collections.emptySet();
@@ -559,14 +560,12 @@ class ExplorerServiceImpl
                              final int depth,
                              final int maxDepth,
                              final UnmodifiableTreeModel treeModel,
-                             final Set<DocRef> refs) {
+                             final List<DocRef> refs) {
         final List<DocRef> children = treeModel.getChildren(parent);
         if (children != null) {
             children.forEach(childDocRef -> {
                 if (childDocRef.getType().equals(type)) {
-                    if (securityContext.hasDocumentPermission(childDocRef, DocumentPermission.USE)) {
-                        refs.add(childDocRef);
-                    }
+                    refs.add(childDocRef);
                 }
 
                 if (depth < maxDepth) {
@@ -663,6 +662,9 @@ class ExplorerServiceImpl
             }
 
             if (children != null) {
+                // Check the permissions of all the children in one go rather than one at a time.
+                nodeInclusionChecker.checkPermissions(children);
+
                 // Add all children if the name filter has changed or the parent item is open.
                 final boolean addAllChildren = (filter.isNameFilterChange() && filter.getNameFilter() != null)
                                                || parent == null
@@ -945,8 +947,8 @@ class ExplorerServiceImpl
         // Create the explorer node.
         explorerNodeService.createNode(result, folderRef, permissionInheritance);
 
-        // Make sure the tree model is rebuilt.
-        rebuildTree();
+        // Make sure the tree model includes the new node.
+        updateTree(result);
 
         // Fire a POST_CREATE event
         EntityEvent.fire(entityEventBus, result, EntityAction.POST_CREATE);
@@ -1473,6 +1475,11 @@ class ExplorerServiceImpl
         explorerTreeModel.rebuild();
     }
 
+    @Override
+    public void updateTree(final DocRef docRef) {
+        explorerTreeModel.update(docRef);
+    }
+
     @Override
     public void clear() {
         explorerTreeModel.clear();
@@ -1757,12 +1764,13 @@ class ExplorerServiceImpl
                     metrics,
                     false);
 
-            final ExpressionOperator expression = request.getExpression();
-            final ExpressionMatcher expressionMatcher =
-                    new ExpressionMatcher(DocumentPermissionFields.getAllFieldMap());
+            // Compile the expression once as it is matched against every node in the tree.
+            final CompiledExpressionMatcher expressionMatcher =
+                    new ExpressionMatcher(DocumentPermissionFields.getAllFieldMap())
+                            .compile(request.getExpression());
 
             walkNodeTree(result.getRootNodes(), (path, node) -> {
-                if (matchExpression(path, node, expressionMatcher, expression)) {
+                if (matchExpression(path, node, expressionMatcher)) {
                     return consumer.consume(path, node);
                 }
                 return true;
@@ -1859,8 +1867,7 @@ class ExplorerServiceImpl
 
     private boolean matchExpression(final SequencedSet<DocRef> nodePath,
                                     final ExplorerNode node,
-                                    final ExpressionMatcher expressionMatcher,
-                                    final ExpressionOperator expression) {
+                                    final CompiledExpressionMatcher expressionMatcher) {
         if (node.hasNodeFlag(NodeFlag.FILTER_MATCH) && node.getDocRef() != null) {
             // Some value are null, so can't use Map.of
             final Map<String, Object> attributes = new HashMap<>();
@@ -1872,7 +1879,7 @@ class ExplorerServiceImpl
             attributes.put(DocumentPermissionFields.DOCUMENT_UUID.getFldName(), node.getDocRef().getUuid());
             attributes.put(DocumentPermissionFields.DOCUMENT_NAME.getFldName(), node.getDocRef().getName());
             attributes.put(DocumentPermissionFields.DOCUMENT_TAG.getFldName(), node.getTags());
-            return expressionMatcher.match(Collections.unmodifiableMap(attributes), expression);
+            return expressionMatcher.match(Collections.unmodifiableMap(attributes));
         }
 
         return false;
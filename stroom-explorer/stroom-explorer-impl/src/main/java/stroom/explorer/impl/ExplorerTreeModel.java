@@ -17,6 +17,7 @@
 package stroom.explorer.impl;
 
 import stroom.docref.DocRef;
+import stroom.explorer.shared.ExplorerConstants;
 import stroom.explorer.shared.ExplorerNode;
 import stroom.explorer.shared.ExplorerNode.NodeInfo;
 import stroom.security.api.SecurityContext;
@@ -27,15 +28,20 @@ import stroom.util.entityevent.EntityEventHandler;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
+import stroom.util.metrics.Metrics;
 import stroom.util.shared.NullSafe;
 import stroom.util.shared.Severity;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -45,6 +51,15 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
+/**
+ * Holds the master tree model that all explorer views are built from.
+ * <p>
+ * Changes to individual nodes (creates, moves, renames and deletes) are applied to a copy of the
+ * current model, which then replaces it, so readers never see a model that is being changed and the
+ * whole tree does not need to be reloaded from the database for each change. The whole model is
+ * still rebuilt when explicitly requested, when too many changes are waiting or when a change can't
+ * be applied, and periodically as a safety net.
+ */
 @Singleton
 @EntityEventHandler(action = {
         EntityAction.CREATE,
@@ -60,6 +75,8 @@ class ExplorerTreeModel implements EntityEvent.Handler {
 
     private static final long ONE_HOUR = 60 * 60 * 1000;
     private static final long TEN_MINUTES = 10 * 60 * 1000;
+    // Beyond this it is quicker to reload the whole tree than to look up each changed node.
+    static final int MAX_INCREMENTAL_CHANGES = 1_000;
 
     private final ExplorerTreeDao explorerTreeDao;
     private final ExplorerSession explorerSession;
@@ -74,6 +91,14 @@ class ExplorerTreeModel implements EntityEvent.Handler {
     private final AtomicLong minExplorerTreeModelBuildTime = new AtomicLong();
     private final AtomicLong currentId = new AtomicLong();
     private final AtomicInteger performingRebuild = new AtomicInteger();
+    // The model id that the next full rebuild must reach.
+    private final AtomicLong rebuildId = new AtomicLong();
+    // UUIDs of nodes that have changed since the current model was made.
+    private final Set<String> pendingChanges = new LinkedHashSet<>();
+
+    private final Timer rebuildTimer;
+    private final Timer updateTimer;
+    private final Counter updatedNodesCounter;
 
     @Inject
     ExplorerTreeModel(final ExplorerTreeDao explorerTreeDao,
@@ -83,7 +108,8 @@ class ExplorerTreeModel implements EntityEvent.Handler {
                       final ExplorerActionHandlers explorerActionHandlers,
                       final BrokenDependenciesCache brokenDependenciesCache,
                       final SecurityContext securityContext,
-                      final Provider<ExplorerConfig> explorerConfigProvider) {
+                      final Provider<ExplorerConfig> explorerConfigProvider,
+                      final Metrics metrics) {
         this.explorerTreeDao = explorerTreeDao;
         this.explorerSession = explorerSession;
         this.executor = executor;
@@ -92,6 +118,21 @@ class ExplorerTreeModel implements EntityEvent.Handler {
         this.brokenDependenciesCache = brokenDependenciesCache;
         this.securityContext = securityContext;
         this.explorerConfigProvider = explorerConfigProvider;
+        this.rebuildTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("rebuild")
+                .addNamePart("time")
+                .timer()
+                .createAndRegister();
+        this.updateTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("update")
+                .addNamePart("time")
+                .timer()
+                .createAndRegister();
+        this.updatedNodesCounter = metrics.registrationBuilder(getClass())
+                .addNamePart("update")
+                .addNamePart(Metrics.COUNT)
+                .counter()
+                .createAndRegister();
     }
 
     private boolean isSynchronousUpdateRequired(final long minId, final long now) {
@@ -100,6 +141,18 @@ class ExplorerTreeModel implements EntityEvent.Handler {
                currentModel.getCreationTime() < now - ONE_HOUR;
     }
 
+    private boolean isRebuildRequired(final long now) {
+        return currentModel == null ||
+               currentModel.getId() < rebuildId.get() ||
+               currentModel.getCreationTime() < now - ONE_HOUR;
+    }
+
+    private boolean hasPendingChanges() {
+        synchronized (pendingChanges) {
+            return !pendingChanges.isEmpty();
+        }
+    }
+
     UnmodifiableTreeModel getModel() {
         final long currentId = this.currentId.get();
         final long now = System.currentTimeMillis();
@@ -118,14 +171,32 @@ class ExplorerTreeModel implements EntityEvent.Handler {
             synchronized (this) {
                 minId = explorerSession.getMinExplorerTreeModelId().orElse(0L);
                 if (isSynchronousUpdateRequired(minId, now)) {
-                    LOGGER.debug("Synchronous model build");
-                    model = updateModel(currentId, now);
+                    if (isRebuildRequired(now)) {
+                        LOGGER.debug("Synchronous model build");
+                        model = updateModel(currentId, now);
+                    } else {
+                        LOGGER.debug("Synchronous model update");
+                        model = applyPendingChanges(now);
+                    }
                 } else {
                     LOGGER.debug("Another thread beat us, we can use their model");
                 }
             }
         }
 
+        if (model == null && hasPendingChanges()) {
+            // Applying a few changes is quick so bring the model up to date for everybody.
+            synchronized (this) {
+                if (!isRebuildRequired(now)) {
+                    model = applyPendingChanges(now);
+                }
+            }
+            if (model != null && model.getCreationTime() < now - TEN_MINUTES) {
+                // Let the checks below decide whether a periodic rebuild is due.
+                model = null;
+            }
+        }
+
         if (model == null) {
             // If the model has not been rebuilt in the last 10 minutes for anybody then do so asynchronously.
             // Find out what the oldest tree model is that we will allow before performing an asynchronous rebuild.
@@ -167,7 +238,13 @@ class ExplorerTreeModel implements EntityEvent.Handler {
             final TreeModel newModel;
             final UnmodifiableTreeModel newUnmodifiableModel;
             performingRebuild.incrementAndGet();
+            final Timer.Context timerContext = rebuildTimer.time();
             try {
+                // The new model is read from the DB so will include any changes made before now.
+                synchronized (pendingChanges) {
+                    pendingChanges.clear();
+                }
+
                 LOGGER.debug("Updating model for id {}", id);
                 newModel = LOGGER.logDurationIfDebugEnabled(() ->
                                 explorerTreeDao.createModel(id, creationTime),
@@ -185,12 +262,124 @@ class ExplorerTreeModel implements EntityEvent.Handler {
                 newUnmodifiableModel = UnmodifiableTreeModel.wrap(newModel);
                 setCurrentModel(newUnmodifiableModel);
             } finally {
+                timerContext.stop();
                 performingRebuild.decrementAndGet();
             }
             return newUnmodifiableModel;
         });
     }
 
+    /**
+     * Apply the pending node changes to a copy of the current model and make that the current model.
+     * Falls back to a full rebuild if there are too many changes or one can't be applied. Must be
+     * called while synchronised on this.
+     */
+    private UnmodifiableTreeModel applyPendingChanges(final long now) {
+        final UnmodifiableTreeModel model = currentModel;
+        // Changes are added before the id is incremented, so all changes up to this id are pending.
+        final long id = currentId.get();
+        if (model.getId() >= id) {
+            return model;
+        }
+
+        final List<String> changes;
+        synchronized (pendingChanges) {
+            if (pendingChanges.size() > MAX_INCREMENTAL_CHANGES) {
+                LOGGER.debug("Too many changes ({}), rebuilding model", pendingChanges.size());
+                changes = null;
+            } else {
+                changes = new ArrayList<>(pendingChanges);
+                pendingChanges.clear();
+            }
+        }
+        if (changes == null) {
+            return updateModel(id, now);
+        }
+
+        return securityContext.asProcessingUserResult(() -> {
+            final Timer.Context timerContext = updateTimer.time();
+            try {
+                final TreeModel newModel = model.createMutableCopy(id);
+                if (!applyChanges(newModel, changes)) {
+                    LOGGER.debug("Unable to apply changes {}, rebuilding model", changes);
+                    return updateModel(id, now);
+                }
+
+                if (explorerConfigProvider.get().getDependencyWarningsEnabled()) {
+                    // Nodes may have moved or gone so add the node info again from scratch.
+                    newModel.clearNodeInfo();
+                    addBrokenDependencies(newModel);
+                }
+                newModel.rebuildAllTags();
+
+                final UnmodifiableTreeModel newUnmodifiableModel = UnmodifiableTreeModel.wrap(newModel);
+                setCurrentModel(newUnmodifiableModel);
+                updatedNodesCounter.inc(changes.size());
+                return newUnmodifiableModel;
+            } finally {
+                timerContext.stop();
+            }
+        });
+    }
+
+    /**
+     * Bring each changed node in the model into line with the database.
+     *
+     * @return False if a change could not be applied, e.g. the parent of a new node is unknown.
+     */
+    private boolean applyChanges(final TreeModel treeModel, final List<String> changedUuids) {
+        // Find out where each node now is, handling removed nodes first in case a node has been
+        // moved out of a folder that was then deleted.
+        final List<ExplorerTreeNode> changedNodes = new ArrayList<>(changedUuids.size());
+        for (final String uuid : changedUuids) {
+            final ExplorerTreeNode explorerTreeNode = explorerTreeDao.findByUUID(uuid);
+            if (explorerTreeNode == null) {
+                treeModel.remove(ExplorerNode.builder().uuid(uuid).build());
+            } else {
+                changedNodes.add(explorerTreeNode);
+            }
+        }
+
+        // Keep going while we are making progress as a parent may be added after its children.
+        List<ExplorerTreeNode> remaining = changedNodes;
+        while (!remaining.isEmpty()) {
+            final List<ExplorerTreeNode> deferred = new ArrayList<>();
+            for (final ExplorerTreeNode explorerTreeNode : remaining) {
+                final ExplorerTreeNode parentTreeNode = explorerTreeDao.getParent(explorerTreeNode);
+                final ExplorerNode node = createExplorerNode(explorerTreeNode);
+                if (parentTreeNode == null) {
+                    treeModel.addOrReplace(null, node);
+                } else {
+                    final ExplorerNode parent = treeModel.getNode(parentTreeNode.getUuid());
+                    if (parent == null) {
+                        deferred.add(explorerTreeNode);
+                    } else {
+                        treeModel.addOrReplace(parent, node);
+                    }
+                }
+            }
+            if (deferred.size() == remaining.size()) {
+                return false;
+            }
+            remaining = deferred;
+        }
+        return true;
+    }
+
+    private ExplorerNode createExplorerNode(final ExplorerTreeNode explorerTreeNode) {
+        // Match the nodes created by ExplorerTreeDao#createModel
+        if (ExplorerConstants.isSystemNode(explorerTreeNode.getType(), explorerTreeNode.getUuid())) {
+            return ExplorerConstants.SYSTEM_NODE;
+        } else if (ExplorerConstants.isFavouritesNode(explorerTreeNode.getType(), explorerTreeNode.getUuid())) {
+            return ExplorerConstants.FAVOURITES_NODE;
+        } else {
+            return explorerTreeNode.buildExplorerNode()
+                    .addNodeFlag(ExplorerFlags.getStandardFlagByDocType(explorerTreeNode.getType())
+                            .orElse(null))
+                    .build();
+        }
+    }
+
     private void addBrokenDependencies(final TreeModel treeModel) {
         final Map<DocRef, Set<DocRef>> brokenDepsMap = NullSafe.map(brokenDependenciesCache.getMap());
         brokenDepsMap.forEach((nodeDocRef, missingDepDocRefs) -> {
@@ -240,11 +429,26 @@ class ExplorerTreeModel implements EntityEvent.Handler {
         final long now = System.currentTimeMillis();
         final long newTimeMs = minExplorerTreeModelBuildTime.getAndUpdate(prev -> Math.max(prev, now));
         final long newId = currentId.incrementAndGet();
+        rebuildId.accumulateAndGet(newId, Math::max);
         LOGGER.trace(() -> LogUtil.message("rebuild called, newTime: {}, newId: {}",
                 Instant.ofEpochMilli(newTimeMs), newId));
         explorerSession.setMinExplorerTreeModelId(newId);
     }
 
+    /**
+     * Set state such that the next call to getModel will bring the node for docRef up to date
+     * without rebuilding the whole model, whether the node has been added, moved, renamed, re-tagged
+     * or deleted.
+     */
+    void update(final DocRef docRef) {
+        synchronized (pendingChanges) {
+            pendingChanges.add(docRef.getUuid());
+        }
+        final long newId = currentId.incrementAndGet();
+        LOGGER.trace(() -> LogUtil.message("update called for {}, newId: {}", docRef, newId));
+        explorerSession.setMinExplorerTreeModelId(newId);
+    }
+
     void clear() {
         setCurrentModel(null);
     }
@@ -261,8 +465,8 @@ class ExplorerTreeModel implements EntityEvent.Handler {
                         DELETE_EXPLORER_NODE,
                         CREATE_EXPLORER_NODE -> {
                     // E.g. tags on a node have changed
-                    LOGGER.debug("Rebuilding tree model due to entity event {}", event);
-                    rebuild();
+                    LOGGER.debug("Updating tree model due to entity event {}", event);
+                    update(event.getDocRef());
                 }
             }
         });
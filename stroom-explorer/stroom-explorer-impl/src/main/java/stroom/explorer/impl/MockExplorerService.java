@@ -116,6 +116,10 @@ class MockExplorerService implements ExplorerService {
     public void rebuildTree() {
     }
 
+    @Override
+    public void updateTree(final DocRef docRef) {
+    }
+
     @Override
     public void clear() {
     }
@@ -19,6 +19,7 @@ import stroom.util.shared.NullSafe;
 import stroom.util.shared.StringUtil;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -186,6 +187,35 @@ class NodeInclusionChecker {
                         .allMatch(permission -> securityContext.hasDocumentPermission(docRef, permission)));
     }
 
+    /**
+     * Work out in one go whether the required permissions are held on each of the nodes so that
+     * later inclusion checks for them don't need to check the permissions one node at a time.
+     */
+    void checkPermissions(final Collection<ExplorerNode> nodes) {
+        final Set<DocumentPermission> requiredPermissions = filter.getRequiredPermissions();
+        if (NullSafe.isEmptyCollection(requiredPermissions)) {
+            return;
+        }
+
+        final List<DocRef> unchecked = new ArrayList<>(nodes.size());
+        for (final ExplorerNode node : nodes) {
+            final DocRef docRef = node.getDocRef();
+            if (docRef != null && !permCheckOutcomeMap.containsKey(docRef)) {
+                unchecked.add(docRef);
+            }
+        }
+        if (unchecked.isEmpty()) {
+            return;
+        }
+
+        List<DocRef> permitted = unchecked;
+        for (final DocumentPermission permission : requiredPermissions) {
+            permitted = securityContext.filterDocumentPermission(permitted, permission);
+        }
+        unchecked.forEach(docRef -> permCheckOutcomeMap.put(docRef, false));
+        permitted.forEach(docRef -> permCheckOutcomeMap.put(docRef, true));
+    }
+
     static boolean hasPermission(final SecurityContext securityContext,
                                  final ExplorerNode node,
                                  final Set<DocumentPermission> requiredPermissions) {
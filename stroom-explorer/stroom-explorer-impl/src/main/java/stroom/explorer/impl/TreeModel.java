@@ -37,6 +37,15 @@ public class TreeModel extends AbstractTreeModel<String> implements Cloneable {
         return NullSafe.get(node, ExplorerNode::getUuid);
     }
 
+    /**
+     * @return A deep copy of this model with a new id and creation time.
+     */
+    public TreeModel copy(final long id, final long creationTime) {
+        final TreeModel copy = new TreeModel(id, creationTime);
+        copy.copyFrom(this);
+        return copy;
+    }
+
     @Override
     public TreeModel clone() {
         final AbstractTreeModel<String> clone = super.clone();
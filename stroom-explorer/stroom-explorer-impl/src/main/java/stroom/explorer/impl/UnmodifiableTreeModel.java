@@ -81,4 +81,12 @@ public class UnmodifiableTreeModel {
     public TreeModel createMutableCopy() {
         return treeModel.clone();
     }
+
+    /**
+     * @return A deep copy of the model with a new id, so it can be changed and then used to
+     * replace this one.
+     */
+    public TreeModel createMutableCopy(final long id) {
+        return treeModel.copy(id, treeModel.getCreationTime());
+    }
 }
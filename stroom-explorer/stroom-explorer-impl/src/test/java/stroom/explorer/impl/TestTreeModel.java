@@ -0,0 +1,114 @@
+package stroom.explorer.impl;
+
+import stroom.explorer.shared.ExplorerNode;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestTreeModel {
+
+    private static final ExplorerNode ROOT = node("root", "System");
+    private static final ExplorerNode FOLDER_A = node("a", "Folder A");
+    private static final ExplorerNode FOLDER_B = node("b", "Folder B");
+    private static final ExplorerNode DOC_1 = node("1", "Doc 1", "tag1");
+    private static final ExplorerNode DOC_2 = node("2", "Doc 2", "tag2");
+
+    @Test
+    void testAddOrReplace_rename() {
+        final TreeModel treeModel = createModel();
+        final ExplorerNode renamed = node("a", "Renamed A", "newTag");
+
+        treeModel.addOrReplace(ROOT, renamed);
+        treeModel.rebuildAllTags();
+
+        assertThat(treeModel.getNode("a").getName())
+                .isEqualTo("Renamed A");
+        assertThat(treeModel.getChildren(ROOT))
+                .extracting(ExplorerNode::getName)
+                .containsExactlyInAnyOrder("Renamed A", "Folder B");
+        // Children are kept and now point at the new node.
+        assertThat(treeModel.getChildren(renamed))
+                .containsExactly(DOC_1);
+        assertThat(treeModel.getParent("1").getName())
+                .isEqualTo("Renamed A");
+        assertThat(treeModel.getAllTags())
+                .containsExactlyInAnyOrder("newTag", "tag1", "tag2");
+    }
+
+    @Test
+    void testAddOrReplace_move() {
+        final TreeModel treeModel = createModel();
+
+        treeModel.addOrReplace(FOLDER_B, DOC_1);
+
+        assertThat(treeModel.hasChildren(FOLDER_A))
+                .isFalse();
+        assertThat(treeModel.getChildren(FOLDER_B))
+                .containsExactlyInAnyOrder(DOC_1, DOC_2);
+        assertThat(treeModel.getParent("1"))
+                .isEqualTo(FOLDER_B);
+    }
+
+    @Test
+    void testRemove() {
+        final TreeModel treeModel = createModel();
+
+        assertThat(treeModel.remove(FOLDER_A))
+                .isTrue();
+        assertThat(treeModel.remove(FOLDER_A))
+                .isFalse();
+        treeModel.rebuildAllTags();
+
+        assertThat(treeModel.getChildren(ROOT))
+                .containsExactly(FOLDER_B);
+        assertThat(treeModel.getNode("a"))
+                .isNull();
+        assertThat(treeModel.getNode("1"))
+                .isNull();
+        assertThat(treeModel.getAllTags())
+                .containsExactly("tag2");
+    }
+
+    @Test
+    void testCopy() {
+        final TreeModel treeModel = createModel();
+        final UnmodifiableTreeModel unmodifiableTreeModel = UnmodifiableTreeModel.wrap(treeModel);
+
+        final TreeModel copy = unmodifiableTreeModel.createMutableCopy(2);
+        copy.remove(DOC_2);
+        copy.addOrReplace(FOLDER_A, node("3", "Doc 3"));
+
+        assertThat(copy.getId())
+                .isEqualTo(2);
+        assertThat(copy.getCreationTime())
+                .isEqualTo(treeModel.getCreationTime());
+
+        // The original is untouched.
+        assertThat(unmodifiableTreeModel.getChildren(FOLDER_B))
+                .containsExactly(DOC_2);
+        assertThat(unmodifiableTreeModel.getChildren(FOLDER_A))
+                .containsExactly(DOC_1);
+        assertThat(unmodifiableTreeModel.getNode("3"))
+                .isNull();
+    }
+
+    private static TreeModel createModel() {
+        final TreeModel treeModel = new TreeModel(1, System.currentTimeMillis());
+        treeModel.addRoot(ROOT);
+        treeModel.add(ROOT, FOLDER_A);
+        treeModel.add(ROOT, FOLDER_B);
+        treeModel.add(FOLDER_A, DOC_1);
+        treeModel.add(FOLDER_B, DOC_2);
+        return treeModel;
+    }
+
+    private static ExplorerNode node(final String uuid, final String name, final String... tags) {
+        return ExplorerNode.builder()
+                .type("Folder")
+                .uuid(uuid)
+                .name(name)
+                .addTags(tags)
+                .build();
+    }
+}
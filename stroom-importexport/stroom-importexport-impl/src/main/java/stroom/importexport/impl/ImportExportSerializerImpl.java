@@ -436,7 +436,7 @@ class ImportExportSerializerImpl implements ImportExportSerializer {
                                 imported,
                                 folderRef,
                                 PermissionInheritance.DESTINATION);
-                        explorerService.rebuildTree();
+                        explorerService.updateTree(imported);
                     } else {
                         if (importSettings.isUseImportNames()) {
                             explorerService.rename(explorerNode, docRef.getName());
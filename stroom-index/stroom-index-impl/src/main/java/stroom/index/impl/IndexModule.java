@@ -117,7 +117,8 @@ public class IndexModule extends AbstractModule {
                         .frequencySchedule("5m"));
 
         LifecycleBinder.create(binder())
-                .bindStartupTaskTo(IndexShardWriterCacheStartup.class)
+                // Only resets this node's shards in the DB and on disk so needs no other task
+                .bindStartupTaskAfter(IndexShardWriterCacheStartup.class)
                 .bindShutdownTaskTo(IndexShardWriterCacheShutdown.class);
 
         HasSystemInfoBinder.create(binder())
@@ -14,15 +14,18 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 public class IndexShardSearchConfig extends AbstractConfig implements IsStroomConfig {
 
     private static final int DEFAULT_MAX_THREADS_PER_TASK = 5;
+    private static final int DEFAULT_MAX_THREADS = 50;
 
     private final int maxDocIdQueueSize;
     private final int maxThreadsPerTask;
+    private final int maxThreads;
     private final CacheConfig remoteSearchResultCache;
     private final CacheConfig indexShardSearcherCache;
 
     public IndexShardSearchConfig() {
         maxDocIdQueueSize = 1_000_000;
         maxThreadsPerTask = DEFAULT_MAX_THREADS_PER_TASK;
+        maxThreads = DEFAULT_MAX_THREADS;
         remoteSearchResultCache = CacheConfig.builder()
                 .maximumSize(100L)
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
@@ -36,10 +39,12 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
     @JsonCreator
     public IndexShardSearchConfig(@JsonProperty("maxDocIdQueueSize") final int maxDocIdQueueSize,
                                   @JsonProperty("maxThreadsPerTask") final int maxThreadsPerTask,
+                                  @JsonProperty("maxThreads") final int maxThreads,
                                   @JsonProperty("remoteSearchResultCache") final CacheConfig remoteSearchResultCache,
                                   @JsonProperty("indexShardSearcherCache") final CacheConfig indexShardSearcherCache) {
         this.maxDocIdQueueSize = maxDocIdQueueSize;
         this.maxThreadsPerTask = maxThreadsPerTask;
+        this.maxThreads = maxThreads;
         this.remoteSearchResultCache = remoteSearchResultCache;
         this.indexShardSearcherCache = indexShardSearcherCache;
     }
@@ -55,6 +60,14 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
         return maxThreadsPerTask;
     }
 
+    @JsonPropertyDescription("The maximum number of threads, across all searches on a node, used to search " +
+            "Lucene index shards. A search takes all the threads it needs, up to maxThreadsPerTask, before it " +
+            "starts and waits for them if they are in use by other searches. A value of zero means there is " +
+            "no limit.")
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
     public CacheConfig getRemoteSearchResultCache() {
         return remoteSearchResultCache;
     }
@@ -68,6 +81,7 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
         return "IndexShardSearchConfig{" +
                 "maxDocIdQueueSize=" + maxDocIdQueueSize +
                 ", maxThreadsPerTask=" + maxThreadsPerTask +
+                ", maxThreads=" + maxThreads +
                 ", remoteSearchResultCache=" + remoteSearchResultCache +
                 ", indexShardSearcherCache=" + indexShardSearcherCache +
                 '}';
@@ -61,7 +61,7 @@ public class JobSystemModule extends AbstractModule {
         LifecycleBinder.create(binder())
                 .bindStartupTaskTo(JobBootstrapStartup.class)
                 .bindShutdownTaskTo(DistributedTaskFetcherShutdown.class, 10)
-                .bindStartupTaskTo(ScheduledTaskExecutorStartup.class, 0)
+                .bindBackgroundStartupTaskTo(ScheduledTaskExecutorStartup.class, 0)
                 .bindShutdownTaskTo(ScheduledTaskExecutorShutdown.class, 9);
     }
 
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.kafka.pipeline;
+
+import stroom.util.concurrent.UncheckedInterruptedException;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.RecordMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks asynchronous Kafka sends for a single pipeline task using a bounded window of
+ * in-flight messages rather than holding a {@link java.util.concurrent.Future} per message.
+ * <p>
+ * {@link #beforeSend()} blocks while the window is full. Failures reported to the send
+ * {@link Callback} are held so they can be reported against the pipeline on the pipeline
+ * thread once processing is complete. Only the first {@link #MAX_RETAINED_FAILURES} failures
+ * are held; the rest are just counted.
+ */
+class KafkaSendTracker {
+
+    static final int MAX_RETAINED_FAILURES = 100;
+
+    private final int maxInFlight;
+    private final Semaphore window;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong ackCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicInteger retainedFailureCount = new AtomicInteger();
+    private final Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+    private final Callback callback = this::onCompletion;
+
+    KafkaSendTracker(final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Reserve a place in the window for a message, blocking until one is available.
+     */
+    void beforeSend() {
+        try {
+            window.acquire();
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+        sentCount.incrementAndGet();
+    }
+
+    /**
+     * Release a place reserved by {@link #beforeSend()} for a message that was never handed to the
+     * producer, e.g. because {@link org.apache.kafka.clients.producer.KafkaProducer#send} threw.
+     */
+    void sendAborted() {
+        sentCount.decrementAndGet();
+        window.release();
+    }
+
+    /**
+     * @return The callback to pass to {@link org.apache.kafka.clients.producer.KafkaProducer#send}.
+     */
+    Callback getCallback() {
+        return callback;
+    }
+
+    /**
+     * Block until every message sent so far has been acknowledged or has failed.
+     */
+    void awaitAll() {
+        try {
+            window.acquire(maxInFlight);
+            window.release(maxInFlight);
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+    }
+
+    /**
+     * Remove and return the failures held so far.
+     */
+    List<Exception> drainFailures() {
+        final List<Exception> list = new ArrayList<>();
+        Exception e;
+        while ((e = failures.poll()) != null) {
+            list.add(e);
+        }
+        return list;
+    }
+
+    int getInFlightCount() {
+        return maxInFlight - window.availablePermits();
+    }
+
+    long getSentCount() {
+        return sentCount.get();
+    }
+
+    long getAckCount() {
+        return ackCount.get();
+    }
+
+    long getFailureCount() {
+        return failureCount.get();
+    }
+
+    private void onCompletion(final RecordMetadata metadata, final Exception exception) {
+        try {
+            if (exception != null) {
+                failureCount.incrementAndGet();
+                if (retainedFailureCount.getAndIncrement() < MAX_RETAINED_FAILURES) {
+                    failures.add(exception);
+                }
+            } else {
+                ackCount.incrementAndGet();
+            }
+        } finally {
+            window.release();
+        }
+    }
+}
@@ -30,9 +30,11 @@ import stroom.pipeline.factory.PipelinePropertyDocRef;
 import stroom.pipeline.filter.AbstractXMLFilter;
 import stroom.pipeline.shared.data.PipelineElementType;
 import stroom.svg.shared.SvgImage;
+import stroom.task.api.TaskContextFactory;
 import stroom.util.CharBuffer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
 import stroom.util.shared.Severity;
 import stroom.util.xml.XMLUtil;
 
@@ -41,6 +43,8 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.header.Headers;
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
@@ -54,6 +58,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -91,10 +96,16 @@ class StandardKafkaProducer extends AbstractXMLFilter {
     private static final String TOPIC_ATTRIBUTE_LOCAL_NAME = "topic";
     private static final String TIMESTAMP_ATTRIBUTE_LOCAL_NAME = "timestamp";
     private static final String PARTITION_ATTRIBUTE_LOCAL_NAME = "partition";
+    private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+    private static final List<String> REPORTED_METRIC_NAMES = List.of(
+            "batch-size-avg",
+            "record-send-rate",
+            "record-queue-time-avg");
 
     private final ErrorReceiverProxy errorReceiverProxy;
     private final LocationFactoryProxy locationFactory;
     private final KafkaProducerFactory stroomKafkaProducerFactory;
+    private final TaskContextFactory taskContextFactory;
     private final Queue<Future<RecordMetadata>> kafkaMetaFutures;
     private final CharBuffer content = new CharBuffer();
 
@@ -104,6 +115,8 @@ class StandardKafkaProducer extends AbstractXMLFilter {
     private KafkaProducer<String, byte[]> kafkaProducer = null;
     private KafkaMessageState state = null;
     private boolean flushOnSend = true;
+    private int maxInFlightMessages = 0;
+    private KafkaSendTracker sendTracker = null;
 
     private TransformerHandler xmlValueHandler;
     private ByteArrayOutputStream outputStream;
@@ -112,10 +125,12 @@ class StandardKafkaProducer extends AbstractXMLFilter {
     @Inject
     StandardKafkaProducer(final ErrorReceiverProxy errorReceiverProxy,
                           final LocationFactoryProxy locationFactory,
-                          final KafkaProducerFactory stroomKafkaProducerFactory) {
+                          final KafkaProducerFactory stroomKafkaProducerFactory,
+                          final TaskContextFactory taskContextFactory) {
         this.errorReceiverProxy = errorReceiverProxy;
         this.locationFactory = locationFactory;
         this.stroomKafkaProducerFactory = stroomKafkaProducerFactory;
+        this.taskContextFactory = taskContextFactory;
         this.kafkaMetaFutures = new ArrayDeque<>();
     }
 
@@ -148,6 +163,10 @@ class StandardKafkaProducer extends AbstractXMLFilter {
                 log(Severity.FATAL_ERROR, "No Kafka produce exists for config " + configRef, null);
                 return LoggedException.create("Unable to create Kafka Producer using config " + configRef);
             });
+
+            if (maxInFlightMessages > 0) {
+                sendTracker = new KafkaSendTracker(maxInFlightMessages);
+            }
         } catch (final KafkaException ex) {
             log(Severity.FATAL_ERROR, "Unable to create Kafka Producer using config " + configRef.getUuid(), ex);
         } finally {
@@ -158,7 +177,9 @@ class StandardKafkaProducer extends AbstractXMLFilter {
 
     @Override
     public void endProcessing() {
-        if (flushOnSend) {
+        if (sendTracker != null) {
+            endProcessingWithTracker();
+        } else if (flushOnSend) {
             // Ensure all msgs buffered by kafka has been sent. As the producer is
             // shared this means waiting for other msgs from other streams however the
             // buffer is likely small so should not be a major issue.
@@ -194,6 +215,67 @@ class StandardKafkaProducer extends AbstractXMLFilter {
         super.endProcessing();
     }
 
+    private void endProcessingWithTracker() {
+        if (flushOnSend) {
+            LOGGER.logDurationIfDebugEnabled(
+                    () -> kafkaProducer.flush(),
+                    "KafkaProducer flush");
+        }
+        // The window is bounded so waiting for the outstanding messages is cheap, and means we can
+        // report any failures against this stream.
+        LOGGER.logDurationIfDebugEnabled(
+                sendTracker::awaitAll,
+                "Wait for in-flight messages to complete");
+
+        // Report any failures against the pipeline now that we are back on the pipeline thread.
+        final List<Exception> failures = sendTracker.drainFailures();
+        for (final Exception e : failures) {
+            log(Severity.ERROR, "Error sending message to Kafka", e);
+        }
+        final long unreportedFailures = sendTracker.getFailureCount() - failures.size();
+        if (unreportedFailures > 0) {
+            log(Severity.ERROR, LogUtil.message(
+                    "A further {} messages failed to send to Kafka", unreportedFailures), null);
+        }
+
+        final String metricsSummary = getMetricsSummary();
+        taskContextFactory.current().info(() -> LogUtil.message(
+                "Sent {} Kafka messages ({} acknowledged, {} failed) {}",
+                sendTracker.getSentCount(),
+                sendTracker.getAckCount(),
+                sendTracker.getFailureCount(),
+                metricsSummary));
+        LOGGER.debug("Sent {} Kafka messages ({} acknowledged, {} failed) {}",
+                sendTracker.getSentCount(), sendTracker.getAckCount(), sendTracker.getFailureCount(), metricsSummary);
+    }
+
+    /**
+     * @return A summary of the batching metrics of the shared producer. As the producer is shared these
+     * cover all streams using the same Kafka config, not just this one.
+     */
+    private String getMetricsSummary() {
+        try {
+            final Map<MetricName, ? extends Metric> metrics = kafkaProducer.metrics();
+            final StringBuilder sb = new StringBuilder();
+            for (final Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+                final MetricName metricName = entry.getKey();
+                if (PRODUCER_METRICS_GROUP.equals(metricName.group())
+                    && REPORTED_METRIC_NAMES.contains(metricName.name())) {
+                    if (!sb.isEmpty()) {
+                        sb.append(", ");
+                    }
+                    sb.append(metricName.name())
+                            .append("=")
+                            .append(entry.getValue().metricValue());
+                }
+            }
+            return "[" + sb + "]";
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Unable to read Kafka producer metrics", e);
+            return "";
+        }
+    }
+
     private static Long createTimestamp(final String isoFormat) {
         try {
             final Instant instant = Instant.parse(isoFormat);
@@ -233,7 +315,12 @@ class StandardKafkaProducer extends AbstractXMLFilter {
 
                 try {
                     this.xmlValueHandler = XMLUtil.createTransformerHandler(errorListener, false);
-                    outputStream = new ByteArrayOutputStream();
+                    // Re-use the output stream between messages to avoid growing a new buffer each time
+                    if (outputStream == null) {
+                        outputStream = new ByteArrayOutputStream();
+                    } else {
+                        outputStream.reset();
+                    }
                     xmlValueHandler.setResult(new StreamResult(outputStream));
                     xmlValueHandler.startDocument();
                     xmlValueDepth = 0;
@@ -299,7 +386,7 @@ class StandardKafkaProducer extends AbstractXMLFilter {
                 if (state.inHeader) {
                     state.headerVals.add(content.toString());
                 } else if (xmlValueDepth < 0) {
-                    state.messageValue = content.toString().getBytes(StandardCharsets.UTF_8);
+                    state.messageValue = content.toUtf8Bytes();
                 }
             }
         }
@@ -365,10 +452,21 @@ class StandardKafkaProducer extends AbstractXMLFilter {
                         state.headerVals.get(i).getBytes(StandardCharsets.UTF_8));
             }
 //            logState(state);
-            final Future<RecordMetadata> sendFuture = kafkaProducer.send(record);
-            if (flushOnSend) {
-                //keep hold of the future so we can wait for it at the end of processing
-                kafkaMetaFutures.add(sendFuture);
+            if (sendTracker != null) {
+                // Blocks if the in-flight window is full
+                sendTracker.beforeSend();
+                try {
+                    kafkaProducer.send(record, sendTracker.getCallback());
+                } catch (final RuntimeException e) {
+                    sendTracker.sendAborted();
+                    throw e;
+                }
+            } else {
+                final Future<RecordMetadata> sendFuture = kafkaProducer.send(record);
+                if (flushOnSend) {
+                    //keep hold of the future so we can wait for it at the end of processing
+                    kafkaMetaFutures.add(sendFuture);
+                }
             }
         }
     }
@@ -413,6 +511,20 @@ class StandardKafkaProducer extends AbstractXMLFilter {
         this.flushOnSend = flushOnSend;
     }
 
+    @SuppressWarnings("unused")
+    @PipelineProperty(
+            description = "The maximum number of messages that can be awaiting acknowledgement from the Kafka " +
+                          "broker at once. When greater than zero, messages are sent asynchronously and " +
+                          "processing only blocks when this many messages are outstanding. Any send failures are " +
+                          "reported at the end of the stream. When zero, messages are not tracked and the number " +
+                          "outstanding is not limited. If 'flushOnSend' is set, a future is then held for every " +
+                          "message in the stream and each one is waited on at the end of the stream.",
+            defaultValue = "0",
+            displayPriority = 3)
+    public void setMaxInFlightMessages(final int maxInFlightMessages) {
+        this.maxInFlightMessages = maxInFlightMessages;
+    }
+
     private void log(final Severity severity, final String message, final Exception e) {
         errorReceiverProxy.log(severity, locationFactory.create(locator), getElementId(), message, e);
         switch (severity) {
@@ -0,0 +1,71 @@
+package stroom.kafka.pipeline;
+
+import org.apache.kafka.clients.producer.Callback;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestKafkaSendTracker {
+
+    @Test
+    void testWindowBlocksWhenFull() throws Exception {
+        final KafkaSendTracker tracker = new KafkaSendTracker(2);
+        final Callback callback = tracker.getCallback();
+
+        tracker.beforeSend();
+        tracker.beforeSend();
+        assertThat(tracker.getInFlightCount()).isEqualTo(2);
+
+        // Window is full so a third send should block until one completes
+        final CompletableFuture<Void> thirdSend = CompletableFuture.runAsync(tracker::beforeSend);
+        Thread.sleep(100);
+        assertThat(thirdSend).isNotDone();
+
+        callback.onCompletion(null, null);
+        thirdSend.get(5, TimeUnit.SECONDS);
+
+        callback.onCompletion(null, null);
+        callback.onCompletion(null, null);
+        tracker.awaitAll();
+
+        assertThat(tracker.getInFlightCount()).isZero();
+        assertThat(tracker.getSentCount()).isEqualTo(3);
+        assertThat(tracker.getAckCount()).isEqualTo(3);
+        assertThat(tracker.getFailureCount()).isZero();
+    }
+
+    @Test
+    void testFailuresRetained() {
+        final KafkaSendTracker tracker = new KafkaSendTracker(10);
+        final Callback callback = tracker.getCallback();
+
+        final int failureCount = KafkaSendTracker.MAX_RETAINED_FAILURES + 5;
+        for (int i = 0; i < failureCount; i++) {
+            tracker.beforeSend();
+            callback.onCompletion(null, new RuntimeException("Failure " + i));
+        }
+        tracker.awaitAll();
+
+        assertThat(tracker.getFailureCount()).isEqualTo(failureCount);
+        assertThat(tracker.drainFailures())
+                .hasSize(KafkaSendTracker.MAX_RETAINED_FAILURES)
+                .first()
+                .extracting(Throwable::getMessage)
+                .isEqualTo("Failure 0");
+        assertThat(tracker.drainFailures()).isEmpty();
+    }
+
+    @Test
+    void testSendAborted() {
+        final KafkaSendTracker tracker = new KafkaSendTracker(1);
+        tracker.beforeSend();
+        tracker.sendAborted();
+
+        assertThat(tracker.getInFlightCount()).isZero();
+        assertThat(tracker.getSentCount()).isZero();
+        tracker.awaitAll();
+    }
+}
@@ -3,6 +3,8 @@ package stroom.lifecycle.api;
 import com.google.inject.Binder;
 import com.google.inject.multibindings.MapBinder;
 
+import java.util.Set;
+
 public class LifecycleBinder {
 
     private static final int DEFAULT_PRIORITY = 5;
@@ -27,15 +29,57 @@ public class LifecycleBinder {
     }
 
     /**
-     * Bind the startup task with the supplied priority
+     * Bind the startup task with the supplied priority. The task will start once all startup tasks
+     * with a higher priority and any bound before it with the same priority have completed.
      *
      * @param priority Higher value will start earlier
      */
     public <T extends Runnable> LifecycleBinder bindStartupTaskTo(final Class<T> runnableClass,
                                                                   final int priority) {
-        startupTaskMapBinder.addBinding(new StartupTask(priority))
-                .to(runnableClass);
-        return this;
+        return addStartupTask(runnableClass, priority, null, true);
+    }
+
+    /**
+     * Bind a startup task that will start as soon as the supplied startup tasks have completed, or
+     * straight away if none are supplied. Startup tasks with a priority lower than the default will
+     * still wait for this task.
+     */
+    @SafeVarargs
+    public final <T extends Runnable> LifecycleBinder bindStartupTaskAfter(
+            final Class<T> runnableClass,
+            final Class<? extends Runnable>... dependencies) {
+        return addStartupTask(runnableClass, DEFAULT_PRIORITY, Set.of(dependencies), true);
+    }
+
+    /**
+     * Bind a startup task with the default priority that the node does not need to have
+     * completed before it can serve requests.
+     */
+    public <T extends Runnable> LifecycleBinder bindBackgroundStartupTaskTo(final Class<T> runnableClass) {
+        return bindBackgroundStartupTaskTo(runnableClass, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Bind a startup task with the supplied priority that the node does not need to have
+     * completed before it can serve requests, e.g. starting background processing.
+     *
+     * @param priority Higher value will start earlier
+     */
+    public <T extends Runnable> LifecycleBinder bindBackgroundStartupTaskTo(final Class<T> runnableClass,
+                                                                            final int priority) {
+        return addStartupTask(runnableClass, priority, null, false);
+    }
+
+    /**
+     * Bind a startup task that the node does not need to have completed before it can serve requests
+     * and that will start as soon as the supplied startup tasks have completed, or straight away if
+     * none are supplied. Startup tasks with a priority lower than the default will still wait for this task.
+     */
+    @SafeVarargs
+    public final <T extends Runnable> LifecycleBinder bindBackgroundStartupTaskAfter(
+            final Class<T> runnableClass,
+            final Class<? extends Runnable>... dependencies) {
+        return addStartupTask(runnableClass, DEFAULT_PRIORITY, Set.of(dependencies), false);
     }
 
     /**
@@ -46,13 +90,36 @@ public class LifecycleBinder {
     }
 
     /**
-     * Bind the shutdown task with the supplied priority
+     * Bind the shutdown task with the supplied priority. The task will run once all shutdown tasks
+     * with a higher priority and any bound before it with the same priority have completed.
      *
-     * @param priority Higher value will shutdown later
+     * @param priority Higher value will shutdown earlier
      */
     public <T extends Runnable> LifecycleBinder bindShutdownTaskTo(final Class<T> runnableClass,
                                                                    final int priority) {
-        shutdownTaskMapBinder.addBinding(new ShutdownTask(priority))
+        shutdownTaskMapBinder.addBinding(new ShutdownTask(runnableClass, priority, null))
+                .to(runnableClass);
+        return this;
+    }
+
+    /**
+     * Bind a shutdown task that will run as soon as the supplied shutdown tasks have completed.
+     * Shutdown tasks with a priority lower than the default will still wait for this task.
+     */
+    @SafeVarargs
+    public final <T extends Runnable> LifecycleBinder bindShutdownTaskAfter(
+            final Class<T> runnableClass,
+            final Class<? extends Runnable>... dependencies) {
+        shutdownTaskMapBinder.addBinding(new ShutdownTask(runnableClass, DEFAULT_PRIORITY, Set.of(dependencies)))
+                .to(runnableClass);
+        return this;
+    }
+
+    private <T extends Runnable> LifecycleBinder addStartupTask(final Class<T> runnableClass,
+                                                                final int priority,
+                                                                final Set<Class<? extends Runnable>> dependencies,
+                                                                final boolean requiredForReadiness) {
+        startupTaskMapBinder.addBinding(new StartupTask(runnableClass, priority, dependencies, requiredForReadiness))
                 .to(runnableClass);
         return this;
     }
@@ -0,0 +1,47 @@
+package stroom.lifecycle.api;
+
+import java.util.Set;
+
+/**
+ * Describes when a startup or shutdown task can run. Tasks with no declared dependencies run one
+ * at a time, in priority order and then in the order they were bound, and each also waits for every
+ * task of the same kind with a higher priority. A task that declares dependencies waits only for
+ * those tasks, so can run concurrently with others, though tasks with a lower priority will still
+ * wait for it.
+ */
+public abstract class LifecycleTask {
+
+    private final Class<? extends Runnable> taskClass;
+    private final int priority;
+    private final Set<Class<? extends Runnable>> dependencies;
+
+    LifecycleTask(final Class<? extends Runnable> taskClass,
+                  final int priority,
+                  final Set<Class<? extends Runnable>> dependencies) {
+        this.taskClass = taskClass;
+        this.priority = priority;
+        this.dependencies = dependencies;
+    }
+
+    public Class<? extends Runnable> getTaskClass() {
+        return taskClass;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return The tasks that must complete before this one can run or null if the task waits for
+     * all tasks with a higher priority and the tasks of the same priority bound before it.
+     */
+    public Set<Class<? extends Runnable>> getDependencies() {
+        return dependencies;
+    }
+
+    public boolean hasDependencies() {
+        return dependencies != null;
+    }
+
+    // No equals/hashcode as guice MultiBinder will use object identity
+}
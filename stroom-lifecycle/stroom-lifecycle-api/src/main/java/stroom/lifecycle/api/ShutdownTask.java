@@ -1,14 +1,12 @@
 package stroom.lifecycle.api;
 
-public class ShutdownTask {
+import java.util.Set;
 
-    private final int priority;
+public class ShutdownTask extends LifecycleTask {
 
-    ShutdownTask(final int priority) {
-        this.priority = priority;
-    }
-
-    public int getPriority() {
-        return priority;
+    ShutdownTask(final Class<? extends Runnable> taskClass,
+                 final int priority,
+                 final Set<Class<? extends Runnable>> dependencies) {
+        super(taskClass, priority, dependencies);
     }
 }
@@ -1,15 +1,25 @@
 package stroom.lifecycle.api;
 
-public class StartupTask {
+import java.util.Set;
 
-    private final int priority;
+public class StartupTask extends LifecycleTask {
 
-    StartupTask(final int priority) {
-        this.priority = priority;
+    private final boolean requiredForReadiness;
+
+    StartupTask(final Class<? extends Runnable> taskClass,
+                final int priority,
+                final Set<Class<? extends Runnable>> dependencies,
+                final boolean requiredForReadiness) {
+        super(taskClass, priority, dependencies);
+        this.requiredForReadiness = requiredForReadiness;
     }
 
-    public int getPriority() {
-        return priority;
+    /**
+     * @return True if the node should not be considered ready to serve requests until this task
+     * has completed.
+     */
+    public boolean isRequiredForReadiness() {
+        return requiredForReadiness;
     }
 
     // No equals/hashcode as guice MultiBinder will use object identity
@@ -18,9 +18,16 @@ package stroom.lifecycle.impl;
 
 import stroom.lifecycle.api.ShutdownTask;
 import stroom.lifecycle.api.StartupTask;
+import stroom.lifecycle.impl.LifecycleTaskGraph.Status;
+import stroom.util.HasHealthCheck;
 import stroom.util.concurrent.UncheckedInterruptedException;
 import stroom.util.logging.LogExecutionTime;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+import stroom.util.thread.CustomThreadFactory;
+import stroom.util.thread.StroomThreadGroup;
 
+import com.codahale.metrics.health.HealthCheck;
 import io.dropwizard.lifecycle.Managed;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
@@ -28,31 +35,38 @@ import jakarta.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Deque;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.stream.Collectors;
 
+/**
+ * Runs the bound {@link StartupTask}s and {@link ShutdownTask}s. Each task runs as soon as the tasks it
+ * depends on have finished so tasks that declare their dependencies run concurrently with tasks they are
+ * independent of. Stroom is reported as ready once all the startup tasks that are required for readiness
+ * have finished, while background startup tasks may still be running.
+ */
 @Singleton
-class LifecycleService implements Managed {
+class LifecycleService implements Managed, HasHealthCheck, HasSystemInfo {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleService.class);
 
-    private final Deque<Provider<Runnable>> startPending;
-    private final Deque<Provider<Runnable>> stopPending;
+    private final LifecycleTaskGraph<StartupTask> startupGraph;
+    private final LifecycleTaskGraph<ShutdownTask> shutdownGraph;
 
     // The scheduled executor that executes executable beans.
     private final AtomicBoolean shuttingDown = new AtomicBoolean();
     private final AtomicBoolean enabled = new AtomicBoolean();
 
-    private volatile CountDownLatch startRemaining = new CountDownLatch(0);
-    private volatile CountDownLatch stopRemaining = new CountDownLatch(0);
+    private volatile CompletableFuture<Void> startFuture = CompletableFuture.completedFuture(null);
+    private volatile CompletableFuture<Void> readyFuture;
+    private volatile Duration readyAfter;
 
     @Inject
     LifecycleService(final Map<StartupTask, Provider<Runnable>> startupTaskMap,
@@ -60,17 +74,8 @@ class LifecycleService implements Managed {
                      final LifecycleConfig lifecycleConfig) {
         this.enabled.set(lifecycleConfig.isEnabled());
 
-        startPending = startupTaskMap.entrySet()
-                .stream()
-                .sorted((o1, o2) -> o2.getKey().getPriority() - o1.getKey().getPriority())
-                .map(Entry::getValue)
-                .collect(Collectors.toCollection(ConcurrentLinkedDeque::new));
-
-        stopPending = shutdownTaskMap.entrySet()
-                .stream()
-                .sorted((o1, o2) -> o2.getKey().getPriority() - o1.getKey().getPriority())
-                .map(Entry::getValue)
-                .collect(Collectors.toCollection(ConcurrentLinkedDeque::new));
+        startupGraph = new LifecycleTaskGraph<>("starting up", startupTaskMap);
+        shutdownGraph = new LifecycleTaskGraph<>("shutting down", shutdownTaskMap);
     }
 
     /**
@@ -107,45 +112,29 @@ class LifecycleService implements Managed {
     private synchronized void doStart() {
         if (!shuttingDown.get()) {
             LOGGER.info("Starting Stroom Lifecycle service");
+            final ExecutorService executorService = createExecutorService();
             try {
-                startRemaining = new CountDownLatch(startPending.size());
-                startNext();
+                final LogExecutionTime logExecutionTime = new LogExecutionTime();
+                startFuture = startupGraph.execute(executorService, shuttingDown::get);
+                readyFuture = startupGraph.getFuture(StartupTask::isRequiredForReadiness)
+                        .thenRun(() -> {
+                            readyAfter = logExecutionTime.getDuration();
+                            LOGGER.info("Stroom is ready after {}", logExecutionTime);
+                        });
 
                 // Wait for startup to complete.
-                startRemaining.await();
+                startFuture.get();
+                startupGraph.logTimeline();
 
                 LOGGER.info("Started Stroom Lifecycle service");
             } catch (final InterruptedException | UncheckedInterruptedException e) {
                 LOGGER.info("Interrupted");
                 stop();
-            }
-        }
-    }
-
-    private void startNext() {
-        if (shuttingDown.get()) {
-            // We are shutting down so just exhaust all tasks.
-            while (startPending.pollFirst() != null) {
-                startRemaining.countDown();
-            }
-
-        } else {
-            final Provider<Runnable> runnableProvider = startPending.pollFirst();
-            if (runnableProvider != null) {
-                final Runnable runnable = runnableProvider.get();
-                LOGGER.info("Lifecycle " + runnable.getClass().getSimpleName() + " starting up");
-                CompletableFuture
-                        .runAsync(runnable)
-                        .whenComplete((r, t) -> {
-                            if (t != null) {
-                                while (t instanceof CompletionException) {
-                                    t = t.getCause();
-                                }
-                                LOGGER.error(t.getMessage(), t);
-                            }
-                            startNext();
-                            startRemaining.countDown();
-                        });
+            } catch (final ExecutionException e) {
+                // Tasks catch their own exceptions so this should not happen.
+                LOGGER.error(e.getMessage(), e);
+            } finally {
+                executorService.shutdown();
             }
         }
     }
@@ -153,22 +142,26 @@ class LifecycleService implements Managed {
     private synchronized void doStop() {
         try {
             // Wait for startup to complete.
-            while (!startRemaining.await(1, TimeUnit.SECONDS)) {
+            while (!isDone(startFuture)) {
                 LOGGER.info("Waiting for startup to finish before shutting down");
             }
 
-            stopRemaining = new CountDownLatch(stopPending.size());
-            stopNext();
-
+            final ExecutorService executorService = createExecutorService();
             try {
                 // Wait for stop to complete.
-                stopRemaining.await();
+                shutdownGraph.execute(executorService, () -> false).get();
+                shutdownGraph.logTimeline();
 
             } catch (final InterruptedException e) {
                 LOGGER.error(e.getMessage(), e);
 
                 // Continue to interrupt this thread.
                 Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                // Tasks catch their own exceptions so this should not happen.
+                LOGGER.error(e.getMessage(), e);
+            } finally {
+                executorService.shutdown();
             }
 
             LOGGER.info("Stopped Stroom Lifecycle service");
@@ -177,23 +170,74 @@ class LifecycleService implements Managed {
         }
     }
 
-    private void stopNext() {
-        final Provider<Runnable> runnableProvider = stopPending.pollFirst();
-        if (runnableProvider != null) {
-            final Runnable runnable = runnableProvider.get();
-            LOGGER.info("Lifecycle " + runnable.getClass().getSimpleName() + " shutting down");
-            CompletableFuture
-                    .runAsync(runnable)
-                    .whenComplete((r, t) -> {
-                        if (t != null) {
-                            while (t instanceof CompletionException) {
-                                t = t.getCause();
-                            }
-                            LOGGER.error(t.getMessage(), t);
-                        }
-                        stopNext();
-                        stopRemaining.countDown();
-                    });
+    private boolean isDone(final CompletableFuture<Void> future) throws InterruptedException {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            return true;
+        } catch (final TimeoutException e) {
+            return false;
+        } catch (final ExecutionException e) {
+            return true;
         }
     }
+
+    private ExecutorService createExecutorService() {
+        return Executors.newCachedThreadPool(new CustomThreadFactory(
+                "Stroom Lifecycle #",
+                StroomThreadGroup.instance(),
+                Thread.NORM_PRIORITY));
+    }
+
+    @Override
+    public HealthCheck.Result getHealth() {
+        final HealthCheck.ResultBuilder builder = HealthCheck.Result.builder();
+        final CompletableFuture<Void> readyFuture = this.readyFuture;
+        if (!enabled.get()) {
+            return builder.healthy()
+                    .withMessage("Lifecycle is disabled")
+                    .build();
+        } else if (shuttingDown.get()) {
+            return builder.unhealthy()
+                    .withMessage("Shutting down")
+                    .build();
+        } else if (readyFuture == null) {
+            return builder.unhealthy()
+                    .withMessage("Not started")
+                    .build();
+        } else if (!readyFuture.isDone()) {
+            return builder.unhealthy()
+                    .withMessage("Starting up")
+                    .withDetail("waitingFor", getRequiredTaskNames(Status.PENDING))
+                    .withDetail("running", getRequiredTaskNames(Status.RUNNING))
+                    .build();
+        }
+
+        final List<String> failed = getRequiredTaskNames(Status.FAILED);
+        if (!failed.isEmpty()) {
+            return builder.unhealthy()
+                    .withMessage("Startup tasks failed")
+                    .withDetail("failed", failed)
+                    .build();
+        }
+        return builder.healthy()
+                .withMessage("Ready")
+                .withDetail("readyAfter", String.valueOf(readyAfter))
+                .build();
+    }
+
+    private List<String> getRequiredTaskNames(final Status status) {
+        return startupGraph.getTaskNames(StartupTask::isRequiredForReadiness, status);
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        return SystemInfoResult.builder(this)
+                .description("The order and timing of the lifecycle startup and shutdown tasks on this node")
+                .addDetail("enabled", enabled.get())
+                .addDetail("ready", readyAfter != null)
+                .addDetail("readyAfter", String.valueOf(readyAfter))
+                .addDetail("startup", startupGraph.getTimeline())
+                .addDetail("shutdown", shutdownGraph.getTimeline())
+                .build();
+    }
 }
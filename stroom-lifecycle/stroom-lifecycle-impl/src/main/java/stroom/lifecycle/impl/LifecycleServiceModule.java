@@ -17,6 +17,8 @@
 package stroom.lifecycle.impl;
 
 import stroom.util.guice.GuiceUtil;
+import stroom.util.guice.HasHealthCheckBinder;
+import stroom.util.guice.HasSystemInfoBinder;
 
 import com.google.inject.AbstractModule;
 import io.dropwizard.lifecycle.Managed;
@@ -27,5 +29,11 @@ public class LifecycleServiceModule extends AbstractModule {
     protected void configure() {
         GuiceUtil.buildMultiBinder(binder(), Managed.class)
                 .addBinding(LifecycleService.class);
+
+        HasHealthCheckBinder.create(binder())
+                .bind(LifecycleService.class);
+
+        HasSystemInfoBinder.create(binder())
+                .bind(LifecycleService.class);
     }
 }
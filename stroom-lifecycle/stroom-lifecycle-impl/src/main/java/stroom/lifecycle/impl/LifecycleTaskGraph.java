@@ -0,0 +1,253 @@
+package stroom.lifecycle.impl;
+
+import stroom.lifecycle.api.LifecycleTask;
+
+import jakarta.inject.Provider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * The startup or shutdown tasks arranged by what each task must wait for, so that tasks that declare
+ * dependencies can be run concurrently with tasks they do not depend on. Records when each task ran so
+ * a timeline can be reported.
+ */
+class LifecycleTaskGraph<T extends LifecycleTask> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LifecycleTaskGraph.class);
+
+    private final String action;
+    // In an order where every node comes after the nodes it depends on.
+    private final List<Node<T>> nodes;
+
+    private volatile long startNanos;
+
+    LifecycleTaskGraph(final String action, final Map<T, Provider<Runnable>> taskMap) {
+        this.action = action;
+
+        // The sort is stable so tasks that share a priority stay in the order they were bound.
+        final List<Node<T>> unordered = taskMap.entrySet()
+                .stream()
+                .sorted(Comparator.comparingInt((Map.Entry<T, Provider<Runnable>> entry) ->
+                                entry.getKey().getPriority())
+                        .reversed())
+                .map(entry -> new Node<>(entry.getKey(), entry.getValue()))
+                .toList();
+
+        final Map<Class<? extends Runnable>, List<Node<T>>> nodesByClass = new HashMap<>();
+        unordered.forEach(node ->
+                nodesByClass.computeIfAbsent(node.task.getTaskClass(), k -> new ArrayList<>()).add(node));
+
+        // Tasks without declared dependencies run one at a time in priority then binding order, as
+        // some of them rely on an earlier task of the same priority having finished, e.g. flushing
+        // meta values after the tasks that write them.
+        Node<T> previousUndeclared = null;
+        for (final Node<T> node : unordered) {
+            if (node.task.hasDependencies()) {
+                for (final Class<? extends Runnable> dependency : node.task.getDependencies()) {
+                    final List<Node<T>> dependencyNodes = nodesByClass.get(dependency);
+                    if (dependencyNodes == null) {
+                        throw new IllegalStateException(node.getName() + " depends on " +
+                                dependency.getSimpleName() + " which is not a bound " + action + " task");
+                    }
+                    node.dependencies.addAll(dependencyNodes);
+                }
+            } else {
+                unordered.stream()
+                        .filter(other -> other.task.getPriority() > node.task.getPriority())
+                        .forEach(node.dependencies::add);
+                if (previousUndeclared != null) {
+                    node.dependencies.add(previousUndeclared);
+                }
+                previousUndeclared = node;
+            }
+        }
+
+        this.nodes = sort(unordered);
+    }
+
+    private List<Node<T>> sort(final List<Node<T>> unordered) {
+        final List<Node<T>> sorted = new ArrayList<>(unordered.size());
+        final Set<Node<T>> visited = new HashSet<>();
+        final Set<Node<T>> visiting = new HashSet<>();
+        for (final Node<T> node : unordered) {
+            visit(node, visited, visiting, sorted);
+        }
+        return List.copyOf(sorted);
+    }
+
+    private void visit(final Node<T> node,
+                       final Set<Node<T>> visited,
+                       final Set<Node<T>> visiting,
+                       final List<Node<T>> sorted) {
+        if (visited.contains(node)) {
+            return;
+        }
+        if (!visiting.add(node)) {
+            throw new IllegalStateException("The " + action + " tasks have a circular dependency involving " +
+                    node.getName());
+        }
+        for (final Node<T> dependency : node.dependencies) {
+            visit(dependency, visited, visiting, sorted);
+        }
+        visiting.remove(node);
+        visited.add(node);
+        sorted.add(node);
+    }
+
+    /**
+     * Run all the tasks, each as soon as the tasks it depends on have completed. A task that fails
+     * is logged and does not stop the tasks that depend on it from running.
+     *
+     * @param skip If this returns true when a task is due to run then the task is skipped.
+     * @return A future that completes when all tasks have completed.
+     */
+    CompletableFuture<Void> execute(final Executor executor, final BooleanSupplier skip) {
+        startNanos = System.nanoTime();
+        for (final Node<T> node : nodes) {
+            final CompletableFuture<?>[] dependencyFutures = node.dependencies
+                    .stream()
+                    .map(dependency -> dependency.future)
+                    .toArray(CompletableFuture[]::new);
+            node.future = CompletableFuture.allOf(dependencyFutures)
+                    .thenRunAsync(() -> node.run(action, skip), executor);
+        }
+        return getFuture(task -> true);
+    }
+
+    /**
+     * @return A future that completes when all tasks matching the predicate have completed.
+     */
+    CompletableFuture<Void> getFuture(final Predicate<T> predicate) {
+        return CompletableFuture.allOf(nodes.stream()
+                .filter(node -> predicate.test(node.task))
+                .map(node -> node.future)
+                .toArray(CompletableFuture[]::new));
+    }
+
+    List<String> getTaskNames(final Predicate<T> predicate, final Status status) {
+        return nodes.stream()
+                .filter(node -> predicate.test(node.task) && node.status == status)
+                .map(Node::getName)
+                .toList();
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return When each task started and how long it took, in the order the tasks started.
+     */
+    List<Map<String, Object>> getTimeline() {
+        return nodes.stream()
+                .sorted(Comparator.comparingLong((Node<T> node) -> node.status == Status.PENDING
+                                ? Long.MAX_VALUE
+                                : node.startedNanos)
+                        .thenComparing(Node::getName))
+                .map(this::toTimelineEntry)
+                .toList();
+    }
+
+    void logTimeline() {
+        if (LOGGER.isInfoEnabled()) {
+            final String timeline = getTimeline()
+                    .stream()
+                    .map(entry -> "  " + entry.get("task") +
+                            " " + entry.get("status") +
+                            " at " + entry.getOrDefault("startedAfter", "-") +
+                            " in " + entry.getOrDefault("duration", "-"))
+                    .collect(Collectors.joining("\n"));
+            LOGGER.info("Lifecycle {} timeline:\n{}", action, timeline);
+        }
+    }
+
+    private Map<String, Object> toTimelineEntry(final Node<T> node) {
+        final Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("task", node.getName());
+        entry.put("priority", node.task.getPriority());
+        entry.put("dependsOn", node.task.hasDependencies()
+                ? node.dependencies.stream().map(Node::getName).sorted().toList()
+                : "higher priority and earlier bound tasks");
+        entry.put("status", node.status);
+        if (node.status != Status.PENDING) {
+            entry.put("startedAfter", Duration.ofNanos(node.startedNanos - startNanos).toString());
+        }
+        if (node.status == Status.COMPLETED || node.status == Status.FAILED) {
+            entry.put("duration", Duration.ofNanos(node.finishedNanos - node.startedNanos).toString());
+        }
+        return entry;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        SKIPPED
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class Node<T extends LifecycleTask> {
+
+        private final T task;
+        private final Provider<Runnable> runnableProvider;
+        private final Set<Node<T>> dependencies = new HashSet<>();
+
+        private volatile CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+        private volatile Status status = Status.PENDING;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+
+        private Node(final T task, final Provider<Runnable> runnableProvider) {
+            this.task = task;
+            this.runnableProvider = runnableProvider;
+        }
+
+        private String getName() {
+            return task.getTaskClass().getSimpleName();
+        }
+
+        private void run(final String action, final BooleanSupplier skip) {
+            startedNanos = System.nanoTime();
+            if (skip.getAsBoolean()) {
+                status = Status.SKIPPED;
+                return;
+            }
+
+            status = Status.RUNNING;
+            try {
+                final Runnable runnable = runnableProvider.get();
+                LOGGER.info("Lifecycle " + runnable.getClass().getSimpleName() + " " + action);
+                runnable.run();
+                status = Status.COMPLETED;
+            } catch (final Throwable t) {
+                LOGGER.error(t.getMessage(), t);
+                status = Status.FAILED;
+            } finally {
+                finishedNanos = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package stroom.lifecycle.impl;
+
+import stroom.lifecycle.api.LifecycleBinder;
+import stroom.lifecycle.api.StartupTask;
+import stroom.lifecycle.impl.LifecycleTaskGraph.Status;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestLifecycleTaskGraph {
+
+    private static final List<String> EVENTS = new CopyOnWriteArrayList<>();
+    private static volatile CountDownLatch bothStarted;
+
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        EVENTS.clear();
+        bothStarted = new CountDownLatch(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testSamePriorityRunsSequentially() {
+        // Bound out of name order to check that binding order is kept.
+        final LifecycleTaskGraph<StartupTask> graph = createGraph(binder -> binder
+                .bindStartupTaskTo(First.class, 10)
+                .bindStartupTaskTo(SlowWriter.class)
+                .bindStartupTaskTo(Flush.class)
+                .bindStartupTaskTo(Last.class, 0));
+
+        graph.execute(executorService, () -> false).join();
+
+        // The flush would overtake the slow writer if they were run concurrently.
+        assertThat(EVENTS)
+                .containsExactly("First", "SlowWriter", "Flush", "Last");
+        assertThat(graph.getTaskNames(task -> true, Status.COMPLETED))
+                .hasSize(4);
+    }
+
+    @Test
+    void testDeclaredDependenciesRunConcurrently() {
+        final LifecycleTaskGraph<StartupTask> graph = createGraph(binder -> binder
+                .bindStartupTaskTo(First.class, 10)
+                .bindStartupTaskAfter(ConcurrentA.class, First.class)
+                .bindStartupTaskAfter(ConcurrentB.class, First.class)
+                .bindStartupTaskTo(Last.class, 0));
+
+        graph.execute(executorService, () -> false).join();
+
+        // A and B each wait for the other to start so would time out if run one after the other.
+        assertThat(EVENTS)
+                .containsExactlyInAnyOrder("First", "ConcurrentA", "ConcurrentB", "Last");
+        assertThat(EVENTS.get(0))
+                .isEqualTo("First");
+        assertThat(EVENTS.get(3))
+                .isEqualTo("Last");
+        assertThat(graph.getTaskNames(task -> true, Status.COMPLETED))
+                .hasSize(4);
+    }
+
+    @Test
+    void testNoDependenciesRunConcurrentlyWithPriorityTasks() {
+        // As bound by the modules, a task declaring no dependencies runs alongside the ones bound by priority.
+        final LifecycleTaskGraph<StartupTask> graph = createGraph(binder -> binder
+                .bindStartupTaskTo(First.class, 10)
+                .bindStartupTaskTo(ConcurrentA.class)
+                .bindBackgroundStartupTaskAfter(ConcurrentB.class)
+                .bindStartupTaskTo(Last.class, 0));
+
+        graph.execute(executorService, () -> false).join();
+
+        assertThat(EVENTS)
+                .containsExactlyInAnyOrder("First", "ConcurrentA", "ConcurrentB", "Last");
+        assertThat(EVENTS.get(3))
+                .isEqualTo("Last");
+        assertThat(graph.getTaskNames(StartupTask::isRequiredForReadiness, Status.COMPLETED))
+                .containsExactlyInAnyOrder("First", "ConcurrentA", "Last");
+    }
+
+    @Test
+    void testExplicitDependencies() {
+        final LifecycleTaskGraph<StartupTask> graph = createGraph(binder -> binder
+                .bindStartupTaskTo(First.class, 10)
+                .bindStartupTaskAfter(Last.class, Failing.class)
+                .bindStartupTaskAfter(Failing.class, First.class));
+
+        graph.execute(executorService, () -> false).join();
+
+        // A failed task must not stop the tasks that depend on it.
+        assertThat(EVENTS)
+                .containsExactly("First", "Failing", "Last");
+        assertThat(graph.getTaskNames(task -> true, Status.FAILED))
+                .containsExactly("Failing");
+    }
+
+    @Test
+    void testReadiness() {
+        final LifecycleTaskGraph<StartupTask> graph = createGraph(binder -> binder
+                .bindStartupTaskTo(First.class, 10)
+                .bindBackgroundStartupTaskTo(Last.class, 0));
+
+        graph.execute(executorService, () -> false).join();
+
+        assertThat(graph.getTaskNames(StartupTask::isRequiredForReadiness, Status.COMPLETED))
+                .containsExactly("First");
+        assertThat(graph.getTimeline())
+                .extracting(entry -> entry.get("task"))
+                .containsExactly("First", "Last");
+    }
+
+    @Test
+    void testSkip() {
+        final LifecycleTaskGraph<StartupTask> graph = createGraph(binder -> binder
+                .bindStartupTaskTo(First.class, 10)
+                .bindStartupTaskTo(Last.class, 0));
+
+        graph.execute(executorService, () -> true).join();
+
+        assertThat(EVENTS)
+                .isEmpty();
+        assertThat(graph.getTaskNames(task -> true, Status.SKIPPED))
+                .containsExactlyInAnyOrder("First", "Last");
+    }
+
+    @Test
+    void testCircularDependency() {
+        assertThatThrownBy(() -> createGraph(binder -> binder
+                .bindStartupTaskAfter(First.class, Last.class)
+                .bindStartupTaskAfter(Last.class, First.class)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("circular dependency");
+    }
+
+    @Test
+    void testUnknownDependency() {
+        assertThatThrownBy(() -> createGraph(binder -> binder
+                .bindStartupTaskAfter(Last.class, First.class)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("First");
+    }
+
+    private LifecycleTaskGraph<StartupTask> createGraph(final Consumer<LifecycleBinder> bindings) {
+        final Map<StartupTask, Provider<Runnable>> taskMap = Guice.createInjector(new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bindings.accept(LifecycleBinder.create(binder()));
+                    }
+                })
+                .getInstance(Key.get(new TypeLiteral<Map<StartupTask, Provider<Runnable>>>() {
+                }));
+        return new LifecycleTaskGraph<>("starting up", taskMap);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class First implements Runnable {
+
+        @Override
+        public void run() {
+            EVENTS.add("First");
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class Last implements Runnable {
+
+        @Override
+        public void run() {
+            EVENTS.add("Last");
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class SlowWriter implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                Thread.sleep(200);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            EVENTS.add("SlowWriter");
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class Flush implements Runnable {
+
+        @Override
+        public void run() {
+            EVENTS.add("Flush");
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class Failing implements Runnable {
+
+        @Override
+        public void run() {
+            EVENTS.add("Failing");
+            throw new RuntimeException("Expected failure");
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class ConcurrentA implements Runnable {
+
+        @Override
+        public void run() {
+            awaitBoth();
+            EVENTS.add("ConcurrentA");
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class ConcurrentB implements Runnable {
+
+        @Override
+        public void run() {
+            awaitBoth();
+            EVENTS.add("ConcurrentB");
+        }
+    }
+
+    private static void awaitBoth() {
+        bothStarted.countDown();
+        try {
+            if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Tasks did not run concurrently");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
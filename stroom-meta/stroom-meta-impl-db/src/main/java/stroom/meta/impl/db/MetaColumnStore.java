@@ -0,0 +1,358 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column oriented, in-memory copy of a contiguous range of meta ids. Each column is a primitive
+ * array with one element per meta record, kept in ascending id order so that records can be
+ * located by binary search and the oldest records evicted from the front.
+ * <p>
+ * The store covers every id from {@link #getFirstId()} to {@link #getLastId()} inclusive, i.e.
+ * any meta record in the database with an id in that range is expected to be held here.
+ * <p>
+ * This class is not thread safe, {@link MetaIndexImpl} guards access to it.
+ */
+class MetaColumnStore {
+
+    /**
+     * Value returned by a {@link Column} when the column value is null.
+     */
+    static final long NULL = Long.MIN_VALUE;
+
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    static final Column ID = (store, row) -> store.ids[row];
+    static final Column FEED_ID = (store, row) -> store.feedIds[row];
+    static final Column TYPE_ID = (store, row) -> store.typeIds[row];
+    static final Column STATUS = (store, row) -> store.statuses[row];
+    static final Column CREATE_TIME = (store, row) -> store.createTimes[row];
+    static final Column EFFECTIVE_TIME = (store, row) -> store.effectiveTimes[row];
+    static final Column STATUS_TIME = (store, row) -> store.statusTimes[row];
+    static final Column PARENT_ID = (store, row) -> store.parentIds[row];
+    static final Column PROCESSOR_ID = (store, row) -> fromInt(store.processorIds[row]);
+    static final Column PROCESSOR_FILTER_ID = (store, row) -> fromInt(store.processorFilterIds[row]);
+
+    private final int[] attributeKeyIds;
+
+    private long firstId;
+    private long lastId;
+    private int size;
+
+    private long[] ids;
+    private int[] feedIds;
+    private int[] typeIds;
+    private byte[] statuses;
+    private long[] createTimes;
+    private long[] effectiveTimes;
+    private long[] statusTimes;
+    private long[] parentIds;
+    private int[] processorIds;
+    private int[] processorFilterIds;
+    private long[][] attributes;
+
+    /**
+     * @param firstId         The first meta id covered by the store.
+     * @param attributeKeyIds The meta_key ids of the extended attributes held by the store.
+     */
+    MetaColumnStore(final long firstId, final int[] attributeKeyIds) {
+        this.firstId = firstId;
+        this.lastId = firstId - 1;
+        this.attributeKeyIds = attributeKeyIds.clone();
+
+        ids = new long[INITIAL_CAPACITY];
+        feedIds = new int[INITIAL_CAPACITY];
+        typeIds = new int[INITIAL_CAPACITY];
+        statuses = new byte[INITIAL_CAPACITY];
+        createTimes = new long[INITIAL_CAPACITY];
+        effectiveTimes = new long[INITIAL_CAPACITY];
+        statusTimes = new long[INITIAL_CAPACITY];
+        parentIds = new long[INITIAL_CAPACITY];
+        processorIds = new int[INITIAL_CAPACITY];
+        processorFilterIds = new int[INITIAL_CAPACITY];
+        attributes = new long[attributeKeyIds.length][INITIAL_CAPACITY];
+    }
+
+    long getFirstId() {
+        return firstId;
+    }
+
+    long getLastId() {
+        return lastId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] getAttributeKeyIds() {
+        return attributeKeyIds.clone();
+    }
+
+    /**
+     * @return The index of the attribute column holding values for the supplied meta_key id or
+     * -1 if the attribute is not held.
+     */
+    int getAttributeIndex(final int metaKeyId) {
+        for (int i = 0; i < attributeKeyIds.length; i++) {
+            if (attributeKeyIds[i] == metaKeyId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static Column attribute(final int attributeIndex) {
+        return (store, row) -> store.attributes[attributeIndex][row];
+    }
+
+    /**
+     * Add or update rows. Rows must be supplied in ascending id order. Rows with ids below the
+     * first id of the store are ignored. The last id covered by the store is advanced to
+     * {@code coveredToId} if that is higher than the current last id.
+     */
+    void upsert(final List<Row> rows, final long coveredToId) {
+        for (final Row row : rows) {
+            final long id = row.id();
+            if (id >= firstId) {
+                final int pos = indexOf(id);
+                if (pos >= 0) {
+                    set(pos, row);
+                } else {
+                    // A record committed after records with higher ids, so insert it in id order.
+                    insert(-(pos + 1), row);
+                }
+            }
+        }
+        if (coveredToId > lastId) {
+            lastId = coveredToId;
+        }
+    }
+
+    void updateStatus(final long id, final byte status, final Long statusTime) {
+        final int pos = indexOf(id);
+        if (pos >= 0) {
+            statuses[pos] = status;
+            statusTimes[pos] = toLong(statusTime);
+        }
+    }
+
+    void setAttribute(final long metaId, final int attributeIndex, final long value) {
+        final int pos = indexOf(metaId);
+        if (pos >= 0) {
+            attributes[attributeIndex][pos] = value;
+        }
+    }
+
+    /**
+     * Remove records from the front of the store that were created before {@code minCreateTime}
+     * and any further records needed to bring the size of the store down to {@code maxRows}.
+     *
+     * @return The number of records removed.
+     */
+    int evict(final long minCreateTime, final int maxRows) {
+        int count = 0;
+        while (count < size && createTimes[count] < minCreateTime) {
+            count++;
+        }
+        count = Math.max(count, size - maxRows);
+        if (count > 0) {
+            firstId = count < size
+                    ? ids[count]
+                    : lastId + 1;
+            final int remaining = size - count;
+            System.arraycopy(ids, count, ids, 0, remaining);
+            System.arraycopy(feedIds, count, feedIds, 0, remaining);
+            System.arraycopy(typeIds, count, typeIds, 0, remaining);
+            System.arraycopy(statuses, count, statuses, 0, remaining);
+            System.arraycopy(createTimes, count, createTimes, 0, remaining);
+            System.arraycopy(effectiveTimes, count, effectiveTimes, 0, remaining);
+            System.arraycopy(statusTimes, count, statusTimes, 0, remaining);
+            System.arraycopy(parentIds, count, parentIds, 0, remaining);
+            System.arraycopy(processorIds, count, processorIds, 0, remaining);
+            System.arraycopy(processorFilterIds, count, processorFilterIds, 0, remaining);
+            for (final long[] column : attributes) {
+                System.arraycopy(column, count, column, 0, remaining);
+            }
+            size = remaining;
+        }
+        return count;
+    }
+
+    /**
+     * Count the records that match the predicate and return the ids of the matching records
+     * that fall within the requested page.
+     *
+     * @param descending True to page through the matches in descending id order.
+     * @param offset     The number of matches to skip before collecting ids.
+     * @param limit      The maximum number of ids to collect, zero if only a count is required.
+     */
+    Match match(final MetaRowPredicate predicate,
+                final boolean descending,
+                final int offset,
+                final int limit) {
+        long[] page = new long[Math.min(Math.max(limit, 0), Math.max(size, 0))];
+        int pageSize = 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            final int row = descending
+                    ? size - 1 - i
+                    : i;
+            if (predicate.test(this, row) == MetaRowPredicate.TRUE) {
+                if (count >= offset && pageSize < page.length) {
+                    page[pageSize++] = ids[row];
+                }
+                count++;
+            }
+        }
+        if (pageSize < page.length) {
+            page = Arrays.copyOf(page, pageSize);
+        }
+        return new Match(count, page);
+    }
+
+    private int indexOf(final long id) {
+        if (size > 0 && id > ids[size - 1]) {
+            // Fast path for appending new records.
+            return -(size + 1);
+        }
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    private void insert(final int pos, final Row row) {
+        ensureCapacity(size + 1);
+        final int tail = size - pos;
+        if (tail > 0) {
+            System.arraycopy(ids, pos, ids, pos + 1, tail);
+            System.arraycopy(feedIds, pos, feedIds, pos + 1, tail);
+            System.arraycopy(typeIds, pos, typeIds, pos + 1, tail);
+            System.arraycopy(statuses, pos, statuses, pos + 1, tail);
+            System.arraycopy(createTimes, pos, createTimes, pos + 1, tail);
+            System.arraycopy(effectiveTimes, pos, effectiveTimes, pos + 1, tail);
+            System.arraycopy(statusTimes, pos, statusTimes, pos + 1, tail);
+            System.arraycopy(parentIds, pos, parentIds, pos + 1, tail);
+            System.arraycopy(processorIds, pos, processorIds, pos + 1, tail);
+            System.arraycopy(processorFilterIds, pos, processorFilterIds, pos + 1, tail);
+            for (final long[] column : attributes) {
+                System.arraycopy(column, pos, column, pos + 1, tail);
+            }
+        }
+        size++;
+        for (final long[] column : attributes) {
+            column[pos] = NULL;
+        }
+        set(pos, row);
+    }
+
+    private void set(final int pos, final Row row) {
+        ids[pos] = row.id();
+        feedIds[pos] = row.feedId();
+        typeIds[pos] = row.typeId();
+        statuses[pos] = row.status();
+        createTimes[pos] = row.createTime();
+        effectiveTimes[pos] = toLong(row.effectiveTime());
+        statusTimes[pos] = toLong(row.statusTime());
+        parentIds[pos] = toLong(row.parentId());
+        processorIds[pos] = toInt(row.processorId());
+        processorFilterIds[pos] = toInt(row.processorFilterId());
+    }
+
+    private void ensureCapacity(final int required) {
+        if (required > ids.length) {
+            final int capacity = Math.max(required, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            feedIds = Arrays.copyOf(feedIds, capacity);
+            typeIds = Arrays.copyOf(typeIds, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            createTimes = Arrays.copyOf(createTimes, capacity);
+            effectiveTimes = Arrays.copyOf(effectiveTimes, capacity);
+            statusTimes = Arrays.copyOf(statusTimes, capacity);
+            parentIds = Arrays.copyOf(parentIds, capacity);
+            processorIds = Arrays.copyOf(processorIds, capacity);
+            processorFilterIds = Arrays.copyOf(processorFilterIds, capacity);
+            for (int i = 0; i < attributes.length; i++) {
+                attributes[i] = Arrays.copyOf(attributes[i], capacity);
+            }
+        }
+    }
+
+    private static long toLong(final Long value) {
+        return value == null
+                ? NULL
+                : value;
+    }
+
+    private static int toInt(final Integer value) {
+        return value == null
+                ? NULL_INT
+                : value;
+    }
+
+    private static long fromInt(final int value) {
+        return value == NULL_INT
+                ? NULL
+                : value;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Reads the value of a column for a row, returning {@link #NULL} for null values.
+     */
+    @FunctionalInterface
+    interface Column {
+
+        long get(MetaColumnStore store, int row);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A meta record as read from the meta table.
+     */
+    record Row(long id,
+               int feedId,
+               int typeId,
+               byte status,
+               long createTime,
+               Long effectiveTime,
+               Long statusTime,
+               Long parentId,
+               Integer processorId,
+               Integer processorFilterId) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param count The total number of matching records.
+     * @param ids   The ids of the matching records in the requested page.
+     */
+    record Match(int count, long[] ids) {
+
+    }
+}
@@ -38,6 +38,8 @@ import stroom.meta.api.EffectiveMetaSet.Builder;
 import stroom.meta.api.MetaProperties;
 import stroom.meta.impl.MetaDao;
 import stroom.meta.impl.MetaServiceConfig;
+import stroom.meta.impl.db.MetaIndexImpl.IndexMatch;
+import stroom.meta.impl.db.MetaPartitionDaoImpl.Partition;
 import stroom.meta.impl.db.jooq.tables.MetaFeed;
 import stroom.meta.impl.db.jooq.tables.MetaProcessor;
 import stroom.meta.impl.db.jooq.tables.MetaType;
@@ -144,6 +146,10 @@ public class MetaDaoImpl implements MetaDao {
 
     private static final int FIND_RECORD_LIMIT = 1000000;
 
+    // Finds that need more rows than this will not use the meta index.
+    private static final int MAX_INDEX_FIND_ROWS = 100_000;
+    private static final int MAX_IDS_PER_SELECT = 1_000;
+
     static final stroom.meta.impl.db.jooq.tables.Meta meta = META.as("m");
     static final MetaFeed metaFeed = META_FEED.as("f");
     static final MetaType metaType = META_TYPE.as("t");
@@ -202,6 +208,8 @@ public class MetaDaoImpl implements MetaDao {
     private final ExpressionMapper expressionMapper;
     private final MetaExpressionMapper metaExpressionMapper;
     private final ValueMapper valueMapper;
+    private final MetaIndexImpl metaIndex;
+    private final MetaPartitionDaoImpl metaPartitionDao;
 
     @Inject
     MetaDaoImpl(final MetaDbConnProvider metaDbConnProvider,
@@ -213,7 +221,9 @@ public class MetaDaoImpl implements MetaDao {
                 final Provider<MetaServiceConfig> metaServiceConfigProvider,
                 final ExpressionMapperFactory expressionMapperFactory,
                 final DocRefInfoService docRefInfoService,
-                final TermHandlerFactory termHandlerFactory) {
+                final TermHandlerFactory termHandlerFactory,
+                final MetaIndexImpl metaIndex,
+                final MetaPartitionDaoImpl metaPartitionDao) {
         this.metaDbConnProvider = metaDbConnProvider;
         this.feedDao = feedDao;
         this.metaTypeDao = metaTypeDao;
@@ -222,6 +232,8 @@ public class MetaDaoImpl implements MetaDao {
         this.dataRetentionConfigProvider = dataRetentionConfigProvider;
         this.metaServiceConfigProvider = metaServiceConfigProvider;
         this.docRefInfoService = docRefInfoService;
+        this.metaIndex = metaIndex;
+        this.metaPartitionDao = metaPartitionDao;
 
         // Extended meta fields.
         metaExpressionMapper = new MetaExpressionMapper(metaKeyDao, termHandlerFactory);
@@ -969,6 +981,9 @@ public class MetaDaoImpl implements MetaDao {
             Instant startTime;
             Instant startTimeInc = period.getFrom();
             final int batchSize = dataRetentionConfig.getDeleteBatchSize();
+            // If meta is partitioned by create_time then work through one partition at a time
+            // so each select and update only touches a single partition.
+            final List<Partition> partitions = metaPartitionDao.getPartitionsIfEnabled(META);
 
             // The aim here is to ensure we lock up the meta table for as short a time
             // as possible. As we are updating by non-unique indexes it is likely we will
@@ -981,15 +996,25 @@ public class MetaDaoImpl implements MetaDao {
             // feed_id|create_time index.
             do {
                 // Get a sub period of period
+                final Long partitionEndMs = MetaPartitionDaoImpl.getPartitionEnd(
+                        partitions, startTimeInc.toEpochMilli());
 
                 startTime = Instant.now();
                 final Optional<TimePeriod> optSubPeriod = getTimeSlice(
-                        startTimeInc, batchSize, conditions, rulesUsePipelineField);
+                        startTimeInc, partitionEndMs, batchSize, conditions, rulesUsePipelineField);
 
                 totalSelectDuration = totalSelectDuration.plus(Duration.between(startTime,
                         Instant.now().plusMillis(1)));
 
                 if (optSubPeriod.isEmpty()) {
+                    if (partitionEndMs != null && partitionEndMs < period.getTo().toEpochMilli()) {
+                        LOGGER.debug("No time slice found before partition end {}, moving to next partition",
+                                partitionEndMs);
+                        startTimeInc = Instant.ofEpochMilli(partitionEndMs);
+                        // Non-zero so the loop carries on with the next partition
+                        lastUpdateCount = -1;
+                        continue;
+                    }
                     LOGGER.debug("No time slice found");
                     break;
                 }
@@ -1058,11 +1083,17 @@ public class MetaDaoImpl implements MetaDao {
         return totalUpdateCount.get();
     }
 
+    /**
+     * @param endTimeExc An optional exclusive upper bound for the slice, e.g. the end of the
+     *                   partition that {@code startTimeInc} falls in.
+     */
     private Optional<TimePeriod> getTimeSlice(final Instant startTimeInc,
+                                              final Long endTimeExc,
                                               final int batchSize,
                                               final List<Condition> conditions,
                                               final boolean includesMetaProcessorTbl) {
-        LOGGER.debug("getTimeSlice({}, {}, {}, {})", startTimeInc, batchSize, conditions, includesMetaProcessorTbl);
+        LOGGER.debug("getTimeSlice({}, {}, {}, {}, {})",
+                startTimeInc, endTimeExc, batchSize, conditions, includesMetaProcessorTbl);
 
         final String createTimeCol = meta.CREATE_TIME.getName();
         final String minCreateTimeCol = "min_create_time";
@@ -1085,6 +1116,9 @@ public class MetaDaoImpl implements MetaDao {
                                             .from(fromClause)
                                             .where(conditions)
                                             .and(meta.CREATE_TIME.greaterOrEqual(startTimeInc.toEpochMilli()))
+                                            .and(endTimeExc != null
+                                                    ? meta.CREATE_TIME.lessThan(endTimeExc)
+                                                    : DSL.noCondition())
                                             .orderBy(meta.CREATE_TIME)
                                             .asTable("orderedFullSet");
 
@@ -1216,6 +1250,19 @@ public class MetaDaoImpl implements MetaDao {
         final Set<Integer> usedValKeys = identifyExtendedAttributesFields(criteria.getExpression(),
                 new HashSet<>());
 
+        // If the meta index can answer the criteria then only count the ids it doesn't cover in the DB.
+        final Optional<IndexMatch> optionalIndexMatch = metaIndex.match(criteria.getExpression(), false, 0, 0);
+        if (optionalIndexMatch.isPresent()) {
+            final IndexMatch indexMatch = optionalIndexMatch.get();
+            return indexMatch.count() + count(
+                    and(conditions, createNotIndexedCondition(indexMatch)),
+                    usedValKeys);
+        }
+        return count(conditions, usedValKeys);
+    }
+
+    private int count(final Collection<Condition> conditions,
+                      final Set<Integer> usedValKeys) {
         final Object result = JooqUtil.contextResult(metaDbConnProvider, context ->
                         metaExpressionMapper.addJoins(
                                         context
@@ -1412,7 +1459,8 @@ public class MetaDaoImpl implements MetaDao {
         final Set<Integer> extendedAttributeIds = identifyExtendedAttributesFields(criteria.getExpression(),
                 new HashSet<>());
 
-        final List<Meta> list = find(conditions, orderFields, offset, numberOfRows, extendedAttributeIds);
+        final List<Meta> list = findUsingIndex(criteria, conditions, offset, numberOfRows, extendedAttributeIds)
+                .orElseGet(() -> find(conditions, orderFields, offset, numberOfRows, extendedAttributeIds));
         if (list.size() >= FIND_RECORD_LIMIT) {
             LOGGER.warn("Hit max record limit of '" + FIND_RECORD_LIMIT + "' when finding meta records");
         }
@@ -1420,6 +1468,132 @@ public class MetaDaoImpl implements MetaDao {
         return ResultPage.createCriterialBasedList(list, criteria);
     }
 
+    /**
+     * If the results are ordered by id and the meta index can answer the criteria then the page is
+     * assembled from up to three id ranges, in order: the ids below those covered by the index and
+     * the ids above those covered by the index, both read from the DB, and the matching ids held in
+     * the index, for which only the page of records is read from the DB.
+     */
+    private Optional<List<Meta>> findUsingIndex(final FindMetaCriteria criteria,
+                                                final Collection<Condition> conditions,
+                                                final int offset,
+                                                final int numberOfRows,
+                                                final Set<Integer> extendedAttributeIds) {
+        final Boolean descending;
+        if (NullSafe.isEmptyCollection(criteria.getSortList())) {
+            descending = false;
+        } else if (criteria.getSortList().size() == 1
+                   && MetaFields.ID.getFldName().equals(criteria.getSortList().getFirst().getId())) {
+            descending = criteria.getSortList().getFirst().isDesc();
+        } else {
+            descending = null;
+        }
+        final long rowsRequired = (long) offset + numberOfRows;
+        if (descending == null || rowsRequired > MAX_INDEX_FIND_ROWS) {
+            return Optional.empty();
+        }
+
+        return metaIndex.match(criteria.getExpression(), descending, 0, (int) rowsRequired)
+                .map(indexMatch -> {
+                    final Collection<OrderField<?>> orderFields = createIdOrderFields(descending);
+                    final Condition belowIndex = meta.ID.lessThan(indexMatch.firstId());
+                    final Condition aboveIndex = meta.ID.greaterThan(indexMatch.lastId());
+                    final Condition first = descending
+                            ? aboveIndex
+                            : belowIndex;
+                    final Condition last = descending
+                            ? belowIndex
+                            : aboveIndex;
+                    // If the index is complete then there is nothing below it.
+                    final boolean queryFirst = descending || !indexMatch.complete();
+                    final boolean queryLast = !descending || !indexMatch.complete();
+
+                    final List<Meta> list = new ArrayList<>();
+                    int skip = offset;
+
+                    // Records before the index range in the requested order.
+                    if (queryFirst) {
+                        skip = findRange(and(conditions, first), orderFields, skip, numberOfRows,
+                                extendedAttributeIds, list);
+                    }
+
+                    // Records from the index.
+                    if (list.size() < numberOfRows) {
+                        final long[] ids = indexMatch.ids();
+                        final int from = Math.min(skip, ids.length);
+                        final int to = Math.min(ids.length, from + numberOfRows - list.size());
+                        list.addAll(findByIds(Arrays.copyOfRange(ids, from, to), descending));
+                        skip = Math.max(0, skip - indexMatch.count());
+                    }
+
+                    // Records after the index range in the requested order.
+                    if (queryLast && list.size() < numberOfRows) {
+                        findRange(and(conditions, last), orderFields, skip, numberOfRows - list.size(),
+                                extendedAttributeIds, list);
+                    }
+                    return list;
+                });
+    }
+
+    /**
+     * Add a page of records for the conditions to the list.
+     *
+     * @return The number of records still to be skipped after this range.
+     */
+    private int findRange(final Collection<Condition> conditions,
+                          final Collection<OrderField<?>> orderFields,
+                          final int skip,
+                          final int numberOfRows,
+                          final Set<Integer> extendedAttributeIds,
+                          final List<Meta> list) {
+        final List<Meta> rows = find(conditions, orderFields, skip, numberOfRows, extendedAttributeIds);
+        if (!rows.isEmpty()) {
+            list.addAll(rows);
+            return 0;
+        } else if (skip > 0) {
+            return Math.max(0, skip - count(conditions, extendedAttributeIds));
+        }
+        return 0;
+    }
+
+    private List<Meta> findByIds(final long[] ids, final boolean descending) {
+        final List<Meta> list = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i += MAX_IDS_PER_SELECT) {
+            final List<Long> batch = Arrays.stream(ids, i, Math.min(ids.length, i + MAX_IDS_PER_SELECT))
+                    .boxed()
+                    .toList();
+            list.addAll(find(
+                    Collections.singletonList(meta.ID.in(batch)),
+                    createIdOrderFields(descending),
+                    0,
+                    batch.size(),
+                    Collections.emptySet()));
+        }
+        return list;
+    }
+
+    private static Collection<OrderField<?>> createIdOrderFields(final boolean descending) {
+        final OrderField<Long> orderField = descending
+                ? meta.ID.desc()
+                : meta.ID;
+        return Collections.singletonList(orderField);
+    }
+
+    private static Condition createNotIndexedCondition(final IndexMatch indexMatch) {
+        final Condition aboveIndex = meta.ID.greaterThan(indexMatch.lastId());
+        return indexMatch.complete()
+                ? aboveIndex
+                : meta.ID.lessThan(indexMatch.firstId()).or(aboveIndex);
+    }
+
+    private static Collection<Condition> and(final Collection<Condition> conditions,
+                                             final Condition condition) {
+        final List<Condition> list = new ArrayList<>(conditions.size() + 1);
+        list.addAll(conditions);
+        list.add(condition);
+        return list;
+    }
+
     private Set<Integer> identifyExtendedAttributesFields(final ExpressionOperator expr,
                                                           final Set<Integer> identified) {
 
@@ -4,13 +4,16 @@ import stroom.cache.api.CacheManager;
 import stroom.lifecycle.api.LifecycleBinder;
 import stroom.meta.impl.MetaDao;
 import stroom.meta.impl.MetaFeedDao;
+import stroom.meta.impl.MetaIndex;
 import stroom.meta.impl.MetaKeyDao;
+import stroom.meta.impl.MetaPartitionDao;
 import stroom.meta.impl.MetaProcessorDao;
 import stroom.meta.impl.MetaRetentionTrackerDao;
 import stroom.meta.impl.MetaTypeDao;
 import stroom.meta.impl.MetaValueDao;
 import stroom.util.RunnableWrapper;
 import stroom.util.guice.GuiceUtil;
+import stroom.util.guice.HasSystemInfoBinder;
 import stroom.util.shared.Clearable;
 
 import com.google.inject.AbstractModule;
@@ -31,25 +34,32 @@ public class MetaDaoModule extends AbstractModule {
         bind(MetaValueDao.class).to(MetaValueDaoImpl.class);
         bind(MetaDao.class).to(MetaDaoImpl.class);
         bind(MetaRetentionTrackerDao.class).to(MetaRetentionTrackerDaoImpl.class);
+        bind(MetaIndex.class).to(MetaIndexImpl.class);
+        bind(MetaPartitionDao.class).to(MetaPartitionDaoImpl.class);
 
         GuiceUtil.buildMultiBinder(binder(), Clearable.class)
                 .addBinding(MetaValueDaoImpl.class)
                 .addBinding(MetaKeyDaoImpl.class)
                 .addBinding(MetaProcessorDaoImpl.class)
                 .addBinding(MetaTypeDaoImpl.class)
-                .addBinding(MetaFeedDaoImpl.class);
+                .addBinding(MetaFeedDaoImpl.class)
+                .addBinding(MetaIndexImpl.class);
+
+        HasSystemInfoBinder.create(binder())
+                .bind(MetaIndexImpl.class)
+                .bind(MetaPartitionDaoImpl.class);
 
         LifecycleBinder.create(binder())
-                .bindShutdownTaskTo(MetaValueServiceFlush.class);
+                .bindShutdownTaskTo(MetaValueServiceShutdown.class);
 
 
     }
 
-    private static class MetaValueServiceFlush extends RunnableWrapper {
+    private static class MetaValueServiceShutdown extends RunnableWrapper {
 
         @Inject
-        MetaValueServiceFlush(final MetaValueDaoImpl metaValueService) {
-            super(metaValueService::flush);
+        MetaValueServiceShutdown(final MetaValueDaoImpl metaValueService) {
+            super(metaValueService::shutdown);
         }
     }
 }
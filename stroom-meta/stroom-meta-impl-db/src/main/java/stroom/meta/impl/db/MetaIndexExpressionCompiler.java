@@ -0,0 +1,286 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+import stroom.meta.impl.db.MetaColumnStore.Column;
+import stroom.query.api.ExpressionItem;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionOperator.Op;
+import stroom.query.api.ExpressionTerm;
+import stroom.query.api.datasource.QueryField;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.NullSafe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Compiles a meta {@link ExpressionOperator} into a {@link MetaRowPredicate} that can be
+ * evaluated against a {@link MetaColumnStore}. The semantics of each condition mirror those of
+ * {@link stroom.db.util.TermHandler} and {@link stroom.db.util.CommonExpressionMapper} so that
+ * the index returns the same records as the database would.
+ * <p>
+ * If the expression contains a field or condition that cannot be answered from the index then
+ * no predicate is returned and the caller should query the database instead.
+ */
+class MetaIndexExpressionCompiler {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(MetaIndexExpressionCompiler.class);
+
+    private static final String LIST_DELIMITER = ",";
+
+    private final Map<String, FieldMapping> fieldMap = new HashMap<>();
+
+    /**
+     * Map a field to a column where each term value converts to a single column value.
+     */
+    void map(final QueryField field,
+             final Column column,
+             final Function<String, Long> converter) {
+        multiMap(field, column, values -> values.stream()
+                .filter(value -> !NullSafe.isBlankString(value))
+                .map(converter)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    /**
+     * Map a field to a column where each term value converts to 0-many column values, e.g.
+     * wild-carded feed names.
+     */
+    void multiMap(final QueryField field,
+                  final Column column,
+                  final Function<List<String>, List<Long>> converter) {
+        fieldMap.put(field.getFldName(), new FieldMapping(column, converter));
+    }
+
+    /**
+     * @return A predicate for the expression or empty if the expression cannot be answered from
+     * the index.
+     */
+    Optional<MetaRowPredicate> compile(final ExpressionOperator expression) {
+        try {
+            final MetaRowPredicate predicate = compileItem(expression);
+            return Optional.of(predicate != null
+                    ? predicate
+                    : MetaRowPredicate.ALWAYS_TRUE);
+        } catch (final UnsupportedExpressionException e) {
+            LOGGER.debug(() -> "Unable to use meta index: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return The predicate or null if the item is disabled or contributes no condition.
+     */
+    private MetaRowPredicate compileItem(final ExpressionItem item) {
+        if (item == null || !item.enabled()) {
+            return null;
+        }
+
+        if (item instanceof final ExpressionTerm term) {
+            return compileTerm(term);
+        } else if (item instanceof final ExpressionOperator operator) {
+            final List<MetaRowPredicate> children = new ArrayList<>();
+            for (final ExpressionItem child : NullSafe.list(operator.getChildren())) {
+                final MetaRowPredicate predicate = compileItem(child);
+                if (predicate != null) {
+                    children.add(predicate);
+                }
+            }
+
+            if (children.isEmpty()) {
+                return null;
+            }
+            final MetaRowPredicate combined;
+            if (children.size() == 1) {
+                combined = children.getFirst();
+            } else if (Op.OR.equals(operator.op())) {
+                combined = MetaRowPredicate.or(children.toArray(new MetaRowPredicate[0]));
+            } else {
+                combined = MetaRowPredicate.and(children.toArray(new MetaRowPredicate[0]));
+            }
+            return Op.NOT.equals(operator.op())
+                    ? MetaRowPredicate.not(combined)
+                    : combined;
+        }
+        throw new UnsupportedExpressionException("Unknown expression item type " + item.getClass().getName());
+    }
+
+    private MetaRowPredicate compileTerm(final ExpressionTerm term) {
+        final FieldMapping mapping = fieldMap.get(term.getField());
+        if (mapping == null || term.getCondition() == null) {
+            throw new UnsupportedExpressionException("Field not held in index: " + term);
+        }
+        final Column column = mapping.column();
+
+        switch (term.getCondition()) {
+            case EQUALS -> {
+                final long[] values = mapping.convert(term.getValue());
+                if (values.length == 0) {
+                    return isNull(column);
+                } else if (values.length > 1) {
+                    return in(column, values);
+                }
+                return compare(column, value -> value == values[0]);
+            }
+            case NOT_EQUALS -> {
+                final long[] values = mapping.convert(term.getValue());
+                if (values.length == 0) {
+                    return MetaRowPredicate.not(isNull(column));
+                } else if (values.length > 1) {
+                    return notIn(column, values);
+                }
+                return compare(column, value -> value != values[0]);
+            }
+            case BETWEEN -> {
+                if (term.getValue() == null) {
+                    throw new UnsupportedExpressionException("No value for " + term);
+                }
+                final String[] parts = term.getValue().split(LIST_DELIMITER);
+                if (parts.length == 2) {
+                    final long[] from = mapping.convert(parts[0]);
+                    final long[] to = mapping.convert(parts[1]);
+                    if (from.length == 1 && to.length == 1) {
+                        return compare(column, value -> value >= from[0] && value <= to[0]);
+                    }
+                }
+                return MetaRowPredicate.ALWAYS_FALSE;
+            }
+            case GREATER_THAN -> {
+                return single(mapping, term, operand -> compare(column, value -> value > operand));
+            }
+            case GREATER_THAN_OR_EQUAL_TO -> {
+                return single(mapping, term, operand -> compare(column, value -> value >= operand));
+            }
+            case LESS_THAN -> {
+                return single(mapping, term, operand -> compare(column, value -> value < operand));
+            }
+            case LESS_THAN_OR_EQUAL_TO -> {
+                return single(mapping, term, operand -> compare(column, value -> value <= operand));
+            }
+            case IN -> {
+                final String value = NullSafe.get(term.getValue(), String::trim);
+                if (value != null && !value.isEmpty()) {
+                    final List<String> parts = Arrays.stream(value.split(LIST_DELIMITER))
+                            .map(String::trim)
+                            .filter(part -> !part.isEmpty())
+                            .toList();
+                    return in(column, mapping.convert(parts));
+                }
+                // Empty in list so same as 1==0
+                return MetaRowPredicate.ALWAYS_FALSE;
+            }
+            case IS_NULL -> {
+                return isNull(column);
+            }
+            case IS_NOT_NULL -> {
+                return MetaRowPredicate.not(isNull(column));
+            }
+            default -> throw new UnsupportedExpressionException("Condition not supported by index: " + term);
+        }
+    }
+
+    private static MetaRowPredicate single(final FieldMapping mapping,
+                                           final ExpressionTerm term,
+                                           final Function<Long, MetaRowPredicate> function) {
+        final long[] values = mapping.convert(term.getValue());
+        if (values.length == 1) {
+            return function.apply(values[0]);
+        }
+        return MetaRowPredicate.ALWAYS_FALSE;
+    }
+
+    private static MetaRowPredicate isNull(final Column column) {
+        return (store, row) -> column.get(store, row) == MetaColumnStore.NULL
+                ? MetaRowPredicate.TRUE
+                : MetaRowPredicate.FALSE;
+    }
+
+    private static MetaRowPredicate compare(final Column column, final LongCondition condition) {
+        return (store, row) -> {
+            final long value = column.get(store, row);
+            if (value == MetaColumnStore.NULL) {
+                return MetaRowPredicate.UNKNOWN;
+            }
+            return condition.test(value)
+                    ? MetaRowPredicate.TRUE
+                    : MetaRowPredicate.FALSE;
+        };
+    }
+
+    private static MetaRowPredicate in(final Column column, final long[] values) {
+        if (values.length == 0) {
+            return MetaRowPredicate.ALWAYS_FALSE;
+        }
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return compare(column, value -> Arrays.binarySearch(sorted, value) >= 0);
+    }
+
+    private static MetaRowPredicate notIn(final Column column, final long[] values) {
+        final long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return compare(column, value -> Arrays.binarySearch(sorted, value) < 0);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    private interface LongCondition {
+
+        boolean test(long value);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record FieldMapping(Column column, Function<List<String>, List<Long>> converter) {
+
+        long[] convert(final String value) {
+            return convert(NullSafe.singletonList(value));
+        }
+
+        long[] convert(final List<String> values) {
+            return converter.apply(values)
+                    .stream()
+                    .mapToLong(Long::longValue)
+                    .toArray();
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class UnsupportedExpressionException extends RuntimeException {
+
+        UnsupportedExpressionException(final String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,559 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+import stroom.db.util.JooqUtil;
+import stroom.meta.impl.MetaIndex;
+import stroom.meta.impl.MetaIndexConfig;
+import stroom.meta.impl.db.MetaColumnStore.Match;
+import stroom.meta.impl.db.MetaColumnStore.Row;
+import stroom.meta.shared.MetaFields;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.datasource.QueryField;
+import stroom.query.common.v2.DateExpressionParser;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.Clearable;
+import stroom.util.shared.NullSafe;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.Record1;
+import org.jooq.Record3;
+import org.jooq.Record4;
+import org.jooq.Result;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import static stroom.meta.impl.db.jooq.tables.Meta.META;
+import static stroom.meta.impl.db.jooq.tables.MetaVal.META_VAL;
+
+/**
+ * Node-local, in-memory columnar index of recent meta records. See {@link MetaIndex}.
+ * <p>
+ * The index is loaded and then kept up to date by {@link #refresh()}, which polls the database for
+ * new meta records (by id), status changes (by status time) and new extended attribute values
+ * (by meta_val id). Each poll re-reads a small overlap to pick up records that were committed out
+ * of id or time order. {@link MetaDaoImpl} uses the index to answer filters over the range of ids
+ * it covers and only queries the database for ids outside that range.
+ * <p>
+ * Meta records that are physically deleted from the database are not removed from the index until
+ * they age out, but they will always have a status of deleted.
+ */
+@Singleton
+class MetaIndexImpl implements MetaIndex, HasSystemInfo, Clearable {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(MetaIndexImpl.class);
+
+    // Number of ids/time before the last poll position to re-read, to pick up records that
+    // were committed out of order.
+    private static final long META_ID_OVERLAP = 1_000;
+    private static final long META_VAL_ID_OVERLAP = 10_000;
+    private static final long STATUS_TIME_OVERLAP_MS = Duration.ofMinutes(1).toMillis();
+
+    // If the index has not been refreshed for this long then it will not be used.
+    private static final long MAX_STALENESS_MS = Duration.ofMinutes(5).toMillis();
+
+    private static final List<Byte> ALL_STATUSES = List.of(
+            MetaStatusId.UNLOCKED,
+            MetaStatusId.LOCKED,
+            MetaStatusId.DELETED);
+
+    private final MetaDbConnProvider metaDbConnProvider;
+    private final MetaFeedDaoImpl feedDao;
+    private final MetaTypeDaoImpl metaTypeDao;
+    private final MetaKeyDaoImpl metaKeyDao;
+    private final Provider<MetaIndexConfig> metaIndexConfigProvider;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile State state;
+
+    @Inject
+    MetaIndexImpl(final MetaDbConnProvider metaDbConnProvider,
+                  final MetaFeedDaoImpl feedDao,
+                  final MetaTypeDaoImpl metaTypeDao,
+                  final MetaKeyDaoImpl metaKeyDao,
+                  final Provider<MetaIndexConfig> metaIndexConfigProvider) {
+        this.metaDbConnProvider = metaDbConnProvider;
+        this.feedDao = feedDao;
+        this.metaTypeDao = metaTypeDao;
+        this.metaKeyDao = metaKeyDao;
+        this.metaIndexConfigProvider = metaIndexConfigProvider;
+    }
+
+    /**
+     * Match the expression against the records held in the index.
+     *
+     * @param descending True to page through the matches in descending id order.
+     * @param offset     The number of matches to skip.
+     * @param limit      The maximum number of ids to return, zero if only the count is required.
+     * @return The result or empty if the index is not available or cannot answer the expression.
+     */
+    Optional<IndexMatch> match(final ExpressionOperator expression,
+                               final boolean descending,
+                               final int offset,
+                               final int limit) {
+        final State current = state;
+        if (current == null) {
+            return Optional.empty();
+        }
+        final Optional<MetaRowPredicate> optionalPredicate = current.compiler.compile(expression);
+        if (optionalPredicate.isEmpty()) {
+            return Optional.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (System.currentTimeMillis() - current.lastRefreshMs > MAX_STALENESS_MS) {
+                LOGGER.debug("Not using meta index as it was last refreshed at {}",
+                        Instant.ofEpochMilli(current.lastRefreshMs));
+                return Optional.empty();
+            }
+            final MetaColumnStore store = current.store;
+            final Match match = store.match(optionalPredicate.get(), descending, offset, limit);
+            return Optional.of(new IndexMatch(
+                    store.getFirstId(),
+                    store.getLastId(),
+                    current.complete,
+                    match.count(),
+                    match.ids()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized void refresh() {
+        final MetaIndexConfig config = metaIndexConfigProvider.get();
+        if (!config.isEnabled()) {
+            if (state != null) {
+                LOGGER.info("Meta index disabled, discarding index");
+                state = null;
+            }
+            return;
+        }
+
+        final State current = state;
+        if (current == null || !current.attributeNames.equals(NullSafe.list(config.getIndexedAttributes()))) {
+            state = load(config);
+        } else {
+            update(current, config);
+        }
+    }
+
+    @Override
+    public Optional<Watermark> getWatermark() {
+        final State current = state;
+        if (current == null) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return Optional.of(new Watermark(
+                    current.store.getFirstId(),
+                    current.store.getLastId(),
+                    current.lastRefreshMs,
+                    current.store.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        state = null;
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        final State current = state;
+        final SystemInfoResult.Builder builder = SystemInfoResult.builder(this)
+                .addDetail("enabled", metaIndexConfigProvider.get().isEnabled())
+                .addDetail("loaded", current != null);
+        if (current != null) {
+            getWatermark().ifPresent(watermark -> builder
+                    .addDetail("firstId", watermark.firstId())
+                    .addDetail("lastId", watermark.lastId())
+                    .addDetail("rowCount", watermark.rowCount())
+                    .addDetail("lastRefresh", Instant.ofEpochMilli(watermark.refreshTimeMs()).toString()));
+            builder.addDetail("complete", current.complete)
+                    .addDetail("indexedAttributes", current.attributeNames);
+        }
+        return builder.build();
+    }
+
+    private State load(final MetaIndexConfig config) {
+        final DurationTimer timer = DurationTimer.start();
+        final long startTimeMs = System.currentTimeMillis();
+        final long minCreateTime = startTimeMs - config.getMaxAge().toMillis();
+
+        // Establish the poll positions before reading anything so nothing is missed.
+        final long maxValId = selectMax(META_VAL, META_VAL.ID);
+        final long maxId = selectMax(META, META.ID);
+        final Long firstRecentId = JooqUtil.contextResult(metaDbConnProvider, context -> context
+                        .select(DSL.min(META.ID))
+                        .from(META)
+                        .where(META.CREATE_TIME.greaterOrEqual(minCreateTime))
+                        .fetchOptional())
+                .map(Record1::value1)
+                .orElse(null);
+        final long firstId = firstRecentId != null
+                ? firstRecentId
+                : maxId + 1;
+        final Long minId = JooqUtil.contextResult(metaDbConnProvider, context -> context
+                        .select(DSL.min(META.ID))
+                        .from(META)
+                        .fetchOptional())
+                .map(Record1::value1)
+                .orElse(null);
+
+        final List<String> attributeNames = List.copyOf(NullSafe.list(config.getIndexedAttributes()));
+        final List<QueryField> attributeFields = new ArrayList<>();
+        final List<Integer> attributeKeyIds = new ArrayList<>();
+        for (final String name : attributeNames) {
+            final Optional<QueryField> field = MetaFields.getExtendedFields()
+                    .stream()
+                    .filter(extendedField -> extendedField.getFldName().equals(name))
+                    .findAny();
+            final Optional<Integer> keyId = metaKeyDao.getIdForName(name);
+            if (field.isPresent() && keyId.isPresent()) {
+                attributeFields.add(field.get());
+                attributeKeyIds.add(keyId.get());
+            } else {
+                LOGGER.warn("Unable to index unknown meta attribute '{}'", name);
+            }
+        }
+
+        final MetaColumnStore store = new MetaColumnStore(
+                firstId,
+                attributeKeyIds.stream().mapToInt(Integer::intValue).toArray());
+        final State newState = new State(
+                store,
+                createCompiler(store, attributeFields),
+                attributeNames,
+                minId == null || minId >= firstId);
+
+        readMetaRows(newState, firstId, config.getRefreshBatchSize());
+        // The store is not visible yet so we can read the attribute values by meta id range.
+        final long lastId = store.getLastId();
+        for (long fromId = firstId; fromId <= lastId; fromId += config.getRefreshBatchSize()) {
+            readAttributes(newState, META_VAL.META_ID.between(fromId, fromId + config.getRefreshBatchSize() - 1));
+        }
+        // If rows had to be evicted to honour maxRows then the database holds records below the
+        // first id of the index that it doesn't know about.
+        if (store.evict(minCreateTime, config.getMaxRows()) > 0) {
+            newState.complete = false;
+        }
+        newState.lastValId = maxValId;
+        newState.lastStatusPollMs = startTimeMs;
+        newState.lastRefreshMs = startTimeMs;
+
+        LOGGER.info(() -> LogUtil.message("Loaded {} meta records into meta index (ids {} to {}) in {}",
+                store.size(), store.getFirstId(), store.getLastId(), timer));
+        return newState;
+    }
+
+    private void update(final State current, final MetaIndexConfig config) {
+        final DurationTimer timer = DurationTimer.start();
+        final long pollTimeMs = System.currentTimeMillis();
+        final int batchSize = config.getRefreshBatchSize();
+        final MetaColumnStore store = current.store;
+
+        final long fromId = Math.max(store.getFirstId(), store.getLastId() - META_ID_OVERLAP);
+        final int newRows = readMetaRows(current, fromId, batchSize);
+        final int statusChanges = readStatusChanges(current, batchSize);
+        final int attributeValues = readNewAttributes(current, batchSize);
+
+        final int evicted = withWriteLock(() ->
+                store.evict(pollTimeMs - config.getMaxAge().toMillis(), config.getMaxRows()));
+        if (evicted > 0) {
+            current.complete = false;
+        }
+        current.lastStatusPollMs = pollTimeMs;
+        current.lastRefreshMs = pollTimeMs;
+
+        LOGGER.debug(() -> LogUtil.message(
+                "Refreshed meta index in {}, rows read: {}, status changes: {}, attribute values: {}, " +
+                "evicted: {}, size: {}",
+                timer, newRows, statusChanges, attributeValues, evicted, store.size()));
+    }
+
+    /**
+     * Read all meta records with an id greater than or equal to fromId.
+     */
+    private int readMetaRows(final State state, final long fromId, final int batchSize) {
+        int total = 0;
+        long afterId = fromId - 1;
+        while (true) {
+            final long cursor = afterId;
+            final List<Row> rows = JooqUtil.contextResult(metaDbConnProvider, context -> context
+                            .select(META.ID,
+                                    META.FEED_ID,
+                                    META.TYPE_ID,
+                                    META.STATUS,
+                                    META.CREATE_TIME,
+                                    META.EFFECTIVE_TIME,
+                                    META.STATUS_TIME,
+                                    META.PARENT_ID,
+                                    META.PROCESSOR_ID,
+                                    META.PROCESSOR_FILTER_ID)
+                            .from(META)
+                            .where(META.ID.greaterThan(cursor))
+                            .orderBy(META.ID)
+                            .limit(batchSize)
+                            .fetch())
+                    .map(MetaIndexImpl::mapRow);
+            if (rows.isEmpty()) {
+                break;
+            }
+            afterId = rows.getLast().id();
+            final long coveredToId = afterId;
+            withWriteLock(() -> {
+                state.store.upsert(rows, coveredToId);
+                return null;
+            });
+            total += rows.size();
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int readStatusChanges(final State state, final int batchSize) {
+        final long since = state.lastStatusPollMs - STATUS_TIME_OVERLAP_MS;
+        final long firstId = state.store.getFirstId();
+        final long lastId = state.store.getLastId();
+        int total = 0;
+        long afterId = firstId - 1;
+        while (true) {
+            final long cursor = afterId;
+            final Result<Record3<Long, Byte, Long>> records = JooqUtil.contextResult(metaDbConnProvider,
+                    context -> context
+                            .select(META.ID, META.STATUS, META.STATUS_TIME)
+                            .from(META)
+                            .where(META.STATUS.in(ALL_STATUSES))
+                            .and(META.STATUS_TIME.greaterOrEqual(since))
+                            .and(META.ID.greaterThan(cursor))
+                            .and(META.ID.lessOrEqual(lastId))
+                            .orderBy(META.ID)
+                            .limit(batchSize)
+                            .fetch());
+            if (records.isEmpty()) {
+                break;
+            }
+            withWriteLock(() -> {
+                for (final Record3<Long, Byte, Long> record : records) {
+                    state.store.updateStatus(
+                            record.get(META.ID),
+                            record.get(META.STATUS),
+                            record.get(META.STATUS_TIME));
+                }
+                return null;
+            });
+            afterId = records.getLast().get(META.ID);
+            total += records.size();
+            if (records.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int readNewAttributes(final State state, final int batchSize) {
+        if (state.store.getAttributeKeyIds().length == 0) {
+            return 0;
+        }
+        int total = 0;
+        long afterId = state.lastValId - META_VAL_ID_OVERLAP;
+        while (true) {
+            final long cursor = afterId;
+            final long[] lastValId = new long[]{cursor};
+            final int count = readAttributes(state, META_VAL.ID.greaterThan(cursor), batchSize, lastValId);
+            if (count == 0) {
+                break;
+            }
+            afterId = lastValId[0];
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        state.lastValId = Math.max(state.lastValId, afterId);
+        return total;
+    }
+
+    private void readAttributes(final State state, final Condition condition) {
+        readAttributes(state, condition, Integer.MAX_VALUE, new long[1]);
+    }
+
+    private int readAttributes(final State state,
+                               final Condition condition,
+                               final int limit,
+                               final long[] lastValId) {
+        final MetaColumnStore store = state.store;
+        final List<Integer> keyIds = Arrays.stream(store.getAttributeKeyIds()).boxed().toList();
+        final Result<Record4<Long, Long, Integer, Long>> records = JooqUtil.contextResult(metaDbConnProvider,
+                context -> context
+                        .select(META_VAL.ID, META_VAL.META_ID, META_VAL.META_KEY_ID, META_VAL.VAL)
+                        .from(META_VAL)
+                        .where(condition)
+                        .and(META_VAL.META_KEY_ID.in(keyIds))
+                        .orderBy(META_VAL.ID)
+                        .limit(limit)
+                        .fetch());
+        if (!records.isEmpty()) {
+            withWriteLock(() -> {
+                for (final Record4<Long, Long, Integer, Long> record : records) {
+                    final int attributeIndex = store.getAttributeIndex(record.get(META_VAL.META_KEY_ID));
+                    if (attributeIndex >= 0) {
+                        store.setAttribute(record.get(META_VAL.META_ID), attributeIndex, record.get(META_VAL.VAL));
+                    }
+                }
+                return null;
+            });
+            lastValId[0] = records.getLast().get(META_VAL.ID);
+        }
+        return records.size();
+    }
+
+    private long selectMax(final Table<?> table, final Field<Long> field) {
+        return JooqUtil.contextResult(metaDbConnProvider, context -> context
+                        .select(DSL.max(field))
+                        .from(table)
+                        .fetchOptional())
+                .map(Record1::value1)
+                .orElse(0L);
+    }
+
+    private MetaIndexExpressionCompiler createCompiler(final MetaColumnStore store,
+                                                       final List<QueryField> attributeFields) {
+        final MetaIndexExpressionCompiler compiler = new MetaIndexExpressionCompiler();
+        compiler.map(MetaFields.ID, MetaColumnStore.ID, Long::valueOf);
+        compiler.map(MetaFields.META_INTERNAL_PROCESSOR_ID, MetaColumnStore.PROCESSOR_ID, value ->
+                Long.valueOf(Integer.valueOf(value)));
+        compiler.map(MetaFields.META_PROCESSOR_FILTER_ID, MetaColumnStore.PROCESSOR_FILTER_ID, value ->
+                Long.valueOf(Integer.valueOf(value)));
+        compiler.multiMap(MetaFields.FEED, MetaColumnStore.FEED_ID, names ->
+                NullSafe.isEmptyCollection(names)
+                        ? List.of()
+                        : feedDao.find(names).values().stream().map(Integer::longValue).toList());
+        compiler.multiMap(MetaFields.TYPE, MetaColumnStore.TYPE_ID, names ->
+                NullSafe.isEmptyCollection(names)
+                        ? List.of()
+                        : metaTypeDao.find(names).values().stream().map(Integer::longValue).toList());
+        compiler.map(MetaFields.STATUS, MetaColumnStore.STATUS, value ->
+                (long) MetaStatusId.getPrimitiveValue(value.toUpperCase()));
+        compiler.map(MetaFields.STATUS_TIME, MetaColumnStore.STATUS_TIME, value ->
+                DateExpressionParser.getMs(MetaFields.STATUS_TIME.getFldName(), value));
+        compiler.map(MetaFields.CREATE_TIME, MetaColumnStore.CREATE_TIME, value ->
+                DateExpressionParser.getMs(MetaFields.CREATE_TIME.getFldName(), value));
+        compiler.map(MetaFields.EFFECTIVE_TIME, MetaColumnStore.EFFECTIVE_TIME, value ->
+                DateExpressionParser.getMs(MetaFields.EFFECTIVE_TIME.getFldName(), value));
+        compiler.map(MetaFields.PARENT_ID, MetaColumnStore.PARENT_ID, Long::valueOf);
+
+        for (final QueryField field : attributeFields) {
+            final int attributeIndex = store.getAttributeIndex(metaKeyDao.getIdForName(field.getFldName())
+                    .orElseThrow());
+            compiler.map(field, MetaColumnStore.attribute(attributeIndex), Long::valueOf);
+        }
+        return compiler;
+    }
+
+    private <T> T withWriteLock(final Supplier<T> supplier) {
+        lock.writeLock().lock();
+        try {
+            return supplier.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static Row mapRow(final Record record) {
+        return new Row(
+                record.get(META.ID),
+                record.get(META.FEED_ID),
+                record.get(META.TYPE_ID),
+                record.get(META.STATUS),
+                record.get(META.CREATE_TIME),
+                record.get(META.EFFECTIVE_TIME),
+                record.get(META.STATUS_TIME),
+                record.get(META.PARENT_ID),
+                record.get(META.PROCESSOR_ID),
+                record.get(META.PROCESSOR_FILTER_ID));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * The result of matching an expression against the index.
+     *
+     * @param firstId  The first id covered by the index at the time of the match.
+     * @param lastId   The last id covered by the index at the time of the match.
+     * @param complete True if the database holds no meta records with an id below firstId.
+     * @param count    The number of matching records in the index.
+     * @param ids      The ids of the matching records in the requested page.
+     */
+    record IndexMatch(long firstId, long lastId, boolean complete, int count, long[] ids) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class State {
+
+        private final MetaColumnStore store;
+        private final MetaIndexExpressionCompiler compiler;
+        private final List<String> attributeNames;
+        private volatile boolean complete;
+        private volatile long lastValId;
+        private volatile long lastStatusPollMs;
+        private volatile long lastRefreshMs;
+
+        private State(final MetaColumnStore store,
+                      final MetaIndexExpressionCompiler compiler,
+                      final List<String> attributeNames,
+                      final boolean complete) {
+            this.store = store;
+            this.compiler = compiler;
+            this.attributeNames = attributeNames;
+            this.complete = complete;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+import stroom.db.util.JooqUtil;
+import stroom.meta.impl.MetaPartitionConfig;
+import stroom.meta.impl.MetaPartitionDao;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.NullSafe;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.jooq.Table;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static stroom.meta.impl.db.jooq.tables.Meta.META;
+import static stroom.meta.impl.db.jooq.tables.MetaVal.META_VAL;
+
+/**
+ * Manages the partitions of the meta and meta_val tables when they have been partitioned with
+ * {@code PARTITION BY RANGE (create_time)}, e.g. using {@code scripts/v7_meta_partition.sql}.
+ * <p>
+ * The last partition of a partitioned table must be a {@code MAXVALUE} partition. New partitions
+ * are created by splitting them off the front of that partition before any rows are written to
+ * their time range, so the split is cheap. If the job has not run for a while the {@code MAXVALUE}
+ * partition will hold rows and splitting it means MySQL copying all of them, holding a metadata lock
+ * on the table while it does. This is refused above {@link MetaPartitionConfig#getMaxReorganiseRows()}.
+ * Old meta_val partitions are dropped by retention.
+ * Meta partitions are never dropped as their rows must be physically deleted with their data.
+ */
+@Singleton
+class MetaPartitionDaoImpl implements MetaPartitionDao, HasSystemInfo {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(MetaPartitionDaoImpl.class);
+
+    private static final String MAX_VALUE = "MAXVALUE";
+    private static final long MIN_PERIOD_MS = Duration.ofHours(1).toMillis();
+    private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter
+            .ofPattern("'p'yyyyMMddHHmm")
+            .withZone(ZoneOffset.UTC);
+
+    private final MetaDbConnProvider metaDbConnProvider;
+    private final Provider<MetaPartitionConfig> metaPartitionConfigProvider;
+
+    @Inject
+    MetaPartitionDaoImpl(final MetaDbConnProvider metaDbConnProvider,
+                         final Provider<MetaPartitionConfig> metaPartitionConfigProvider) {
+        this.metaDbConnProvider = metaDbConnProvider;
+        this.metaPartitionConfigProvider = metaPartitionConfigProvider;
+    }
+
+    boolean isEnabled() {
+        return metaPartitionConfigProvider.get().isEnabled();
+    }
+
+    @Override
+    public void maintainPartitions() {
+        final MetaPartitionConfig config = metaPartitionConfigProvider.get();
+        if (!config.isEnabled()) {
+            LOGGER.debug("Meta partition management is not enabled");
+            return;
+        }
+
+        final long periodMs = Math.max(MIN_PERIOD_MS, config.getPartitionPeriod().toMillis());
+        final long nowMs = System.currentTimeMillis();
+        for (final Table<?> table : List.of(META, META_VAL)) {
+            final List<Partition> partitions = getPartitions(table);
+            if (partitions.isEmpty()) {
+                LOGGER.debug("Table {} is not partitioned", table.getName());
+            } else if (partitions.getLast().toMs() != null) {
+                LOGGER.warn("Unable to add partitions to table {} as its last partition is not a {} partition",
+                        table.getName(), MAX_VALUE);
+            } else {
+                final Partition maxPartition = partitions.getLast();
+                final List<Partition> newPartitions = planPartitions(
+                        partitions, nowMs, config.getFuturePartitionCount(), periodMs);
+                if (newPartitions.isEmpty()) {
+                    LOGGER.debug("Table {} has enough partitions", table.getName());
+                } else if (maxPartition.estimatedRows() > config.getMaxReorganiseRows()) {
+                    LOGGER.warn("Unable to add partitions to table {} as its {} partition {} holds approx. {} " +
+                                "rows, more than maxReorganiseRows ({}). Splitting it would copy all of them. " +
+                                "Re-partition the table by hand at a quiet time or raise maxReorganiseRows.",
+                            table.getName(),
+                            MAX_VALUE,
+                            maxPartition.name(),
+                            maxPartition.estimatedRows(),
+                            config.getMaxReorganiseRows());
+                } else {
+                    LOGGER.info("Adding {} partitions to table {}, up to {}",
+                            newPartitions.size(),
+                            table.getName(),
+                            Instant.ofEpochMilli(newPartitions.getLast().toMs()));
+                    if (maxPartition.estimatedRows() > 0) {
+                        LOGGER.warn("Table {} {} partition {} holds approx. {} rows that will be copied " +
+                                    "while adding partitions",
+                                table.getName(),
+                                MAX_VALUE,
+                                maxPartition.name(),
+                                maxPartition.estimatedRows());
+                    }
+                    final String sql = createReorganiseSql(table.getName(), maxPartition, newPartitions);
+                    LOGGER.debug("sql:\n{}", sql);
+                    JooqUtil.context(metaDbConnProvider, context -> context.execute(sql));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all partitions of the table that only hold rows created before the threshold.
+     * Does nothing unless partition management is enabled.
+     *
+     * @return The number of partitions dropped.
+     */
+    int dropPartitionsBefore(final Table<?> table, final long createTimeThresholdMs) {
+        if (!isEnabled()) {
+            return 0;
+        }
+        final List<Partition> expired = getPartitions(table)
+                .stream()
+                .filter(partition -> partition.toMs() != null && partition.toMs() <= createTimeThresholdMs)
+                .toList();
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        LOGGER.info("Dropping {} partitions (approx. {} rows) from table {} created before {}",
+                expired.size(),
+                expired.stream().mapToLong(Partition::estimatedRows).sum(),
+                table.getName(),
+                Instant.ofEpochMilli(createTimeThresholdMs));
+        final String sql = createDropSql(table.getName(), expired);
+        LOGGER.debug("sql:\n{}", sql);
+        JooqUtil.context(metaDbConnProvider, context -> context.execute(sql));
+        return expired.size();
+    }
+
+    /**
+     * @return The partitions of the table in ascending order or an empty list if the table
+     * is not partitioned. Always empty if partition management is not enabled.
+     */
+    List<Partition> getPartitionsIfEnabled(final Table<?> table) {
+        return isEnabled()
+                ? getPartitions(table)
+                : List.of();
+    }
+
+    /**
+     * @return The partitions of the table in ascending order or an empty list if the table
+     * is not partitioned.
+     */
+    List<Partition> getPartitions(final Table<?> table) {
+        return JooqUtil.contextResult(metaDbConnProvider, context -> context
+                .resultQuery("""
+                                SELECT partition_name, partition_description, table_rows
+                                FROM information_schema.partitions
+                                WHERE table_schema = database()
+                                AND table_name = ?
+                                AND partition_name IS NOT NULL
+                                ORDER BY partition_ordinal_position""",
+                        table.getName())
+                .fetch(record -> new Partition(
+                        record.get(0, String.class),
+                        parseBound(record.get(1, String.class)),
+                        NullSafe.requireNonNullElse(record.get(2, Long.class), 0L))));
+    }
+
+    /**
+     * @return The exclusive upper create time bound of the partition that holds rows created at
+     * {@code timeMs} or null if that is the {@code MAXVALUE} partition or there are no partitions.
+     */
+    static Long getPartitionEnd(final List<Partition> partitions, final long timeMs) {
+        for (final Partition partition : partitions) {
+            if (partition.toMs() == null || timeMs < partition.toMs()) {
+                return partition.toMs();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Work out the partitions to split off the {@code MAXVALUE} partition so that there are
+     * partitions up to {@code futurePartitionCount} periods ahead of now. Boundaries are aligned
+     * to multiples of the period. If the last boundary is more than a period behind now then a
+     * single partition is used to catch up to the current period. Any rows in the {@code MAXVALUE}
+     * partition have to be copied when the partitions are split off it.
+     */
+    static List<Partition> planPartitions(final List<Partition> partitions,
+                                          final long nowMs,
+                                          final int futurePartitionCount,
+                                          final long periodMs) {
+        final Set<String> existingNames = partitions.stream()
+                .map(Partition::name)
+                .collect(Collectors.toCollection(HashSet::new));
+        final Long lastBound = partitions.stream()
+                .map(Partition::toMs)
+                .filter(Objects::nonNull)
+                .reduce((first, second) -> second)
+                .orElse(null);
+
+        final long currentPeriodStart = floorToPeriod(nowMs, periodMs);
+        final long upToMs = currentPeriodStart + (periodMs * Math.max(1, futurePartitionCount));
+        final List<Partition> newPartitions = new ArrayList<>();
+        long fromMs = lastBound != null
+                ? lastBound
+                : currentPeriodStart;
+        if (fromMs < currentPeriodStart - periodMs) {
+            newPartitions.add(new Partition(createName(fromMs, existingNames), currentPeriodStart, 0));
+            fromMs = currentPeriodStart;
+        }
+        while (fromMs < upToMs) {
+            final long toMs = floorToPeriod(fromMs, periodMs) + periodMs;
+            newPartitions.add(new Partition(createName(fromMs, existingNames), toMs, 0));
+            fromMs = toMs;
+        }
+        return newPartitions;
+    }
+
+    static String createReorganiseSql(final String tableName,
+                                      final Partition maxPartition,
+                                      final List<Partition> newPartitions) {
+        final StringBuilder sb = new StringBuilder()
+                .append("ALTER TABLE `")
+                .append(tableName)
+                .append("` REORGANIZE PARTITION `")
+                .append(maxPartition.name())
+                .append("` INTO (");
+        for (final Partition partition : newPartitions) {
+            sb.append("PARTITION `")
+                    .append(partition.name())
+                    .append("` VALUES LESS THAN (")
+                    .append(partition.toMs())
+                    .append("), ");
+        }
+        sb.append("PARTITION `")
+                .append(maxPartition.name())
+                .append("` VALUES LESS THAN " + MAX_VALUE + ")");
+        return sb.toString();
+    }
+
+    static String createDropSql(final String tableName, final List<Partition> partitions) {
+        return "ALTER TABLE `" + tableName + "` DROP PARTITION " + partitions.stream()
+                .map(partition -> "`" + partition.name() + "`")
+                .collect(Collectors.joining(", "));
+    }
+
+    private static long floorToPeriod(final long timeMs, final long periodMs) {
+        return Math.floorDiv(timeMs, periodMs) * periodMs;
+    }
+
+    private static String createName(final long fromMs, final Set<String> existingNames) {
+        String name = PARTITION_NAME_FORMATTER.format(Instant.ofEpochMilli(fromMs));
+        while (existingNames.contains(name)) {
+            name = name + "_";
+        }
+        existingNames.add(name);
+        return name;
+    }
+
+    private static Long parseBound(final String partitionDescription) {
+        if (partitionDescription == null || MAX_VALUE.equalsIgnoreCase(partitionDescription.trim())) {
+            return null;
+        }
+        return Long.parseLong(partitionDescription.trim());
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        final SystemInfoResult.Builder builder = SystemInfoResult.builder(this)
+                .addDetail("enabled", isEnabled());
+        for (final Table<?> table : List.of(META, META_VAL)) {
+            final List<Map<String, Object>> details = getPartitions(table)
+                    .stream()
+                    .map(partition -> {
+                        final Map<String, Object> map = new LinkedHashMap<>();
+                        map.put("name", partition.name());
+                        map.put("lessThan", partition.toMs() != null
+                                ? Instant.ofEpochMilli(partition.toMs()).toString()
+                                : MAX_VALUE);
+                        map.put("estimatedRows", partition.estimatedRows());
+                        return map;
+                    })
+                    .toList();
+            builder.addDetail(table.getName(), details.isEmpty()
+                    ? "Not partitioned"
+                    : details);
+        }
+        return builder.build();
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param name          The name of the partition.
+     * @param toMs          The exclusive upper create time bound of the partition or null for
+     *                      the {@code MAXVALUE} partition.
+     * @param estimatedRows The approximate number of rows in the partition.
+     */
+    record Partition(String name, Long toMs, long estimatedRows) {
+
+    }
+}
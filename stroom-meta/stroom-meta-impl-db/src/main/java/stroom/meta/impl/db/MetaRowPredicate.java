@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+/**
+ * A predicate over a row of a {@link MetaColumnStore}. Predicates use the same three valued
+ * logic as SQL so that comparisons with null values behave the same way as the equivalent
+ * database query, e.g. {@code NOT (parent_id = 1)} does not match a row with a null parent id.
+ */
+@FunctionalInterface
+interface MetaRowPredicate {
+
+    byte FALSE = 0;
+    byte TRUE = 1;
+    byte UNKNOWN = 2;
+
+    MetaRowPredicate ALWAYS_TRUE = (store, row) -> TRUE;
+    MetaRowPredicate ALWAYS_FALSE = (store, row) -> FALSE;
+
+    /**
+     * @return {@link #TRUE}, {@link #FALSE} or {@link #UNKNOWN}.
+     */
+    byte test(MetaColumnStore store, int row);
+
+    static MetaRowPredicate and(final MetaRowPredicate[] predicates) {
+        return (store, row) -> {
+            byte result = TRUE;
+            for (final MetaRowPredicate predicate : predicates) {
+                final byte value = predicate.test(store, row);
+                if (value == FALSE) {
+                    return FALSE;
+                } else if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        };
+    }
+
+    static MetaRowPredicate or(final MetaRowPredicate[] predicates) {
+        return (store, row) -> {
+            byte result = FALSE;
+            for (final MetaRowPredicate predicate : predicates) {
+                final byte value = predicate.test(store, row);
+                if (value == TRUE) {
+                    return TRUE;
+                } else if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        };
+    }
+
+    static MetaRowPredicate not(final MetaRowPredicate predicate) {
+        return (store, row) -> {
+            final byte value = predicate.test(store, row);
+            if (value == TRUE) {
+                return FALSE;
+            } else if (value == FALSE) {
+                return TRUE;
+            }
+            return UNKNOWN;
+        };
+    }
+}
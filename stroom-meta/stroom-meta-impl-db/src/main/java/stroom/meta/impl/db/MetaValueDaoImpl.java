@@ -22,28 +22,42 @@ import stroom.meta.api.AttributeMap;
 import stroom.meta.impl.MetaKeyDao;
 import stroom.meta.impl.MetaValueConfig;
 import stroom.meta.impl.MetaValueDao;
+import stroom.meta.impl.db.jooq.tables.records.MetaValRecord;
 import stroom.meta.shared.Meta;
 import stroom.task.api.TaskContextFactory;
+import stroom.util.concurrent.ThreadUtil;
+import stroom.util.concurrent.UncheckedInterruptedException;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogExecutionTime;
 import stroom.util.logging.LogUtil;
+import stroom.util.metrics.Metrics;
 import stroom.util.shared.Clearable;
+import stroom.util.thread.CustomThreadFactory;
 
+import com.codahale.metrics.Timer;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
-import org.jooq.BatchBindStep;
+import org.jooq.InsertValuesStep4;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,25 +70,59 @@ class MetaValueDaoImpl implements MetaValueDao, Clearable {
 
     private static final String LOCK_NAME = "MetaDeleteExecutor";
 
+    // Each row binds four parameters so stay well below the 65,535 bind parameter limit.
+    private static final int MAX_ROWS_PER_INSERT = 10_000;
+    // If the queue grows to this many batches then the writer is not keeping up, so callers
+    // write the queue themselves rather than letting it grow without limit.
+    private static final int MAX_QUEUED_BATCHES = 10;
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1_000;
+    private static final long SHUTDOWN_WAIT_MS = 60_000;
+
     private final MetaDbConnProvider metaDbConnProvider;
     private final MetaKeyDao metaKeyService;
     private final Provider<MetaValueConfig> metaValueConfigProvider;
     private final ClusterLockService clusterLockService;
     private final TaskContextFactory taskContextFactory;
+    private final MetaPartitionDaoImpl metaPartitionDao;
+    private final Timer writeTimer;
 
-    private volatile List<Row> queue = new ArrayList<>();
+    private final Queue<Row> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicBoolean writerScheduled = new AtomicBoolean();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Owned by this class rather than taken from the executor provider as it has to be stopped
+    // before the final flush on shutdown.
+    private final ExecutorService writerExecutor;
 
     @Inject
     MetaValueDaoImpl(final MetaDbConnProvider metaDbConnProvider,
                      final MetaKeyDao metaKeyService,
                      final Provider<MetaValueConfig> metaValueConfigProvider,
                      final ClusterLockService clusterLockService,
-                     final TaskContextFactory taskContextFactory) {
+                     final TaskContextFactory taskContextFactory,
+                     final MetaPartitionDaoImpl metaPartitionDao,
+                     final Metrics metrics) {
         this.metaDbConnProvider = metaDbConnProvider;
         this.metaKeyService = metaKeyService;
         this.metaValueConfigProvider = metaValueConfigProvider;
         this.clusterLockService = clusterLockService;
         this.taskContextFactory = taskContextFactory;
+        this.metaPartitionDao = metaPartitionDao;
+
+        final CustomThreadFactory threadFactory = new CustomThreadFactory("Meta Value Writer #");
+        threadFactory.setDaemon(true);
+        this.writerExecutor = Executors.newSingleThreadExecutor(threadFactory);
+
+        metrics.registrationBuilder(getClass())
+                .addNamePart("queue")
+                .addNamePart(Metrics.SIZE)
+                .gauge(queueSize::get)
+                .register();
+        this.writeTimer = metrics.registrationBuilder(getClass())
+                .addNamePart(Metrics.WRITE)
+                .timer()
+                .createAndRegister();
     }
 
     @Override
@@ -106,55 +154,187 @@ class MetaValueDaoImpl implements MetaValueDao, Clearable {
         if (records.isEmpty()) {
             LOGGER.debug("records is empty");
         } else {
-            if (metaValueConfigProvider.get().isAddAsync()) {
-                final Optional<List<Row>> optional = add(records, metaValueConfigProvider.get()
-                        .getFlushBatchSize());
-                optional.ifPresent(this::insertRecords);
+            final MetaValueConfig metaValueConfig = metaValueConfigProvider.get();
+            if (metaValueConfig.isAddAsync()) {
+                enqueue(records, Math.max(1, metaValueConfig.getFlushBatchSize()));
             } else {
                 insertRecords(records);
             }
         }
     }
 
-    private synchronized Optional<List<Row>> add(final List<Row> records, final int batchSize) {
-        List<Row> readyForFlush = null;
+    private void enqueue(final List<Row> records, final int batchSize) {
+        // The rows are built by the calling thread so publishing them to the queue is the only
+        // point of contention between threads and that is lock free.
         queue.addAll(records);
-        if (queue.size() >= batchSize) {
-            // Switch out the current queue.
-            readyForFlush = queue;
-            queue = new ArrayList<>();
+        final int size = queueSize.addAndGet(records.size());
+        if (size >= batchSize * MAX_QUEUED_BATCHES) {
+            LOGGER.debug(() -> LogUtil.message(
+                    "meta_val queue size {} exceeds {} batches, writing on calling thread", size, MAX_QUEUED_BATCHES));
+            writeQueueOnCallingThread(batchSize);
+        } else if (size >= batchSize) {
+            scheduleWriter(batchSize);
+        }
+    }
+
+    private void scheduleWriter(final int batchSize) {
+        if (writerScheduled.compareAndSet(false, true)) {
+            try {
+                writerExecutor.execute(this::runWriter);
+            } catch (final RejectedExecutionException e) {
+                // The writer has been shut down so we have to write the rows ourselves.
+                writerScheduled.set(false);
+                writeQueueOnCallingThread(batchSize);
+            }
+        }
+    }
+
+    private void writeQueueOnCallingThread(final int batchSize) {
+        try {
+            writeQueue(batchSize, batchSize);
+        } catch (final UncheckedInterruptedException e) {
+            throw e;
+        } catch (final RuntimeException e) {
+            // The rows are still queued so the caller doesn't need to know.
+            LOGGER.error("Error writing queued meta values, they will be written on the next flush: {}",
+                    LogUtil.exceptionMessage(e), e);
+        }
+    }
+
+    private void runWriter() {
+        final int batchSize = Math.max(1, metaValueConfigProvider.get().getFlushBatchSize());
+        boolean written = false;
+        try {
+            writeQueue(batchSize, batchSize);
+            written = true;
+        } catch (final RuntimeException e) {
+            LOGGER.error("Error writing queued meta values, they will be written on the next flush: {}",
+                    LogUtil.exceptionMessage(e), e);
+        } finally {
+            writerScheduled.set(false);
+        }
+        // Rows may have been queued after we stopped draining but before we cleared the
+        // scheduled flag, so make sure they are not left waiting for the next flush. Don't
+        // try again straight away if the write failed though.
+        if (written && queueSize.get() >= batchSize) {
+            scheduleWriter(batchSize);
         }
-        // Return the old queue for flushing if it was switched.
-        return Optional.ofNullable(readyForFlush);
     }
 
     @Override
     public void flush() {
         taskContextFactory.current().info(() -> "Flushing meta values to the DB");
-        final Optional<List<Row>> optional = add(Collections.emptyList(), 1);
-        optional.ifPresent(this::insertRecords);
+        writeQueue(1, Math.max(1, metaValueConfigProvider.get().getFlushBatchSize()));
+    }
+
+    /**
+     * Stop the background writer, waiting for any write in progress, then write everything still
+     * queued. Rows added after this are written by the calling thread or the next flush.
+     */
+    void shutdown() {
+        writerExecutor.shutdown();
+        try {
+            if (!writerExecutor.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Timed out waiting for the meta value writer to stop");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw UncheckedInterruptedException.create(e);
+        }
+        flush();
+    }
+
+    /**
+     * Write batches from the queue while it holds at least {@code minRows} rows. Only one
+     * thread writes at a time so that a flush waits for any write in progress to complete.
+     */
+    private void writeQueue(final int minRows, final int batchSize) {
+        writeLock.lock();
+        try {
+            while (queueSize.get() >= minRows) {
+                final List<Row> batch = new ArrayList<>(batchSize);
+                Row row;
+                while (batch.size() < batchSize && (row = queue.poll()) != null) {
+                    batch.add(row);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                queueSize.addAndGet(-batch.size());
+                try {
+                    insertRecordsWithRetry(batch);
+                } catch (final RuntimeException e) {
+                    // Each batch is written in one transaction so none of it has been written.
+                    // Put it back to be written by the next flush rather than losing it.
+                    queue.addAll(batch);
+                    queueSize.addAndGet(batch.size());
+                    throw e;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void insertRecordsWithRetry(final List<Row> rows) {
+        int attempt = 1;
+        while (true) {
+            try {
+                insertRecords(rows);
+                return;
+            } catch (final UncheckedInterruptedException e) {
+                LOGGER.warn("Interrupted while writing {} meta_val rows", rows.size());
+                throw e;
+            } catch (final RuntimeException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                LOGGER.warn("Failed to write {} meta_val rows on attempt {}, retrying: {}",
+                        rows.size(), attempt, LogUtil.exceptionMessage(e));
+                ThreadUtil.sleep(RETRY_DELAY_MS * attempt);
+                attempt++;
+            }
+        }
     }
 
     private void insertRecords(final List<Row> rows) {
         final LogExecutionTime logExecutionTime = new LogExecutionTime();
         LOGGER.debug(() -> "Inserting meta_val batch of " + rows.size());
 
-        JooqUtil.context(metaDbConnProvider, context -> {
-            BatchBindStep batchBindStep = context
-                    .batch(context
-                            .insertInto(META_VAL,
-                                    META_VAL.CREATE_TIME,
-                                    META_VAL.META_ID,
-                                    META_VAL.META_KEY_ID,
-                                    META_VAL.VAL)
-                            .values(null, null, null, (Long) null));
-            for (final Row row : rows) {
-                batchBindStep = batchBindStep.bind(row.getCreateMs(), row.getMetaId(), row.getKeyId(), row.getValue());
+        final long maxInsertBytes = metaValueConfigProvider.get().getMaxInsertSize().getBytes();
+        final AtomicInteger statementCount = new AtomicInteger();
+
+        // Write the whole batch in one transaction so that a retry can't duplicate rows.
+        writeTimer.time(() -> JooqUtil.transaction(metaDbConnProvider, context -> {
+            int from = 0;
+            while (from < rows.size()) {
+                InsertValuesStep4<MetaValRecord, Long, Long, Integer, Long> insert = context
+                        .insertInto(META_VAL,
+                                META_VAL.CREATE_TIME,
+                                META_VAL.META_ID,
+                                META_VAL.META_KEY_ID,
+                                META_VAL.VAL);
+                long bytes = 0;
+                int to = from;
+                while (to < rows.size() && to - from < MAX_ROWS_PER_INSERT) {
+                    final Row row = rows.get(to);
+                    final int rowBytes = row.estimateSize();
+                    // Always add at least one row to each statement.
+                    if (to > from && bytes + rowBytes > maxInsertBytes) {
+                        break;
+                    }
+                    insert = insert.values(row.getCreateMs(), row.getMetaId(), row.getKeyId(), row.getValue());
+                    bytes += rowBytes;
+                    to++;
+                }
+                insert.execute();
+                statementCount.incrementAndGet();
+                from = to;
             }
-            batchBindStep.execute();
-        });
+        }));
 
-        LOGGER.debug(() -> "Inserted " + rows.size() + " meta_val rows, completed in " + logExecutionTime);
+        LOGGER.debug(() -> "Inserted " + rows.size() + " meta_val rows using " + statementCount
+                + " statements, completed in " + logExecutionTime);
     }
 
     @Override
@@ -164,6 +344,11 @@ class MetaValueDaoImpl implements MetaValueDao, Clearable {
         clusterLockService.tryLock(LOCK_NAME, () -> {
             taskContextFactory.current().info(() -> "Deleting old meta values");
             final long createTimeThresholdEpochMs = getAttributeCreateTimeThresholdEpochMs();
+
+            // If meta_val is partitioned then drop whole partitions first so only the rows in the
+            // partition spanning the threshold need deleting in batches.
+            metaPartitionDao.dropPartitionsBefore(META_VAL, createTimeThresholdEpochMs);
+
             final int batchSize = metaValueConfigProvider.get().getDeleteBatchSize();
             LOGGER.debug(() ->
                     "Processing batch age " + createTimeThresholdEpochMs + ", batch size is " + batchSize);
@@ -298,11 +483,14 @@ class MetaValueDaoImpl implements MetaValueDao, Clearable {
 
     @Override
     public void clear() {
-        clearQueue();
-    }
-
-    private synchronized void clearQueue() {
-        queue.clear();
+        writeLock.lock();
+        try {
+            while (queue.poll() != null) {
+                queueSize.decrementAndGet();
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     private static final class Row {
@@ -337,5 +525,25 @@ class MetaValueDaoImpl implements MetaValueDao, Clearable {
         Long getValue() {
             return value;
         }
+
+        /**
+         * @return The approximate number of bytes this row adds to an insert statement,
+         * i.e. the length of {@code (createMs,metaId,keyId,value),}.
+         */
+        int estimateSize() {
+            return 6 + digits(createMs) + digits(metaId) + digits(keyId) + digits(value);
+        }
+
+        private static int digits(final long value) {
+            int digits = value < 0
+                    ? 2
+                    : 1;
+            long remaining = value;
+            while (remaining >= 10 || remaining <= -10) {
+                remaining /= 10;
+                digits++;
+            }
+            return digits;
+        }
     }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+import stroom.meta.impl.db.MetaColumnStore.Match;
+import stroom.meta.impl.db.MetaColumnStore.Row;
+import stroom.meta.shared.MetaFields;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionOperator.Op;
+import stroom.query.api.ExpressionTerm.Condition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestMetaColumnStore {
+
+    private static final int FILE_SIZE_KEY_ID = 8;
+    private static final Map<String, Long> FEED_IDS = Map.of(
+            "FEED_A", 1L,
+            "FEED_B", 2L,
+            "OTHER", 3L);
+
+    private MetaColumnStore store;
+    private MetaIndexExpressionCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        store = new MetaColumnStore(100, new int[]{FILE_SIZE_KEY_ID});
+        compiler = new MetaIndexExpressionCompiler();
+        compiler.map(MetaFields.ID, MetaColumnStore.ID, Long::valueOf);
+        compiler.map(MetaFields.PARENT_ID, MetaColumnStore.PARENT_ID, Long::valueOf);
+        compiler.map(MetaFields.STATUS, MetaColumnStore.STATUS, value ->
+                (long) MetaStatusId.getPrimitiveValue(value.toUpperCase()));
+        compiler.map(MetaFields.CREATE_TIME, MetaColumnStore.CREATE_TIME, Long::valueOf);
+        compiler.multiMap(MetaFields.FEED, MetaColumnStore.FEED_ID, names -> names.stream()
+                .flatMap(name -> FEED_IDS.entrySet()
+                        .stream()
+                        .filter(entry -> name.endsWith("*")
+                                ? entry.getKey().startsWith(name.substring(0, name.length() - 1))
+                                : entry.getKey().equals(name))
+                        .map(Map.Entry::getValue))
+                .toList());
+        compiler.map(MetaFields.FILE_SIZE,
+                MetaColumnStore.attribute(store.getAttributeIndex(FILE_SIZE_KEY_ID)),
+                Long::valueOf);
+
+        // ids 100-109, feeds 1,2,3 in turn, odd ids have a parent
+        final List<Row> rows = new ArrayList<>();
+        for (long id = 100; id < 110; id++) {
+            rows.add(row(id, (int) (id % 3) + 1, MetaStatusId.UNLOCKED, id * 10, id % 2 == 1
+                    ? id - 1
+                    : null));
+        }
+        store.upsert(rows, 109);
+    }
+
+    @Test
+    void testUpsert() {
+        assertThat(store.size()).isEqualTo(10);
+        assertThat(store.getFirstId()).isEqualTo(100);
+        assertThat(store.getLastId()).isEqualTo(109);
+
+        // Update an existing row, add a late row and ignore one below the first id.
+        store.upsert(List.of(
+                row(99, 1, MetaStatusId.UNLOCKED, 990, null),
+                row(105, 1, MetaStatusId.LOCKED, 1050, null),
+                row(111, 1, MetaStatusId.UNLOCKED, 1110, null)), 112);
+        store.upsert(List.of(row(110, 1, MetaStatusId.UNLOCKED, 1100, null)), 110);
+
+        assertThat(store.size()).isEqualTo(12);
+        assertThat(store.getLastId()).isEqualTo(112);
+        assertThat(match("Id", Condition.BETWEEN, "0,200").ids())
+                .containsExactly(100, 101, 102, 103, 104, 105, 106, 107, 108, 109, 110, 111);
+        assertThat(match("Status", Condition.EQUALS, "Locked").ids())
+                .containsExactly(105);
+    }
+
+    @Test
+    void testEvict() {
+        // Evict by age
+        assertThat(store.evict(1030, 100)).isEqualTo(3);
+        assertThat(store.getFirstId()).isEqualTo(103);
+        assertThat(store.size()).isEqualTo(7);
+
+        // Evict by size
+        assertThat(store.evict(0, 5)).isEqualTo(2);
+        assertThat(store.getFirstId()).isEqualTo(105);
+
+        // Evict everything
+        assertThat(store.evict(Long.MAX_VALUE, 5)).isEqualTo(5);
+        assertThat(store.size()).isZero();
+        assertThat(store.getFirstId()).isEqualTo(110);
+        assertThat(match("Id", Condition.GREATER_THAN, "0").count()).isZero();
+    }
+
+    @Test
+    void testPaging() {
+        final MetaRowPredicate predicate = compiler.compile(ExpressionOperator.builder().build()).orElseThrow();
+
+        final Match ascending = store.match(predicate, false, 2, 3);
+        assertThat(ascending.count()).isEqualTo(10);
+        assertThat(ascending.ids()).containsExactly(102, 103, 104);
+
+        final Match descending = store.match(predicate, true, 8, 5);
+        assertThat(descending.count()).isEqualTo(10);
+        assertThat(descending.ids()).containsExactly(101, 100);
+    }
+
+    @Test
+    void testFeedTerms() {
+        assertThat(match("Feed", Condition.EQUALS, "FEED_A").ids())
+                .containsExactly(102, 105, 108);
+        assertThat(match("Feed", Condition.EQUALS, "FEED_*").count())
+                .isEqualTo(7);
+        assertThat(match("Feed", Condition.IN, "FEED_B, OTHER").count())
+                .isEqualTo(7);
+        assertThat(match("Feed", Condition.NOT_EQUALS, "FEED_A").count())
+                .isEqualTo(7);
+        // Unknown feed matches nothing
+        assertThat(match("Feed", Condition.IN, "UNKNOWN").count())
+                .isZero();
+    }
+
+    @Test
+    void testNullSemantics() {
+        // Parent id is null for even ids
+        assertThat(match("Parent Id", Condition.IS_NULL, null).ids())
+                .containsExactly(100, 102, 104, 106, 108);
+        assertThat(match("Parent Id", Condition.EQUALS, null).count())
+                .isEqualTo(5);
+        assertThat(match("Parent Id", Condition.NOT_EQUALS, "100").ids())
+                .containsExactly(103, 105, 107, 109);
+
+        // NOT of an unknown comparison is still unknown, as in SQL
+        final ExpressionOperator notParent = ExpressionOperator.builder()
+                .op(Op.NOT)
+                .addIdTerm(MetaFields.PARENT_ID, Condition.EQUALS, 100L)
+                .build();
+        assertThat(match(notParent).ids())
+                .containsExactly(103, 105, 107, 109);
+
+        // Attribute not yet set
+        assertThat(match("File Size", Condition.GREATER_THAN, "0").count())
+                .isZero();
+        store.setAttribute(104, 0, 1000);
+        assertThat(match("File Size", Condition.GREATER_THAN, "0").ids())
+                .containsExactly(104);
+    }
+
+    @Test
+    void testOperators() {
+        final ExpressionOperator expression = ExpressionOperator.builder()
+                .addTerm("Create Time", Condition.GREATER_THAN_OR_EQUAL_TO, "1020")
+                .addOperator(ExpressionOperator.builder()
+                        .op(Op.OR)
+                        .addTerm("Feed", Condition.EQUALS, "FEED_A")
+                        .addTerm("Id", Condition.IN, "109,100")
+                        .build())
+                .addOperator(ExpressionOperator.builder()
+                        .enabled(false)
+                        .addTerm("Id", Condition.EQUALS, "1")
+                        .build())
+                .build();
+        assertThat(match(expression).ids())
+                .containsExactly(102, 105, 108, 109);
+
+        store.updateStatus(105, MetaStatusId.DELETED, 2000L);
+        final ExpressionOperator notDeleted = expression.copy()
+                .addTerm("Status", Condition.NOT_EQUALS, "Deleted")
+                .build();
+        assertThat(match(notDeleted).ids())
+                .containsExactly(102, 108, 109);
+    }
+
+    @Test
+    void testUnsupported() {
+        // Field not held in the index
+        assertThat(compiler.compile(ExpressionOperator.builder()
+                .addTerm("Pipeline Name", Condition.EQUALS, "foo")
+                .build()))
+                .isEmpty();
+        // Condition not supported by the index
+        assertThat(compiler.compile(ExpressionOperator.builder()
+                .addTerm("Feed", Condition.CONTAINS, "FEED")
+                .build()))
+                .isEmpty();
+        // Unsupported terms in disabled operators don't matter
+        assertThat(compiler.compile(ExpressionOperator.builder()
+                .addOperator(ExpressionOperator.builder()
+                        .enabled(false)
+                        .addTerm("Pipeline Name", Condition.EQUALS, "foo")
+                        .build())
+                .build()))
+                .isPresent();
+    }
+
+    private Match match(final String field, final Condition condition, final String value) {
+        return match(ExpressionOperator.builder()
+                .addTerm(field, condition, value)
+                .build());
+    }
+
+    private Match match(final ExpressionOperator expression) {
+        final MetaRowPredicate predicate = compiler.compile(expression).orElseThrow();
+        return store.match(predicate, false, 0, Integer.MAX_VALUE);
+    }
+
+    private static Row row(final long id,
+                           final int feedId,
+                           final byte status,
+                           final long createTime,
+                           final Long parentId) {
+        return new Row(id, feedId, 1, status, createTime, createTime, createTime, parentId, null, null);
+    }
+}
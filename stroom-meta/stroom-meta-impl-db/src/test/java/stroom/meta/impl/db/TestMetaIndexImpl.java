@@ -0,0 +1,129 @@
+package stroom.meta.impl.db;
+
+import stroom.cache.impl.CacheModule;
+import stroom.cluster.lock.mock.MockClusterLockModule;
+import stroom.collection.mock.MockCollectionModule;
+import stroom.dictionary.mock.MockWordListProviderModule;
+import stroom.docrefinfo.mock.MockDocRefInfoModule;
+import stroom.meta.api.MetaProperties;
+import stroom.meta.impl.MetaIndexConfig;
+import stroom.meta.impl.MetaServiceConfig;
+import stroom.meta.impl.db.MetaIndexImpl.IndexMatch;
+import stroom.meta.shared.MetaFields;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionTerm.Condition;
+import stroom.security.mock.MockSecurityContextModule;
+import stroom.task.mock.MockTaskModule;
+import stroom.test.common.MockMetricsModule;
+import stroom.test.common.util.db.DbTestModule;
+import stroom.util.time.StroomDuration;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestMetaIndexImpl {
+
+    private static final String FEED_NAME = "TEST1";
+    private static final String TYPE_NAME = "RAW_TEST_STREAM_TYPE";
+    private static final int MAX_ROWS = 5;
+
+    @Inject
+    private Cleanup cleanup;
+    @Inject
+    private MetaDaoImpl metaDao;
+    @Inject
+    private MetaIndexImpl metaIndex;
+
+    @BeforeEach
+    void setup() {
+        final MetaIndexConfig metaIndexConfig = new MetaIndexConfig(
+                true,
+                StroomDuration.ofDays(7),
+                MAX_ROWS,
+                100,
+                List.of());
+        final AbstractModule localModule = new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(MetaServiceConfig.class).toInstance(new MetaServiceConfig());
+                bind(MetaIndexConfig.class).toInstance(metaIndexConfig);
+            }
+        };
+        Guice.createInjector(
+                        new MetaTestModule(),
+                        new MetaDbModule(),
+                        new MetaDaoModule(),
+                        new MockClusterLockModule(),
+                        new MockSecurityContextModule(),
+                        new MockTaskModule(),
+                        new MockCollectionModule(),
+                        new MockDocRefInfoModule(),
+                        new MockWordListProviderModule(),
+                        new MockMetricsModule(),
+                        new CacheModule(),
+                        new DbTestModule(),
+                        localModule)
+                .injectMembers(this);
+        cleanup.cleanup();
+        metaIndex.clear();
+    }
+
+    @Test
+    void testLoadWithinMaxRows() {
+        createMeta(MAX_ROWS);
+
+        metaIndex.refresh();
+
+        final IndexMatch match = matchFeed();
+        assertThat(match.complete())
+                .isTrue();
+        assertThat(match.count())
+                .isEqualTo(MAX_ROWS);
+    }
+
+    @Test
+    void testLoadEvictsBeyondMaxRows() {
+        createMeta(MAX_ROWS * 2);
+
+        metaIndex.refresh();
+
+        // The oldest rows were evicted by the initial load so the index no longer
+        // holds everything and the rows below it must come from the database.
+        final IndexMatch match = matchFeed();
+        assertThat(match.complete())
+                .isFalse();
+        assertThat(match.count())
+                .isEqualTo(MAX_ROWS);
+    }
+
+    private IndexMatch matchFeed() {
+        final Optional<IndexMatch> optionalMatch = metaIndex.match(
+                ExpressionOperator.builder()
+                        .addTextTerm(MetaFields.FEED, Condition.EQUALS, FEED_NAME)
+                        .build(),
+                false,
+                0,
+                0);
+        assertThat(optionalMatch)
+                .isPresent();
+        return optionalMatch.get();
+    }
+
+    private void createMeta(final int count) {
+        for (int i = 0; i < count; i++) {
+            metaDao.create(MetaProperties.builder()
+                    .createMs(System.currentTimeMillis())
+                    .feedName(FEED_NAME)
+                    .typeName(TYPE_NAME)
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.impl.db;
+
+import stroom.meta.impl.db.MetaPartitionDaoImpl.Partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestMetaPartitionDaoImpl {
+
+    private static final long DAY_MS = Duration.ofDays(1).toMillis();
+    private static final long NOW_MS = Instant.parse("2025-06-10T12:30:00Z").toEpochMilli();
+    private static final long TODAY_MS = Instant.parse("2025-06-10T00:00:00Z").toEpochMilli();
+
+    @Test
+    void testPlanPartitions_fromHistory() {
+        final List<Partition> partitions = List.of(
+                new Partition("p_history", TODAY_MS, 100),
+                new Partition("p_max", null, 0));
+
+        final List<Partition> newPartitions = MetaPartitionDaoImpl.planPartitions(
+                partitions, NOW_MS, 2, DAY_MS);
+
+        assertThat(newPartitions)
+                .extracting(Partition::name)
+                .containsExactly("p202506100000", "p202506110000");
+        assertThat(newPartitions)
+                .extracting(Partition::toMs)
+                .containsExactly(TODAY_MS + DAY_MS, TODAY_MS + (2 * DAY_MS));
+    }
+
+    @Test
+    void testPlanPartitions_upToDate() {
+        final List<Partition> partitions = List.of(
+                new Partition("p202506100000", TODAY_MS + DAY_MS, 100),
+                new Partition("p202506110000", TODAY_MS + (2 * DAY_MS), 0),
+                new Partition("p_max", null, 0));
+
+        assertThat(MetaPartitionDaoImpl.planPartitions(partitions, NOW_MS, 2, DAY_MS))
+                .isEmpty();
+    }
+
+    @Test
+    void testPlanPartitions_catchUp() {
+        // Last boundary is well behind now so one partition catches up to the current period.
+        final long oldBound = TODAY_MS - (10 * DAY_MS);
+        final List<Partition> partitions = List.of(
+                new Partition("p_history", oldBound, 100),
+                new Partition("p_max", null, 10));
+
+        final List<Partition> newPartitions = MetaPartitionDaoImpl.planPartitions(
+                partitions, NOW_MS, 1, DAY_MS);
+
+        assertThat(newPartitions)
+                .extracting(Partition::toMs)
+                .containsExactly(TODAY_MS, TODAY_MS + DAY_MS);
+    }
+
+    @Test
+    void testPlanPartitions_noBoundedPartitions() {
+        final List<Partition> partitions = List.of(
+                new Partition("p_max", null, 10));
+
+        final List<Partition> newPartitions = MetaPartitionDaoImpl.planPartitions(
+                partitions, NOW_MS, 1, DAY_MS);
+
+        assertThat(newPartitions)
+                .extracting(Partition::toMs)
+                .containsExactly(TODAY_MS + DAY_MS);
+    }
+
+    @Test
+    void testGetPartitionEnd() {
+        final List<Partition> partitions = List.of(
+                new Partition("p_history", TODAY_MS, 100),
+                new Partition("p202506100000", TODAY_MS + DAY_MS, 10),
+                new Partition("p_max", null, 0));
+
+        assertThat(MetaPartitionDaoImpl.getPartitionEnd(partitions, 0))
+                .isEqualTo(TODAY_MS);
+        assertThat(MetaPartitionDaoImpl.getPartitionEnd(partitions, TODAY_MS))
+                .isEqualTo(TODAY_MS + DAY_MS);
+        assertThat(MetaPartitionDaoImpl.getPartitionEnd(partitions, TODAY_MS + DAY_MS))
+                .isNull();
+        assertThat(MetaPartitionDaoImpl.getPartitionEnd(List.of(), TODAY_MS))
+                .isNull();
+    }
+
+    @Test
+    void testCreateSql() {
+        final Partition max = new Partition("p_max", null, 0);
+        final Partition partition = new Partition("p202506100000", TODAY_MS + DAY_MS, 0);
+
+        assertThat(MetaPartitionDaoImpl.createReorganiseSql("meta_val", max, List.of(partition)))
+                .isEqualTo("ALTER TABLE `meta_val` REORGANIZE PARTITION `p_max` INTO (" +
+                        "PARTITION `p202506100000` VALUES LESS THAN (" + (TODAY_MS + DAY_MS) + "), " +
+                        "PARTITION `p_max` VALUES LESS THAN MAXVALUE)");
+        assertThat(MetaPartitionDaoImpl.createDropSql("meta_val",
+                List.of(new Partition("p_history", TODAY_MS, 0), partition)))
+                .isEqualTo("ALTER TABLE `meta_val` DROP PARTITION `p_history`, `p202506100000`");
+    }
+}
@@ -182,6 +182,46 @@ class TestMetaValueDaoImpl {
         assertThat(metaService.find(criteria).size()).isEqualTo(0);
     }
 
+    @Test
+    void testAddAsync() {
+        setAddAsync(true);
+
+        for (int i = 0; i < 10; i++) {
+            final Meta meta = metaService.create(createProperties("FEED1"));
+            metaService.addAttributes(meta, createAttributes());
+        }
+
+        final FindMetaCriteria criteria = new FindMetaCriteria(ExpressionOperator.builder()
+                .addIdTerm(MetaFields.FILE_SIZE, Condition.GREATER_THAN, 0)
+                .build());
+
+        // Fewer rows than the flush batch size so nothing is written until we flush.
+        assertThat(metaService.find(criteria).size()).isEqualTo(0);
+
+        metaValueDao.flush();
+
+        assertThat(metaService.find(criteria).size()).isEqualTo(10);
+    }
+
+    @Test
+    void testShutdownWritesQueue() {
+        setAddAsync(true);
+
+        for (int i = 0; i < 10; i++) {
+            final Meta meta = metaService.create(createProperties("FEED1"));
+            metaService.addAttributes(meta, createAttributes());
+        }
+
+        final FindMetaCriteria criteria = new FindMetaCriteria(ExpressionOperator.builder()
+                .addIdTerm(MetaFields.FILE_SIZE, Condition.GREATER_THAN, 0)
+                .build());
+        assertThat(metaService.find(criteria).size()).isEqualTo(0);
+
+        metaValueDao.shutdown();
+
+        assertThat(metaService.find(criteria).size()).isEqualTo(10);
+    }
+
     private MetaProperties createProperties(final String feedName) {
         return MetaProperties.builder()
                 .createMs(1000L)
@@ -0,0 +1,36 @@
+package stroom.meta.impl;
+
+import java.util.Optional;
+
+/**
+ * An optional node-local, in-memory index of recent meta records used to answer meta
+ * filters and counts without querying the database.
+ */
+public interface MetaIndex {
+
+    /**
+     * Bring the index up to date with the database, performing the initial load if the index
+     * is enabled but not yet loaded, or discarding the index if it has been disabled.
+     */
+    void refresh();
+
+    /**
+     * @return The consistency watermark of the index or empty if the index is not enabled
+     * or not yet loaded.
+     */
+    Optional<Watermark> getWatermark();
+
+    /**
+     * Describes what the index currently holds.
+     *
+     * @param firstId       The lowest meta id covered by the index (inclusive).
+     * @param lastId        The highest meta id covered by the index (inclusive). Any meta record
+     *                      with a higher id is always read from the database.
+     * @param refreshTimeMs The time the index was last refreshed. Status and attribute changes
+     *                      made after this time may not be reflected in results from the index.
+     * @param rowCount      The number of meta records held in the index.
+     */
+    record Watermark(long firstId, long lastId, long refreshTimeMs, int rowCount) {
+
+    }
+}
@@ -0,0 +1,126 @@
+package stroom.meta.impl;
+
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+import stroom.util.time.StroomDuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+
+@JsonPropertyOrder(alphabetic = true)
+public class MetaIndexConfig extends AbstractConfig implements IsStroomConfig {
+
+    @JsonProperty
+    @JsonPropertyDescription("If true, each node will hold an in-memory columnar index of recent meta " +
+            "records that is used to answer data browser filters and counts. Only the range of meta " +
+            "records that are not held in the index will be queried from the database.")
+    private final boolean enabled;
+
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("The maximum age (based on create time) of meta records held in the index. " +
+            "In ISO-8601 duration format, e.g. 'P7D'")
+    private final StroomDuration maxAge;
+
+    @Min(1)
+    @JsonProperty
+    @JsonPropertyDescription("The maximum number of meta records held in the index. When exceeded the " +
+            "oldest records are removed from the index.")
+    private final int maxRows;
+
+    @Min(1)
+    @JsonProperty
+    @JsonPropertyDescription("The number of meta records to read from the database in each batch when " +
+            "loading or refreshing the index.")
+    private final int refreshBatchSize;
+
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("The names of the extended meta attributes, e.g. 'File Size', to hold in the " +
+            "index. Filters on any other extended attribute will be answered by the database.")
+    private final List<String> indexedAttributes;
+
+    public MetaIndexConfig() {
+        enabled = false;
+        maxAge = StroomDuration.ofDays(7);
+        maxRows = 5_000_000;
+        refreshBatchSize = 10_000;
+        indexedAttributes = List.of("File Size", "Raw Size");
+    }
+
+    @JsonCreator
+    public MetaIndexConfig(@JsonProperty("enabled") final boolean enabled,
+                           @JsonProperty("maxAge") final StroomDuration maxAge,
+                           @JsonProperty("maxRows") final int maxRows,
+                           @JsonProperty("refreshBatchSize") final int refreshBatchSize,
+                           @JsonProperty("indexedAttributes") final List<String> indexedAttributes) {
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.maxRows = maxRows;
+        this.refreshBatchSize = refreshBatchSize;
+        this.indexedAttributes = indexedAttributes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public StroomDuration getMaxAge() {
+        return maxAge;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public int getRefreshBatchSize() {
+        return refreshBatchSize;
+    }
+
+    public List<String> getIndexedAttributes() {
+        return indexedAttributes;
+    }
+
+    public MetaIndexConfig withEnabled(final boolean enabled) {
+        return new MetaIndexConfig(enabled, maxAge, maxRows, refreshBatchSize, indexedAttributes);
+    }
+
+    @Override
+    public String toString() {
+        return "MetaIndexConfig{" +
+                "enabled=" + enabled +
+                ", maxAge=" + maxAge +
+                ", maxRows=" + maxRows +
+                ", refreshBatchSize=" + refreshBatchSize +
+                ", indexedAttributes=" + indexedAttributes +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MetaIndexConfig that = (MetaIndexConfig) o;
+        return enabled == that.enabled &&
+                maxRows == that.maxRows &&
+                refreshBatchSize == that.refreshBatchSize &&
+                Objects.equals(maxAge, that.maxAge) &&
+                Objects.equals(indexedAttributes, that.indexedAttributes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, maxAge, maxRows, refreshBatchSize, indexedAttributes);
+    }
+}
@@ -49,7 +49,18 @@ public class MetaModule extends AbstractModule {
                         .name("Attribute Value Data Retention")
                         .description("Delete data attribute values older than system property " +
                                      "stroom.data.meta.metaValue.deleteAge")
-                        .frequencySchedule("1d"));
+                        .frequencySchedule("1d"))
+                .bindJobTo(MetaIndexRefresh.class, builder -> builder
+                        .name("Meta Index Refresh")
+                        .description("Load and refresh the in-memory meta index on this node, if enabled " +
+                                     "by system property stroom.data.meta.metaIndex.enabled")
+                        .managed(false)
+                        .frequencySchedule("10s"))
+                .bindJobTo(MetaPartitionMaintenance.class, builder -> builder
+                        .name("Meta Partition Maintenance")
+                        .description("Add new create time partitions to the meta and meta_val tables, " +
+                                     "if enabled by system property stroom.data.meta.metaPartition.enabled")
+                        .frequencySchedule("1h"));
     }
 
     @Override
@@ -73,6 +84,22 @@ public class MetaModule extends AbstractModule {
         }
     }
 
+    private static class MetaIndexRefresh extends RunnableWrapper {
+
+        @Inject
+        MetaIndexRefresh(final MetaIndex metaIndex) {
+            super(metaIndex::refresh);
+        }
+    }
+
+    private static class MetaPartitionMaintenance extends RunnableWrapper {
+
+        @Inject
+        MetaPartitionMaintenance(final MetaPartitionDao metaPartitionDao) {
+            super(metaPartitionDao::maintainPartitions);
+        }
+    }
+
     private static class DataAttributesRetention extends RunnableWrapper {
 
         @Inject
@@ -0,0 +1,115 @@
+package stroom.meta.impl;
+
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+import stroom.util.time.StroomDuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Objects;
+
+@JsonPropertyOrder(alphabetic = true)
+public class MetaPartitionConfig extends AbstractConfig implements IsStroomConfig {
+
+    @JsonProperty
+    @JsonPropertyDescription("If true, and the meta and/or meta_val tables have been partitioned by create " +
+            "time (see scripts/v7_meta_partition.sql), the 'Meta Partition Maintenance' job will add new " +
+            "partitions ahead of time. Retention will drop whole meta_val " +
+            "partitions older than 'stroom.data.meta.metaValue.deleteAge' and will logically delete " +
+            "meta records one partition at a time. Has no effect on tables that are not partitioned.")
+    private final boolean enabled;
+
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("The time range covered by each new partition. Partition boundaries are aligned " +
+            "to multiples of this period since the epoch. Minimum of one hour. " +
+            "In ISO-8601 duration format, e.g. 'P7D'")
+    private final StroomDuration partitionPeriod;
+
+    @Min(1)
+    @JsonProperty
+    @JsonPropertyDescription("The number of partitions to create ahead of the current time.")
+    private final int futurePartitionCount;
+
+    @Min(0)
+    @JsonProperty
+    @JsonPropertyDescription("New partitions are split off the MAXVALUE partition, which copies every row " +
+            "in it. It should be empty, but will hold rows if the maintenance job has not run for longer than " +
+            "'futurePartitionCount' periods. If the MAXVALUE partition holds more than this many rows " +
+            "(as estimated by the database) no partitions are added and a warning is logged. The table will " +
+            "then need to be re-partitioned by hand at a quiet time.")
+    private final long maxReorganiseRows;
+
+    public MetaPartitionConfig() {
+        enabled = false;
+        partitionPeriod = StroomDuration.ofDays(7);
+        futurePartitionCount = 4;
+        maxReorganiseRows = 1_000_000;
+    }
+
+    @JsonCreator
+    public MetaPartitionConfig(@JsonProperty("enabled") final boolean enabled,
+                               @JsonProperty("partitionPeriod") final StroomDuration partitionPeriod,
+                               @JsonProperty("futurePartitionCount") final int futurePartitionCount,
+                               @JsonProperty("maxReorganiseRows") final long maxReorganiseRows) {
+        this.enabled = enabled;
+        this.partitionPeriod = partitionPeriod;
+        this.futurePartitionCount = futurePartitionCount;
+        this.maxReorganiseRows = maxReorganiseRows;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public StroomDuration getPartitionPeriod() {
+        return partitionPeriod;
+    }
+
+    public int getFuturePartitionCount() {
+        return futurePartitionCount;
+    }
+
+    public long getMaxReorganiseRows() {
+        return maxReorganiseRows;
+    }
+
+    public MetaPartitionConfig withEnabled(final boolean enabled) {
+        return new MetaPartitionConfig(enabled, partitionPeriod, futurePartitionCount, maxReorganiseRows);
+    }
+
+    @Override
+    public String toString() {
+        return "MetaPartitionConfig{" +
+                "enabled=" + enabled +
+                ", partitionPeriod=" + partitionPeriod +
+                ", futurePartitionCount=" + futurePartitionCount +
+                ", maxReorganiseRows=" + maxReorganiseRows +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MetaPartitionConfig that = (MetaPartitionConfig) o;
+        return enabled == that.enabled &&
+                futurePartitionCount == that.futurePartitionCount &&
+                maxReorganiseRows == that.maxReorganiseRows &&
+                Objects.equals(partitionPeriod, that.partitionPeriod);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, partitionPeriod, futurePartitionCount, maxReorganiseRows);
+    }
+}
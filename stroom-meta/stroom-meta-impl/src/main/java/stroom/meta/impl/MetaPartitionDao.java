@@ -0,0 +1,14 @@
+package stroom.meta.impl;
+
+/**
+ * Maintains the create time range partitions of the meta and meta_val tables for databases
+ * where those tables have been partitioned.
+ */
+public interface MetaPartitionDao {
+
+    /**
+     * Add partitions ahead of the current time. Does nothing unless partition management
+     * is enabled.
+     */
+    void maintainPartitions();
+}
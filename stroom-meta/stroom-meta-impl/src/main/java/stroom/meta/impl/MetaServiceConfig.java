@@ -41,6 +41,8 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
 
     private final MetaServiceDbConfig dbConfig;
     private final MetaValueConfig metaValueConfig;
+    private final MetaIndexConfig metaIndexConfig;
+    private final MetaPartitionConfig metaPartitionConfig;
     private final CacheConfig metaFeedCache;
     private final CacheConfig metaProcessorCache;
     private final CacheConfig metaTypeCache;
@@ -52,6 +54,8 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
     public MetaServiceConfig() {
         dbConfig = new MetaServiceDbConfig();
         metaValueConfig = new MetaValueConfig();
+        metaIndexConfig = new MetaIndexConfig();
+        metaPartitionConfig = new MetaPartitionConfig();
         metaFeedCache = CacheConfig.builder()
                 .maximumSize(1000L)
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
@@ -74,6 +78,8 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
     @JsonCreator
     public MetaServiceConfig(@JsonProperty("db") final MetaServiceDbConfig dbConfig,
                              @JsonProperty("metaValue") final MetaValueConfig metaValueConfig,
+                             @JsonProperty("metaIndex") final MetaIndexConfig metaIndexConfig,
+                             @JsonProperty("metaPartition") final MetaPartitionConfig metaPartitionConfig,
                              @JsonProperty("metaFeedCache") final CacheConfig metaFeedCache,
                              @JsonProperty("metaProcessorCache") final CacheConfig metaProcessorCache,
                              @JsonProperty("metaTypeCache") final CacheConfig metaTypeCache,
@@ -83,6 +89,8 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
                              @JsonProperty("metaStatusUpdateBatchSize") final int metaStatusUpdateBatchSize) {
         this.dbConfig = dbConfig;
         this.metaValueConfig = metaValueConfig;
+        this.metaIndexConfig = metaIndexConfig;
+        this.metaPartitionConfig = metaPartitionConfig;
         this.metaFeedCache = metaFeedCache;
         this.metaProcessorCache = metaProcessorCache;
         this.metaTypeCache = metaTypeCache;
@@ -103,6 +111,16 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
         return metaValueConfig;
     }
 
+    @JsonProperty("metaIndex")
+    public MetaIndexConfig getMetaIndexConfig() {
+        return metaIndexConfig;
+    }
+
+    @JsonProperty("metaPartition")
+    public MetaPartitionConfig getMetaPartitionConfig() {
+        return metaPartitionConfig;
+    }
+
     public CacheConfig getMetaFeedCache() {
         return metaFeedCache;
     }
@@ -195,6 +213,38 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
         return new MetaServiceConfig(
                 dbConfig,
                 metaValueConfig,
+                metaIndexConfig,
+                metaPartitionConfig,
+                metaFeedCache,
+                metaProcessorCache,
+                metaTypeCache,
+                metaTypes,
+                rawMetaTypes,
+                dataFormats,
+                metaStatusUpdateBatchSize);
+    }
+
+    public MetaServiceConfig withMetaIndexConfig(final MetaIndexConfig metaIndexConfig) {
+        return new MetaServiceConfig(
+                dbConfig,
+                metaValueConfig,
+                metaIndexConfig,
+                metaPartitionConfig,
+                metaFeedCache,
+                metaProcessorCache,
+                metaTypeCache,
+                metaTypes,
+                rawMetaTypes,
+                dataFormats,
+                metaStatusUpdateBatchSize);
+    }
+
+    public MetaServiceConfig withMetaPartitionConfig(final MetaPartitionConfig metaPartitionConfig) {
+        return new MetaServiceConfig(
+                dbConfig,
+                metaValueConfig,
+                metaIndexConfig,
+                metaPartitionConfig,
                 metaFeedCache,
                 metaProcessorCache,
                 metaTypeCache,
@@ -210,6 +260,8 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
         return new MetaServiceConfig(
                 dbConfig,
                 metaValueConfig,
+                metaIndexConfig,
+                metaPartitionConfig,
                 metaFeedCache,
                 metaProcessorCache,
                 metaTypeCache,
@@ -224,6 +276,8 @@ public class MetaServiceConfig extends AbstractConfig implements IsStroomConfig,
         return "MetaServiceConfig{" +
                "dbConfig=" + dbConfig +
                ", metaValueConfig=" + metaValueConfig +
+               ", metaIndexConfig=" + metaIndexConfig +
+               ", metaPartitionConfig=" + metaPartitionConfig +
                ", metaFeedCache=" + metaFeedCache +
                ", metaProcessorCache=" + metaProcessorCache +
                ", metaTypeCache=" + metaTypeCache +
@@ -1,5 +1,6 @@
 package stroom.meta.impl;
 
+import stroom.util.io.ByteSize;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
 import stroom.util.time.StroomDuration;
@@ -30,10 +31,18 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
             "Only applicable if property 'addAsync' is true.")
     private final int flushBatchSize;
 
+    @NotNull
+    @JsonProperty
+    @JsonPropertyDescription("The maximum estimated size of a single multi-row insert statement used to " +
+            "write queued stream attributes to the database. Larger batches are split into several " +
+            "statements. This must be less than the 'max_allowed_packet' setting of the database. " +
+            "In IEC units, e.g. '1M'.")
+    private final ByteSize maxInsertSize;
+
     @JsonProperty
     @JsonPropertyDescription("If true, stream attributes will be queued in memory until the queue " +
-            "reaches 'flushBatchSize'. If false, stream attributes will be written to the database " +
-            "immediately and synchronously.")
+            "reaches 'flushBatchSize' and then written to the database by a background writer. " +
+            "If false, stream attributes will be written to the database immediately and synchronously.")
     // TODO 01/12/2021 AT: Make final
     private boolean addAsync;
 
@@ -41,6 +50,7 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
         deleteAge = StroomDuration.ofDays(30);
         deleteBatchSize = 500;
         flushBatchSize = 500;
+        maxInsertSize = ByteSize.ofMebibytes(1);
         addAsync = true;
     }
 
@@ -48,10 +58,12 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
     public MetaValueConfig(@JsonProperty("deleteAge") final StroomDuration deleteAge,
                            @JsonProperty("deleteBatchSize") final int deleteBatchSize,
                            @JsonProperty("flushBatchSize") final int flushBatchSize,
+                           @JsonProperty("maxInsertSize") final ByteSize maxInsertSize,
                            @JsonProperty("addAsync") final boolean addAsync) {
         this.deleteAge = deleteAge;
         this.deleteBatchSize = deleteBatchSize;
         this.flushBatchSize = flushBatchSize;
+        this.maxInsertSize = maxInsertSize;
         this.addAsync = addAsync;
     }
 
@@ -67,6 +79,10 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
         return flushBatchSize;
     }
 
+    public ByteSize getMaxInsertSize() {
+        return maxInsertSize;
+    }
+
     public boolean isAddAsync() {
         return addAsync;
     }
@@ -77,7 +93,7 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
     }
 
     public MetaValueConfig withAddAsync(final boolean addAsync) {
-        return new MetaValueConfig(deleteAge, deleteBatchSize, flushBatchSize, addAsync);
+        return new MetaValueConfig(deleteAge, deleteBatchSize, flushBatchSize, maxInsertSize, addAsync);
     }
 
     @Override
@@ -86,6 +102,7 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
                 "deleteAge=" + deleteAge +
                 ", deleteBatchSize=" + deleteBatchSize +
                 ", flushBatchSize=" + flushBatchSize +
+                ", maxInsertSize=" + maxInsertSize +
                 ", addAsync=" + addAsync +
                 '}';
     }
@@ -102,11 +119,12 @@ public class MetaValueConfig extends AbstractConfig implements IsStroomConfig {
         return deleteBatchSize == that.deleteBatchSize &&
                 flushBatchSize == that.flushBatchSize &&
                 addAsync == that.addAsync &&
-                Objects.equals(deleteAge, that.deleteAge);
+                Objects.equals(deleteAge, that.deleteAge) &&
+                Objects.equals(maxInsertSize, that.maxInsertSize);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(deleteAge, deleteBatchSize, flushBatchSize, addAsync);
+        return Objects.hash(deleteAge, deleteBatchSize, flushBatchSize, maxInsertSize, addAsync);
     }
 }
@@ -19,6 +19,7 @@ package stroom.meta.impl;
 
 import stroom.data.retention.shared.DataRetentionRule;
 import stroom.data.retention.shared.DataRetentionRules;
+import stroom.expression.matcher.CompiledExpressionMatcher;
 import stroom.expression.matcher.ExpressionMatcher;
 import stroom.expression.matcher.ExpressionMatcherFactory;
 import stroom.meta.shared.DataRetentionFields;
@@ -44,17 +45,26 @@ class StreamAttributeMapRetentionRuleDecorator {
     private static final Logger LOGGER = LoggerFactory.getLogger(StreamAttributeMapRetentionRuleDecorator.class);
 
     private final List<DataRetentionRule> rules;
-    private final ExpressionMatcher expressionMatcher;
+    // One per rule, null if the rule is to be ignored
+    private final List<CompiledExpressionMatcher> ruleMatchers;
 
     @Inject
     public StreamAttributeMapRetentionRuleDecorator(final ExpressionMatcherFactory expressionMatcherFactory,
                                                     final Provider<DataRetentionRules> dataRetentionRulesProvider) {
-        expressionMatcher = expressionMatcherFactory.create(MetaFields.getFieldMap());
+        final ExpressionMatcher expressionMatcher = expressionMatcherFactory.create(MetaFields.getFieldMap());
 
         rules = Optional.ofNullable(dataRetentionRulesProvider)
                 .map(Provider::get)
                 .map(DataRetentionRules::getRules)
                 .orElse(Collections.emptyList());
+
+        // Compile the rules once as they will be matched against many streams.
+        // We will ignore rules that are not enabled or have no enabled expression.
+        ruleMatchers = rules.stream()
+                .map(rule -> rule.isEnabled() && rule.getExpression() != null && rule.getExpression().enabled()
+                        ? expressionMatcher.compile(rule.getExpression())
+                        : null)
+                .toList();
     }
 
     void addMatchingRetentionRuleInfo(final Meta meta, final Map<String, String> attributeMap) {
@@ -103,12 +113,9 @@ class StreamAttributeMapRetentionRuleDecorator {
 
         for (int i = 0; i < rules.size(); i++) {
             try {
-                final DataRetentionRule rule = rules.get(i);
-                // We will ignore rules that are not enabled or have no enabled expression.
-                if (rule.isEnabled() && rule.getExpression() != null && rule.getExpression().enabled()) {
-                    if (expressionMatcher.match(attributeMap, rule.getExpression())) {
-                        return i;
-                    }
+                final CompiledExpressionMatcher ruleMatcher = ruleMatchers.get(i);
+                if (ruleMatcher != null && ruleMatcher.match(attributeMap)) {
+                    return i;
                 }
             } catch (final RuntimeException e) {
                 lastException = e;
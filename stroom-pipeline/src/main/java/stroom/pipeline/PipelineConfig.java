@@ -3,6 +3,7 @@ package stroom.pipeline;
 import stroom.pipeline.destination.AppenderConfig;
 import stroom.pipeline.filter.XmlSchemaConfig;
 import stroom.pipeline.filter.XsltConfig;
+import stroom.pipeline.profiling.PipelineProfilingConfig;
 import stroom.pipeline.refdata.ReferenceDataConfig;
 import stroom.util.cache.CacheConfig;
 import stroom.util.shared.AbstractConfig;
@@ -24,8 +25,10 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
     private final XmlSchemaConfig xmlSchemaConfig;
     private final XsltConfig xsltConfig;
     private final CacheConfig httpClientCache;
+    private final CacheConfig httpResponseCache;
     private final CacheConfig pipelineDataCache;
     private final CacheConfig documentPermissionCache;
+    private final PipelineProfilingConfig profilingConfig;
 
     public PipelineConfig() {
         appenderConfig = new AppenderConfig();
@@ -37,6 +40,12 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
                 .maximumSize(1000L)
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
                 .build();
+        // XSLT functions set how long each response can be used for. This just puts an upper
+        // limit on it.
+        httpResponseCache = CacheConfig.builder()
+                .maximumSize(10_000L)
+                .expireAfterWrite(StroomDuration.ofHours(1))
+                .build();
         pipelineDataCache = CacheConfig.builder()
                 .maximumSize(1000L)
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
@@ -48,6 +57,7 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
                 .maximumSize(1000L)
                 .expireAfterWrite(StroomDuration.ofSeconds(30))
                 .build();
+        profilingConfig = new PipelineProfilingConfig();
     }
 
     @SuppressWarnings("unused")
@@ -58,16 +68,20 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
                           @JsonProperty("xmlSchema") final XmlSchemaConfig xmlSchemaConfig,
                           @JsonProperty("xslt") final XsltConfig xsltConfig,
                           @JsonProperty("httpClientCache") final CacheConfig httpClientCache,
+                          @JsonProperty("httpResponseCache") final CacheConfig httpResponseCache,
                           @JsonProperty("pipelineDataCache") final CacheConfig pipelineDataCache,
-                          @JsonProperty("documentPermissionCache") final CacheConfig documentPermissionCache) {
+                          @JsonProperty("documentPermissionCache") final CacheConfig documentPermissionCache,
+                          @JsonProperty("profiling") final PipelineProfilingConfig profilingConfig) {
         this.appenderConfig = appenderConfig;
         this.parserConfig = parserConfig;
         this.referenceDataConfig = referenceDataConfig;
         this.xmlSchemaConfig = xmlSchemaConfig;
         this.xsltConfig = xsltConfig;
         this.httpClientCache = httpClientCache;
+        this.httpResponseCache = httpResponseCache;
         this.pipelineDataCache = pipelineDataCache;
         this.documentPermissionCache = documentPermissionCache;
+        this.profilingConfig = profilingConfig;
     }
 
     @JsonProperty("appender")
@@ -99,6 +113,10 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
         return httpClientCache;
     }
 
+    public CacheConfig getHttpResponseCache() {
+        return httpResponseCache;
+    }
+
     public CacheConfig getPipelineDataCache() {
         return pipelineDataCache;
     }
@@ -106,4 +124,9 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
     public CacheConfig getDocumentPermissionCache() {
         return documentPermissionCache;
     }
+
+    @JsonProperty("profiling")
+    public PipelineProfilingConfig getProfilingConfig() {
+        return profilingConfig;
+    }
 }
@@ -25,6 +25,7 @@ import stroom.pipeline.filter.SAXRecordDetector;
 import stroom.pipeline.filter.SplitFilter;
 import stroom.pipeline.filter.XMLFilter;
 import stroom.pipeline.parser.AbstractParser;
+import stroom.pipeline.profiling.PipelineProfiler;
 import stroom.pipeline.reader.AbstractInputElement;
 import stroom.pipeline.reader.AbstractReaderElement;
 import stroom.pipeline.reader.InputStreamRecordDetectorElement;
@@ -70,16 +71,19 @@ public class PipelineFactory {
     private final ElementFactory elementFactory;
     private final ProcessorFactory processorFactory;
     private final ErrorReceiverProxy errorReceiverProxy;
+    private final PipelineProfiler pipelineProfiler;
 
     @Inject
     public PipelineFactory(final ElementRegistryFactory pipelineElementRegistryFactory,
                            final ElementFactory elementFactory,
                            final ProcessorFactory processorFactory,
-                           final ErrorReceiverProxy errorReceiverProxy) {
+                           final ErrorReceiverProxy errorReceiverProxy,
+                           final PipelineProfiler pipelineProfiler) {
         this.pipelineElementRegistryFactory = pipelineElementRegistryFactory;
         this.elementFactory = elementFactory;
         this.processorFactory = processorFactory;
         this.errorReceiverProxy = errorReceiverProxy;
+        this.pipelineProfiler = pipelineProfiler;
 
         if (processorFactory == null) {
             throw new NullPointerException("processorFactory is null");
@@ -99,6 +103,11 @@ public class PipelineFactory {
                            final SteppingController controller) {
         final ElementRegistry pipelineElementRegistry = pipelineElementRegistryFactory.get();
 
+        // Stepping already records what each element does so we only profile normal processing.
+        final PipelineProfiler profiler = controller == null && pipelineProfiler != null && pipelineProfiler.start()
+                ? pipelineProfiler
+                : null;
+
         // If we are stepping then we don't want to use the cache.
         // Create an instance of each element.
         final Map<String, Element> elementInstances = new HashMap<>();
@@ -138,6 +147,9 @@ public class PipelineFactory {
             // Store the instance.
             elementInstances.put(element.getId(), elementInstance);
             elementTypeMap.put(elementInstance, pipelineElementRegistry.getElementType(element.getType()));
+            if (profiler != null) {
+                profiler.addElement(elementTypeMap.get(elementInstance), elementInstance);
+            }
 
             // Record links.
             final Set<String> linkSet = new HashSet<>();
@@ -168,6 +180,7 @@ public class PipelineFactory {
                 elementTypeMap,
                 linkSets,
                 controller,
+                profiler,
                 sourceElement,
                 sourceElement.getElementId(),
                 controllerSplitDepth);
@@ -190,7 +203,7 @@ public class PipelineFactory {
             controller.getRecordDetector().setController(controller);
         }
 
-        return new PipelineImpl(processorFactory, elementInstances, root, controller != null);
+        return new PipelineImpl(processorFactory, elementInstances, root, controller != null, profiler);
     }
 
     /**
@@ -320,6 +333,7 @@ public class PipelineFactory {
                       final Map<Element, PipelineElementType> elementTypeMap,
                       final Map<String, Set<String>> linkSets,
                       final SteppingController controller,
+                      final PipelineProfiler profiler,
                       final Element parentElement,
                       final String parentElementId,
                       final int controllerSplitDepth) {
@@ -357,6 +371,9 @@ public class PipelineFactory {
                     fragment = insertRecordDetector(elementType, fragment, true, controller);
                     fragment = insertRecordDetector(elementType, fragment, false, controller);
                 }
+            } else if (profiler != null && childElement instanceof final XMLFilter filter) {
+                // Put a probe in front of each XML filter to measure the events it is given.
+                fragment = new Fragment(profiler.createProbe(elementType, filter, parentElement), childElement);
             }
 
             // Continue to link the children of this child.
@@ -364,6 +381,7 @@ public class PipelineFactory {
                     elementTypeMap,
                     linkSets,
                     controller,
+                    profiler,
                     fragment.getOut(),
                     elementId,
                     controllerSplitDepth);
@@ -16,7 +16,9 @@
 
 package stroom.pipeline.factory;
 
+import stroom.pipeline.profiling.PipelineProfileStore;
 import stroom.util.guice.GuiceUtil;
+import stroom.util.guice.HasSystemInfoBinder;
 import stroom.util.shared.Clearable;
 
 import com.google.inject.AbstractModule;
@@ -31,6 +33,11 @@ public class PipelineFactoryModule extends AbstractModule {
         bind(PipelineStackLoader.class).to(PipelineStackLoaderImpl.class);
         bind(ProcessorFactory.class).to(ProcessorFactoryImpl.class);
 
-        GuiceUtil.buildMultiBinder(binder(), Clearable.class).addBinding(PipelineDataCacheImpl.class);
+        GuiceUtil.buildMultiBinder(binder(), Clearable.class)
+                .addBinding(PipelineDataCacheImpl.class)
+                .addBinding(PipelineProfileStore.class);
+
+        HasSystemInfoBinder.create(binder())
+                .bind(PipelineProfileStore.class);
     }
 }
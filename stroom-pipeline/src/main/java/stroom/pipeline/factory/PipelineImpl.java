@@ -17,6 +17,7 @@
 package stroom.pipeline.factory;
 
 import stroom.pipeline.errorhandler.ProcessException;
+import stroom.pipeline.profiling.PipelineProfiler;
 import stroom.util.io.StreamUtil;
 
 import java.io.IOException;
@@ -31,40 +32,89 @@ public class PipelineImpl implements Pipeline {
     private final Map<String, Element> elementInstances;
     private final TakesInput rootElement;
     private final boolean stepping;
+    private final PipelineProfiler profiler;
 
     private boolean externallyStartedProcessing;
     private boolean externallyStartedStream;
 
     public PipelineImpl(final ProcessorFactory processorFactory, final Map<String, Element> elementInstances,
                         final TakesInput rootElement, final boolean stepping) {
+        this(processorFactory, elementInstances, rootElement, stepping, null);
+    }
+
+    /**
+     * @param profiler The profiler for this pipeline run if it is being profiled, otherwise null.
+     */
+    public PipelineImpl(final ProcessorFactory processorFactory, final Map<String, Element> elementInstances,
+                        final TakesInput rootElement, final boolean stepping, final PipelineProfiler profiler) {
         this.processorFactory = processorFactory;
         this.elementInstances = elementInstances;
         this.rootElement = rootElement;
         this.stepping = stepping;
+        this.profiler = profiler;
     }
 
     @Override
     public void startProcessing() {
         externallyStartedProcessing = true;
-        internalStartProcessing();
+        startTimer();
+        try {
+            internalStartProcessing();
+        } finally {
+            stopTimer();
+        }
     }
 
     @Override
     public void endProcessing() {
         externallyStartedProcessing = false;
-        internalEndProcessing();
+        startTimer();
+        try {
+            internalEndProcessing();
+        } finally {
+            stopTimer();
+            completeProfile();
+        }
     }
 
     @Override
     public void startStream() {
         externallyStartedStream = true;
-        internalStartStream();
+        startTimer();
+        try {
+            internalStartStream();
+        } finally {
+            stopTimer();
+        }
     }
 
     @Override
     public void endStream() {
         externallyStartedStream = false;
-        internalEndStream();
+        startTimer();
+        try {
+            internalEndStream();
+        } finally {
+            stopTimer();
+        }
+    }
+
+    private void startTimer() {
+        if (profiler != null) {
+            profiler.startTimer();
+        }
+    }
+
+    private void stopTimer() {
+        if (profiler != null) {
+            profiler.stopTimer();
+        }
+    }
+
+    private void completeProfile() {
+        if (profiler != null) {
+            profiler.complete();
+        }
     }
 
     private void internalStartProcessing() {
@@ -90,12 +140,16 @@ public class PipelineImpl implements Pipeline {
 
     @Override
     public void process(final InputStream inputStream, final String encoding) {
+        final InputStream input = profiler != null
+                ? profiler.wrapInput(inputStream)
+                : inputStream;
         try {
-            rootElement.setInputStream(inputStream, encoding);
+            rootElement.setInputStream(input, encoding);
         } catch (final IOException e) {
             throw ProcessException.wrap(e);
         }
 
+        startTimer();
         try {
             if (!externallyStartedProcessing) {
                 internalStartProcessing();
@@ -134,8 +188,18 @@ public class PipelineImpl implements Pipeline {
                 }
             }
         } finally {
-            if (!externallyStartedProcessing) {
-                internalEndProcessing();
+            try {
+                if (!externallyStartedProcessing) {
+                    internalEndProcessing();
+                }
+            } finally {
+                stopTimer();
+                if (profiler != null) {
+                    profiler.recordInput(input);
+                    if (!externallyStartedProcessing) {
+                        profiler.complete();
+                    }
+                }
             }
         }
     }
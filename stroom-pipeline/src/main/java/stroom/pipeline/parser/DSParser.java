@@ -37,10 +37,15 @@ import stroom.pipeline.shared.TextConverterDoc;
 import stroom.pipeline.shared.data.PipelineElementType;
 import stroom.pipeline.shared.data.PipelineElementType.Category;
 import stroom.pipeline.state.FeedHolder;
+import stroom.pipeline.state.PipelineContext;
 import stroom.pipeline.state.PipelineHolder;
 import stroom.pipeline.textconverter.TextConverterStore;
 import stroom.pipeline.xml.converter.ParserFactory;
+import stroom.pipeline.xml.converter.ds3.DS3Parser;
 import stroom.svg.shared.SvgImage;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
 import stroom.util.io.PathCreator;
 import stroom.util.shared.Severity;
 
@@ -69,15 +74,24 @@ import java.util.function.Consumer;
         icon = SvgImage.PIPELINE_TEXT)
 public class DSParser extends AbstractParser implements SupportsCodeInjection {
 
+    // Shared by all parsers so the total number of threads is limited however many
+    // pipelines are running.
+    private static final ThreadPool THREAD_POOL = ThreadPoolImpl.builder("Data Splitter")
+            .maxThreads(Math.max(2, Runtime.getRuntime().availableProcessors()))
+            .build();
+
     private final ParserFactoryPool parserFactoryPool;
     private final TextConverterStore textConverterStore;
     private final Provider<FeedHolder> feedHolder;
     private final Provider<PipelineHolder> pipelineHolder;
     private final DocFinder<TextConverterDoc> docFinder;
+    private final ExecutorProvider executorProvider;
+    private final PipelineContext pipelineContext;
 
     private DocRef textConverterRef;
     private String namePattern;
     private boolean suppressDocumentNotFoundWarnings;
+    private int parallelThreads = 1;
 
     private String injectedCode;
     private boolean usePool = true;
@@ -92,12 +106,16 @@ public class DSParser extends AbstractParser implements SupportsCodeInjection {
                     final PathCreator pathCreator,
                     final Provider<FeedHolder> feedHolder,
                     final Provider<PipelineHolder> pipelineHolder,
-                    final DocRefInfoService docRefInfoService) {
+                    final DocRefInfoService docRefInfoService,
+                    final ExecutorProvider executorProvider,
+                    final PipelineContext pipelineContext) {
         super(errorReceiverProxy, locationFactory);
         this.parserFactoryPool = parserFactoryPool;
         this.textConverterStore = textConverterStore;
         this.feedHolder = feedHolder;
         this.pipelineHolder = pipelineHolder;
+        this.executorProvider = executorProvider;
+        this.pipelineContext = pipelineContext;
 
         this.docFinder = new DocFinder<>(
                 TextConverterDoc.TYPE,
@@ -131,7 +149,15 @@ public class DSParser extends AbstractParser implements SupportsCodeInjection {
         final ParserFactory parserFactory = storedParserFactory.getParserFactory();
 
         if (storedErrorReceiver.getTotalErrors() == 0 && parserFactory != null) {
-            return parserFactory.getParser();
+            final XMLReader parser = parserFactory.getParser();
+            // Stepping needs to see each record as it is parsed so always parse sequentially.
+            if (parallelThreads > 1
+                && parser instanceof final DS3Parser ds3Parser
+                && executorProvider != null
+                && (pipelineContext == null || !pipelineContext.isStepping())) {
+                ds3Parser.setParallelism(parallelThreads, executorProvider.get(THREAD_POOL));
+            }
+            return parser;
         }
 
         storedErrorReceiver.replay(new ErrorReceiverIdDecorator(getElementId(), getErrorReceiverProxy()));
@@ -178,6 +204,17 @@ public class DSParser extends AbstractParser implements SupportsCodeInjection {
         this.suppressDocumentNotFoundWarnings = suppressDocumentNotFoundWarnings;
     }
 
+    @PipelineProperty(
+            description = "The number of threads to parse the input with. Records are still output in the " +
+                          "order they appear in the input. This only has an effect if the data splitter " +
+                          "splits the input into records with a single top level split on a plain delimiter " +
+                          "and uses no vars or onlyMatch, otherwise the input is parsed on a single thread.",
+            defaultValue = "1",
+            displayPriority = 4)
+    public void setParallelThreads(final int parallelThreads) {
+        this.parallelThreads = parallelThreads;
+    }
+
     private String getFeedName() {
         if (feedHolder != null) {
             final FeedHolder fh = feedHolder.get();
@@ -0,0 +1,60 @@
+package stroom.pipeline.profiling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The measurements for a single pipeline element during one profiled pipeline run. Times are
+ * recorded inclusive of any downstream elements that are called, so the time spent in the element
+ * itself is found by subtracting the inclusive time of its children.
+ * <p>
+ * Only updated by the thread(s) running the pipeline so no synchronisation is used.
+ */
+class ElementProfile {
+
+    private final String elementId;
+    private final String elementType;
+    private final List<ElementProfile> children = new ArrayList<>();
+
+    long events;
+    long nanos;
+    long cpuNanos;
+    long bytesIn;
+    long bytesOut;
+    long refLookups;
+    long refLookupNanos;
+
+    ElementProfile(final String elementId, final String elementType) {
+        this.elementId = elementId;
+        this.elementType = elementType;
+    }
+
+    String getElementId() {
+        return elementId;
+    }
+
+    String getElementType() {
+        return elementType;
+    }
+
+    void addChild(final ElementProfile child) {
+        children.add(child);
+    }
+
+    long getSelfNanos() {
+        long self = nanos;
+        for (final ElementProfile child : children) {
+            self -= child.nanos;
+        }
+        // Elements that hand off to other threads can appear to spend less time than their children.
+        return Math.max(0, self);
+    }
+
+    long getSelfCpuNanos() {
+        long self = cpuNanos;
+        for (final ElementProfile child : children) {
+            self -= child.cpuNanos;
+        }
+        return Math.max(0, self);
+    }
+}
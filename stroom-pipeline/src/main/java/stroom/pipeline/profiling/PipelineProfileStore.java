@@ -0,0 +1,241 @@
+package stroom.pipeline.profiling;
+
+import stroom.docref.DocRef;
+import stroom.node.api.NodeInfo;
+import stroom.statistics.api.InternalStatisticEvent;
+import stroom.statistics.api.InternalStatisticKey;
+import stroom.statistics.api.InternalStatisticsReceiver;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.Clearable;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates the results of profiled pipeline runs on this node by pipeline and element.
+ */
+@Singleton
+public class PipelineProfileStore implements HasSystemInfo, Clearable {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(PipelineProfileStore.class);
+
+    static final String SYSTEM_INFO_NAME = "PipelineProfiles";
+    private static final String PARAM_NAME_PIPELINE = "pipeline";
+
+    private final Provider<PipelineProfilingConfig> pipelineProfilingConfigProvider;
+    private final InternalStatisticsReceiver internalStatisticsReceiver;
+    private final NodeInfo nodeInfo;
+
+    private final AtomicLong runCount = new AtomicLong();
+    private final Map<String, PipelineStats> pipelineStatsMap = new ConcurrentHashMap<>();
+
+    @Inject
+    PipelineProfileStore(final Provider<PipelineProfilingConfig> pipelineProfilingConfigProvider,
+                         final InternalStatisticsReceiver internalStatisticsReceiver,
+                         final NodeInfo nodeInfo) {
+        this.pipelineProfilingConfigProvider = pipelineProfilingConfigProvider;
+        this.internalStatisticsReceiver = internalStatisticsReceiver;
+        this.nodeInfo = nodeInfo;
+    }
+
+    boolean shouldProfile() {
+        final PipelineProfilingConfig config = pipelineProfilingConfigProvider.get();
+        if (!config.isEnabled()) {
+            return false;
+        }
+        return runCount.getAndIncrement() % Math.max(1, config.getSampleInterval()) == 0;
+    }
+
+    void record(final DocRef pipelineRef, final List<ElementProfile> profiles) {
+        final PipelineStats pipelineStats = pipelineStatsMap.computeIfAbsent(
+                pipelineRef.getUuid(),
+                k -> new PipelineStats(pipelineRef));
+        pipelineStats.runs.increment();
+        for (final ElementProfile profile : profiles) {
+            pipelineStats.elementStatsMap
+                    .computeIfAbsent(profile.getElementId(), k -> new ElementStats(profile))
+                    .add(profile);
+        }
+
+        recordStatistics(pipelineRef, profiles);
+    }
+
+    private void recordStatistics(final DocRef pipelineRef, final List<ElementProfile> profiles) {
+        try {
+            final long now = System.currentTimeMillis();
+            final String nodeName = nodeInfo.getThisNodeName();
+            final List<InternalStatisticEvent> events = new ArrayList<>(profiles.size());
+            for (final ElementProfile profile : profiles) {
+                final TreeMap<String, String> tags = new TreeMap<>();
+                tags.put("Pipeline", Objects.requireNonNullElse(pipelineRef.getName(), pipelineRef.getUuid()));
+                tags.put("Element", profile.getElementId());
+                if (nodeName != null) {
+                    tags.put("Node", nodeName);
+                }
+                events.add(InternalStatisticEvent.createValueStat(
+                        InternalStatisticKey.PIPELINE_ELEMENT_TIME,
+                        now,
+                        tags,
+                        profile.getSelfNanos() / 1_000_000D));
+            }
+            internalStatisticsReceiver.putEvents(events);
+        } catch (final RuntimeException e) {
+            LOGGER.error(() -> "Unable to record pipeline profile statistics", e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        pipelineStatsMap.clear();
+    }
+
+    @Override
+    public String getSystemInfoName() {
+        return SYSTEM_INFO_NAME;
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        return getSystemInfo(Map.of());
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo(final Map<String, String> params) {
+        final String pipelineName = HasSystemInfo.getParam(params, PARAM_NAME_PIPELINE).orElse(null);
+        final PipelineProfilingConfig config = pipelineProfilingConfigProvider.get();
+
+        final List<Map<String, Object>> pipelines = pipelineStatsMap.values()
+                .stream()
+                .filter(pipelineStats -> pipelineName == null
+                        || pipelineName.equalsIgnoreCase(pipelineStats.pipelineRef.getName())
+                        || pipelineName.equals(pipelineStats.pipelineRef.getUuid()))
+                .sorted(Comparator.comparing(pipelineStats -> pipelineStats.pipelineRef.getName(),
+                        Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .map(this::toDetail)
+                .toList();
+
+        return SystemInfoResult.builder(this)
+                .description("Per element measurements from profiled pipeline runs on this node")
+                .addDetail("enabled", config.isEnabled())
+                .addDetail("sampleInterval", config.getSampleInterval())
+                .addDetail("cpuTimeEnabled", config.isCpuTimeEnabled())
+                .addDetail("pipelines", pipelines)
+                .build();
+    }
+
+    @Override
+    public List<ParamInfo> getParamInfo() {
+        return List.of(ParamInfo.optionalParam(
+                PARAM_NAME_PIPELINE,
+                "The name or UUID of a pipeline to limit the results to."));
+    }
+
+    private Map<String, Object> toDetail(final PipelineStats pipelineStats) {
+        final long runs = pipelineStats.runs.sum();
+        final long totalSelfNanos = pipelineStats.elementStatsMap.values()
+                .stream()
+                .mapToLong(elementStats -> elementStats.selfNanos.sum())
+                .sum();
+
+        final List<Map<String, Object>> elements = pipelineStats.elementStatsMap.values()
+                .stream()
+                .sorted(Comparator.comparingLong((ElementStats elementStats) ->
+                        elementStats.selfNanos.sum()).reversed())
+                .map(elementStats -> elementStats.toDetail(runs, totalSelfNanos))
+                .toList();
+
+        final Map<String, Object> detail = new LinkedHashMap<>();
+        detail.put("name", pipelineStats.pipelineRef.getName());
+        detail.put("uuid", pipelineStats.pipelineRef.getUuid());
+        detail.put("profiledRuns", runs);
+        detail.put("elements", elements);
+        return detail;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class PipelineStats {
+
+        private final DocRef pipelineRef;
+        private final LongAdder runs = new LongAdder();
+        private final Map<String, ElementStats> elementStatsMap = new ConcurrentHashMap<>();
+
+        private PipelineStats(final DocRef pipelineRef) {
+            this.pipelineRef = pipelineRef;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class ElementStats {
+
+        private final String elementId;
+        private final String elementType;
+        private final LongAdder events = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LongAdder selfCpuNanos = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder refLookups = new LongAdder();
+        private final LongAdder refLookupNanos = new LongAdder();
+
+        private ElementStats(final ElementProfile profile) {
+            this.elementId = profile.getElementId();
+            this.elementType = profile.getElementType();
+        }
+
+        private void add(final ElementProfile profile) {
+            events.add(profile.events);
+            selfNanos.add(profile.getSelfNanos());
+            selfCpuNanos.add(profile.getSelfCpuNanos());
+            bytesIn.add(profile.bytesIn);
+            bytesOut.add(profile.bytesOut);
+            refLookups.add(profile.refLookups);
+            refLookupNanos.add(profile.refLookupNanos);
+        }
+
+        private Map<String, Object> toDetail(final long runs, final long totalSelfNanos) {
+            final long selfNanos = this.selfNanos.sum();
+            final long refLookups = this.refLookups.sum();
+
+            final Map<String, Object> detail = new LinkedHashMap<>();
+            detail.put("id", elementId);
+            detail.put("type", elementType);
+            detail.put("events", events.sum());
+            detail.put("selfTime", Duration.ofNanos(selfNanos).toString());
+            detail.put("selfTimePerRun", Duration.ofNanos(selfNanos / Math.max(1, runs)).toString());
+            detail.put("selfTimePercent", totalSelfNanos > 0
+                    ? Math.round(selfNanos * 1000D / totalSelfNanos) / 10D
+                    : 0D);
+            detail.put("selfCpuTime", Duration.ofNanos(selfCpuNanos.sum()).toString());
+            detail.put("bytesIn", bytesIn.sum());
+            detail.put("bytesOut", bytesOut.sum());
+            detail.put("refLookups", refLookups);
+            detail.put("refLookupTime", Duration.ofNanos(refLookupNanos.sum()).toString());
+            detail.put("refLookupMeanMicros", refLookups > 0
+                    ? refLookupNanos.sum() / 1_000 / refLookups
+                    : 0L);
+            return detail;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package stroom.pipeline.profiling;
+
+import stroom.docref.DocRef;
+import stroom.pipeline.factory.Element;
+import stroom.pipeline.filter.XMLFilter;
+import stroom.pipeline.shared.data.PipelineElementType;
+import stroom.pipeline.state.PipelineHolder;
+import stroom.pipeline.writer.AbstractAppender;
+import stroom.util.io.ByteCountInputStream;
+import stroom.util.pipeline.scope.PipelineScoped;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects per element measurements for a pipeline run if the run has been selected for profiling.
+ * When a run is not profiled nothing is inserted into the pipeline so there is no overhead.
+ */
+@PipelineScoped
+public class PipelineProfiler {
+
+    static final String SOURCE_ELEMENT_ID = "Source";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final PipelineProfileStore pipelineProfileStore;
+    private final PipelineHolder pipelineHolder;
+    private final Provider<PipelineProfilingConfig> pipelineProfilingConfigProvider;
+
+    private final Map<String, ElementProfile> profiles = new LinkedHashMap<>();
+    private final Map<Element, ElementProfile> elementToProfile = new IdentityHashMap<>();
+    private final List<AbstractAppender> appenders = new ArrayList<>();
+    private boolean active;
+    private boolean cpuTimeEnabled;
+    private DocRef pipelineRef;
+    private ElementProfile sourceProfile;
+    private ElementProfile current;
+    private long timerStartNanos;
+    private long timerStartCpuNanos;
+
+    @Inject
+    PipelineProfiler(final PipelineProfileStore pipelineProfileStore,
+                     final PipelineHolder pipelineHolder,
+                     final Provider<PipelineProfilingConfig> pipelineProfilingConfigProvider) {
+        this.pipelineProfileStore = pipelineProfileStore;
+        this.pipelineHolder = pipelineHolder;
+        this.pipelineProfilingConfigProvider = pipelineProfilingConfigProvider;
+    }
+
+    /**
+     * Decide whether the pipeline about to be created should be profiled.
+     *
+     * @return True if the pipeline will be profiled.
+     */
+    public boolean start() {
+        reset();
+        pipelineRef = pipelineHolder.getPipeline();
+        // We can only aggregate results for pipelines we know the identity of.
+        if (pipelineRef != null && pipelineProfileStore.shouldProfile()) {
+            active = true;
+            cpuTimeEnabled = pipelineProfilingConfigProvider.get().isCpuTimeEnabled();
+            sourceProfile = new ElementProfile(SOURCE_ELEMENT_ID, SOURCE_ELEMENT_ID);
+            profiles.put(SOURCE_ELEMENT_ID, sourceProfile);
+        }
+        return active;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Add an element to the profile so that any bytes it writes are recorded.
+     */
+    public void addElement(final PipelineElementType elementType, final Element element) {
+        if (active && element instanceof final AbstractAppender appender) {
+            appenders.add(appender);
+            profiles.computeIfAbsent(appender.getElementId(), k ->
+                    new ElementProfile(k, elementType.getType()));
+        }
+    }
+
+    /**
+     * Create a filter to insert in front of an XML filter to measure it.
+     *
+     * @param elementType The type of the filter being measured.
+     * @param filter      The filter being measured.
+     * @param parent      The element that will pass events to the filter.
+     * @return A filter that targets the supplied filter.
+     */
+    public XMLFilter createProbe(final PipelineElementType elementType,
+                              final XMLFilter filter,
+                              final Element parent) {
+        final String elementId = filter.getElementId();
+        final ElementProfile profile = new ElementProfile(elementId, elementType.getType());
+        profiles.put(elementId, profile);
+        elementToProfile.put(filter, profile);
+
+        // Record the nesting so we can work out the time spent in each element alone.
+        final ElementProfile parentProfile = elementToProfile.get(parent);
+        if (parentProfile != null) {
+            parentProfile.addChild(profile);
+        } else {
+            sourceProfile.addChild(profile);
+        }
+
+        final ProfilingXMLFilter probe = new ProfilingXMLFilter(this, profile, cpuTimeEnabled);
+        probe.setTarget(filter);
+        return probe;
+    }
+
+    public InputStream wrapInput(final InputStream inputStream) {
+        if (active) {
+            return new ByteCountInputStream(inputStream);
+        }
+        return inputStream;
+    }
+
+    /**
+     * Record the bytes read from an input wrapped by {@link #wrapInput(InputStream)}.
+     */
+    public void recordInput(final InputStream inputStream) {
+        if (active && inputStream instanceof final ByteCountInputStream byteCountInputStream) {
+            sourceProfile.events++;
+            sourceProfile.bytesIn += byteCountInputStream.getCount();
+        }
+    }
+
+    /**
+     * Start timing a call into the pipeline. The source profile gets the time not spent in any of
+     * the measured XML filters, i.e. reading and parsing.
+     */
+    public void startTimer() {
+        if (active) {
+            if (cpuTimeEnabled) {
+                timerStartCpuNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+            }
+            timerStartNanos = System.nanoTime();
+        }
+    }
+
+    public void stopTimer() {
+        if (active) {
+            sourceProfile.nanos += System.nanoTime() - timerStartNanos;
+            if (cpuTimeEnabled) {
+                sourceProfile.cpuNanos += THREAD_MX_BEAN.getCurrentThreadCpuTime() - timerStartCpuNanos;
+            }
+        }
+    }
+
+    public void recordRefLookup(final long nanos) {
+        final ElementProfile profile = current;
+        if (profile != null) {
+            profile.refLookups++;
+            profile.refLookupNanos += nanos;
+        }
+    }
+
+    ElementProfile setCurrent(final ElementProfile profile) {
+        final ElementProfile previous = current;
+        current = profile;
+        return previous;
+    }
+
+    /**
+     * Called when the pipeline has finished processing to add the results to the aggregate for the
+     * pipeline.
+     */
+    public void complete() {
+        if (active) {
+            for (final AbstractAppender appender : appenders) {
+                profiles.get(appender.getElementId()).bytesOut += appender.getBytesWritten();
+            }
+            pipelineProfileStore.record(pipelineRef, List.copyOf(profiles.values()));
+        }
+        reset();
+    }
+
+    private void reset() {
+        active = false;
+        profiles.clear();
+        elementToProfile.clear();
+        appenders.clear();
+        pipelineRef = null;
+        sourceProfile = null;
+        current = null;
+    }
+}
@@ -0,0 +1,85 @@
+package stroom.pipeline.profiling;
+
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsStroomConfig;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Min;
+
+import java.util.Objects;
+
+@JsonPropertyOrder(alphabetic = true)
+public class PipelineProfilingConfig extends AbstractConfig implements IsStroomConfig {
+
+    private final boolean enabled;
+    private final int sampleInterval;
+    private final boolean cpuTimeEnabled;
+
+    public PipelineProfilingConfig() {
+        enabled = false;
+        sampleInterval = 100;
+        cpuTimeEnabled = false;
+    }
+
+    @SuppressWarnings("unused")
+    @JsonCreator
+    public PipelineProfilingConfig(@JsonProperty("enabled") final boolean enabled,
+                                   @JsonProperty("sampleInterval") final int sampleInterval,
+                                   @JsonProperty("cpuTimeEnabled") final boolean cpuTimeEnabled) {
+        this.enabled = enabled;
+        this.sampleInterval = sampleInterval;
+        this.cpuTimeEnabled = cpuTimeEnabled;
+    }
+
+    @JsonPropertyDescription("If true, a sample of pipeline runs are profiled to record the time spent in, the " +
+            "number of SAX events passed to, the bytes read and written by and the reference data lookups made " +
+            "by each pipeline element. The results are aggregated per pipeline and can be seen in the system " +
+            "info for '" + PipelineProfileStore.SYSTEM_INFO_NAME + "'.")
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Min(1)
+    @JsonPropertyDescription("When profiling is enabled, one in every sampleInterval pipeline runs on a node is " +
+            "profiled. Set to 1 to profile every pipeline run.")
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    @JsonPropertyDescription("If true, profiled pipeline runs also record the CPU time used by each element. " +
+            "This requires a system call for every SAX event so makes profiled runs noticeably slower.")
+    public boolean isCpuTimeEnabled() {
+        return cpuTimeEnabled;
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineProfilingConfig{" +
+                "enabled=" + enabled +
+                ", sampleInterval=" + sampleInterval +
+                ", cpuTimeEnabled=" + cpuTimeEnabled +
+                '}';
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final PipelineProfilingConfig that = (PipelineProfilingConfig) o;
+        return enabled == that.enabled &&
+                sampleInterval == that.sampleInterval &&
+                cpuTimeEnabled == that.cpuTimeEnabled;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(enabled, sampleInterval, cpuTimeEnabled);
+    }
+}
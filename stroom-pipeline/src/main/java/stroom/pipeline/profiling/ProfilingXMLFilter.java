@@ -0,0 +1,201 @@
+package stroom.pipeline.profiling;
+
+import stroom.pipeline.filter.AbstractXMLFilter;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Inserted in front of an XML filter in a profiled pipeline to count the SAX events it receives and
+ * time how long it takes to handle them.
+ */
+class ProfilingXMLFilter extends AbstractXMLFilter {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final PipelineProfiler profiler;
+    private final ElementProfile profile;
+    private final boolean cpuTimeEnabled;
+
+    private ElementProfile previous;
+    private long startNanos;
+    private long startCpuNanos;
+
+    ProfilingXMLFilter(final PipelineProfiler profiler,
+                       final ElementProfile profile,
+                       final boolean cpuTimeEnabled) {
+        this.profiler = profiler;
+        this.profile = profile;
+        this.cpuTimeEnabled = cpuTimeEnabled;
+        setElementId(profile.getElementId());
+    }
+
+    ElementProfile getProfile() {
+        return profile;
+    }
+
+    private void begin() {
+        previous = profiler.setCurrent(profile);
+        if (cpuTimeEnabled) {
+            startCpuNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        }
+        startNanos = System.nanoTime();
+    }
+
+    private void end() {
+        profile.nanos += System.nanoTime() - startNanos;
+        if (cpuTimeEnabled) {
+            profile.cpuNanos += THREAD_MX_BEAN.getCurrentThreadCpuTime() - startCpuNanos;
+        }
+        profiler.setCurrent(previous);
+    }
+
+    private void endEvent() {
+        profile.events++;
+        end();
+    }
+
+    @Override
+    public void startProcessing() {
+        begin();
+        try {
+            super.startProcessing();
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void endProcessing() {
+        begin();
+        try {
+            super.endProcessing();
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void startStream() {
+        begin();
+        try {
+            super.startStream();
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void endStream() {
+        begin();
+        try {
+            super.endStream();
+        } finally {
+            end();
+        }
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        begin();
+        try {
+            super.startDocument();
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        begin();
+        try {
+            super.endDocument();
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+        begin();
+        try {
+            super.startPrefixMapping(prefix, uri);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void endPrefixMapping(final String prefix) throws SAXException {
+        begin();
+        try {
+            super.endPrefixMapping(prefix);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName, final Attributes atts)
+            throws SAXException {
+        begin();
+        try {
+            super.startElement(uri, localName, qName, atts);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+        begin();
+        try {
+            super.endElement(uri, localName, qName);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start, final int length) throws SAXException {
+        begin();
+        try {
+            super.characters(ch, start, length);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start, final int length) throws SAXException {
+        begin();
+        try {
+            super.ignorableWhitespace(ch, start, length);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void processingInstruction(final String target, final String data) throws SAXException {
+        begin();
+        try {
+            super.processingInstruction(target, data);
+        } finally {
+            endEvent();
+        }
+    }
+
+    @Override
+    public void skippedEntity(final String name) throws SAXException {
+        begin();
+        try {
+            super.skippedEntity(name);
+        } finally {
+            endEvent();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package stroom.pipeline.refdata;
 
+import stroom.pipeline.refdata.store.MapDefinition;
 import stroom.pipeline.refdata.store.RefDataStoreModule.RefDataPurge;
 import stroom.util.cache.CacheConfig;
 import stroom.util.config.annotations.RequiresRestart;
@@ -25,6 +26,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
     private final ReferenceDataStagingLmdbConfig stagingLmdbConfig;
     private final CacheConfig effectiveStreamCache;
     private final CacheConfig metaIdToRefStoreCache;
+    private final CacheConfig cidrTrieCache;
 
     public ReferenceDataConfig() {
         maxPutsBeforeCommit = 200_000;
@@ -44,6 +46,12 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 .maximumSize(1_000L)
                 .expireAfterAccess(StroomDuration.ofHours(1))
                 .build();
+
+        // Each entry holds all the CIDR blocks of a map so keep the number small
+        cidrTrieCache = CacheConfig.builder()
+                .maximumSize(20L)
+                .expireAfterAccess(StroomDuration.ofMinutes(10))
+                .build();
     }
 
     @JsonCreator
@@ -54,7 +62,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                                @JsonProperty("lmdb") final ReferenceDataLmdbConfig lmdbConfig,
                                @JsonProperty("stagingLmdb") final ReferenceDataStagingLmdbConfig stagingLmdbConfig,
                                @JsonProperty("effectiveStreamCache") final CacheConfig effectiveStreamCache,
-                               @JsonProperty("metaIdToRefStoreCache") final CacheConfig metaIdToRefStoreCache) {
+                               @JsonProperty("metaIdToRefStoreCache") final CacheConfig metaIdToRefStoreCache,
+                               @JsonProperty("cidrTrieCache") final CacheConfig cidrTrieCache) {
         this.maxPutsBeforeCommit = maxPutsBeforeCommit;
         this.maxPurgeDeletesBeforeCommit = maxPurgeDeletesBeforeCommit;
         this.purgeAge = purgeAge;
@@ -63,6 +72,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
         this.stagingLmdbConfig = stagingLmdbConfig;
         this.effectiveStreamCache = effectiveStreamCache;
         this.metaIdToRefStoreCache = metaIdToRefStoreCache;
+        this.cidrTrieCache = cidrTrieCache;
     }
 
     @Min(0)
@@ -118,6 +128,13 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
         return metaIdToRefStoreCache;
     }
 
+    @JsonPropertyDescription("The cache of CIDR block tries built for IP address lookups against maps " +
+            "with names ending in '" + MapDefinition.CIDR_MAP_NAME_SUFFIX + "'. Each entry holds all the " +
+            "CIDR block keys of one map.")
+    public CacheConfig getCidrTrieCache() {
+        return cidrTrieCache;
+    }
+
     public ReferenceDataConfig withLmdbConfig(final ReferenceDataLmdbConfig lmdbConfig) {
         return new ReferenceDataConfig(
                 maxPutsBeforeCommit,
@@ -126,7 +143,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, cidrTrieCache);
     }
 
     public ReferenceDataConfig withPurgeAge(final StroomDuration purgeAge) {
@@ -137,7 +154,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, cidrTrieCache);
     }
 
     public ReferenceDataConfig withMaxPutsBeforeCommit(final int maxPutsBeforeCommit) {
@@ -148,7 +165,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, cidrTrieCache);
     }
 
     public ReferenceDataConfig withMaxPurgeDeletesBeforeCommit(final int maxPurgeDeletesBeforeCommit) {
@@ -159,7 +176,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, cidrTrieCache);
     }
 
     public ReferenceDataConfig withEffectiveStreamCache(final CacheConfig effectiveStreamCache) {
@@ -170,7 +187,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, cidrTrieCache);
     }
 
     @Override
@@ -183,6 +200,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 ", lmdbConfig=" + lmdbConfig +
                 ", stagingLmdbConfig=" + stagingLmdbConfig +
                 ", effectiveStreamCache=" + effectiveStreamCache +
+                ", metaIdToRefStoreCache=" + metaIdToRefStoreCache +
+                ", cidrTrieCache=" + cidrTrieCache +
                 '}';
     }
 }
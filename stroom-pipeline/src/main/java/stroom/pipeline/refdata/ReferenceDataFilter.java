@@ -21,6 +21,7 @@ import stroom.pipeline.errorhandler.ErrorReceiverProxy;
 import stroom.pipeline.factory.ConfigurableElement;
 import stroom.pipeline.factory.PipelineProperty;
 import stroom.pipeline.filter.AbstractXMLFilter;
+import stroom.pipeline.refdata.store.CidrTrie;
 import stroom.pipeline.refdata.store.FastInfosetValue;
 import stroom.pipeline.refdata.store.MapDefinition;
 import stroom.pipeline.refdata.store.NullValue;
@@ -103,9 +104,19 @@ public class ReferenceDataFilter extends AbstractXMLFilter {
                 <key>1701</key>
                 <value>USA</value>
             </reference>
+            <reference>
+                <map>ipToLocation.cidr</map>
+                <key>10.1.0.0/16</key>
+                <value>Office</value>
+            </reference>
             ...
         </referenceData>
 
+        Note: In a map with a name ending in '.cidr' a <key> can be an IPv4 or IPv6 CIDR block, e.g.
+        10.1.0.0/16 or 2001:db8::/32. It is stored like any other key, but a lookup with an IP address
+        that has no exact match will return the value of the longest CIDR block in the map that contains
+        the address. CIDR blocks in other maps are only matched exactly.
+
         Note: <Value> can contain either XML or plain string data, e.g.
             <value>
                 <evt:Location>
@@ -569,6 +580,12 @@ public class ReferenceDataFilter extends AbstractXMLFilter {
                 final MapDefinition mapDefinition = new MapDefinition(refDataLoader.getRefStreamDefinition(), mapName);
 
                 if (key != null) {
+                    if (mapDefinition.isCidrMap() && !CidrTrie.isCidrBlock(key) && !CidrTrie.isIpAddress(key)) {
+                        errorReceiverProxy.log(Severity.WARNING, null, getElementId(),
+                                LogUtil.message("Key '{}' in CIDR map '{}' is not an IP address or CIDR block " +
+                                                "so will only match a lookup of the exact same key",
+                                        key, mapName), null);
+                    }
                     LOGGER.trace("Putting key {} into map {}", key, mapDefinition);
                     refDataLoaderHolder.getRefDataLoader().put(mapDefinition, key, stagingValueOutputStream);
                 } else if (rangeFrom != null && rangeTo != null) {
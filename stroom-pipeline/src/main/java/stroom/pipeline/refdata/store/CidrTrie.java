@@ -0,0 +1,463 @@
+package stroom.pipeline.refdata.store;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An immutable PATRICIA (path compressed binary radix) trie of IPv4 and IPv6 CIDR blocks for
+ * finding the longest prefix that matches an IP address, e.g. with the blocks {@code 10.0.0.0/8}
+ * and {@code 10.1.0.0/16}, the address {@code 10.1.2.3} will match {@code 10.1.0.0/16} and
+ * {@code 10.2.3.4} will match {@code 10.0.0.0/8}.
+ * <p>
+ * All addresses are held as 128 bit values with IPv4 addresses mapped into the
+ * {@code ::ffff:0:0/96} block so both address families can live in the same trie.
+ * <p>
+ * The nodes are held in flat primitive arrays rather than as objects to keep the trie compact
+ * as a map can contain hundreds of thousands of blocks. Once built it is safe for use by
+ * multiple threads.
+ *
+ * @param <T> The type of the value associated with each CIDR block.
+ */
+public final class CidrTrie<T> {
+
+    private static final int ADDRESS_BITS = 128;
+    private static final int IPV4_BITS = 32;
+    private static final int IPV4_MAPPED_OFFSET = ADDRESS_BITS - IPV4_BITS;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF_0000_0000L;
+    private static final int NO_NODE = -1;
+    private static final int NO_VALUE = -1;
+
+    private static final CidrTrie<?> EMPTY = new Builder<>().build();
+
+    // Node i has its prefix bits in high[i]/low[i], its prefix length in lengths[i], its children
+    // in children[2i] (next bit is 0) and children[2i + 1] (next bit is 1) and the index of its
+    // value in valueIndexes[i]. Node 0 is the root.
+    private final long[] high;
+    private final long[] low;
+    private final byte[] lengths;
+    private final int[] children;
+    private final int[] valueIndexes;
+    private final Object[] values;
+
+    private CidrTrie(final long[] high,
+                     final long[] low,
+                     final byte[] lengths,
+                     final int[] children,
+                     final int[] valueIndexes,
+                     final Object[] values) {
+        this.high = high;
+        this.low = low;
+        this.lengths = lengths;
+        this.children = children;
+        this.valueIndexes = valueIndexes;
+        this.values = values;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> CidrTrie<T> empty() {
+        return (CidrTrie<T>) EMPTY;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return True if value is an IPv4 or IPv6 address that could be looked up in a trie.
+     */
+    public static boolean isIpAddress(final String value) {
+        return Prefix.parseAddress(value) != null;
+    }
+
+    /**
+     * @return True if value is an IPv4 or IPv6 CIDR block that could be added to a trie.
+     */
+    public static boolean isCidrBlock(final String value) {
+        return Prefix.parseCidr(value) != null;
+    }
+
+    /**
+     * @return The value of the longest CIDR block containing address, or empty if address is not
+     * an IP address or no block contains it.
+     */
+    public Optional<T> getLongestMatch(final String address) {
+        if (values.length == 0) {
+            return Optional.empty();
+        }
+        final Prefix prefix = Prefix.parseAddress(address);
+        return prefix != null
+                ? Optional.ofNullable(getLongestMatch(prefix))
+                : Optional.empty();
+    }
+
+    /**
+     * @return The value of the longest CIDR block containing address or null if there isn't one.
+     */
+    @SuppressWarnings("unchecked")
+    T getLongestMatch(final Prefix address) {
+        int valueIndex = NO_VALUE;
+        int node = values.length == 0
+                ? NO_NODE
+                : 0;
+        while (node != NO_NODE) {
+            final int length = lengths[node] & 0xFF;
+            if (Prefix.commonPrefixLength(high[node], low[node], address.high, address.low, length) < length) {
+                break;
+            }
+            if (valueIndexes[node] != NO_VALUE) {
+                valueIndex = valueIndexes[node];
+            }
+            if (length == ADDRESS_BITS) {
+                break;
+            }
+            node = children[(node << 1) + Prefix.bit(address.high, address.low, length)];
+        }
+        return valueIndex == NO_VALUE
+                ? null
+                : (T) values[valueIndex];
+    }
+
+    /**
+     * @return The number of CIDR blocks in the trie.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    int getNodeCount() {
+        return lengths.length;
+    }
+
+    @Override
+    public String toString() {
+        return "CidrTrie{" +
+               "size=" + values.length +
+               ", nodeCount=" + lengths.length +
+               '}';
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * An IP address or CIDR block as a 128 bit value and a prefix length, with any bits
+     * after the prefix length cleared.
+     */
+    record Prefix(long high, long low, int length) {
+
+        /**
+         * Parse a CIDR block in the form {@code 192.168.0.0/16} or {@code 2001:db8::/32}.
+         *
+         * @return The prefix or null if value is not a CIDR block.
+         */
+        static Prefix parseCidr(final String value) {
+            if (value == null) {
+                return null;
+            }
+            final int slashIdx = value.indexOf('/');
+            if (slashIdx <= 0 || slashIdx == value.length() - 1 || value.length() - slashIdx > 4) {
+                return null;
+            }
+            int length = 0;
+            for (int i = slashIdx + 1; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                length = length * 10 + (c - '0');
+            }
+
+            final String address = value.substring(0, slashIdx);
+            final long ipv4 = parseIpv4(address);
+            if (ipv4 != -1) {
+                return length <= IPV4_BITS
+                        ? mask(0, IPV4_MAPPED_PREFIX | ipv4, IPV4_MAPPED_OFFSET + length)
+                        : null;
+            }
+            final byte[] bytes = parseIpv6(address);
+            if (bytes == null || length > ADDRESS_BITS) {
+                return null;
+            }
+            return mask(toLong(bytes, 0), toLong(bytes, 8), length);
+        }
+
+        /**
+         * Parse an IPv4 address like {@code 192.168.1.1} or an IPv6 address like {@code 2001:db8::1}.
+         *
+         * @return The address as a prefix with a length of 128 or null if value is not an IP address.
+         */
+        static Prefix parseAddress(final String value) {
+            if (value == null || value.isEmpty()) {
+                return null;
+            }
+            final long ipv4 = parseIpv4(value);
+            if (ipv4 != -1) {
+                return new Prefix(0, IPV4_MAPPED_PREFIX | ipv4, ADDRESS_BITS);
+            }
+            final byte[] bytes = parseIpv6(value);
+            return bytes != null
+                    ? new Prefix(toLong(bytes, 0), toLong(bytes, 8), ADDRESS_BITS)
+                    : null;
+        }
+
+        /**
+         * @return The unsigned value of a dotted quad IPv4 address or -1 if it is not one.
+         */
+        private static long parseIpv4(final String value) {
+            long result = 0;
+            int octets = 0;
+            int octet = 0;
+            int digits = 0;
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    octet = octet * 10 + (c - '0');
+                    digits++;
+                    if (digits > 3 || octet > 255) {
+                        return -1;
+                    }
+                } else if (c == '.' && digits > 0 && octets < 3) {
+                    result = (result << 8) | octet;
+                    octets++;
+                    octet = 0;
+                    digits = 0;
+                } else {
+                    return -1;
+                }
+            }
+            if (octets != 3 || digits == 0) {
+                return -1;
+            }
+            return (result << 8) | octet;
+        }
+
+        /**
+         * @return The 16 bytes of an IPv6 address or null if it is not one.
+         */
+        private static byte[] parseIpv6(final String value) {
+            // Only hand IPv6 literals to InetAddress so it never tries to resolve a host name.
+            if (value.indexOf(':') == -1) {
+                return null;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (Character.digit(c, 16) == -1 && c != ':' && c != '.') {
+                    return null;
+                }
+            }
+            try {
+                final InetAddress inetAddress = InetAddress.getByName(value);
+                if (inetAddress instanceof final Inet4Address inet4Address) {
+                    // An IPv4 mapped address, e.g. ::ffff:1.2.3.4, is returned as IPv4.
+                    final byte[] ipv4Bytes = inet4Address.getAddress();
+                    final byte[] bytes = new byte[16];
+                    bytes[10] = (byte) 0xFF;
+                    bytes[11] = (byte) 0xFF;
+                    System.arraycopy(ipv4Bytes, 0, bytes, 12, 4);
+                    return bytes;
+                }
+                return inetAddress.getAddress();
+            } catch (final UnknownHostException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        private static long toLong(final byte[] bytes, final int offset) {
+            long result = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                result = (result << 8) | (bytes[i] & 0xFF);
+            }
+            return result;
+        }
+
+        static Prefix mask(final long high, final long low, final int length) {
+            if (length == 0) {
+                return new Prefix(0, 0, 0);
+            } else if (length <= 64) {
+                return new Prefix(high & (-1L << (64 - length)), 0, length);
+            } else {
+                return new Prefix(high, low & (-1L << (ADDRESS_BITS - length)), length);
+            }
+        }
+
+        static int bit(final long high, final long low, final int index) {
+            return index < 64
+                    ? (int) (high >>> (63 - index)) & 1
+                    : (int) (low >>> (127 - index)) & 1;
+        }
+
+        /**
+         * @return The number of leading bits that are the same in both values, up to max.
+         */
+        static int commonPrefixLength(final long high1,
+                                      final long low1,
+                                      final long high2,
+                                      final long low2,
+                                      final int max) {
+            final long highDiff = high1 ^ high2;
+            final int common = highDiff != 0
+                    ? Long.numberOfLeadingZeros(highDiff)
+                    : 64 + Long.numberOfLeadingZeros(low1 ^ low2);
+            return Math.min(common, max);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    public static final class Builder<T> {
+
+        private final Node<T> root = new Node<>(0, 0, 0);
+        private int size;
+        private int nodeCount = 1;
+
+        private Builder() {
+        }
+
+        /**
+         * Add a CIDR block to the trie. If the block is already present, e.g. {@code 10.0.0.0/8}
+         * and {@code 10.1.2.3/8}, the first value added is kept.
+         *
+         * @return True if cidr is a valid CIDR block that was not already present.
+         */
+        public boolean add(final String cidr, final T value) {
+            final Prefix prefix = Prefix.parseCidr(cidr);
+            return prefix != null && add(prefix, value);
+        }
+
+        boolean add(final Prefix prefix, final T value) {
+            Node<T> node = root;
+            while (true) {
+                if (prefix.length == node.length) {
+                    if (node.hasValue) {
+                        return false;
+                    }
+                    node.setValue(value);
+                    size++;
+                    return true;
+                }
+                final int bit = Prefix.bit(prefix.high, prefix.low, node.length);
+                final Node<T> child = node.children[bit];
+                if (child == null) {
+                    node.children[bit] = new Node<>(prefix, value);
+                    nodeCount++;
+                    size++;
+                    return true;
+                }
+
+                final int common = Prefix.commonPrefixLength(
+                        prefix.high, prefix.low, child.high, child.low, Math.min(prefix.length, child.length));
+                if (common == child.length) {
+                    node = child;
+                } else {
+                    // Child and the new prefix diverge part way along the child's prefix so put a
+                    // node for the common part in between.
+                    final Prefix commonPrefix = Prefix.mask(prefix.high, prefix.low, common);
+                    final Node<T> split = new Node<>(commonPrefix.high, commonPrefix.low, common);
+                    split.children[Prefix.bit(child.high, child.low, common)] = child;
+                    if (common == prefix.length) {
+                        split.setValue(value);
+                    } else {
+                        split.children[Prefix.bit(prefix.high, prefix.low, common)] = new Node<>(prefix, value);
+                        nodeCount++;
+                    }
+                    node.children[bit] = split;
+                    nodeCount++;
+                    size++;
+                    return true;
+                }
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public CidrTrie<T> build() {
+            if (size == 0) {
+                return new CidrTrie<>(new long[0], new long[0], new byte[0], new int[0], new int[0], new Object[0]);
+            }
+
+            final long[] high = new long[nodeCount];
+            final long[] low = new long[nodeCount];
+            final byte[] lengths = new byte[nodeCount];
+            final int[] children = new int[nodeCount * 2];
+            final int[] valueIndexes = new int[nodeCount];
+            final List<Object> values = new ArrayList<>(size);
+
+            // Number the nodes breadth first so the root is node 0.
+            final Deque<Node<T>> queue = new ArrayDeque<>();
+            root.index = 0;
+            queue.add(root);
+            int nextIndex = 1;
+            while (!queue.isEmpty()) {
+                final Node<T> node = queue.poll();
+                final int i = node.index;
+                high[i] = node.high;
+                low[i] = node.low;
+                lengths[i] = (byte) node.length;
+                if (node.hasValue) {
+                    valueIndexes[i] = values.size();
+                    values.add(node.value);
+                } else {
+                    valueIndexes[i] = NO_VALUE;
+                }
+                for (int bit = 0; bit < 2; bit++) {
+                    final Node<T> child = node.children[bit];
+                    if (child != null) {
+                        child.index = nextIndex++;
+                        children[(i << 1) + bit] = child.index;
+                        queue.add(child);
+                    } else {
+                        children[(i << 1) + bit] = NO_NODE;
+                    }
+                }
+            }
+            return new CidrTrie<>(high, low, lengths, children, valueIndexes, values.toArray());
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static final class Node<T> {
+
+        private final long high;
+        private final long low;
+        private final int length;
+        @SuppressWarnings("unchecked")
+        private final Node<T>[] children = new Node[2];
+        private T value;
+        private boolean hasValue;
+        private int index;
+
+        private Node(final long high, final long low, final int length) {
+            this.high = high;
+            this.low = low;
+            this.length = length;
+        }
+
+        private Node(final Prefix prefix, final T value) {
+            this(prefix.high, prefix.low, prefix.length);
+            setValue(value);
+        }
+
+        private void setValue(final T value) {
+            this.value = value;
+            this.hasValue = true;
+        }
+    }
+}
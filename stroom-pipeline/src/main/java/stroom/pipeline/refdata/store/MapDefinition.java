@@ -34,6 +34,13 @@ import java.util.Objects;
 @JsonInclude(Include.NON_NULL)
 public class MapDefinition {
 
+    /**
+     * Maps with a name ending in this (ignoring case), e.g. 'ipToLocation.cidr', have IPv4/IPv6 CIDR
+     * block keys. A lookup of an IP address with no exact match in one of these maps returns the value
+     * of the longest CIDR block key that contains the address.
+     */
+    public static final String CIDR_MAP_NAME_SUFFIX = ".cidr";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(MapDefinition.class);
     private static final LambdaLogger LAMBDA_LOGGER = LambdaLoggerFactory.getLogger(MapDefinition.class);
 
@@ -79,6 +86,21 @@ public class MapDefinition {
         return refStreamDefinition;
     }
 
+    /**
+     * @return True if IP address lookups against this map should be matched against its
+     * CIDR block keys. See {@link MapDefinition#CIDR_MAP_NAME_SUFFIX}.
+     */
+    @JsonIgnore
+    public boolean isCidrMap() {
+        return mapName != null
+               && mapName.regionMatches(
+                true,
+                mapName.length() - CIDR_MAP_NAME_SUFFIX.length(),
+                CIDR_MAP_NAME_SUFFIX,
+                0,
+                CIDR_MAP_NAME_SUFFIX.length());
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -0,0 +1,72 @@
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.pipeline.refdata.ReferenceDataConfig;
+import stroom.pipeline.refdata.store.CidrTrie;
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the tries of CIDR block keys for the CIDR maps in the off heap stores. A trie is built
+ * from the keys of a map on the first IP address lookup against it and can be large, so the
+ * number held is limited.
+ */
+@Singleton
+class CidrTrieCache {
+
+    private static final String CACHE_NAME = "Reference Data - CIDR Trie Cache";
+
+    private final StroomCache<MapDefinition, CidrIndex> cache;
+
+    @Inject
+    CidrTrieCache(final CacheManager cacheManager,
+                  final Provider<ReferenceDataConfig> referenceDataConfigProvider) {
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> referenceDataConfigProvider.get().getCidrTrieCache());
+    }
+
+    /**
+     * @param mapDefinition The map to get the trie for.
+     * @param mapUid        The UID of the map in its store. This is checked in case the map has been
+     *                      purged and re-loaded since the trie was built.
+     * @param trieBuilder   Builds the trie if it is not held. This is not called inside the cache so
+     *                      a slow build of a big map does not block lookups against other maps. Two
+     *                      threads may build the same trie at once, in which case the last one wins.
+     */
+    CidrTrie<String> get(final MapDefinition mapDefinition,
+                         final long mapUid,
+                         final Supplier<CidrTrie<String>> trieBuilder) {
+        final CidrIndex cidrIndex = cache.getIfPresent(mapDefinition).orElse(null);
+        if (cidrIndex != null && cidrIndex.mapUid() == mapUid) {
+            return cidrIndex.cidrTrie();
+        }
+        final CidrTrie<String> cidrTrie = trieBuilder.get();
+        cache.put(mapDefinition, new CidrIndex(mapUid, cidrTrie));
+        return cidrTrie;
+    }
+
+    /**
+     * Remove the trie of a map that is being purged.
+     */
+    void invalidate(final RefStreamDefinition refStreamDefinition, final long mapUid) {
+        cache.invalidateEntries((mapDefinition, cidrIndex) ->
+                cidrIndex.mapUid() == mapUid
+                && refStreamDefinition.equals(mapDefinition.getRefStreamDefinition()));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record CidrIndex(long mapUid, CidrTrie<String> cidrTrie) {
+
+    }
+}
@@ -25,6 +25,7 @@ import stroom.docstore.shared.DocRefUtil;
 import stroom.lmdb.LmdbEnv.BatchingWriteTxn;
 import stroom.pipeline.refdata.ReferenceDataConfig;
 import stroom.pipeline.refdata.store.AbstractRefDataStore;
+import stroom.pipeline.refdata.store.CidrTrie;
 import stroom.pipeline.refdata.store.MapDefinition;
 import stroom.pipeline.refdata.store.ProcessingInfoResponse;
 import stroom.pipeline.refdata.store.ProcessingInfoResponse.EntryCounts;
@@ -121,6 +122,8 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
     private final ByteBufferPool byteBufferPool;
     private final String storeName;
 
+    private final CidrTrieCache cidrTrieCache;
+
     @Inject
     RefDataOffHeapStore(@Assisted final RefDataLmdbEnv lmdbEnvironment,
                         final OffHeapRefDataLoader.Factory offHeapRefDataLoaderFactory,
@@ -132,13 +135,15 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                         final ProcessingInfoDb.Factory processingInfoDbFactory,
                         final TaskContextFactory taskContextFactory,
                         final ValueStore.Factory valueStoreFactory,
-                        final MapDefinitionUIDStore.Factory mapDefinitionUIDStoreFactory) {
+                        final MapDefinitionUIDStore.Factory mapDefinitionUIDStoreFactory,
+                        final CidrTrieCache cidrTrieCache) {
 
         this.lmdbEnvironment = lmdbEnvironment;
         this.offHeapRefDataLoaderFactory = offHeapRefDataLoaderFactory;
         this.referenceDataConfigProvider = referenceDataConfigProvider;
         this.refDataValueConverter = refDataValueConverter;
         this.taskContextFactory = taskContextFactory;
+        this.cidrTrieCache = cidrTrieCache;
 
         // create all the databases
         this.keyValueStoreDb = keyValueStoreDbFactory.create(lmdbEnvironment);
@@ -408,11 +413,16 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                     optValueStoreKeyBuffer = rangeStoreDb.getAsBytes(readTxn, mapUid, keyLong);
 
                 } catch (final NumberFormatException e) {
-                    // key could not be converted to a long, either this mapdef has no ranges or
-                    // an invalid key was used. See if we have any ranges at all for this mapdef
+                    // key could not be converted to a long, but if this is a CIDR map it may be an
+                    // IP address that falls in one of the CIDR block keys of this mapdef.
+                    optValueStoreKeyBuffer = getValueStoreKeyByCidr(readTxn, mapDefinition, mapUid, key);
+
+                    // Either this mapdef has no ranges or an invalid key was used.
+                    // See if we have any ranges at all for this mapdef
                     // to determine whether to error or not.
                     // TODO @AT Could maybe hold the result in a short lived on-heap cache to improve performance
-                    final boolean doesStoreContainRanges = rangeStoreDb.containsMapDefinition(readTxn, mapUid);
+                    final boolean doesStoreContainRanges = optValueStoreKeyBuffer.isEmpty()
+                                                           && rangeStoreDb.containsMapDefinition(readTxn, mapUid);
                     if (doesStoreContainRanges) {
                         // we have ranges for this map def so we would expect to be able to convert the key
                         throw new RuntimeException(LogUtil.message(
@@ -433,6 +443,46 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
         return optValueStoreKeyBuffer;
     }
 
+    /**
+     * Find the longest CIDR block key in the map that contains key, if the map is a CIDR map and key
+     * is an IP address, and use that to look up the value store key.
+     */
+    private Optional<ByteBuffer> getValueStoreKeyByCidr(final Txn<ByteBuffer> readTxn,
+                                                        final MapDefinition mapDefinition,
+                                                        final UID mapUid,
+                                                        final String key) {
+        if (!mapDefinition.isCidrMap() || !CidrTrie.isIpAddress(key)) {
+            return Optional.empty();
+        }
+        return cidrTrieCache.get(
+                        mapDefinition,
+                        mapUid.getValue(),
+                        () -> buildCidrTrie(readTxn, mapDefinition, mapUid))
+                .getLongestMatch(key)
+                .flatMap(cidrKey -> {
+                    LOGGER.trace("Key {} matched CIDR key {}", key, cidrKey);
+                    return keyValueStoreDb.getAsBytes(readTxn, new KeyValueStoreKey(mapUid, cidrKey));
+                });
+    }
+
+    private CidrTrie<String> buildCidrTrie(final Txn<ByteBuffer> readTxn,
+                                           final MapDefinition mapDefinition,
+                                           final UID mapUid) {
+        return LOGGER.logDurationIfDebugEnabled(
+                () -> {
+                    final CidrTrie.Builder<String> builder = CidrTrie.builder();
+                    keyValueStoreDb.forEachEntryAsBytes(readTxn, mapUid, keyVal -> {
+                        final String key = keyValueStoreDb.deserializeKey(keyVal.key()).getKey();
+                        // Keys that are not CIDR blocks are ignored. The trie maps to the key as
+                        // loaded so a block like 10.1.2.3/8 can still be found in the KV store.
+                        builder.add(key, key);
+                    });
+                    return builder.build();
+                },
+                cidrTrie -> LogUtil.message("Built CIDR trie for {} with {} CIDR blocks",
+                        mapDefinition, cidrTrie.size()));
+    }
+
     @Override
     public boolean consumeValueBytes(final MapDefinition mapDefinition,
                                      final String key,
@@ -1126,6 +1176,7 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
                 purgeCounter.transientValuesPurged, purgeCounter.transientValuesDeReferenced));
 
         // Now all the entries are gone, delete the map def for them
+        cidrTrieCache.invalidate(refStreamDefinition, mapUid.getValue());
         mapDefinitionUIDStore.deletePair(batchingWriteTxn.getTxn(), mapUid);
         purgeCounter.incrementMapsPurged();
     }
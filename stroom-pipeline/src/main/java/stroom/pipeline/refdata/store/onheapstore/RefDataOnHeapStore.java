@@ -1,6 +1,7 @@
 package stroom.pipeline.refdata.store.onheapstore;
 
 import stroom.pipeline.refdata.store.AbstractRefDataStore;
+import stroom.pipeline.refdata.store.CidrTrie;
 import stroom.pipeline.refdata.store.MapDefinition;
 import stroom.pipeline.refdata.store.ProcessingInfoResponse;
 import stroom.pipeline.refdata.store.ProcessingState;
@@ -51,12 +52,15 @@ public class RefDataOnHeapStore extends AbstractRefDataStore {
     private final Set<MapDefinition> mapDefinitions;
     private final Map<KeyValueMapKey, RefDataValue> keyValueMap;
     private final Map<MapDefinition, NavigableMap<Range<Long>, RefDataValue>> rangeValueNestedMap;
+    // Built on the first IP address lookup against each CIDR map
+    private final Map<MapDefinition, CidrTrie<String>> cidrTrieMap;
 
     public RefDataOnHeapStore() {
 
         this.processingInfoMap = new HashMap<>();
         this.keyValueMap = new HashMap<>();
         this.rangeValueNestedMap = new HashMap<>();
+        this.cidrTrieMap = new HashMap<>();
         this.mapDefinitions = new HashSet<>();
     }
 
@@ -119,10 +123,15 @@ public class RefDataOnHeapStore extends AbstractRefDataStore {
                 }
 
             } catch (final NumberFormatException e) {
-                // key could not be converted to a long, either this mapdef has no ranges or
-                // an invalid key was used. See if we have any ranges at all for this mapdef
+                // key could not be converted to a long, but if this is a CIDR map it may be an
+                // IP address that falls in one of the CIDR block keys of this mapdef.
+                result = getValueByCidr(mapDefinition, key);
+
+                // Either this mapdef has no ranges or an invalid key was used.
+                // See if we have any ranges at all for this mapdef
                 // to determine whether to error or not.
-                final boolean doesStoreContainRanges = rangeValueNestedMap.containsKey(mapDefinition);
+                final boolean doesStoreContainRanges = result.isEmpty()
+                                                       && rangeValueNestedMap.containsKey(mapDefinition);
                 if (doesStoreContainRanges) {
                     // we have ranges for this map def, so we would expect to be able to convert the key
                     throw new RuntimeException(LogUtil.message(
@@ -132,7 +141,6 @@ public class RefDataOnHeapStore extends AbstractRefDataStore {
                 }
                 // no ranges for this map def so the fact that we could not convert the key to a long
                 // is not a problem. Do nothing.
-                result = Optional.empty();
             }
         }
         final Optional<RefDataValue> result2 = result;
@@ -150,6 +158,30 @@ public class RefDataOnHeapStore extends AbstractRefDataStore {
                 .collect(Collectors.toSet());
     }
 
+    private Optional<RefDataValue> getValueByCidr(final MapDefinition mapDefinition, final String key) {
+        if (!mapDefinition.isCidrMap() || !CidrTrie.isIpAddress(key)) {
+            return Optional.empty();
+        }
+        CidrTrie<String> cidrTrie = cidrTrieMap.get(mapDefinition);
+        if (cidrTrie == null) {
+            cidrTrie = buildCidrTrie(mapDefinition);
+            cidrTrieMap.put(mapDefinition, cidrTrie);
+        }
+        return cidrTrie.getLongestMatch(key)
+                .map(cidrKey -> keyValueMap.get(new KeyValueMapKey(mapDefinition, cidrKey)));
+    }
+
+    private CidrTrie<String> buildCidrTrie(final MapDefinition mapDefinition) {
+        final CidrTrie.Builder<String> builder = CidrTrie.builder();
+        keyValueMap.keySet().forEach(keyValueMapKey -> {
+            if (keyValueMapKey.getMapDefinition().equals(mapDefinition)) {
+                builder.add(keyValueMapKey.getKey(), keyValueMapKey.getKey());
+            }
+        });
+        LOGGER.debug("Built CIDR trie for {} with {} CIDR blocks", mapDefinition, builder.size());
+        return builder.build();
+    }
+
     private Optional<RefDataValue> getValueByRange(final NavigableMap<Range<Long>, RefDataValue> rangeSubMap,
                                                    final long key) {
 
@@ -332,6 +364,8 @@ public class RefDataOnHeapStore extends AbstractRefDataStore {
     protected RefDataLoader createLoader(final RefStreamDefinition refStreamDefinition,
                                          final long effectiveTimeMs) {
 
+        // The loader may add more CIDR blocks
+        cidrTrieMap.clear();
         return new OnHeapRefDataLoader(
                 refStreamDefinition,
                 effectiveTimeMs,
@@ -39,6 +39,7 @@ public abstract class AbstractAppender extends AbstractDestinationProvider imple
     private byte[] header;
     private byte[] footer;
     private boolean writtenHeader;
+    private long closedOutputBytes;
     private String size;
     private Long sizeBytes = null;
     boolean splitAggregatedStreams;
@@ -193,6 +194,7 @@ public abstract class AbstractAppender extends AbstractDestinationProvider imple
     private void closeCurrentOutputStream() {
         try {
             LOGGER.debug("Closing output: {}", output);
+            closedOutputBytes += output.getCurrentOutputSize();
             output.close();
         } catch (final IOException e) {
             error(e.getMessage(), e);
@@ -234,6 +236,14 @@ public abstract class AbstractAppender extends AbstractDestinationProvider imple
                 : output.getCurrentOutputSize();
     }
 
+    /**
+     * @return The total number of bytes written by this appender, including to any outputs that
+     * have been rolled.
+     */
+    public long getBytesWritten() {
+        return closedOutputBytes + getCurrentOutputSize();
+    }
+
     private Long getSizeBytes() {
         if (sizeBytes == null) {
             sizeBytes = -1L;
@@ -181,6 +181,29 @@ public class CharBuffer implements Buffer {
         return chars;
     }
 
+    /**
+     * Finds the first occurrence of the supplied chars at or after the supplied index. This
+     * scans the underlying array directly so is much quicker than using {@link #charAt(int)}.
+     *
+     * @return The index of the start of the occurrence or -1 if the chars are not found.
+     */
+    public int indexOf(final char[] chars, final int fromIndex) {
+        final char first = chars[0];
+        final int max = offset + length - chars.length;
+        for (int i = offset + Math.max(fromIndex, 0); i <= max; i++) {
+            if (buffer[i] == first) {
+                int j = 1;
+                while (j < chars.length && buffer[i + j] == chars[j]) {
+                    j++;
+                }
+                if (j == chars.length) {
+                    return i - offset;
+                }
+            }
+        }
+        return -1;
+    }
+
     @Override
     public void move(final int increment) {
         offset += increment;
@@ -0,0 +1,151 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import stroom.pipeline.errorhandler.ErrorHandlerAdaptor;
+import stroom.pipeline.xml.converter.ds3.RecordChunker.Chunk;
+import stroom.util.shared.Severity;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the record events and errors produced by parsing a single chunk of the input so
+ * that they can be replayed in input order. Locations are translated from the chunk to the
+ * whole input as they are recorded. The document and root element events are not recorded
+ * as these are produced once by the parser that replays the chunks.
+ */
+class ChunkRecorder extends DefaultHandler {
+
+    private final Chunk chunk;
+    private final List<Event> events = new ArrayList<>();
+    private final ErrorHandlerAdaptor errorHandler = new ErrorRecorder();
+    private DSLocator locator;
+    private int depth;
+
+    ChunkRecorder(final Chunk chunk) {
+        this.chunk = chunk;
+    }
+
+    ErrorHandlerAdaptor getErrorHandler() {
+        return errorHandler;
+    }
+
+    List<Event> getEvents() {
+        return events;
+    }
+
+    @Override
+    public void setDocumentLocator(final Locator locator) {
+        this.locator = (DSLocator) locator;
+    }
+
+    @Override
+    public void startElement(final String uri,
+                             final String localName,
+                             final String qName,
+                             final Attributes atts) {
+        if (depth > 0) {
+            final Position position = getPosition();
+            // The parser reuses attributes so take a copy.
+            final Attributes attributes = new AttributesImpl(atts);
+            events.add((contentHandler, errorHandlerAdaptor, replayLocator) -> {
+                replayLocator.setPosition(position);
+                contentHandler.startElement(uri, localName, qName, attributes);
+            });
+        }
+        depth++;
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) {
+        depth--;
+        if (depth > 0) {
+            final Position position = getPosition();
+            events.add((contentHandler, errorHandlerAdaptor, replayLocator) -> {
+                replayLocator.setPosition(position);
+                contentHandler.endElement(uri, localName, qName);
+            });
+        }
+    }
+
+    private Position getPosition() {
+        final Locator endLocator = locator.getRecordEndLocator();
+        return createPosition(
+                locator.getLineNumber(),
+                locator.getColumnNumber(),
+                endLocator.getLineNumber(),
+                endLocator.getColumnNumber());
+    }
+
+    private Position createPosition(final int lineNo,
+                                    final int colNo,
+                                    final int endLineNo,
+                                    final int endColNo) {
+        return new Position(
+                chunk.mapLineNo(lineNo),
+                chunk.mapColNo(lineNo, colNo),
+                chunk.mapLineNo(endLineNo),
+                chunk.mapColNo(endLineNo, endColNo));
+    }
+
+    private void recordError(final Severity severity,
+                             final Position position,
+                             final String message,
+                             final Throwable t) {
+        events.add((contentHandler, errorHandlerAdaptor, replayLocator) -> {
+            replayLocator.setPosition(position);
+            errorHandlerAdaptor.log(severity, replayLocator, message, t);
+        });
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    record Position(int lineNo, int colNo, int endLineNo, int endColNo) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    interface Event {
+
+        void replay(ContentHandler contentHandler,
+                    ErrorHandlerAdaptor errorHandlerAdaptor,
+                    ReplayLocator replayLocator) throws SAXException;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private class ErrorRecorder extends ErrorHandlerAdaptor {
+
+        ErrorRecorder() {
+            super(null, null, null);
+        }
+
+        @Override
+        protected void log(final Severity severity, final SAXParseException exception) {
+            final int lineNo = exception.getLineNumber();
+            final int colNo = exception.getColumnNumber();
+            recordError(severity, createPosition(lineNo, colNo, lineNo, colNo), exception.getMessage(), exception);
+        }
+
+        @Override
+        public void log(final Severity severity, final Locator locator, final String message, final Throwable t) {
+            final int lineNo = locator.getLineNumber();
+            final int colNo = locator.getColumnNumber();
+            recordError(severity, createPosition(lineNo, colNo, lineNo, colNo), message, t);
+        }
+    }
+}
@@ -21,6 +21,8 @@ import stroom.pipeline.xml.NamespaceConstants;
 import stroom.pipeline.xml.converter.AbstractParser;
 import stroom.pipeline.xml.converter.ds3.GroupFactory.MatchOrder;
 import stroom.pipeline.xml.converter.ds3.NodeFactory.NodeType;
+import stroom.pipeline.xml.converter.ds3.RecordChunker.Chunk;
+import stroom.pipeline.xml.converter.ds3.ref.VarMap;
 import stroom.util.CharBuffer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
@@ -34,6 +36,16 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -66,6 +78,8 @@ public class DS3Parser extends AbstractParser {
     private static final AttributesImpl ROOT_ATTS = new AttributesImpl();
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(DS3Parser.class);
     private static final int RECOVERY_MODE = -99;
+    // The number of chars of whole records to give to each parallel parse.
+    private static final int DEFAULT_CHUNK_SIZE = 1_000_000;
 
     static {
         ROOT_ATTS.addAttribute(EMPTY_STRING, XMLNS, XMLNS, XML_TYPE_STRING, NAMESPACE);
@@ -77,6 +91,7 @@ public class DS3Parser extends AbstractParser {
 
     private final DataAttributes dataAttributes = new DataAttributes();
     private final Root root;
+    private final RootFactory rootFactory;
     private final int minBuffer;
     private final int maxBuffer;
     private final CharBuffer messageBuffer = new CharBuffer();
@@ -85,12 +100,56 @@ public class DS3Parser extends AbstractParser {
     private ScheduledExecutorService profilingExecutor;
     private ErrorHandlerAdaptor errorHandlerAdaptor;
 
+    private int parallelThreads = 1;
+    private Executor parallelExecutor;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private Queue<DS3Parser> chunkParsers;
+
     public DS3Parser(final Root root, final int minBuffer, final int maxBuffer) {
+        this(root, null, minBuffer, maxBuffer);
+    }
+
+    /**
+     * Create a parser that can also parse in parallel, see {@link #setParallelism(int, Executor)}.
+     */
+    public DS3Parser(final RootFactory rootFactory, final int minBuffer, final int maxBuffer) {
+        this(rootFactory.newInstance(new VarMap()), rootFactory, minBuffer, maxBuffer);
+    }
+
+    private DS3Parser(final Root root, final RootFactory rootFactory, final int minBuffer, final int maxBuffer) {
         this.root = root;
+        this.rootFactory = rootFactory;
         this.minBuffer = minBuffer;
         this.maxBuffer = maxBuffer;
     }
 
+    /**
+     * Parse chunks of the input concurrently, passing on the records in the order they appear
+     * in the input. This only has an effect if the parser was created from a {@link RootFactory}
+     * whose records can be parsed independently of each other, see
+     * {@link RootFactory#getRecordDelimiter()}. Otherwise the input is parsed sequentially.
+     *
+     * @param threads  The maximum number of chunks to parse at once. A value of 1 or less
+     *                 parses sequentially.
+     * @param executor The executor to parse chunks on.
+     */
+    public void setParallelism(final int threads, final Executor executor) {
+        setParallelism(threads, executor, DEFAULT_CHUNK_SIZE);
+    }
+
+    void setParallelism(final int threads, final Executor executor, final int chunkSize) {
+        this.parallelThreads = threads;
+        this.parallelExecutor = executor;
+        this.chunkSize = chunkSize;
+    }
+
+    private boolean isParallel() {
+        return parallelThreads > 1
+               && parallelExecutor != null
+               && rootFactory != null
+               && rootFactory.getRecordDelimiter() != null;
+    }
+
     /**
      * Parses a flat file and produces SAX events according to the feed
      * definition.
@@ -113,6 +172,11 @@ public class DS3Parser extends AbstractParser {
         // severities can be reported.
         errorHandlerAdaptor = (ErrorHandlerAdaptor) getErrorHandler();
 
+        if (isParallel()) {
+            parseParallel(input.getCharacterStream());
+            return;
+        }
+
         // Start profiling service if we need to.
         startProfiling();
 
@@ -161,6 +225,96 @@ public class DS3Parser extends AbstractParser {
         stopProfiling();
     }
 
+    private void parseParallel(final Reader input) throws IOException, SAXException {
+        final ReplayLocator replayLocator = new ReplayLocator();
+        getContentHandler().setDocumentLocator(replayLocator);
+
+        // Start creating the XML output.
+        startDocument();
+
+        if (chunkParsers == null) {
+            chunkParsers = new ConcurrentLinkedQueue<>();
+        }
+
+        // Keep enough chunks queued to keep all the threads busy while we replay the oldest
+        // chunk, without holding the whole input in memory.
+        final int maxChunksInFlight = parallelThreads * 2;
+        final Deque<CompletableFuture<List<ChunkRecorder.Event>>> chunksInFlight =
+                new ArrayDeque<>(maxChunksInFlight);
+        try {
+            final RecordChunker recordChunker = new RecordChunker(
+                    input,
+                    rootFactory.getRecordDelimiter(),
+                    chunkSize);
+            Chunk chunk;
+            while ((chunk = recordChunker.next()) != null) {
+                final Chunk chunkToParse = chunk;
+                chunksInFlight.add(CompletableFuture.supplyAsync(
+                        () -> parseChunk(chunkToParse),
+                        parallelExecutor));
+                if (chunksInFlight.size() >= maxChunksInFlight) {
+                    replayChunk(chunksInFlight.poll(), replayLocator);
+                }
+            }
+            while (!chunksInFlight.isEmpty()) {
+                replayChunk(chunksInFlight.poll(), replayLocator);
+            }
+        } finally {
+            // Stop parsing any remaining chunks if we failed.
+            chunksInFlight.forEach(future -> future.cancel(false));
+        }
+
+        // Close the reader.
+        input.close();
+
+        // Finish creating the XML output.
+        endDocument();
+    }
+
+    private List<ChunkRecorder.Event> parseChunk(final Chunk chunk) {
+        // Each chunk parser has its own tree of nodes as they hold the state of the current match.
+        DS3Parser chunkParser = chunkParsers.poll();
+        if (chunkParser == null) {
+            chunkParser = new DS3Parser(rootFactory.newInstance(new VarMap()), minBuffer, maxBuffer);
+        }
+
+        final ChunkRecorder chunkRecorder = new ChunkRecorder(chunk);
+        chunkParser.setContentHandler(chunkRecorder);
+        chunkParser.setErrorHandler(chunkRecorder.getErrorHandler());
+        try {
+            chunkParser.parse(new InputSource(new StringReader(chunk.text())));
+        } catch (final IOException | SAXException e) {
+            throw new CompletionException(e);
+        }
+
+        chunkParsers.add(chunkParser);
+        return chunkRecorder.getEvents();
+    }
+
+    private void replayChunk(final CompletableFuture<List<ChunkRecorder.Event>> future,
+                             final ReplayLocator replayLocator) throws IOException, SAXException {
+        final List<ChunkRecorder.Event> events;
+        try {
+            events = future.join();
+        } catch (final CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof final SAXException saxException) {
+                throw saxException;
+            } else if (cause instanceof final IOException ioException) {
+                throw ioException;
+            } else if (cause instanceof final RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof final Error error) {
+                throw error;
+            }
+            throw e;
+        }
+
+        for (final ChunkRecorder.Event event : events) {
+            event.replay(getContentHandler(), errorHandlerAdaptor, replayLocator);
+        }
+    }
+
     private void process(final Node parent,
                          final Buffer buffer,
                          final Match parentMatch,
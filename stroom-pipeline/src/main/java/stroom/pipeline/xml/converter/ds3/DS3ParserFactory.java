@@ -19,7 +19,6 @@ package stroom.pipeline.xml.converter.ds3;
 import stroom.pipeline.errorhandler.ProcessException;
 import stroom.pipeline.filter.SchemaFilter;
 import stroom.pipeline.xml.converter.ParserFactory;
-import stroom.pipeline.xml.converter.ds3.ref.VarMap;
 import stroom.pipeline.xmlschema.FindXMLSchemaCriteria;
 import stroom.util.xml.SAXParserFactoryFactory;
 
@@ -99,6 +98,6 @@ public class DS3ParserFactory implements ParserFactory {
 
     @Override
     public XMLReader getParser() {
-        return new DS3Parser(factory.newInstance(new VarMap()), RootFactory.MIN_BUFFER_SIZE, factory.getBufferSize());
+        return new DS3Parser(factory, RootFactory.MIN_BUFFER_SIZE, factory.getBufferSize());
     }
 }
@@ -0,0 +1,46 @@
+package stroom.pipeline.xml.converter.ds3;
+
+/**
+ * Searches for literal chars in the input to expressions, using the quicker
+ * {@link CharBuffer#indexOf(char[], int)} where possible.
+ */
+final class LiteralSearch {
+
+    private LiteralSearch() {
+        // Utility class.
+    }
+
+    /**
+     * @return The index of the first occurrence of the chars at or after fromIndex or -1 if
+     * they are not found.
+     */
+    static int indexOf(final CharSequence cs, final char[] chars, final int fromIndex) {
+        if (cs instanceof final CharBuffer charBuffer) {
+            return charBuffer.indexOf(chars, fromIndex);
+        }
+
+        final char first = chars[0];
+        final int max = cs.length() - chars.length;
+        for (int i = Math.max(fromIndex, 0); i <= max; i++) {
+            if (cs.charAt(i) == first && regionMatches(cs, i, chars)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return True if the chars occur in the input at the supplied index.
+     */
+    static boolean regionMatches(final CharSequence cs, final int index, final char[] chars) {
+        if (index < 0 || index + chars.length > cs.length()) {
+            return false;
+        }
+        for (int i = 0; i < chars.length; i++) {
+            if (cs.charAt(index + i) != chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
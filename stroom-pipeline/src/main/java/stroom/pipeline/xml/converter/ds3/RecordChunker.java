@@ -0,0 +1,138 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads the input in chunks that each hold a whole number of records, where records are
+ * separated by a plain delimiter. Characters are filtered in the same way as {@link DS3Reader}
+ * so that the line and column of the start of each chunk match what a single reader of the
+ * whole input would report.
+ */
+class RecordChunker {
+
+    private static final int LINE_NO_BASE = 1;
+    private static final int COL_NO_BASE = 1;
+
+    private final Reader reader;
+    private final char[] delimiter;
+    private final int chunkSize;
+
+    private char[] buffer;
+    private int length;
+    // The position in the buffer that we have scanned for delimiters up to.
+    private int scanPos;
+    // The end of the last whole record found in the buffer.
+    private int lastRecordEnd;
+    private boolean eof;
+
+    // The location of the next char to be returned in a chunk.
+    private int lineNo = LINE_NO_BASE;
+    private int colNo = COL_NO_BASE;
+
+    RecordChunker(final Reader reader, final char[] delimiter, final int chunkSize) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.chunkSize = chunkSize;
+        this.buffer = new char[chunkSize];
+    }
+
+    /**
+     * @return The next chunk of whole records or null if the input is exhausted.
+     */
+    Chunk next() throws IOException {
+        while (!eof && (lastRecordEnd == 0 || length < chunkSize)) {
+            fill();
+            scan();
+        }
+
+        final int end = eof && lastRecordEnd < length
+                ? length
+                : lastRecordEnd;
+        if (end == 0) {
+            return null;
+        }
+
+        final Chunk chunk = new Chunk(new String(buffer, 0, end), lineNo, colNo);
+        advanceLocation(end);
+
+        // Shift the remaining partial record to the start of the buffer.
+        System.arraycopy(buffer, end, buffer, 0, length - end);
+        length -= end;
+        scanPos -= end;
+        lastRecordEnd = 0;
+        return chunk;
+    }
+
+    private void fill() throws IOException {
+        if (length == buffer.length) {
+            // A single record is bigger than the buffer so grow it.
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int i;
+        while (length < buffer.length && (i = reader.read()) != -1) {
+            final char c = (char) i;
+            // Strip out carriage returns and other control characters.
+            if (c >= ' ' || c == '\n' || c == '\t') {
+                buffer[length++] = c;
+            }
+        }
+        eof = length < buffer.length;
+    }
+
+    private void scan() {
+        // Scan from left to right in the same way as the split expression so that multi
+        // char delimiters are found at the same positions.
+        while (scanPos + delimiter.length <= length) {
+            if (isDelimiter(scanPos)) {
+                scanPos += delimiter.length;
+                lastRecordEnd = scanPos;
+            } else {
+                scanPos++;
+            }
+        }
+    }
+
+    private boolean isDelimiter(final int pos) {
+        for (int i = 0; i < delimiter.length; i++) {
+            if (buffer[pos + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void advanceLocation(final int end) {
+        for (int i = 0; i < end; i++) {
+            if (buffer[i] == '\n') {
+                lineNo++;
+                colNo = COL_NO_BASE;
+            } else {
+                colNo++;
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param text    The records.
+     * @param lineNo  The line of the first char of the text in the whole input.
+     * @param colNo   The column of the first char of the text in the whole input.
+     */
+    record Chunk(String text, int lineNo, int colNo) {
+
+        int mapLineNo(final int chunkLineNo) {
+            return lineNo + chunkLineNo - LINE_NO_BASE;
+        }
+
+        int mapColNo(final int chunkLineNo, final int chunkColNo) {
+            return chunkLineNo == LINE_NO_BASE
+                    ? colNo + chunkColNo - COL_NO_BASE
+                    : chunkColNo;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package stroom.pipeline.xml.converter.ds3;
 
 import stroom.pipeline.xml.converter.ds3.NodeFactory.NodeType;
+import stroom.pipeline.xml.converter.ds3.RegexPlan.Strategy;
 import stroom.pipeline.xml.converter.ds3.ref.VarMap;
 
 import org.slf4j.Logger;
@@ -31,6 +32,11 @@ public class Regex extends Expression implements ExecutionProfiler, Match {
     private static final Logger LOGGER = LoggerFactory.getLogger(Regex.class);
 
     private final Pattern pattern;
+    private final RegexPlan plan;
+    // The group positions of the last match if the plan matched without using the regex.
+    private final int[] groupStart;
+    private final int[] groupEnd;
+    private CharSequence cs;
     private Matcher matcher;
 
     private long totalExecutionTime = 0;
@@ -40,11 +46,17 @@ public class Regex extends Expression implements ExecutionProfiler, Match {
     Regex(final VarMap varMap, final RegexFactory factory) {
         super(varMap, factory);
         pattern = factory.getPattern();
+        plan = factory.getPlan();
+        groupStart = new int[plan.getGroupCount() + 1];
+        groupEnd = new int[plan.getGroupCount() + 1];
     }
 
     @Override
     public void setInput(final CharSequence cs) {
-        if (LOGGER.isDebugEnabled()) {
+        this.cs = cs;
+        if (!usesMatcher()) {
+            matcher = null;
+        } else if (LOGGER.isDebugEnabled()) {
             final long startTime = System.currentTimeMillis();
             matcher = pattern.matcher(cs);
             totalExecutionTime += System.currentTimeMillis() - startTime;
@@ -102,28 +114,34 @@ public class Regex extends Expression implements ExecutionProfiler, Match {
 
     @Override
     public int start() {
-        return matcher.start();
+        return start(0);
     }
 
     @Override
     public int start(final int group) {
+        if (matcher == null) {
+            return groupStart[group];
+        }
         return matcher.start(group);
     }
 
     @Override
     public int end() {
-        return matcher.end();
+        return end(0);
     }
 
     @Override
     public int end(final int group) {
+        if (matcher == null) {
+            return groupEnd[group];
+        }
         return matcher.end(group);
     }
 
     @Override
     public Buffer filter(final Buffer buffer, final int group) {
-        int start = matcher.start(group);
-        int end = matcher.end(group);
+        int start = start(group);
+        int end = end(group);
         int len = end - start;
 
         // Sometimes a match gives us -1 as the start and end. This happens if
@@ -143,9 +161,25 @@ public class Regex extends Expression implements ExecutionProfiler, Match {
         }
     }
 
+    private boolean usesMatcher() {
+        return plan.getStrategy() == Strategy.PREFIX || plan.getStrategy() == Strategy.REGEX;
+    }
+
     private boolean findNextMatch() {
+        return switch (plan.getStrategy()) {
+            case LITERAL, DELIMITED -> plan.match(cs, groupStart, groupEnd);
+            case PREFIX -> {
+                // Don't bother running the regex if the input doesn't contain the prefix.
+                final int candidate = plan.findCandidate(cs);
+                yield candidate != -1 && find(candidate);
+            }
+            case REGEX -> find(0);
+        };
+    }
+
+    private boolean find(final int from) {
         try {
-            return matcher.find(0);
+            return matcher.find(from);
         } catch (final StackOverflowError soe) {
             throw new ComplexRegexException(matcher);
         }
@@ -0,0 +1,365 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import java.util.regex.Pattern;
+
+/**
+ * The strategy used to match a regex expression. This is decided once when the data splitter
+ * is compiled by analysing the pattern so that simple patterns can avoid the cost of
+ * {@link java.util.regex.Matcher}:
+ * <ul>
+ *     <li>{@link Strategy#LITERAL} - The pattern is just literal chars, e.g. {@code \|\|}, so we
+ *     can scan for them.</li>
+ *     <li>{@link Strategy#DELIMITED} - The pattern matches everything up to and including a
+ *     single char delimiter, e.g. {@code ^([^,]*),}, so we can scan for the delimiter.</li>
+ *     <li>{@link Strategy#PREFIX} - Every match must start with some literal chars, e.g.
+ *     {@code ^Date: (.*)\n}, so we can reject the input or skip ahead to the first occurrence
+ *     of the prefix before running the regex.</li>
+ *     <li>{@link Strategy#REGEX} - The regex is run as normal.</li>
+ * </ul>
+ * The analysis is conservative, anything it doesn't understand is matched with the regex.
+ */
+final class RegexPlan {
+
+    private static final String META_CHARS = "\\^$.|?*+()[]{}";
+    // Flags that have no effect on literal chars or negated single char classes.
+    private static final int LITERAL_SAFE_FLAGS = Pattern.UNIX_LINES
+                                                  | Pattern.DOTALL
+                                                  | Pattern.UNICODE_CASE
+                                                  | Pattern.UNICODE_CHARACTER_CLASS
+                                                  | Pattern.MULTILINE;
+
+    private static final RegexPlan REGEX = new RegexPlan(Strategy.REGEX, null, false, false, 0);
+
+    private final Strategy strategy;
+    private final char[] literal;
+    private final boolean anchored;
+    private final boolean nonEmpty;
+    private final int groupCount;
+
+    private RegexPlan(final Strategy strategy,
+                      final char[] literal,
+                      final boolean anchored,
+                      final boolean nonEmpty,
+                      final int groupCount) {
+        this.strategy = strategy;
+        this.literal = literal;
+        this.anchored = anchored;
+        this.nonEmpty = nonEmpty;
+        this.groupCount = groupCount;
+    }
+
+    static RegexPlan create(final String pattern, final int flags) {
+        if (pattern == null || pattern.isEmpty() || (flags & ~LITERAL_SAFE_FLAGS & ~Pattern.LITERAL) != 0) {
+            return REGEX;
+        }
+
+        if ((flags & Pattern.LITERAL) != 0) {
+            return hasSurrogate(pattern)
+                    ? REGEX
+                    : new RegexPlan(Strategy.LITERAL, pattern.toCharArray(), false, false, 0);
+        }
+
+        // With multiline '^' can match after any line break.
+        final boolean multiline = (flags & Pattern.MULTILINE) != 0;
+        final Parser parser = new Parser(pattern);
+        final boolean anchored = !multiline && parser.consume('^');
+
+        final RegexPlan delimited = parseDelimited(parser, anchored);
+        if (delimited != null) {
+            return delimited;
+        }
+
+        // Any alternation at the top level means no chars are certain to start a match.
+        if (hasTopLevelAlternation(pattern)) {
+            return REGEX;
+        }
+
+        parser.pos = anchored
+                ? 1
+                : 0;
+        final StringBuilder prefix = new StringBuilder();
+        int c;
+        while ((c = parser.literal(false)) != -1) {
+            prefix.append((char) c);
+        }
+
+        if (prefix.isEmpty()) {
+            return REGEX;
+        }
+        if (parser.isEnd() && !anchored) {
+            // The whole pattern is literal chars.
+            return new RegexPlan(Strategy.LITERAL, toChars(prefix), false, false, 0);
+        }
+        // If the last literal is quantified then it may not be present.
+        if (parser.isQuantifier()) {
+            prefix.setLength(prefix.length() - 1);
+            if (prefix.isEmpty()) {
+                return REGEX;
+            }
+        }
+        return new RegexPlan(Strategy.PREFIX, toChars(prefix), anchored, false, 0);
+    }
+
+    /**
+     * Parse patterns like {@code ([^,]*),} or {@code [^\n]+\n}.
+     */
+    private static RegexPlan parseDelimited(final Parser parser, final boolean anchored) {
+        final int startPos = parser.pos;
+        final boolean group = parser.consume('(');
+        if (group && parser.peek() == '?') {
+            // Non capturing, named or flags.
+            parser.pos = startPos;
+            return null;
+        }
+        if (!parser.consume('[') || !parser.consume('^')) {
+            parser.pos = startPos;
+            return null;
+        }
+        final int classChar = parser.literal(true);
+        if (classChar == -1 || !parser.consume(']')) {
+            parser.pos = startPos;
+            return null;
+        }
+        final boolean nonEmpty;
+        if (parser.consume('*')) {
+            nonEmpty = false;
+        } else if (parser.consume('+')) {
+            nonEmpty = true;
+        } else {
+            parser.pos = startPos;
+            return null;
+        }
+        if (group && !parser.consume(')')) {
+            parser.pos = startPos;
+            return null;
+        }
+        final int delimiter = parser.literal(false);
+        if (delimiter != classChar || !parser.isEnd()) {
+            parser.pos = startPos;
+            return null;
+        }
+        return new RegexPlan(
+                Strategy.DELIMITED,
+                new char[]{(char) delimiter},
+                anchored,
+                nonEmpty,
+                group
+                        ? 1
+                        : 0);
+    }
+
+    /**
+     * @return True if the pattern might have an alternation at the top level.
+     */
+    private static boolean hasTopLevelAlternation(final String pattern) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inClass) {
+                if (c == '[') {
+                    // Don't try to understand nested classes.
+                    return true;
+                } else if (c == ']') {
+                    inClass = false;
+                }
+            } else if (c == '[') {
+                inClass = true;
+                // A ']' straight after the opening bracket is a literal.
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasSurrogate(final String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (Character.isSurrogate(pattern.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static char[] toChars(final StringBuilder sb) {
+        final char[] chars = new char[sb.length()];
+        sb.getChars(0, sb.length(), chars, 0);
+        return chars;
+    }
+
+    Strategy getStrategy() {
+        return strategy;
+    }
+
+    int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Find the position to start running the regex from for a {@link Strategy#PREFIX} plan.
+     *
+     * @return The position of the first possible match or -1 if the input cannot match.
+     */
+    int findCandidate(final CharSequence cs) {
+        if (anchored) {
+            return LiteralSearch.regionMatches(cs, 0, literal)
+                    ? 0
+                    : -1;
+        }
+        return LiteralSearch.indexOf(cs, literal, 0);
+    }
+
+    /**
+     * Match the input for a {@link Strategy#LITERAL} or {@link Strategy#DELIMITED} plan.
+     *
+     * @param start The start of each group is written to this array if there is a match.
+     * @param end   The end of each group is written to this array if there is a match.
+     * @return True if the input matches.
+     */
+    boolean match(final CharSequence cs, final int[] start, final int[] end) {
+        if (strategy == Strategy.LITERAL) {
+            final int pos = LiteralSearch.indexOf(cs, literal, 0);
+            if (pos == -1) {
+                return false;
+            }
+            start[0] = pos;
+            end[0] = pos + literal.length;
+            return true;
+        }
+
+        int from = 0;
+        int pos = LiteralSearch.indexOf(cs, literal, from);
+        if (nonEmpty) {
+            // The match can't start at a delimiter so move on to the first delimiter that
+            // has other chars before it.
+            while (pos == from && !anchored) {
+                from++;
+                pos = LiteralSearch.indexOf(cs, literal, from);
+            }
+            if (pos == from) {
+                return false;
+            }
+        }
+        if (pos == -1) {
+            return false;
+        }
+        start[0] = from;
+        end[0] = pos + 1;
+        if (groupCount == 1) {
+            start[1] = from;
+            end[1] = pos;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return strategy + (literal != null
+                ? " '" + new String(literal) + "'"
+                : "");
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    enum Strategy {
+        LITERAL,
+        DELIMITED,
+        PREFIX,
+        REGEX
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Reads literal chars from a pattern.
+     */
+    private static class Parser {
+
+        private final String pattern;
+        private int pos;
+
+        Parser(final String pattern) {
+            this.pattern = pattern;
+        }
+
+        boolean isEnd() {
+            return pos >= pattern.length();
+        }
+
+        int peek() {
+            return isEnd()
+                    ? -1
+                    : pattern.charAt(pos);
+        }
+
+        boolean consume(final char c) {
+            if (peek() == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean isQuantifier() {
+            final int c = peek();
+            return c == '?' || c == '*' || c == '+' || c == '{';
+        }
+
+        /**
+         * Read a single literal char, either a plain char or an escaped one.
+         *
+         * @param inClass True if we are inside a char class where different chars are special.
+         * @return The char or -1 if the next part of the pattern is not a literal char, in
+         * which case the position is unchanged.
+         */
+        int literal(final boolean inClass) {
+            final int c = peek();
+            if (c == -1 || Character.isSurrogate((char) c)) {
+                return -1;
+            }
+            if (c == '\\') {
+                if (pos + 1 >= pattern.length()) {
+                    return -1;
+                }
+                final char escaped = pattern.charAt(pos + 1);
+                final int literal = switch (escaped) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    case 'f' -> '\f';
+                    case 'a' -> '\u0007';
+                    case 'e' -> '\u001B';
+                    // Any other escaped letter or digit is a class, anchor, back reference etc.
+                    default -> Character.isLetterOrDigit(escaped) || Character.isSurrogate(escaped)
+                            ? -1
+                            : escaped;
+                };
+                if (literal != -1) {
+                    pos += 2;
+                }
+                return literal;
+            }
+            if (inClass
+                    ? "[]^-&".indexOf(c) != -1
+                    : META_CHARS.indexOf(c) != -1) {
+                return -1;
+            }
+            pos++;
+            return c;
+        }
+    }
+}
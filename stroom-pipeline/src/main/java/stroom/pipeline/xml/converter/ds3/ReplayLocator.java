@@ -0,0 +1,66 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import org.xml.sax.Locator;
+
+/**
+ * Locator used when replaying records that were parsed in parallel. The location is set
+ * to the location that a sequential parse would have had before each event is replayed.
+ */
+class ReplayLocator implements DSLocator {
+
+    private int lineNo = 1;
+    private int colNo = 1;
+    private int endLineNo = 1;
+    private int endColNo = 1;
+
+    private final Locator recordStartLocator = new DefaultLocator() {
+        @Override
+        public int getLineNumber() {
+            return lineNo;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return colNo;
+        }
+    };
+
+    private final Locator recordEndLocator = new DefaultLocator() {
+        @Override
+        public int getLineNumber() {
+            return endLineNo;
+        }
+
+        @Override
+        public int getColumnNumber() {
+            return endColNo;
+        }
+    };
+
+    void setPosition(final ChunkRecorder.Position position) {
+        lineNo = position.lineNo();
+        colNo = position.colNo();
+        endLineNo = position.endLineNo();
+        endColNo = position.endColNo();
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNo;
+    }
+
+    @Override
+    public int getColumnNumber() {
+        return colNo;
+    }
+
+    @Override
+    public Locator getRecordStartLocator() {
+        return recordStartLocator;
+    }
+
+    @Override
+    public Locator getRecordEndLocator() {
+        return recordEndLocator;
+    }
+}
@@ -30,6 +30,7 @@ public class RootFactory extends NodeFactory {
 
     private boolean ignoreErrors;
     private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private char[] recordDelimiter;
 
     public RootFactory() {
         super(null, null);
@@ -49,6 +50,57 @@ public class RootFactory extends NodeFactory {
         }
 
         setAttributes(new StringBuilder());
+
+        recordDelimiter = findRecordDelimiter();
+    }
+
+    /**
+     * Records can only be parsed independently of each other, e.g. in parallel, if the
+     * records are split from the input by a single top level split on a plain delimiter and
+     * nothing carries state from one record to the next, i.e. no vars and no onlyMatch.
+     */
+    private char[] findRecordDelimiter() {
+        if (getChildNodes().size() != 1
+                || !(getChildNodes().get(0) instanceof final SplitFactory split)) {
+            return null;
+        }
+        if (split.getMinMatch() > 0
+                || split.getMaxMatch() != -1
+                || split.getAdvance() != -1
+                || split.getDelimiter() == null
+                || split.getDelimiter().length == 0
+                || split.getEscape() != null
+                || split.getContainerStart() != null
+                || split.getContainerEnd() != null) {
+            return null;
+        }
+        if (hasRecordState(split)) {
+            return null;
+        }
+        return split.getDelimiter();
+    }
+
+    private boolean hasRecordState(final NodeFactory node) {
+        if (node.getNodeType() == NodeType.VAR) {
+            return true;
+        }
+        if (node instanceof final ExpressionFactory expression && expression.getOnlyMatch() != null) {
+            return true;
+        }
+        for (final NodeFactory child : node.getChildNodes()) {
+            if (hasRecordState(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The delimiter that separates independent records in the input or null if the
+     * records cannot be parsed independently of each other.
+     */
+    public char[] getRecordDelimiter() {
+        return recordDelimiter;
     }
 
     @Override
@@ -67,7 +67,23 @@ public class Split extends Expression implements Match {
         int innerStart = 0;
         int innerEnd = -1;
 
-        for (; outerEnd < cs.length(); ) {
+        if (factory.getDelimiter() != null
+                && factory.getDelimiter().length > 0
+                && factory.getEscape() == null
+                && factory.getContainerStart() == null
+                && factory.getContainerEnd() == null) {
+            // Without escapes or containers the delimiter is the first occurrence so we can
+            // just scan for it.
+            final int delimiterPos = LiteralSearch.indexOf(cs, factory.getDelimiter(), 0);
+            if (delimiterPos == -1) {
+                outerEnd = cs.length();
+            } else {
+                innerEnd = delimiterPos;
+                outerEnd = delimiterPos + factory.getDelimiter().length;
+            }
+        }
+
+        for (; outerEnd < cs.length() && innerEnd == -1; ) {
             // See if we have a delimiter.
             if (!escape) {
                 if (!inContainer && isSubstring(cs, outerEnd, factory.getDelimiter())) {
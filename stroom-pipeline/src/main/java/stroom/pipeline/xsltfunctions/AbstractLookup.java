@@ -18,6 +18,7 @@ package stroom.pipeline.xsltfunctions;
 
 import stroom.docref.DocRef;
 import stroom.pipeline.errorhandler.ProcessException;
+import stroom.pipeline.profiling.PipelineProfiler;
 import stroom.pipeline.refdata.LookupIdentifier;
 import stroom.pipeline.refdata.ReferenceData;
 import stroom.pipeline.refdata.ReferenceDataResult;
@@ -68,17 +69,20 @@ abstract class AbstractLookup extends StroomExtensionFunctionCall {
     private final MetaHolder metaHolder;
     private final SequenceMakerFactory sequenceMakerFactory;
     private final TaskContextFactory taskContextFactory;
+    private final PipelineProfiler pipelineProfiler;
 
     private long defaultMs = -1;
 
     AbstractLookup(final ReferenceData referenceData,
                    final MetaHolder metaHolder,
                    final SequenceMakerFactory sequenceMakerFactory,
-                   final TaskContextFactory taskContextFactory) {
+                   final TaskContextFactory taskContextFactory,
+                   final PipelineProfiler pipelineProfiler) {
         this.referenceData = referenceData;
         this.metaHolder = metaHolder;
         this.sequenceMakerFactory = sequenceMakerFactory;
         this.taskContextFactory = taskContextFactory;
+        this.pipelineProfiler = pipelineProfiler;
     }
 
     protected SequenceMaker createSequenceMaker(final XPathContext context) {
@@ -157,6 +161,13 @@ abstract class AbstractLookup extends StroomExtensionFunctionCall {
                             final DurationTimer timer = DurationTimer.start();
                             result = doLookup(context, ignoreWarnings, traceLookup, lookupIdentifier);
                             LOGGER.debug("doLookup for {}, in {}", lookupIdentifier, timer);
+                        } else if (pipelineProfiler.isActive()) {
+                            final long startNanos = System.nanoTime();
+                            try {
+                                result = doLookup(context, ignoreWarnings, traceLookup, lookupIdentifier);
+                            } finally {
+                                pipelineProfiler.recordRefLookup(System.nanoTime() - startNanos);
+                            }
                         } else {
                             LOGGER.debug("doLookup for {}", lookupIdentifier);
                             result = doLookup(context, ignoreWarnings, traceLookup, lookupIdentifier);
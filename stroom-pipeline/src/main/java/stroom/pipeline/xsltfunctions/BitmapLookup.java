@@ -16,6 +16,7 @@
 
 package stroom.pipeline.xsltfunctions;
 
+import stroom.pipeline.profiling.PipelineProfiler;
 import stroom.pipeline.refdata.LookupIdentifier;
 import stroom.pipeline.refdata.ReferenceData;
 import stroom.pipeline.refdata.ReferenceDataResult;
@@ -51,8 +52,9 @@ class BitmapLookup extends AbstractLookup {
     BitmapLookup(final ReferenceData referenceData,
                  final MetaHolder metaHolder,
                  final SequenceMakerFactory sequenceMakerFactory,
-                 final TaskContextFactory taskContextFactory) {
-        super(referenceData, metaHolder, sequenceMakerFactory, taskContextFactory);
+                 final TaskContextFactory taskContextFactory,
+          final PipelineProfiler pipelineProfiler) {
+        super(referenceData, metaHolder, sequenceMakerFactory, taskContextFactory, pipelineProfiler);
     }
 
     private SequenceMaker getOrCreateSequenceMaker(final AtomicReference<SequenceMaker> sequenceMakerRef,
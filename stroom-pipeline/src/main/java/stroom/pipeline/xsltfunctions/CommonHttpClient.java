@@ -14,6 +14,7 @@ import stroom.util.time.StroomDuration;
 
 import org.apache.hc.client5.http.classic.HttpClient;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -22,6 +23,10 @@ public class CommonHttpClient {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(CommonHttpClient.class);
 
+    // Enrichment XSLTs tend to call the same host for many records so re-use connections rather
+    // than paying for a new connection (and TLS handshake) on every call.
+    private static final StroomDuration DEFAULT_KEEP_ALIVE = StroomDuration.ofMinutes(1);
+
     private final HttpClientCache httpClientCache;
     private final Map<String, HttpClientConfiguration> configCache = new HashMap<>();
 
@@ -55,7 +60,9 @@ public class CommonHttpClient {
             }
 
             if (httpClientConfiguration == null) {
-                httpClientConfiguration = HttpClientConfiguration.builder().build();
+                httpClientConfiguration = HttpClientConfiguration.builder()
+                        .keepAlive(DEFAULT_KEEP_ALIVE)
+                        .build();
             }
 
             return httpClientConfiguration;
@@ -82,6 +89,7 @@ public class CommonHttpClient {
                     .connectionTimeout(Objects
                             .requireNonNullElse(clientConfig.getConnectionTimeout(), StroomDuration.ofMillis(500)))
                     .tlsConfiguration(httpTlsConfiguration)
+                    .keepAlive(DEFAULT_KEEP_ALIVE)
                     .build();
         } catch (final RuntimeException e) {
             LOGGER.debug(() -> LogUtil.message(
@@ -96,7 +104,15 @@ public class CommonHttpClient {
             return null;
         }
         try {
-            return JsonUtil.readValue(string, HttpClientConfiguration.class);
+            final HttpClientConfiguration httpClientConfiguration =
+                    JsonUtil.readValue(string, HttpClientConfiguration.class);
+            // Only apply our default if the user hasn't said what they want.
+            if (JsonUtil.getValue(string, "keepAlive").isEmpty()) {
+                return httpClientConfiguration.copy()
+                        .keepAlive(DEFAULT_KEEP_ALIVE)
+                        .build();
+            }
+            return httpClientConfiguration;
         } catch (final RuntimeException e) {
             LOGGER.debug(() -> LogUtil.message(
                     "Error parsing Apache HTTP client configuration \"{}\". {}", string, e.getMessage()));
@@ -104,4 +120,21 @@ public class CommonHttpClient {
                     "Error parsing Apache HTTP client configuration \"{}\". {}", string, e.getMessage()), e);
         }
     }
+
+    /**
+     * Parse the optional cache time to live argument of the HTTP XSLT functions, e.g. 'PT5M' or '5m'.
+     *
+     * @return The time to live or null if no caching is required.
+     */
+    static Duration parseCacheTimeToLive(final String cacheTimeToLiveStr) {
+        if (NullSafe.isBlankString(cacheTimeToLiveStr)) {
+            return null;
+        }
+        try {
+            return StroomDuration.parse(cacheTimeToLiveStr.trim()).getDuration();
+        } catch (final RuntimeException e) {
+            throw ProcessException.create(LogUtil.message(
+                    "Error parsing cache time to live \"{}\". {}", cacheTimeToLiveStr, e.getMessage()), e);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package stroom.pipeline.xsltfunctions;
 
+import stroom.util.guice.HasSystemInfoBinder;
 import stroom.util.pipeline.scope.PipelineScoped;
 
 import jakarta.inject.Inject;
@@ -13,6 +14,8 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
     @Override
     protected void configure() {
         bind(TaskScopeMap.class).in(PipelineScoped.class);
+        HasSystemInfoBinder.create(binder())
+                .bind(HttpResponseCache.class);
         super.configure();
     }
 
@@ -244,9 +247,10 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
             super(
                     "fetch-json",
                     1,
-                    2,
+                    3,
                     new SequenceType[]{
                             SequenceType.SINGLE_STRING,
+                            SequenceType.OPTIONAL_STRING,
                             SequenceType.OPTIONAL_STRING
                     },
                     SequenceType.NODE_SEQUENCE,
@@ -437,12 +441,13 @@ public class CommonXsltFunctionModule extends AbstractXsltFunctionModule {
             super(
                     HttpCall.FUNCTION_NAME,
                     1,
-                    5,
+                    6,
                     new SequenceType[]{
                             SequenceType.SINGLE_STRING,
                             SequenceType.OPTIONAL_STRING,
                             SequenceType.OPTIONAL_STRING,
                             SequenceType.OPTIONAL_STRING,
+                            SequenceType.OPTIONAL_STRING,
                             SequenceType.OPTIONAL_STRING},
                     SequenceType.NODE_SEQUENCE,
                     functionCallProvider);
@@ -1,7 +1,10 @@
 package stroom.pipeline.xsltfunctions;
 
+import stroom.pipeline.xsltfunctions.HttpResponseCache.RequestKey;
+import stroom.pipeline.xsltfunctions.HttpResponseCache.Response;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.NullSafe;
 import stroom.util.shared.Severity;
 
 import jakarta.inject.Inject;
@@ -14,9 +17,9 @@ import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.xml.sax.SAXException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.Optional;
 
 class FetchJson extends StroomExtensionFunctionCall {
@@ -24,10 +27,13 @@ class FetchJson extends StroomExtensionFunctionCall {
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(FetchJson.class);
 
     private final CommonHttpClient commonHttpClient;
+    private final HttpResponseCache httpResponseCache;
 
     @Inject
-    FetchJson(final HttpClientCache httpClientCache) {
+    FetchJson(final HttpClientCache httpClientCache,
+              final HttpResponseCache httpResponseCache) {
         commonHttpClient = new CommonHttpClient(httpClientCache);
+        this.httpResponseCache = httpResponseCache;
     }
 
     @Override
@@ -37,6 +43,7 @@ class FetchJson extends StroomExtensionFunctionCall {
 
         final String url = getOptionalString(arguments, 0).orElse("");
         final String clientConfigStr = getOptionalString(arguments, 1).orElse("");
+        final String cacheTimeToLiveStr = getOptionalString(arguments, 2).orElse("");
 
         if (url.isEmpty()) {
             log(context, Severity.WARNING, "No URL specified for HTTP call", null);
@@ -44,35 +51,39 @@ class FetchJson extends StroomExtensionFunctionCall {
         } else {
             try {
                 final HttpClient httpClient = commonHttpClient.createClient(clientConfigStr);
-                final HttpGet httpGet = new HttpGet(url);
-                sequence = httpClient.execute(httpGet, response -> {
+                final Duration cacheTimeToLive = CommonHttpClient.parseCacheTimeToLive(cacheTimeToLiveStr);
+                final RequestKey requestKey = new RequestKey(
+                        HttpGet.METHOD_NAME, url, null, null, null, clientConfigStr);
+                final Response response = httpResponseCache.get(requestKey, cacheTimeToLive, () -> {
                     try {
-                        switch (response.getCode()) {
-                            case 200: { // OK
-                                try (final BufferedReader in = new BufferedReader(new InputStreamReader(
-                                        response.getEntity().getContent()))) {
-                                    final String json = in.lines().reduce("", String::concat);
-                                    final Sequence<?> s = JsonToXml.jsonToXml(context, json);
-                                    LOGGER.trace(String.format("Found Data %s: %s", url, json));
-                                    return s;
-                                }
-                            }
-                            case 404: // NOT_FOUND
-                                // this is an expected failure condition
-                                break;
-                            default:
-                                throw new RuntimeException("Could not make request to Annotations Service: " +
-                                                           response.getCode());
-                        }
-                    } catch (final SAXException | IOException e) {
-                        throw new RuntimeException("Could not make request to Annotations Service: " +
-                                                   e.getLocalizedMessage());
+                        return httpClient.execute(new HttpGet(url), Response::from);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
                     }
-
-                    return EmptyAtomicSequence.getInstance();
                 });
 
-            } catch (final IOException | RuntimeException e) {
+                switch (response.code()) {
+                    case 200: { // OK
+                        // Line breaks were previously stripped when reading the body.
+                        final String json = NullSafe.string(response.body()).replaceAll("\\R", "");
+                        try {
+                            sequence = JsonToXml.jsonToXml(context, json);
+                        } catch (final SAXException | IOException e) {
+                            throw new RuntimeException("Could not make request to Annotations Service: " +
+                                                       e.getLocalizedMessage());
+                        }
+                        LOGGER.trace(() -> String.format("Found Data %s: %s", url, json));
+                        break;
+                    }
+                    case 404: // NOT_FOUND
+                        // this is an expected failure condition
+                        break;
+                    default:
+                        throw new RuntimeException("Could not make request to Annotations Service: " +
+                                                   response.code());
+                }
+
+            } catch (final RuntimeException e) {
                 LOGGER.warn(() -> "Could not make request to Annotations Service: " + e.getLocalizedMessage());
             }
         }
@@ -1,7 +1,9 @@
 package stroom.pipeline.xsltfunctions;
 
 import stroom.pipeline.errorhandler.ProcessException;
-import stroom.util.io.StreamUtil;
+import stroom.pipeline.xsltfunctions.HttpResponseCache.RequestKey;
+import stroom.pipeline.xsltfunctions.HttpResponseCache.Response;
+import stroom.pipeline.xsltfunctions.HttpResponseCache.ResponseHeader;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
@@ -20,17 +22,14 @@ import net.sf.saxon.trans.XPathException;
 import net.sf.saxon.tree.tiny.TinyBuilder;
 import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
-import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.ContentType;
-import org.apache.hc.core5.http.Header;
-import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.AttributesImpl;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.time.Duration;
 import java.util.Optional;
 
 class HttpCall extends StroomExtensionFunctionCall {
@@ -44,10 +43,13 @@ class HttpCall extends StroomExtensionFunctionCall {
     private static final String HEADER_KV_DELIMITER = ":";
 
     private final CommonHttpClient commonHttpClient;
+    private final HttpResponseCache httpResponseCache;
 
     @Inject
-    HttpCall(final HttpClientCache httpClientCache) {
+    HttpCall(final HttpClientCache httpClientCache,
+             final HttpResponseCache httpResponseCache) {
         commonHttpClient = new CommonHttpClient(httpClientCache);
+        this.httpResponseCache = httpResponseCache;
     }
 
     @Override
@@ -60,6 +62,7 @@ class HttpCall extends StroomExtensionFunctionCall {
         final String mediaType = getOptionalString(arguments, 2).orElse("application/json; charset=utf-8");
         final String data = getOptionalString(arguments, 3).orElse("");
         final String clientConfigStr = getOptionalString(arguments, 4).orElse("");
+        final String cacheTimeToLiveStr = getOptionalString(arguments, 5).orElse("");
 
         if (url.isEmpty()) {
             log(context, Severity.WARNING, "No URL specified for HTTP call", null);
@@ -67,8 +70,12 @@ class HttpCall extends StroomExtensionFunctionCall {
         } else {
             try {
                 final HttpClient httpClient = commonHttpClient.createClient(clientConfigStr);
-                sequence = execute(url, headers, mediaType, data, httpClient, response ->
-                        createSequence(context, response));
+                final Duration cacheTimeToLive = CommonHttpClient.parseCacheTimeToLive(cacheTimeToLiveStr);
+                final RequestKey requestKey = new RequestKey(
+                        HttpPost.METHOD_NAME, url, headers, mediaType, data, clientConfigStr);
+                final Response response = httpResponseCache.get(requestKey, cacheTimeToLive, () ->
+                        execute(url, headers, mediaType, data, httpClient, Response::from));
+                sequence = createSequence(context, response);
 
             } catch (final Exception e) {
                 final String msg = buildErrorMessage(e);
@@ -130,7 +137,7 @@ class HttpCall extends StroomExtensionFunctionCall {
         }
     }
 
-    private Sequence createSequence(final XPathContext context, final ClassicHttpResponse response) {
+    private Sequence createSequence(final XPathContext context, final Response response) {
         try {
             final Configuration configuration = context.getConfiguration();
             final PipelineConfiguration pipe = configuration.makePipelineConfiguration();
@@ -142,33 +149,23 @@ class HttpCall extends StroomExtensionFunctionCall {
 
             contentHandler.startDocument();
             startElement(contentHandler, "response");
-            data(contentHandler, "successful", String.valueOf(response.getCode() == 200));
-            data(contentHandler, "code", String.valueOf(response.getCode()));
-            data(contentHandler, "message", response.getReasonPhrase());
+            data(contentHandler, "successful", String.valueOf(response.code() == 200));
+            data(contentHandler, "code", String.valueOf(response.code()));
+            data(contentHandler, "message", response.reasonPhrase());
 
             // Write headers.
-            if (response.getHeaders() != null && response.getHeaders().length > 0) {
+            if (!response.headers().isEmpty()) {
                 startElement(contentHandler, "headers");
-                for (final Header header : response.getHeaders()) {
+                for (final ResponseHeader header : response.headers()) {
                     startElement(contentHandler, "header");
-                    data(contentHandler, "key", header.getName());
-                    data(contentHandler, "value", header.getValue());
+                    data(contentHandler, "key", header.name());
+                    data(contentHandler, "value", header.value());
                     endElement(contentHandler, "header");
                 }
                 endElement(contentHandler, "headers");
             }
 
-            try {
-                final HttpEntity entity = response.getEntity();
-                if (entity != null) {
-                    try (final InputStream inputStream = entity.getContent()) {
-                        final String string = StreamUtil.streamToString(inputStream);
-                        data(contentHandler, "body", string);
-                    }
-                }
-            } catch (final NullPointerException | IOException e) {
-                LOGGER.debug(e::getMessage, e);
-            }
+            data(contentHandler, "body", response.body());
 
             endElement(contentHandler, "response");
             contentHandler.endDocument();
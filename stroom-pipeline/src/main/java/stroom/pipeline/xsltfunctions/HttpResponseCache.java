@@ -0,0 +1,281 @@
+package stroom.pipeline.xsltfunctions;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.pipeline.PipelineConfig;
+import stroom.util.io.StreamUtil;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Makes the HTTP requests for XSLT functions like {@link HttpCall} and {@link FetchJson} so that
+ * responses can be re-used. Enrichment XSLTs often call the same URL for many records, so when
+ * the XSLT supplies a time to live the response is cached for that long and concurrent identical
+ * requests are coalesced into one request to the server. Request counts and times are also
+ * recorded for each host.
+ */
+@Singleton
+public class HttpResponseCache implements HasSystemInfo {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(HttpResponseCache.class);
+
+    private static final String CACHE_NAME = "HTTP Response Cache";
+    // Stops a pipeline that calls lots of different hosts filling the heap with metrics.
+    private static final int MAX_HOSTS = 1_000;
+    private static final String OTHER_HOSTS = "other";
+
+    private final StroomCache<RequestKey, ResponseHolder> cache;
+    private final Map<String, HostMetrics> hostMetricsMap = new ConcurrentHashMap<>();
+
+    @Inject
+    public HttpResponseCache(final CacheManager cacheManager,
+                             final Provider<PipelineConfig> pipelineConfigProvider) {
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> pipelineConfigProvider.get().getHttpResponseCache());
+    }
+
+    /**
+     * Get the response for a request, either from the cache or by making the request.
+     *
+     * @param requestKey      Everything that makes up the request.
+     * @param timeToLive      How long a response can be re-used for. If null or zero the request is
+     *                        always made.
+     * @param requestExecutor Makes the request.
+     */
+    public Response get(final RequestKey requestKey,
+                        final Duration timeToLive,
+                        final Supplier<Response> requestExecutor) {
+        final HostMetrics hostMetrics = getHostMetrics(requestKey.url());
+        if (timeToLive == null || timeToLive.isZero() || timeToLive.isNegative()) {
+            return execute(hostMetrics, requestExecutor);
+        }
+        return cache.get(requestKey, k -> new ResponseHolder())
+                .get(timeToLive, hostMetrics, requestExecutor);
+    }
+
+    private HostMetrics getHostMetrics(final String url) {
+        String host;
+        try {
+            host = URI.create(url).getHost();
+        } catch (final RuntimeException e) {
+            host = null;
+        }
+        if (host == null || (hostMetricsMap.size() >= MAX_HOSTS && !hostMetricsMap.containsKey(host))) {
+            host = OTHER_HOSTS;
+        }
+        return hostMetricsMap.computeIfAbsent(host, k -> new HostMetrics());
+    }
+
+    private static Response execute(final HostMetrics hostMetrics, final Supplier<Response> requestExecutor) {
+        hostMetrics.requests.increment();
+        final DurationTimer durationTimer = DurationTimer.start();
+        try {
+            final Response response = requestExecutor.get();
+            if (response != null && response.code() >= 500) {
+                hostMetrics.errors.increment();
+            }
+            return response;
+        } catch (final RuntimeException e) {
+            hostMetrics.errors.increment();
+            throw e;
+        } finally {
+            hostMetrics.requestTimeMs.add(durationTimer.get().toMillis());
+        }
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        final Map<String, Object> hosts = new TreeMap<>();
+        hostMetricsMap.forEach((host, hostMetrics) -> hosts.put(host, hostMetrics.getDetails()));
+        return SystemInfoResult.builder(this)
+                .description("HTTP request counts and times for each host called by XSLT functions")
+                .addDetail("cachedResponses", cache.size())
+                .addDetail("hosts", hosts)
+                .build();
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Identifies a request. Any part of a request that can change the response must be included.
+     */
+    public record RequestKey(String method,
+                             String url,
+                             String headers,
+                             String mediaType,
+                             String body,
+                             String clientConfig) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    public record ResponseHeader(String name, String value) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A response that has been read in full so that it can be shared between function calls.
+     */
+    public record Response(int code,
+                           String reasonPhrase,
+                           List<ResponseHeader> headers,
+                           String body) {
+
+        public Response {
+            headers = headers == null
+                    ? Collections.emptyList()
+                    : List.copyOf(headers);
+        }
+
+        /**
+         * Read the whole response. Must be called inside the response handler before the
+         * response is closed.
+         */
+        public static Response from(final ClassicHttpResponse response) throws IOException {
+            final List<ResponseHeader> headers = new ArrayList<>();
+            if (response.getHeaders() != null) {
+                for (final Header header : response.getHeaders()) {
+                    headers.add(new ResponseHeader(header.getName(), header.getValue()));
+                }
+            }
+
+            String body = null;
+            final HttpEntity entity = response.getEntity();
+            if (entity != null) {
+                try (final InputStream inputStream = entity.getContent()) {
+                    if (inputStream != null) {
+                        body = StreamUtil.streamToString(inputStream);
+                    }
+                }
+            }
+            return new Response(response.getCode(), response.getReasonPhrase(), headers, body);
+        }
+
+        /**
+         * Server errors may be transient so are never cached.
+         */
+        boolean isCacheable() {
+            return code < 500;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record CachedResponse(Response response, long expiryTimeMs) {
+
+        boolean isLive() {
+            return System.currentTimeMillis() < expiryTimeMs;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Holds the latest response for a request. The lock means only one thread makes the request
+     * while any others making the same request wait for its response.
+     */
+    private static class ResponseHolder {
+
+        private final Lock lock = new ReentrantLock();
+        private volatile CachedResponse cachedResponse;
+
+        private Response get(final Duration timeToLive,
+                             final HostMetrics hostMetrics,
+                             final Supplier<Response> requestExecutor) {
+            CachedResponse cachedResponse = this.cachedResponse;
+            if (cachedResponse != null && cachedResponse.isLive()) {
+                hostMetrics.cacheHits.increment();
+                return cachedResponse.response();
+            }
+
+            lock.lock();
+            try {
+                // Another thread may have made the request while we waited for the lock.
+                cachedResponse = this.cachedResponse;
+                if (cachedResponse != null && cachedResponse.isLive()) {
+                    hostMetrics.coalescedRequests.increment();
+                    return cachedResponse.response();
+                }
+
+                final Response response = execute(hostMetrics, requestExecutor);
+                if (response != null && response.isCacheable()) {
+                    this.cachedResponse = new CachedResponse(
+                            response,
+                            System.currentTimeMillis() + timeToLive.toMillis());
+                } else {
+                    // Don't keep an older response as it would be stale compared to this one.
+                    this.cachedResponse = null;
+                }
+                return response;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class HostMetrics {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder coalescedRequests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder requestTimeMs = new LongAdder();
+
+        private Map<String, Object> getDetails() {
+            final long requestCount = requests.sum();
+            final Map<String, Object> details = new LinkedHashMap<>();
+            details.put("requests", requestCount);
+            details.put("cacheHits", cacheHits.sum());
+            details.put("coalescedRequests", coalescedRequests.sum());
+            details.put("errors", errors.sum());
+            details.put("meanRequestTimeMs", requestCount > 0
+                    ? requestTimeMs.sum() / requestCount
+                    : 0);
+            return details;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package stroom.pipeline.profiling;
+
+import stroom.docref.DocRef;
+import stroom.node.api.NodeInfo;
+import stroom.pipeline.filter.AbstractXMLFilter;
+import stroom.pipeline.filter.XMLFilter;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.data.PipelineElementType;
+import stroom.pipeline.state.PipelineHolder;
+import stroom.statistics.api.InternalStatisticEvent;
+import stroom.statistics.api.InternalStatisticKey;
+import stroom.statistics.api.InternalStatisticsReceiver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class TestPipelineProfiler {
+
+    private static final DocRef PIPELINE_REF = new DocRef(PipelineDoc.TYPE, "test-uuid", "Test Pipeline");
+    private static final PipelineElementType FILTER_TYPE = new PipelineElementType("TestFilter", null,
+            new String[]{PipelineElementType.ROLE_TARGET, PipelineElementType.ROLE_HAS_TARGETS}, null);
+
+    @Mock
+    private InternalStatisticsReceiver mockInternalStatisticsReceiver;
+    @Mock
+    private NodeInfo mockNodeInfo;
+    @Captor
+    private ArgumentCaptor<List<InternalStatisticEvent>> eventsCaptor;
+
+    @Test
+    void testNotEnabled() {
+        final PipelineProfileStore store = createStore(new PipelineProfilingConfig());
+
+        assertThat(IntStream.range(0, 10).filter(i -> store.shouldProfile()).count())
+                .isZero();
+    }
+
+    @Test
+    void testSampleInterval() {
+        final PipelineProfileStore store = createStore(new PipelineProfilingConfig(true, 4, false));
+
+        assertThat(IntStream.range(0, 20).filter(i -> store.shouldProfile()).count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void testNoPipelineRef() {
+        final PipelineProfileStore store = createStore(new PipelineProfilingConfig(true, 1, false));
+        final PipelineProfiler profiler = new PipelineProfiler(
+                store,
+                new PipelineHolder(),
+                () -> new PipelineProfilingConfig(true, 1, false));
+
+        assertThat(profiler.start())
+                .isFalse();
+    }
+
+    @Test
+    void testProfile() throws SAXException {
+        Mockito.when(mockNodeInfo.getThisNodeName())
+                .thenReturn("node1");
+
+        final PipelineProfilingConfig config = new PipelineProfilingConfig(true, 1, true);
+        final PipelineProfileStore store = createStore(config);
+        final PipelineHolder pipelineHolder = new PipelineHolder();
+        pipelineHolder.setPipeline(PIPELINE_REF);
+        final PipelineProfiler profiler = new PipelineProfiler(store, pipelineHolder, () -> config);
+
+        assertThat(profiler.start())
+                .isTrue();
+
+        // Build parent > child where the child makes a ref lookup for every element.
+        final XMLFilter parent = new TestFilter("parent", null);
+        final XMLFilter child = new TestFilter("child", profiler);
+        final XMLFilter parentProbe = profiler.createProbe(FILTER_TYPE, parent, null);
+        final XMLFilter childProbe = profiler.createProbe(FILTER_TYPE, child, parent);
+        ((AbstractXMLFilter) parent).setTarget(childProbe);
+
+        profiler.startTimer();
+        parentProbe.startDocument();
+        for (int i = 0; i < 10; i++) {
+            parentProbe.startElement("", "record", "record", new AttributesImpl());
+            parentProbe.endElement("", "record", "record");
+        }
+        parentProbe.endDocument();
+        profiler.stopTimer();
+
+        profiler.complete();
+
+        assertThat(profiler.isActive())
+                .isFalse();
+
+        Mockito.verify(mockInternalStatisticsReceiver)
+                .putEvents(eventsCaptor.capture());
+        final List<InternalStatisticEvent> events = eventsCaptor.getValue();
+        assertThat(events)
+                .extracting(InternalStatisticEvent::getKey)
+                .containsOnly(InternalStatisticKey.PIPELINE_ELEMENT_TIME);
+        assertThat(events)
+                .extracting(event -> event.getTags().get("Element"))
+                .containsExactly(PipelineProfiler.SOURCE_ELEMENT_ID, "parent", "child");
+        assertThat(events)
+                .extracting(event -> event.getTags().get("Node"))
+                .containsOnly("node1");
+
+        final Map<String, Map<String, Object>> elements = getElements(store);
+        assertThat(elements)
+                .containsOnlyKeys(PipelineProfiler.SOURCE_ELEMENT_ID, "parent", "child");
+        assertThat(elements.get("parent"))
+                .containsEntry("events", 22L)
+                .containsEntry("refLookups", 0L);
+        assertThat(elements.get("child"))
+                .containsEntry("events", 22L)
+                .containsEntry("refLookups", 10L);
+    }
+
+    @Test
+    void testSelfTime() {
+        final ElementProfile parent = new ElementProfile("parent", "TestFilter");
+        final ElementProfile child1 = new ElementProfile("child1", "TestFilter");
+        final ElementProfile child2 = new ElementProfile("child2", "TestFilter");
+        parent.addChild(child1);
+        parent.addChild(child2);
+
+        parent.nanos = 1_000;
+        child1.nanos = 300;
+        child2.nanos = 200;
+
+        assertThat(parent.getSelfNanos())
+                .isEqualTo(500);
+        assertThat(child1.getSelfNanos())
+                .isEqualTo(300);
+
+        // Elements that hand off to other threads must never show negative time.
+        child2.nanos = 900;
+        assertThat(parent.getSelfNanos())
+                .isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> getElements(final PipelineProfileStore store) {
+        final List<Map<String, Object>> pipelines = (List<Map<String, Object>>) store.getSystemInfo()
+                .getDetails()
+                .get("pipelines");
+        assertThat(pipelines)
+                .hasSize(1);
+        assertThat(pipelines.get(0))
+                .containsEntry("uuid", PIPELINE_REF.getUuid())
+                .containsEntry("profiledRuns", 1L);
+
+        final List<Map<String, Object>> elements = (List<Map<String, Object>>) pipelines.get(0).get("elements");
+        return elements.stream()
+                .collect(Collectors.toMap(
+                        element -> (String) element.get("id"),
+                        element -> element));
+    }
+
+    private PipelineProfileStore createStore(final PipelineProfilingConfig config) {
+        return new PipelineProfileStore(() -> config, mockInternalStatisticsReceiver, mockNodeInfo);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class TestFilter extends AbstractXMLFilter {
+
+        private final PipelineProfiler profiler;
+
+        private TestFilter(final String elementId, final PipelineProfiler profiler) {
+            this.profiler = profiler;
+            setElementId(elementId);
+        }
+
+        @Override
+        public void startElement(final String uri,
+                                 final String localName,
+                                 final String qName,
+                                 final Attributes atts) throws SAXException {
+            if (profiler != null) {
+                profiler.recordRefLookup(1_000);
+            }
+            super.startElement(uri, localName, qName, atts);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package stroom.pipeline.refdata.store;
+
+import stroom.pipeline.refdata.store.CidrTrie.Prefix;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestCidrTrie {
+
+    @Test
+    void testLongestMatch() {
+        final CidrTrie.Builder<String> builder = CidrTrie.builder();
+        assertThat(builder.add("0.0.0.0/0", "anyIpv4"))
+                .isTrue();
+        assertThat(builder.add("10.0.0.0/8", "10/8"))
+                .isTrue();
+        assertThat(builder.add("10.1.0.0/16", "10.1/16"))
+                .isTrue();
+        assertThat(builder.add("10.1.2.3/32", "host"))
+                .isTrue();
+        assertThat(builder.add("2001:db8::/32", "ipv6"))
+                .isTrue();
+        assertThat(builder.add("2001:db8:aaaa::/48", "ipv6/48"))
+                .isTrue();
+        // Same block as 10.0.0.0/8 once the host bits are cleared, so the first one is kept.
+        assertThat(builder.add("10.9.9.9/8", "duplicate"))
+                .isFalse();
+        assertThat(builder.add("foo", "notCidr"))
+                .isFalse();
+
+        final CidrTrie<String> cidrTrie = builder.build();
+
+        assertThat(cidrTrie.size())
+                .isEqualTo(6);
+        assertThat(cidrTrie.getLongestMatch("10.1.2.3"))
+                .hasValue("host");
+        assertThat(cidrTrie.getLongestMatch("10.1.2.4"))
+                .hasValue("10.1/16");
+        assertThat(cidrTrie.getLongestMatch("10.2.0.0"))
+                .hasValue("10/8");
+        assertThat(cidrTrie.getLongestMatch("192.168.0.1"))
+                .hasValue("anyIpv4");
+        // IPv4 mapped IPv6 addresses are treated as IPv4
+        assertThat(cidrTrie.getLongestMatch("::ffff:10.1.2.3"))
+                .hasValue("host");
+        assertThat(cidrTrie.getLongestMatch("2001:db8:aaaa:1::1"))
+                .hasValue("ipv6/48");
+        assertThat(cidrTrie.getLongestMatch("2001:db8:bbbb::1"))
+                .hasValue("ipv6");
+        assertThat(cidrTrie.getLongestMatch("2001:db9::1"))
+                .isEmpty();
+        assertThat(cidrTrie.getLongestMatch("10.1.2.3/32"))
+                .isEmpty();
+        assertThat(cidrTrie.getLongestMatch("myhost"))
+                .isEmpty();
+    }
+
+    @Test
+    void testEmpty() {
+        final CidrTrie<String> cidrTrie = CidrTrie.<String>builder().build();
+
+        assertThat(cidrTrie.isEmpty())
+                .isTrue();
+        assertThat(cidrTrie.getLongestMatch("10.1.2.3"))
+                .isEmpty();
+        assertThat(CidrTrie.<String>empty().getLongestMatch("10.1.2.3"))
+                .isEmpty();
+    }
+
+    @Test
+    void testParse() {
+        assertThat(CidrTrie.isIpAddress("1.2.3.4"))
+                .isTrue();
+        assertThat(CidrTrie.isIpAddress("::1"))
+                .isTrue();
+        assertThat(CidrTrie.isIpAddress("2001:db8::1"))
+                .isTrue();
+
+        assertThat(CidrTrie.isIpAddress("1.2.3"))
+                .isFalse();
+        assertThat(CidrTrie.isIpAddress("1.2.3.256"))
+                .isFalse();
+        assertThat(CidrTrie.isIpAddress("1.2.3.4/8"))
+                .isFalse();
+        assertThat(CidrTrie.isIpAddress("a:b:c"))
+                .isFalse();
+        assertThat(CidrTrie.isIpAddress("localhost"))
+                .isFalse();
+        assertThat(CidrTrie.isIpAddress("123"))
+                .isFalse();
+
+        assertThat(CidrTrie.isCidrBlock("10.0.0.0/8"))
+                .isTrue();
+        assertThat(CidrTrie.isCidrBlock("2001:db8::/32"))
+                .isTrue();
+        assertThat(CidrTrie.isCidrBlock("10.0.0.0"))
+                .isFalse();
+
+        assertThat(Prefix.parseCidr("1.2.3.4/33"))
+                .isNull();
+        assertThat(Prefix.parseCidr("::/129"))
+                .isNull();
+        assertThat(Prefix.parseCidr("1.2.3.4/"))
+                .isNull();
+        assertThat(Prefix.parseCidr("/8"))
+                .isNull();
+        assertThat(Prefix.parseCidr("::/0"))
+                .isEqualTo(new Prefix(0, 0, 0));
+        assertThat(Prefix.parseCidr("10.255.1.1/8"))
+                .isEqualTo(Prefix.parseCidr("10.0.0.0/8"));
+    }
+
+    @Test
+    void testSameAsLinearScan() {
+        final Random random = new Random(1);
+
+        for (int round = 0; round < 50; round++) {
+            final boolean ipv6 = round % 2 == 0;
+            final CidrTrie.Builder<String> builder = CidrTrie.builder();
+            final List<String> cidrs = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final String cidr = ipv6
+                        ? String.format("2001:db8:%x:%x::/%d", random.nextInt(4), random.nextInt(4),
+                        random.nextInt(129))
+                        : "10." + random.nextInt(4) + "." + random.nextInt(256) + "." + random.nextInt(256)
+                          + "/" + random.nextInt(33);
+                if (builder.add(cidr, cidr)) {
+                    cidrs.add(cidr);
+                }
+            }
+            final CidrTrie<String> cidrTrie = builder.build();
+
+            for (int i = 0; i < 500; i++) {
+                final String address = ipv6
+                        ? String.format("2001:db8:%x:%x:%x::%x", random.nextInt(4), random.nextInt(4),
+                        random.nextInt(3), random.nextInt(3))
+                        : "10." + random.nextInt(4) + "." + random.nextInt(256) + "." + random.nextInt(256);
+
+                assertThat(cidrTrie.getLongestMatch(address).orElse(null))
+                        .as(address)
+                        .isEqualTo(findLongestMatch(cidrs, address));
+            }
+        }
+    }
+
+    private String findLongestMatch(final List<String> cidrs, final String address) {
+        final BigInteger addressValue = toBigInteger(Prefix.parseAddress(address));
+        String longestMatch = null;
+        int longestLength = -1;
+        for (final String cidr : cidrs) {
+            final Prefix prefix = Prefix.parseCidr(cidr);
+            final int hostBits = 128 - prefix.length();
+            if (addressValue.shiftRight(hostBits).equals(toBigInteger(prefix).shiftRight(hostBits))
+                && prefix.length() > longestLength) {
+                longestMatch = cidr;
+                longestLength = prefix.length();
+            }
+        }
+        return longestMatch;
+    }
+
+    private BigInteger toBigInteger(final Prefix prefix) {
+        return BigInteger.valueOf(prefix.high() >>> 32).shiftLeft(96)
+                .or(BigInteger.valueOf(prefix.high() & 0xFFFF_FFFFL).shiftLeft(64))
+                .or(BigInteger.valueOf(prefix.low() >>> 32).shiftLeft(32))
+                .or(BigInteger.valueOf(prefix.low() & 0xFFFF_FFFFL));
+    }
+}
@@ -160,6 +160,58 @@ class TestRefDataOffHeapStore extends AbstractRefDataOffHeapStoreTest {
         doKeyRangeValueOverwriteTest(false, value1, value2, expectedFinalValue);
     }
 
+    @Test
+    void testCidrKeys() throws Exception {
+        final RefStreamDefinition refStreamDefinition = buildUniqueRefStreamDefinition();
+        final long effectiveTimeMs = System.currentTimeMillis();
+        final MapDefinition mapDefinition = new MapDefinition(refStreamDefinition, "ipToLocation.cidr");
+        final MapDefinition plainMapDefinition = new MapDefinition(refStreamDefinition, "ipToLocation");
+
+        refDataStore.doWithLoaderUnlessComplete(refStreamDefinition, effectiveTimeMs, loader -> {
+            loader.initialise(false);
+            doLoaderPut(loader, mapDefinition, "10.0.0.0/8", StringValue.of("internal"));
+            doLoaderPut(loader, mapDefinition, "10.1.2.3/16", StringValue.of("office"));
+            doLoaderPut(loader, mapDefinition, "10.1.2.0/24", StringValue.of("lab"));
+            doLoaderPut(loader, mapDefinition, "2001:db8::/32", StringValue.of("ipv6"));
+            doLoaderPut(loader, mapDefinition, "10.9.9.9", StringValue.of("printer"));
+            doLoaderPut(loader, plainMapDefinition, "10.0.0.0/8", StringValue.of("internal"));
+            loader.markPutsComplete();
+            loader.completeProcessing();
+        });
+
+        assertThat(refDataStore.getValue(mapDefinition, "10.1.2.200"))
+                .hasValue(StringValue.of("lab"));
+        assertThat(refDataStore.getValue(mapDefinition, "10.1.3.1"))
+                .hasValue(StringValue.of("office"));
+        assertThat(refDataStore.getValue(mapDefinition, "10.200.0.1"))
+                .hasValue(StringValue.of("internal"));
+        assertThat(refDataStore.getValue(mapDefinition, "2001:db8:1::1"))
+                .hasValue(StringValue.of("ipv6"));
+        // An exact match wins over the CIDR blocks
+        assertThat(refDataStore.getValue(mapDefinition, "10.9.9.9"))
+                .hasValue(StringValue.of("printer"));
+        // The CIDR keys can still be looked up as they were loaded
+        assertThat(refDataStore.getValue(mapDefinition, "10.1.2.3/16"))
+                .hasValue(StringValue.of("office"));
+
+        assertThat(refDataStore.getValue(mapDefinition, "192.168.0.1"))
+                .isEmpty();
+        assertThat(refDataStore.getValue(mapDefinition, "2001:db9::1"))
+                .isEmpty();
+        assertThat(refDataStore.getValue(mapDefinition, "notAnIp"))
+                .isEmpty();
+
+        // Only maps named as CIDR maps are matched by CIDR block
+        assertThat(mapDefinition.isCidrMap())
+                .isTrue();
+        assertThat(plainMapDefinition.isCidrMap())
+                .isFalse();
+        assertThat(refDataStore.getValue(plainMapDefinition, "10.200.0.1"))
+                .isEmpty();
+        assertThat(refDataStore.getValue(plainMapDefinition, "10.0.0.0/8"))
+                .hasValue(StringValue.of("internal"));
+    }
+
     private void doKeyValueOverwriteTest(final boolean overwriteExisting,
                                          final StringValue value1,
                                          final StringValue value2,
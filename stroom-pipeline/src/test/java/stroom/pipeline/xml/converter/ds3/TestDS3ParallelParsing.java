@@ -0,0 +1,208 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import stroom.pipeline.DefaultLocationFactory;
+import stroom.pipeline.errorhandler.ErrorHandlerAdaptor;
+import stroom.pipeline.errorhandler.LoggingErrorReceiver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestDS3ParallelParsing {
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Test
+    void testLineRecords() throws IOException, SAXException {
+        final RootFactory rootFactory = createCsvRootFactory("\n");
+        assertThat(rootFactory.getRecordDelimiter())
+                .containsExactly('\n');
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            sb.append("a").append(i).append(",b").append(i).append(",c").append(i);
+            if (i % 7 == 0) {
+                // Carriage returns are stripped so must not affect the locations.
+                sb.append("\r");
+            }
+            sb.append("\n");
+            if (i % 11 == 0) {
+                sb.append("\n");
+            }
+        }
+        // No trailing delimiter on the last record.
+        sb.append("x,y,z");
+
+        assertSameOutput(rootFactory, sb.toString());
+    }
+
+    @Test
+    void testInlineRecords() throws IOException, SAXException {
+        final RootFactory rootFactory = createCsvRootFactory("||");
+
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= 500; i++) {
+            sb.append("a").append(i).append(",b").append(i).append("||");
+            if (i % 13 == 0) {
+                sb.append("\nc").append(i).append("||");
+            }
+            if (i % 17 == 0) {
+                // Three pipes so the delimiter must be found from the start of the record.
+                sb.append("|");
+            }
+        }
+
+        assertSameOutput(rootFactory, sb.toString());
+    }
+
+    @Test
+    void testSingleRecordBiggerThanChunk() throws IOException, SAXException {
+        final RootFactory rootFactory = createCsvRootFactory("\n");
+        final String input = "a,".repeat(100) + "\nb,c\n" + "d,".repeat(100);
+
+        assertSameOutput(rootFactory, input);
+    }
+
+    @Test
+    void testNotEligible() {
+        // Vars can be referenced by later records.
+        final RootFactory withVar = new RootFactory();
+        final SplitFactory split = new SplitFactory(withVar, "split", "\n");
+        new VarFactory(split, "var");
+        withVar.compile();
+        assertThat(withVar.getRecordDelimiter())
+                .isNull();
+
+        // Regex records can't be found without running the regex.
+        final RootFactory withRegex = new RootFactory();
+        final RegexFactory regex = new RegexFactory(withRegex, "regex", "[A-Z][a-z]{2}");
+        new DataFactory(regex, "data", "day", "$0");
+        withRegex.compile();
+        assertThat(withRegex.getRecordDelimiter())
+                .isNull();
+
+        // Only the first record is output.
+        final RootFactory withMaxMatch = new RootFactory();
+        new SplitFactory(withMaxMatch, "split", 0, 1, null, "\n", null, null, null);
+        withMaxMatch.compile();
+        assertThat(withMaxMatch.getRecordDelimiter())
+                .isNull();
+    }
+
+    private RootFactory createCsvRootFactory(final String recordDelimiter) {
+        final RootFactory rootFactory = new RootFactory();
+        final SplitFactory record = new SplitFactory(rootFactory, "record", recordDelimiter);
+        final GroupFactory group = new GroupFactory(
+                record,
+                "group",
+                "$1",
+                false,
+                GroupFactory.MatchOrder.SEQUENCE,
+                false);
+        final SplitFactory field = new SplitFactory(group, "field", ",");
+        new DataFactory(field, "data", null, "$1");
+        rootFactory.compile();
+        return rootFactory;
+    }
+
+    private void assertSameOutput(final RootFactory rootFactory, final String input)
+            throws IOException, SAXException {
+        final List<String> expected = parse(rootFactory, input, 1);
+        final List<String> actual = parse(rootFactory, input, 4);
+
+        assertThat(expected)
+                .hasSizeGreaterThan(100);
+        assertThat(actual)
+                .containsExactlyElementsOf(expected);
+    }
+
+    private List<String> parse(final RootFactory rootFactory, final String input, final int threads)
+            throws IOException, SAXException {
+        final DS3Parser parser = new DS3Parser(rootFactory, 1_000, 10_000);
+        // Use small chunks so the input is split into many chunks.
+        parser.setParallelism(threads, executorService, 64);
+
+        final LoggingErrorReceiver errorReceiver = new LoggingErrorReceiver();
+        final RecordingHandler handler = new RecordingHandler();
+        parser.setContentHandler(handler);
+        parser.setErrorHandler(new ErrorHandlerAdaptor(
+                "DS3Parser",
+                new DefaultLocationFactory(),
+                errorReceiver));
+
+        // Parse twice to make sure the parser can be reused.
+        parser.parse(new InputSource(new StringReader(input)));
+        final List<String> events = new ArrayList<>(handler.events);
+        handler.events.clear();
+        parser.parse(new InputSource(new StringReader(input)));
+        assertThat(handler.events)
+                .containsExactlyElementsOf(events);
+
+        assertThat(errorReceiver.isAllOk())
+                .isTrue();
+        return events;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class RecordingHandler extends DefaultHandler {
+
+        private final List<String> events = new ArrayList<>();
+        private DSLocator locator;
+
+        @Override
+        public void setDocumentLocator(final Locator locator) {
+            this.locator = (DSLocator) locator;
+        }
+
+        @Override
+        public void startElement(final String uri,
+                                 final String localName,
+                                 final String qName,
+                                 final Attributes atts) {
+            events.add("start " + localName + " " + atts.getValue("value") + " " + toString(
+                    locator.getRecordStartLocator()));
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) {
+            // The end location is only meaningful once the whole record has been read.
+            if (localName.equals("record")) {
+                events.add("end " + localName + " " + toString(locator.getRecordStartLocator())
+                           + "-" + toString(locator.getRecordEndLocator()));
+            } else {
+                events.add("end " + localName + " " + toString(locator.getRecordStartLocator()));
+            }
+        }
+
+        private String toString(final Locator locator) {
+            return locator.getLineNumber() + ":" + locator.getColumnNumber();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package stroom.pipeline.xml.converter.ds3;
+
+import stroom.pipeline.xml.converter.ds3.RegexPlan.Strategy;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestRegexPlan {
+
+    private static final List<String> PATTERNS = List.of(
+            "abc",
+            "\\|\\|",
+            "\\n",
+            "^abc",
+            "ab*c",
+            "ab(c|d)",
+            "abc$",
+            "x[^,]*,",
+            "([^,]*),",
+            "^([^,]*),",
+            "([^,]+),",
+            "^([^,]+),",
+            "[^\\n]*\\n",
+            "([^\\|]+)\\|",
+            "a|b",
+            "(a|b)c",
+            "[ab]c",
+            "\\d+",
+            "(?i)abc");
+
+    @Test
+    void testStrategy() {
+        assertStrategy("abc", 0, Strategy.LITERAL);
+        assertStrategy("\\|\\|", 0, Strategy.LITERAL);
+        assertStrategy("a.b", Pattern.LITERAL, Strategy.LITERAL);
+        assertStrategy("^abc", 0, Strategy.PREFIX);
+        assertStrategy("ab+c", 0, Strategy.PREFIX);
+        assertStrategy("Date: (.*)\\n", 0, Strategy.PREFIX);
+        assertStrategy("([^,]*),", 0, Strategy.DELIMITED);
+        assertStrategy("^([^\\n]+)\\n", 0, Strategy.DELIMITED);
+
+        // Alternation, classes and flags that change literals all need the regex.
+        assertStrategy("a|b", 0, Strategy.REGEX);
+        assertStrategy("a+b", 0, Strategy.REGEX);
+        assertStrategy("[ab]c", 0, Strategy.REGEX);
+        assertStrategy("abc", Pattern.CASE_INSENSITIVE, Strategy.REGEX);
+        assertStrategy("abc", Pattern.COMMENTS, Strategy.REGEX);
+        assertStrategy("^abc", Pattern.MULTILINE, Strategy.REGEX);
+        assertStrategy("([^,]*);", 0, Strategy.REGEX);
+        assertStrategy("([^,]*),(.*)", 0, Strategy.REGEX);
+    }
+
+    @Test
+    void testSameAsRegex() {
+        final Random random = new Random(1);
+        final String alphabet = "abcdx,|\n 1";
+
+        for (final String regex : PATTERNS) {
+            final Pattern pattern = Pattern.compile(regex);
+            final RegexPlan plan = RegexPlan.create(regex, 0);
+
+            for (int i = 0; i < 1_000; i++) {
+                final StringBuilder sb = new StringBuilder();
+                final int length = random.nextInt(12);
+                for (int j = 0; j < length; j++) {
+                    sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                final String input = sb.toString();
+                // Put the input part way into a buffer to check offsets are handled.
+                final CharBuffer buffer = new CharBuffer(("..." + input).toCharArray(), 3, input.length());
+
+                final Matcher expected = pattern.matcher(input);
+                final boolean expectedMatch = expected.find();
+                final int[] start = new int[plan.getGroupCount() + 1];
+                final int[] end = new int[plan.getGroupCount() + 1];
+
+                switch (plan.getStrategy()) {
+                    case LITERAL, DELIMITED -> {
+                        assertThat(plan.match(buffer, start, end))
+                                .as("%s [%s]", regex, input)
+                                .isEqualTo(expectedMatch);
+                        if (expectedMatch) {
+                            for (int group = 0; group <= plan.getGroupCount(); group++) {
+                                assertThat(start[group])
+                                        .isEqualTo(expected.start(group));
+                                assertThat(end[group])
+                                        .isEqualTo(expected.end(group));
+                            }
+                        }
+                    }
+                    case PREFIX -> {
+                        final int candidate = plan.findCandidate(buffer);
+                        if (expectedMatch) {
+                            assertThat(candidate)
+                                    .as("%s [%s]", regex, input)
+                                    .isNotNegative()
+                                    .isLessThanOrEqualTo(expected.start());
+                        } else {
+                            assertThat(candidate == -1 || !pattern.matcher(input).find(candidate))
+                                    .isTrue();
+                        }
+                    }
+                    case REGEX -> {
+                        // Nothing to compare.
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertStrategy(final String regex, final int flags, final Strategy expected) {
+        assertThat(RegexPlan.create(regex, flags).getStrategy())
+                .as(regex)
+                .isEqualTo(expected);
+    }
+}
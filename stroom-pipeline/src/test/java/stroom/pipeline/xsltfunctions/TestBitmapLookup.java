@@ -2,6 +2,7 @@ package stroom.pipeline.xsltfunctions;
 
 import stroom.data.shared.StreamTypeNames;
 import stroom.feed.shared.FeedDoc;
+import stroom.pipeline.profiling.PipelineProfiler;
 import stroom.pipeline.refdata.LookupIdentifier;
 import stroom.pipeline.refdata.ReferenceData;
 import stroom.pipeline.refdata.ReferenceDataResult;
@@ -58,6 +59,9 @@ class TestBitmapLookup extends AbstractXsltFunctionTest<BitmapLookup> {
     private TaskContextFactory mockTaskContextFactory;
     @Mock
     private TaskContext mockTaskContext;
+    @SuppressWarnings("unused") // Used by @InjectMocks
+    @Mock
+    private PipelineProfiler mockPipelineProfiler;
 
     @InjectMocks
     private BitmapLookup bitmapLookup;
@@ -0,0 +1,134 @@
+package stroom.pipeline.xsltfunctions;
+
+import stroom.cache.impl.CacheManagerImpl;
+import stroom.pipeline.PipelineConfig;
+import stroom.pipeline.xsltfunctions.HttpResponseCache.RequestKey;
+import stroom.pipeline.xsltfunctions.HttpResponseCache.Response;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestHttpResponseCache {
+
+    private static final RequestKey REQUEST_KEY = new RequestKey(
+            "GET", "http://localhost:8080/foo", null, null, null, "");
+
+    private final PipelineConfig pipelineConfig = new PipelineConfig();
+    private final HttpResponseCache httpResponseCache = new HttpResponseCache(
+            new CacheManagerImpl(),
+            () -> pipelineConfig);
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @Test
+    void testNoTimeToLive() {
+        final Supplier<Response> requestExecutor = createRequestExecutor(200);
+
+        httpResponseCache.get(REQUEST_KEY, null, requestExecutor);
+        httpResponseCache.get(REQUEST_KEY, Duration.ZERO, requestExecutor);
+
+        assertThat(requestCount)
+                .hasValue(2);
+    }
+
+    @Test
+    void testCached() {
+        final Supplier<Response> requestExecutor = createRequestExecutor(200);
+
+        final Response response1 = httpResponseCache.get(REQUEST_KEY, Duration.ofMinutes(1), requestExecutor);
+        final Response response2 = httpResponseCache.get(REQUEST_KEY, Duration.ofMinutes(1), requestExecutor);
+
+        assertThat(requestCount)
+                .hasValue(1);
+        assertThat(response2)
+                .isSameAs(response1);
+
+        // Different body so a different request
+        final RequestKey otherRequestKey = new RequestKey(
+                "GET", "http://localhost:8080/foo", null, null, "bar", "");
+        httpResponseCache.get(otherRequestKey, Duration.ofMinutes(1), requestExecutor);
+
+        assertThat(requestCount)
+                .hasValue(2);
+    }
+
+    @Test
+    void testExpired() throws InterruptedException {
+        final Supplier<Response> requestExecutor = createRequestExecutor(200);
+
+        httpResponseCache.get(REQUEST_KEY, Duration.ofMillis(1), requestExecutor);
+        Thread.sleep(10);
+        httpResponseCache.get(REQUEST_KEY, Duration.ofMillis(1), requestExecutor);
+
+        assertThat(requestCount)
+                .hasValue(2);
+    }
+
+    @Test
+    void testServerErrorNotCached() {
+        final Supplier<Response> requestExecutor = createRequestExecutor(503);
+
+        final Response response = httpResponseCache.get(REQUEST_KEY, Duration.ofMinutes(1), requestExecutor);
+        httpResponseCache.get(REQUEST_KEY, Duration.ofMinutes(1), requestExecutor);
+
+        assertThat(response.code())
+                .isEqualTo(503);
+        assertThat(requestCount)
+                .hasValue(2);
+    }
+
+    @Test
+    void testCoalesced() throws Exception {
+        final int threads = 10;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Supplier<Response> requestExecutor = () -> {
+            try {
+                Thread.sleep(200);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return createRequestExecutor(200).get();
+        };
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            final List<CompletableFuture<Response>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        startLatch.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return httpResponseCache.get(REQUEST_KEY, Duration.ofMinutes(1), requestExecutor);
+                }, executorService));
+            }
+            startLatch.countDown();
+            for (final CompletableFuture<Response> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS).body())
+                        .isEqualTo("body1");
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertThat(requestCount)
+                .hasValue(1);
+    }
+
+    private Supplier<Response> createRequestExecutor(final int code) {
+        return () -> new Response(code, "reason", null, "body" + requestCount.incrementAndGet());
+    }
+}
@@ -2,6 +2,7 @@ package stroom.pipeline.xsltfunctions;
 
 import stroom.data.shared.StreamTypeNames;
 import stroom.feed.shared.FeedDoc;
+import stroom.pipeline.profiling.PipelineProfiler;
 import stroom.pipeline.refdata.ReferenceData;
 import stroom.pipeline.refdata.ReferenceDataResult;
 import stroom.pipeline.refdata.store.RefDataValueProxy;
@@ -58,6 +59,9 @@ class TestLookup extends AbstractXsltFunctionTest<Lookup> {
     private TaskContextFactory mockTaskContextFactory;
     @Mock
     private TaskContext mockTaskContext;
+    @SuppressWarnings("unused") // Used by @InjectMocks
+    @Mock
+    private PipelineProfiler mockPipelineProfiler;
 
     @InjectMocks
     private Lookup lookup;
@@ -110,7 +110,8 @@ public class ProcessorModule extends AbstractModule {
                         .advanced(false));
 
         LifecycleBinder.create(binder())
-                .bindStartupTaskTo(ProcessorTaskManagerStartup.class)
+                // Only releases this node's tasks in the DB so needs no other task
+                .bindBackgroundStartupTaskAfter(ProcessorTaskManagerStartup.class)
                 .bindShutdownTaskTo(ProcessorTaskManagerShutdown.class);
     }
 
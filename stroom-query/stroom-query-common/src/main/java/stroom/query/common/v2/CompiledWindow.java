@@ -181,10 +181,22 @@ public class CompiledWindow {
 
         void process(Val[] values,
                      BiConsumer<Val[], Integer> consumer);
+
+        /**
+         * @return True if rows are added once for each window period.
+         */
+        default boolean isWindowed() {
+            return true;
+        }
     }
 
     private static class NoOpWindowProcessor implements WindowProcessor {
 
+        @Override
+        public boolean isWindowed() {
+            return false;
+        }
+
         @Override
         public void process(final Val[] values,
                             final BiConsumer<Val[], Integer> consumer) {
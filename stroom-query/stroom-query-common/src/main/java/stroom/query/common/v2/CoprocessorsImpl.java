@@ -4,6 +4,7 @@ import stroom.docref.DocRef;
 import stroom.query.language.functions.ExpressionContext;
 import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ref.ErrorConsumer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
@@ -77,6 +78,14 @@ public final class CoprocessorsImpl implements Coprocessors, HasCompletionState
         coprocessorMap.values().forEach(coprocessor -> coprocessor.accept(values));
     }
 
+    @Override
+    public void acceptBatch(final ValBatch batch) {
+        counter.add(batch.size());
+        LOGGER.trace(() -> String.format("batch: [%s]", batch));
+        // Give the whole batch to each of our coprocessors
+        coprocessorMap.values().forEach(coprocessor -> coprocessor.acceptBatch(batch));
+    }
+
     @Override
     public ErrorConsumer getErrorConsumer() {
         return errorConsumer;
@@ -37,6 +37,7 @@ import stroom.query.language.functions.ExpressionContext;
 import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.Generator;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ValNull;
 import stroom.query.language.functions.ref.DataReader;
 import stroom.query.language.functions.ref.DataWriter;
@@ -244,19 +245,67 @@ public class LmdbDataStore implements DataStore {
         }
     }
 
+    /**
+     * Add a batch of values to the data store. Generators set the values for a whole column of
+     * the batch at a time before the rows are put in the same order as adding them one by one.
+     *
+     * @param batch The values to add to the store.
+     */
+    @Override
+    public void acceptBatch(final ValBatch batch) {
+        // Time windows add each row several times so add them one at a time.
+        if (windowProcessor.isWindowed()) {
+            DataStore.super.acceptBatch(batch);
+            return;
+        }
+
+        // Filter incoming data.
+        final ValBatch filtered = batch.filter(valueFilter);
+        final int size = filtered.size();
+        if (size == 0) {
+            return;
+        }
+        LOGGER.trace(() -> "acceptBatch() called for " + size + " rows");
+
+        final boolean[][] valueIndicesByDepth = compiledDepths.getValueIndicesByDepth();
+        final StoredValues[][] storedValuesByDepth = new StoredValues[valueIndicesByDepth.length][];
+        for (int depth = 0; depth < valueIndicesByDepth.length; depth++) {
+            final StoredValues[] storedValues = new StoredValues[size];
+            for (int row = 0; row < size; row++) {
+                storedValues[row] = valueReferenceIndex.createStoredValues();
+                storedValues[row].setPeriod(-1);
+            }
+            final boolean[] valueIndices = valueIndicesByDepth[depth];
+
+            for (int columnIndex = 0; columnIndex < compiledColumnArray.length; columnIndex++) {
+                final CompiledColumn compiledColumn = compiledColumnArray[columnIndex];
+                final Generator generator = compiledColumn.getGenerator();
+
+                // If we need a value at this level then set the raw values.
+                if (valueIndices[columnIndex] ||
+                    columnIndex == keyFactoryConfig.getTimeColumnIndex()) {
+                    generator.setBatch(filtered, storedValues);
+                }
+            }
+            storedValuesByDepth[depth] = storedValues;
+        }
+
+        final StoredValues[] rowStoredValues = new StoredValues[valueIndicesByDepth.length];
+        for (int row = 0; row < size; row++) {
+            for (int depth = 0; depth < valueIndicesByDepth.length; depth++) {
+                rowStoredValues[depth] = storedValuesByDepth[depth][row];
+            }
+            putRows(filtered.getRow(row), rowStoredValues);
+        }
+    }
+
     private void addInternal(final Val[] values,
                              final int period) {
-        SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_ADD);
         LOGGER.trace(() -> "add() called for " + values.length + " values");
-        final boolean[][] groupIndicesByDepth = compiledDepths.getGroupIndicesByDepth();
         final boolean[][] valueIndicesByDepth = compiledDepths.getValueIndicesByDepth();
 
-        // Get a reference to the current event so we can keep track of what we have stored data for.
-        final CurrentDbState currentDbState = currentDbStateFactory.createCurrentDbState(values);
-
-        ByteBuffer parentRowKey = null;
-        final LmdbKV[] rows = new LmdbKV[groupIndicesByDepth.length];
-        for (int depth = 0; depth < groupIndicesByDepth.length; depth++) {
+        final StoredValues[] storedValuesByDepth = new StoredValues[valueIndicesByDepth.length];
+        for (int depth = 0; depth < valueIndicesByDepth.length; depth++) {
             final StoredValues storedValues = valueReferenceIndex.createStoredValues();
             storedValues.setPeriod(period);
             final boolean[] valueIndices = valueIndicesByDepth[depth];
@@ -271,7 +320,23 @@ public class LmdbDataStore implements DataStore {
                     generator.set(values, storedValues);
                 }
             }
+            storedValuesByDepth[depth] = storedValues;
+        }
+
+        putRows(values, storedValuesByDepth);
+    }
+
+    private void putRows(final Val[] values,
+                         final StoredValues[] storedValuesByDepth) {
+        SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_ADD);
 
+        // Get a reference to the current event so we can keep track of what we have stored data for.
+        final CurrentDbState currentDbState = currentDbStateFactory.createCurrentDbState(values);
+
+        ByteBuffer parentRowKey = null;
+        final LmdbKV[] rows = new LmdbKV[storedValuesByDepth.length];
+        for (int depth = 0; depth < storedValuesByDepth.length; depth++) {
+            final StoredValues storedValues = storedValuesByDepth[depth];
             final ByteBuffer rowKey = lmdbRowKeyFactory.create(depth, parentRowKey, storedValues);
             final ByteBuffer rowValue = lmdbRowValueFactory.create(storedValues);
             parentRowKey = rowKey;
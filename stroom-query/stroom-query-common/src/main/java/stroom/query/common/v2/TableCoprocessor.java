@@ -18,6 +18,7 @@ package stroom.query.common.v2;
 
 import stroom.query.api.TableSettings;
 import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBatch;
 import stroom.query.language.functions.ref.ErrorConsumer;
 
 import com.esotericsoftware.kryo.io.Input;
@@ -47,6 +48,11 @@ public class TableCoprocessor implements Coprocessor, HasCompletionState {
         dataStore.accept(values);
     }
 
+    @Override
+    public void acceptBatch(final ValBatch batch) {
+        dataStore.acceptBatch(batch);
+    }
+
     @Override
     public ErrorConsumer getErrorConsumer() {
         return errorConsumer;
@@ -81,6 +81,19 @@ abstract class AbstractAggregateFunction extends AbstractManyChildFunction imple
             valReference.set(storedValues, val);
         }
 
+        @Override
+        public void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+            childGenerator.setBatch(batch, storedValues);
+            final ValColumn column = childGenerator.evalBatch(batch);
+            for (int row = 0; row < batch.size(); row++) {
+                final Val current = valReference.get(storedValues[row]);
+                final Val childVal = column != null
+                        ? column.get(row)
+                        : childGenerator.eval(storedValues[row], null);
+                valReference.set(storedValues[row], calculator.calc(current, childVal));
+            }
+        }
+
         @Override
         public Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
             return valReference.get(storedValues);
@@ -116,5 +129,23 @@ abstract class AbstractAggregateFunction extends AbstractManyChildFunction imple
             }
             return value;
         }
+
+        @Override
+        public ValColumn evalBatch(final ValBatch batch) {
+            final ValColumn[] columns = evalChildBatches(batch);
+            if (columns == null) {
+                return null;
+            }
+
+            final Val[] result = new Val[batch.size()];
+            for (int row = 0; row < result.length; row++) {
+                Val value = ValNull.INSTANCE;
+                for (final ValColumn column : columns) {
+                    value = calculator.calc(value, column.get(row));
+                }
+                result[row] = value;
+            }
+            return ValColumn.of(result);
+        }
     }
 }
@@ -98,5 +98,51 @@ abstract class AbstractEqualityFunction extends AbstractManyChildFunction {
 
             return evaluator.evaluate(values[0], values[1]);
         }
+
+        @Override
+        public ValColumn evalBatch(final ValBatch batch) {
+            final ValColumn[] columns = evalChildBatches(batch);
+            if (columns == null) {
+                return null;
+            }
+
+            final ValColumn a = columns[0];
+            final ValColumn b = columns[1];
+            final Val[] result = new Val[batch.size()];
+
+            // Values of the same type are compared with that type's own comparator so we can
+            // compare primitives directly.
+            final Type type = a.getType();
+            if (type != null && type == b.getType()) {
+                if (type == Type.LONG || type == Type.DATE) {
+                    final long[] x = a.getLongs();
+                    final long[] y = b.getLongs();
+                    for (int row = 0; row < result.length; row++) {
+                        result[row] = ValBoolean.create(evaluator.test(Long.compare(x[row], y[row])));
+                    }
+                    return ValColumn.of(result);
+                } else if (type == Type.DOUBLE) {
+                    final double[] x = a.getDoubles();
+                    final double[] y = b.getDoubles();
+                    for (int row = 0; row < result.length; row++) {
+                        result[row] = ValBoolean.create(evaluator.test(Double.compare(x[row], y[row])));
+                    }
+                    return ValColumn.of(result);
+                }
+            }
+
+            for (int row = 0; row < result.length; row++) {
+                final Val valA = a.get(row);
+                final Val valB = b.get(row);
+                if (valA.type().isError()) {
+                    result[row] = valA;
+                } else if (valB.type().isError()) {
+                    result[row] = valB;
+                } else {
+                    result[row] = evaluator.evaluate(valA, valB);
+                }
+            }
+            return ValColumn.of(result);
+        }
     }
 }
@@ -38,6 +38,27 @@ abstract class AbstractManyChildGenerator extends AbstractGenerator {
     @Override
     public abstract Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier);
 
+    @Override
+    public final void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+        for (final Generator generator : childGenerators) {
+            generator.setBatch(batch, storedValues);
+        }
+    }
+
+    /**
+     * @return The batch values of each child or null if any child can't evaluate batches.
+     */
+    ValColumn[] evalChildBatches(final ValBatch batch) {
+        final ValColumn[] columns = new ValColumn[childGenerators.length];
+        for (int i = 0; i < childGenerators.length; i++) {
+            columns[i] = childGenerators[i].evalBatch(batch);
+            if (columns[i] == null) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
     @Override
     public final void merge(final StoredValues existingValues, final StoredValues newValues) {
         for (final Generator childGenerator : childGenerators) {
@@ -90,8 +90,16 @@ abstract class AbstractRoundDateTime extends AbstractDateTimeFunction {
                 if (val == null) {
                     return ValNull.INSTANCE;
                 }
+                return calc((long) val);
+            } catch (final RuntimeException e) {
+                return ValErr.create(e.getMessage());
+            }
+        }
 
-                ZonedDateTime dateTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(val), zoneId);
+        @Override
+        public Val calc(final long value) {
+            try {
+                ZonedDateTime dateTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(value), zoneId);
                 dateTime = adjuster.adjust(dateTime);
                 return ValDate.create(dateTime.toInstant().toEpochMilli());
             } catch (final RuntimeException e) {
@@ -106,5 +106,27 @@ abstract class AbstractStringFunction extends AbstractFunction {
 
             return ValString.create(operation.apply(val.toString()));
         }
+
+        @Override
+        public void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+            childGenerator.setBatch(batch, storedValues);
+        }
+
+        @Override
+        public ValColumn evalBatch(final ValBatch batch) {
+            final ValColumn column = childGenerator.evalBatch(batch);
+            if (column == null) {
+                return null;
+            }
+
+            final Val[] result = new Val[batch.size()];
+            for (int row = 0; row < result.length; row++) {
+                final Val val = column.get(row);
+                result[row] = val.type().isValue()
+                        ? ValString.create(operation.apply(val.toString()))
+                        : val;
+            }
+            return ValColumn.of(result);
+        }
     }
 }
@@ -104,17 +104,48 @@ class Add extends NumericFunction {
 
         @Override
         public Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
-            boolean concat = false;
             final Val[] vals = new Val[childGenerators.length];
             for (int i = 0; i < vals.length; i++) {
                 final Val val = childGenerators[i].eval(storedValues, childDataSupplier);
+                if (val.type().isError()) {
+                    return val;
+                }
+                vals[i] = val;
+            }
+            return calc(vals);
+        }
+
+        @Override
+        public ValColumn evalBatch(final ValBatch batch) {
+            final ValColumn[] columns = evalChildBatches(batch);
+            if (columns == null) {
+                return null;
+            }
+
+            final double[] doubles = NumericFunction.calcDoubles(calculator, columns);
+            if (doubles != null) {
+                return ValColumn.ofDoubles(doubles);
+            }
+
+            final Val[] result = new Val[batch.size()];
+            final Val[] vals = new Val[columns.length];
+            for (int row = 0; row < result.length; row++) {
+                for (int i = 0; i < columns.length; i++) {
+                    vals[i] = columns[i].get(row);
+                }
+                result[row] = calc(vals);
+            }
+            return ValColumn.of(result);
+        }
+
+        private Val calc(final Val[] vals) {
+            boolean concat = false;
+            for (final Val val : vals) {
                 if (val.type().isError()) {
                     return val;
                 } else if (val instanceof ValString) {
                     concat = true;
                 }
-
-                vals[i] = val;
             }
 
             // If any of the input values are strings then concatenate them all.
@@ -79,6 +79,13 @@ class Count extends AbstractFunction implements AggregateFunction {
             countReference.increment(storedValues);
         }
 
+        @Override
+        public void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+            for (int row = 0; row < batch.size(); row++) {
+                countReference.increment(storedValues[row]);
+            }
+        }
+
         @Override
         public Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
             return ValLong.create(countReference.get(storedValues));
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.HyperLogLog;
+import stroom.query.language.functions.ref.HyperLogLogReference;
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.function.Supplier;
+
+@SuppressWarnings("unused") //Used by FunctionFactory
+@FunctionDef(
+        name = CountUniqueApprox.NAME,
+        commonCategory = FunctionCategory.AGGREGATE,
+        commonReturnType = ValLong.class,
+        commonReturnDescription = "The approximate number of unique values",
+        signatures = @FunctionSignature(
+                category = FunctionCategory.AGGREGATE,
+                description = "Estimates the number of unique values across all grouped records. " +
+                              "Up to 256 unique values are counted exactly. Above that the count is estimated " +
+                              "using a HyperLogLog sketch with a standard error of about 1.6%, using a fixed " +
+                              "amount of memory per group however many unique values there are. " +
+                              "Use this instead of " + CountUnique.NAME + " for fields with many unique values.",
+                args = @FunctionArg(
+                        name = "values",
+                        description = "Grouped field or the result of another function",
+                        argType = Val.class)))
+class CountUniqueApprox extends AbstractFunction implements AggregateFunction {
+
+    static final String NAME = "countUniqueApprox";
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private Generator gen;
+    private Function function;
+    private HyperLogLogReference hyperLogLogReference;
+
+    public CountUniqueApprox(final String name) {
+        super(name, 1, 1);
+    }
+
+    @Override
+    public void setParams(final Param[] params) throws ParseException {
+        super.setParams(params);
+
+        final Param param = params[0];
+        if (param instanceof Function) {
+            function = (Function) param;
+
+            if (function.hasAggregate()) {
+                throw new ParseException(name + " cannot be applied to aggregating function", 0);
+            }
+
+        } else {
+            // A static input only ever has one unique value.
+            gen = new StaticValueGen(ValLong.create(1));
+        }
+    }
+
+    @Override
+    public void addValueReferences(final ValueReferenceIndex valueReferenceIndex) {
+        hyperLogLogReference = valueReferenceIndex.addHyperLogLog(name);
+        super.addValueReferences(valueReferenceIndex);
+    }
+
+    @Override
+    public Generator createGenerator() {
+        if (gen != null) {
+            return gen;
+        }
+
+        final Generator childGenerator = function.createGenerator();
+        return new Gen(childGenerator, hyperLogLogReference);
+    }
+
+    @Override
+    public boolean isAggregate() {
+        return true;
+    }
+
+    @Override
+    public boolean hasAggregate() {
+        return isAggregate();
+    }
+
+    @Override
+    public boolean requiresChildData() {
+        if (function != null) {
+            return function.requiresChildData();
+        }
+        return super.requiresChildData();
+    }
+
+    /**
+     * Hash the type and value so that equal values hash the same on every node.
+     */
+    static long hash(final Val val) {
+        return HASH_FUNCTION.newHasher()
+                .putByte(val.type().getId())
+                .putString(val.toString(), StandardCharsets.UTF_8)
+                .hash()
+                .asLong();
+    }
+
+    private static final class Gen extends AbstractSingleChildGenerator {
+
+        private final HyperLogLogReference hyperLogLogReference;
+
+        Gen(final Generator childGenerator,
+            final HyperLogLogReference hyperLogLogReference) {
+            super(childGenerator);
+            this.hyperLogLogReference = hyperLogLogReference;
+        }
+
+        @Override
+        public void set(final Val[] values, final StoredValues storedValues) {
+            childGenerator.set(values, storedValues);
+            final Val val = childGenerator.eval(storedValues, null);
+            if (val.type().isValue()) {
+                final HyperLogLog hyperLogLog = hyperLogLogReference.get(storedValues);
+                hyperLogLog.add(hash(val));
+                hyperLogLogReference.set(storedValues, hyperLogLog);
+            }
+        }
+
+        @Override
+        public Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            return ValLong.create(hyperLogLogReference.get(storedValues).estimate());
+        }
+
+        @Override
+        public void merge(final StoredValues existingValues, final StoredValues newValues) {
+            final HyperLogLog existing = hyperLogLogReference.get(existingValues);
+            existing.merge(hyperLogLogReference.get(newValues));
+            hyperLogLogReference.set(existingValues, existing);
+            super.merge(existingValues, newValues);
+        }
+    }
+}
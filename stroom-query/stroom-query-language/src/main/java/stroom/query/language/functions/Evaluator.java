@@ -4,4 +4,9 @@ abstract class Evaluator {
 
     protected abstract Val evaluate(final Val a, final Val b);
 
+    /**
+     * @param compareResult The result of comparing two non-null values.
+     * @return True if the comparison result satisfies this evaluator.
+     */
+    protected abstract boolean test(final int compareResult);
 }
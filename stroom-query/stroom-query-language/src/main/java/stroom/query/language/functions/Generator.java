@@ -47,4 +47,30 @@ public interface Generator {
      * @param generator The generator to merge with this one.
      */
     void merge(StoredValues existingValues, StoredValues newValues);
+
+    /**
+     * Set values for a batch of rows. Each row has its own newly created stored values.
+     * Generators that can work on whole columns override this, otherwise each row is passed
+     * to {@link #set(Val[], StoredValues)} in turn.
+     *
+     * @param batch        The rows to pick data from.
+     * @param storedValues The stored values for each row of the batch.
+     */
+    default void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+        for (int row = 0; row < batch.size(); row++) {
+            set(batch.getRow(row), storedValues[row]);
+        }
+    }
+
+    /**
+     * Evaluate this generator for every row of a batch straight from the row values, giving
+     * the same result as calling set() with each row on new stored values and then eval().
+     *
+     * @param batch The rows to evaluate.
+     * @return The value for each row or null if this generator can't evaluate batches, e.g.
+     * because it aggregates or needs child data.
+     */
+    default ValColumn evalBatch(final ValBatch batch) {
+        return null;
+    }
 }
@@ -64,9 +64,12 @@ class GreaterThan extends AbstractEqualityFunction {
             }
 
             final int compareResult = ValComparators.GENERIC_CASE_SENSITIVE_COMPARATOR.compare(a, b);
-            return compareResult > 0
-                    ? ValBoolean.TRUE
-                    : ValBoolean.FALSE;
+            return ValBoolean.create(test(compareResult));
+        }
+
+        @Override
+        protected boolean test(final int compareResult) {
+            return compareResult > 0;
         }
     }
 }
@@ -61,9 +61,12 @@ class NotEquals extends AbstractEqualityFunction {
         protected Val evaluate(final Val a, final Val b) {
 
             final int compareResult = ValComparators.GENERIC_CASE_SENSITIVE_COMPARATOR.compare(a, b);
-            return compareResult != 0
-                    ? ValBoolean.TRUE
-                    : ValBoolean.FALSE;
+            return ValBoolean.create(test(compareResult));
+        }
+
+        @Override
+        protected boolean test(final int compareResult) {
+            return compareResult != 0;
         }
     }
 }
@@ -18,6 +18,7 @@ package stroom.query.language.functions;
 
 import stroom.query.language.functions.ref.StoredValues;
 
+import java.util.Arrays;
 import java.util.function.Supplier;
 
 public abstract class NumericFunction extends AbstractManyChildFunction {
@@ -62,6 +63,35 @@ public abstract class NumericFunction extends AbstractManyChildFunction {
         }
     }
 
+    /**
+     * Apply a calculator across the rows of two or more columns in a tight loop.
+     *
+     * @return The result for each row, or null if any column is not all plain numbers or the
+     * calculation fails for any row, in which case the rows need evaluating one at a time.
+     */
+    static double[] calcDoubles(final Calculator calculator, final ValColumn[] columns) {
+        final double[][] inputs = new double[columns.length][];
+        for (int i = 0; i < columns.length; i++) {
+            inputs[i] = columns[i].getDoubles();
+            if (inputs[i] == null) {
+                return null;
+            }
+        }
+
+        final double[] result = Arrays.copyOf(inputs[0], inputs[0].length);
+        try {
+            for (int i = 1; i < inputs.length; i++) {
+                final double[] input = inputs[i];
+                for (int row = 0; row < result.length; row++) {
+                    result[row] = calculator.op(result[row], input[row]);
+                }
+            }
+        } catch (final RuntimeException e) {
+            return null;
+        }
+        return result;
+    }
+
     static final class Gen extends AbstractManyChildGenerator {
 
         private final Calculator calculator;
@@ -86,6 +116,47 @@ public abstract class NumericFunction extends AbstractManyChildFunction {
                 vals[i] = val;
             }
 
+            return calc(vals);
+        }
+
+        @Override
+        public ValColumn evalBatch(final ValBatch batch) {
+            final ValColumn[] columns = evalChildBatches(batch);
+            if (columns == null) {
+                return null;
+            }
+
+            // The first value is passed through as is so only combine doubles when there is
+            // more than one.
+            if (columns.length > 1) {
+                final double[] doubles = calcDoubles(calculator, columns);
+                if (doubles != null) {
+                    return ValColumn.ofDoubles(doubles);
+                }
+            }
+
+            final Val[] result = new Val[batch.size()];
+            final Val[] vals = new Val[columns.length];
+            for (int row = 0; row < result.length; row++) {
+                result[row] = evalRow(columns, row, vals);
+            }
+            return ValColumn.of(result);
+        }
+
+        private Val evalRow(final ValColumn[] columns, final int row, final Val[] vals) {
+            for (int i = 0; i < columns.length; i++) {
+                final Val val = columns[i].get(row);
+                if (!val.type().isValue()) {
+                    return val;
+                } else if (!val.type().isNumber()) {
+                    return ValErr.INSTANCE;
+                }
+                vals[i] = val;
+            }
+            return calc(vals);
+        }
+
+        private Val calc(final Val[] vals) {
             Val value = ValNull.INSTANCE;
             for (final Val val : vals) {
                 value = calculator.calc(value, val);
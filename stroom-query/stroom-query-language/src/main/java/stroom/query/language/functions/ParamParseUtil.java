@@ -85,6 +85,21 @@ public class ParamParseUtil {
                 "Number expected as " + getPos(pos) + " argument of '" + functionName + "' function", 0);
     }
 
+    public static double parseDoubleParam(final Param[] params,
+                                          final int pos,
+                                          final String functionName) throws ParseException {
+        if (params.length > pos) {
+            if (params[pos] instanceof Val) {
+                final Double num = ((Val) params[pos]).toDouble();
+                if (num != null && !num.isNaN()) {
+                    return num;
+                }
+            }
+        }
+        throw new ParseException(
+                "Number expected as " + getPos(pos) + " argument of '" + functionName + "' function", 0);
+    }
+
     public static boolean parseBooleanParam(final Param[] params,
                                             final int pos,
                                             final String functionName) throws ParseException {
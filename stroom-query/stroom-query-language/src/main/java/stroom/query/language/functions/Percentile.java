@@ -0,0 +1,174 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.TDigest;
+import stroom.query.language.functions.ref.TDigestReference;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
+import java.text.ParseException;
+import java.util.function.Supplier;
+
+@SuppressWarnings("unused") //Used by FunctionFactory
+@FunctionDef(
+        name = Percentile.NAME,
+        commonCategory = FunctionCategory.AGGREGATE,
+        commonReturnType = ValDouble.class,
+        commonReturnDescription = "The estimated value at the percentile.",
+        signatures = @FunctionSignature(
+                category = FunctionCategory.AGGREGATE,
+                description = "Estimates the value at a percentile of all grouped records, e.g. " +
+                              Percentile.NAME + "(${field}, 95) for the 95th percentile. " +
+                              "Small numbers of values give exact results. Larger numbers are estimated " +
+                              "using a t-digest sketch, which is most accurate for high and low percentiles " +
+                              "and uses a bounded amount of memory per group.",
+                args = {
+                        @FunctionArg(
+                                name = "values",
+                                description = "Grouped field or the result of another function",
+                                argType = ValNumber.class),
+                        @FunctionArg(
+                                name = "percentile",
+                                description = "The percentile between 0 and 100.",
+                                argType = ValNumber.class)
+                }))
+class Percentile extends AbstractFunction implements AggregateFunction {
+
+    static final String NAME = "percentile";
+
+    private double percentile;
+    private Generator gen;
+    private Function function;
+    private TDigestReference tDigestReference;
+
+    public Percentile(final String name) {
+        this(name, 2, 2, 50);
+    }
+
+    Percentile(final String name,
+               final int minParams,
+               final int maxParams,
+               final double percentile) {
+        super(name, minParams, maxParams);
+        this.percentile = percentile;
+    }
+
+    @Override
+    public void setParams(final Param[] params) throws ParseException {
+        super.setParams(params);
+
+        if (params.length > 1) {
+            percentile = ParamParseUtil.parseDoubleParam(params, 1, name);
+            if (percentile < 0 || percentile > 100) {
+                throw new ParseException("Percentile must be between 0 and 100 for '" + name + "' function", 0);
+            }
+        }
+
+        final Param param = params[0];
+        if (param instanceof Function) {
+            function = (Function) param;
+
+            if (function.hasAggregate()) {
+                throw new ParseException(name + " cannot be applied to aggregating function", 0);
+            }
+
+        } else {
+            // Every percentile of a static input is the input.
+            final Double value = ((Val) param).toDouble();
+            gen = new StaticValueGen(value == null
+                    ? ValNull.INSTANCE
+                    : ValDouble.create(value));
+        }
+    }
+
+    @Override
+    public void addValueReferences(final ValueReferenceIndex valueReferenceIndex) {
+        tDigestReference = valueReferenceIndex.addTDigest(name);
+        super.addValueReferences(valueReferenceIndex);
+    }
+
+    @Override
+    public Generator createGenerator() {
+        if (gen != null) {
+            return gen;
+        }
+
+        final Generator childGenerator = function.createGenerator();
+        return new Gen(childGenerator, tDigestReference, percentile / 100);
+    }
+
+    @Override
+    public boolean isAggregate() {
+        return true;
+    }
+
+    @Override
+    public boolean hasAggregate() {
+        return isAggregate();
+    }
+
+    @Override
+    public boolean requiresChildData() {
+        if (function != null) {
+            return function.requiresChildData();
+        }
+        return super.requiresChildData();
+    }
+
+    private static final class Gen extends AbstractSingleChildGenerator {
+
+        private final TDigestReference tDigestReference;
+        private final double quantile;
+
+        Gen(final Generator childGenerator,
+            final TDigestReference tDigestReference,
+            final double quantile) {
+            super(childGenerator);
+            this.tDigestReference = tDigestReference;
+            this.quantile = quantile;
+        }
+
+        @Override
+        public void set(final Val[] values, final StoredValues storedValues) {
+            childGenerator.set(values, storedValues);
+            final Double d = childGenerator.eval(storedValues, null).toDouble();
+            if (d != null) {
+                final TDigest tDigest = tDigestReference.get(storedValues);
+                tDigest.add(d);
+                tDigestReference.set(storedValues, tDigest);
+            }
+        }
+
+        @Override
+        public Val eval(final StoredValues storedValues, final Supplier<ChildData> childDataSupplier) {
+            final TDigest tDigest = tDigestReference.get(storedValues);
+            if (tDigest.size() == 0) {
+                return ValNull.INSTANCE;
+            }
+            return ValDouble.create(tDigest.quantile(quantile));
+        }
+
+        @Override
+        public void merge(final StoredValues existingValues, final StoredValues newValues) {
+            final TDigest existing = tDigestReference.get(existingValues);
+            existing.merge(tDigestReference.get(newValues));
+            tDigestReference.set(existingValues, existing);
+            super.merge(existingValues, newValues);
+        }
+    }
+}
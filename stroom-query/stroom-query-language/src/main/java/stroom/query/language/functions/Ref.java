@@ -98,6 +98,21 @@ class Ref extends AbstractFunction {
             return fieldValReference.get(storedValues);
         }
 
+        @Override
+        public void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+            for (int row = 0; row < batch.size(); row++) {
+                final Val val = batch.getRow(row)[fieldIndex];
+                if (val != null) {
+                    fieldValReference.set(storedValues[row], val);
+                }
+            }
+        }
+
+        @Override
+        public ValColumn evalBatch(final ValBatch batch) {
+            return batch.getColumn(fieldIndex);
+        }
+
         @Override
         public boolean equals(final Object o) {
             if (this == o) {
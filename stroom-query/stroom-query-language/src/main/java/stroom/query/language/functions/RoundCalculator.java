@@ -20,4 +20,11 @@ package stroom.query.language.functions;
 public interface RoundCalculator {
 
     Val calc(Val value);
+
+    /**
+     * Round a whole number or a date in epoch milliseconds.
+     */
+    default Val calc(final long value) {
+        return calc(ValLong.create(value));
+    }
 }
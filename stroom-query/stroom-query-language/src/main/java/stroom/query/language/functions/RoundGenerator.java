@@ -42,4 +42,33 @@ final class RoundGenerator extends AbstractSingleChildGenerator {
         }
         return calculator.calc(val);
     }
+
+    @Override
+    public void setBatch(final ValBatch batch, final StoredValues[] storedValues) {
+        childGenerator.setBatch(batch, storedValues);
+    }
+
+    @Override
+    public ValColumn evalBatch(final ValBatch batch) {
+        final ValColumn column = childGenerator.evalBatch(batch);
+        if (column == null) {
+            return null;
+        }
+
+        final Val[] result = new Val[batch.size()];
+        final long[] longs = column.getLongs();
+        if (longs != null) {
+            for (int row = 0; row < result.length; row++) {
+                result[row] = calculator.calc(longs[row]);
+            }
+        } else {
+            for (int row = 0; row < result.length; row++) {
+                final Val val = column.get(row);
+                result[row] = val.type().isValue()
+                        ? calculator.calc(val)
+                        : val;
+            }
+        }
+        return ValColumn.of(result);
+    }
 }
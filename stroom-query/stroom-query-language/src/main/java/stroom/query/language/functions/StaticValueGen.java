@@ -18,6 +18,11 @@ public class StaticValueGen extends AbstractNoChildGenerator {
         return value;
     }
 
+    @Override
+    public ValColumn evalBatch(final ValBatch batch) {
+        return ValColumn.constant(value, batch.size());
+    }
+
     public Val getValue() {
         return value;
     }
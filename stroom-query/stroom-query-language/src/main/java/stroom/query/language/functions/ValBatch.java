@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.language.functions;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A block of rows, each row being the same shape of values array that is passed to
+ * {@link ValuesConsumer#accept(Val[])}. The rows can also be read a field at a time as
+ * {@link ValColumn}s which are built on first use and then shared by every function that
+ * references the field. Batches are not thread safe.
+ */
+public final class ValBatch {
+
+    private final Val[][] rows;
+    private ValColumn[] columns;
+
+    private ValBatch(final Val[][] rows) {
+        this.rows = rows;
+    }
+
+    public static ValBatch of(final List<Val[]> rows) {
+        return new ValBatch(rows.toArray(new Val[0][]));
+    }
+
+    public static ValBatch of(final Val[]... rows) {
+        return new ValBatch(rows);
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public Val[] getRow(final int row) {
+        return rows[row];
+    }
+
+    public ValColumn getColumn(final int fieldIndex) {
+        if (columns == null) {
+            columns = new ValColumn[fieldIndex + 1];
+        } else if (fieldIndex >= columns.length) {
+            columns = Arrays.copyOf(columns, fieldIndex + 1);
+        }
+
+        ValColumn column = columns[fieldIndex];
+        if (column == null) {
+            final Val[] values = new Val[rows.length];
+            for (int row = 0; row < rows.length; row++) {
+                values[row] = rows[row][fieldIndex];
+            }
+            column = ValColumn.of(values);
+            columns[fieldIndex] = column;
+        }
+        return column;
+    }
+
+    /**
+     * @return A batch of the rows that match the predicate, or this batch if they all match.
+     */
+    public ValBatch filter(final Predicate<Val[]> predicate) {
+        Val[][] filtered = null;
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            final boolean include = predicate.test(rows[row]);
+            if (filtered == null) {
+                if (!include) {
+                    filtered = new Val[rows.length - 1][];
+                    System.arraycopy(rows, 0, filtered, 0, row);
+                    count = row;
+                }
+            } else if (include) {
+                filtered[count++] = rows[row];
+            }
+        }
+        if (filtered == null) {
+            return this;
+        }
+        return new ValBatch(Arrays.copyOf(filtered, count));
+    }
+
+    @Override
+    public String toString() {
+        return "ValBatch{" +
+               "size=" + rows.length +
+               '}';
+    }
+}
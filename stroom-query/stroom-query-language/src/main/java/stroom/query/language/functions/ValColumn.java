@@ -0,0 +1,170 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.language.functions;
+
+import java.util.Arrays;
+
+/**
+ * The values of a field or expression for every row of a {@link ValBatch}.
+ * <p>
+ * Where every row holds the same kind of plain number the values are also available as primitive
+ * arrays so functions can evaluate the whole column in a tight loop without boxing. These views are
+ * worked out the first time they are asked for. Columns are not thread safe.
+ */
+public final class ValColumn {
+
+    private final int size;
+    private Val[] values;
+    private double[] doubles;
+    private long[] longs;
+    private Type type;
+    private boolean doublesResolved;
+    private boolean longsResolved;
+    private boolean typeResolved;
+
+    private ValColumn(final int size,
+                      final Val[] values,
+                      final double[] doubles) {
+        this.size = size;
+        this.values = values;
+        if (doubles != null) {
+            this.doubles = doubles;
+            this.type = Type.DOUBLE;
+            doublesResolved = true;
+            longsResolved = true;
+            typeResolved = true;
+        }
+    }
+
+    /**
+     * @param values The value for each row, owned by the column from now on. Null entries are
+     *               treated as {@link ValNull}.
+     */
+    public static ValColumn of(final Val[] values) {
+        return new ValColumn(values.length, values, null);
+    }
+
+    public static ValColumn ofDoubles(final double[] doubles) {
+        return new ValColumn(doubles.length, null, doubles);
+    }
+
+    public static ValColumn constant(final Val value, final int size) {
+        final Val[] values = new Val[size];
+        Arrays.fill(values, value);
+        return new ValColumn(size, values, null);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Val get(final int row) {
+        if (values == null) {
+            values = new Val[size];
+        }
+        Val val = values[row];
+        if (val == null) {
+            if (doubles != null) {
+                val = ValDouble.create(doubles[row]);
+            } else {
+                val = ValNull.INSTANCE;
+            }
+            values[row] = val;
+        }
+        return val;
+    }
+
+    /**
+     * @return The type shared by every row or null if the rows have different types.
+     */
+    public Type getType() {
+        if (!typeResolved) {
+            typeResolved = true;
+            for (int row = 0; row < size; row++) {
+                final Type rowType = get(row).type();
+                if (row == 0) {
+                    type = rowType;
+                } else if (rowType != type) {
+                    type = null;
+                    break;
+                }
+            }
+        }
+        return type;
+    }
+
+    /**
+     * @return The value of every row as a double, or null if any row is not a number or is a
+     * duration. Durations are excluded as the arithmetic functions treat them specially.
+     */
+    public double[] getDoubles() {
+        if (!doublesResolved) {
+            doublesResolved = true;
+            final double[] arr = new double[size];
+            for (int row = 0; row < size; row++) {
+                final Val val = get(row);
+                final Type rowType = val.type();
+                if (!rowType.isNumber() || rowType == Type.DURATION) {
+                    return null;
+                }
+                final Double d = val.toDouble();
+                if (d == null) {
+                    return null;
+                }
+                arr[row] = d;
+            }
+            doubles = arr;
+        }
+        return doubles;
+    }
+
+    /**
+     * @return The value of every row as a long, or null if any row is not a whole number or date.
+     */
+    public long[] getLongs() {
+        if (!longsResolved) {
+            longsResolved = true;
+            final long[] arr = new long[size];
+            for (int row = 0; row < size; row++) {
+                final Val val = get(row);
+                final Type rowType = val.type();
+                if (rowType != Type.LONG &&
+                    rowType != Type.INTEGER &&
+                    rowType != Type.SHORT &&
+                    rowType != Type.BYTE &&
+                    rowType != Type.DATE) {
+                    return null;
+                }
+                final Long l = val.toLong();
+                if (l == null) {
+                    return null;
+                }
+                arr[row] = l;
+            }
+            longs = arr;
+        }
+        return longs;
+    }
+
+    @Override
+    public String toString() {
+        return "ValColumn{" +
+               "size=" + size +
+               ", type=" + type +
+               '}';
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.language.functions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects rows passed to {@link #accept(Val[])} and passes them on to another consumer as
+ * {@link ValBatch}es. Any partial batch is passed on by {@link #flush()} or {@link #close()}.
+ * Not thread safe.
+ */
+public class ValuesBatcher implements ValuesConsumer, AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final ValuesConsumer delegate;
+    private final int batchSize;
+    private final List<Val[]> rows;
+
+    public ValuesBatcher(final ValuesConsumer delegate) {
+        this(delegate, DEFAULT_BATCH_SIZE);
+    }
+
+    public ValuesBatcher(final ValuesConsumer delegate, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.rows = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void accept(final Val[] values) {
+        rows.add(values);
+        if (rows.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void acceptBatch(final ValBatch batch) {
+        flush();
+        delegate.acceptBatch(batch);
+    }
+
+    public void flush() {
+        if (!rows.isEmpty()) {
+            final ValBatch batch = ValBatch.of(rows);
+            rows.clear();
+            delegate.acceptBatch(batch);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -3,4 +3,14 @@ package stroom.query.language.functions;
 public interface ValuesConsumer {
 
     void accept(Val[] values);
+
+    /**
+     * Accept a block of rows. Consumers that can evaluate whole columns at once override this,
+     * otherwise each row is passed to {@link #accept(Val[])} in turn.
+     */
+    default void acceptBatch(final ValBatch batch) {
+        for (int row = 0; row < batch.size(); row++) {
+            accept(batch.getRow(row));
+        }
+    }
 }
@@ -0,0 +1,227 @@
+package stroom.query.language.functions.ref;
+
+import java.util.Arrays;
+
+/**
+ * A merging t-digest (Dunning) for estimating quantiles of the values added to it using a bounded
+ * amount of memory. Values are held as weighted centroids, with small centroids at the tails so
+ * extreme quantiles stay accurate. Small numbers of values are held exactly.
+ * <p>
+ * Added values are buffered and merged into the centroids when the buffer is full or the digest
+ * is read, merged or written.
+ */
+public final class TDigest {
+
+    private static final double COMPRESSION = 100;
+    private static final int MAX_BUFFER_SIZE = (int) (5 * COMPRESSION);
+
+    // Centroids sorted by mean.
+    private double[] means;
+    private double[] weights;
+    private int centroidCount;
+
+    private double[] buffer;
+    private int bufferCount;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        means = new double[0];
+        weights = new double[0];
+        buffer = new double[4];
+    }
+
+    public void add(final double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferCount == buffer.length) {
+            if (bufferCount >= MAX_BUFFER_SIZE) {
+                compress();
+            } else {
+                buffer = Arrays.copyOf(buffer, Math.min(MAX_BUFFER_SIZE, buffer.length * 2));
+            }
+        }
+        buffer[bufferCount++] = value;
+        totalWeight++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Add all the values of another digest to this one.
+     */
+    public void merge(final TDigest other) {
+        other.compress();
+        if (other.centroidCount == 0) {
+            return;
+        }
+        compress();
+        final double[] otherMeans = Arrays.copyOf(other.means, other.centroidCount);
+        final double[] otherWeights = Arrays.copyOf(other.weights, other.centroidCount);
+        totalWeight += other.totalWeight;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        mergeCentroids(otherMeans, otherWeights, otherMeans.length);
+    }
+
+    /**
+     * @return The number of values added.
+     */
+    public long size() {
+        return (long) totalWeight;
+    }
+
+    /**
+     * @param quantile The quantile between 0 and 1, e.g. 0.5 for the median.
+     * @return The estimated value at the quantile or NaN if no values have been added.
+     */
+    public double quantile(final double quantile) {
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        } else if (centroidCount == 1) {
+            return means[0];
+        } else if (quantile <= 0) {
+            return min;
+        } else if (quantile >= 1) {
+            return max;
+        }
+
+        // Each centroid is treated as being centred on the middle of its weight.
+        final double index = quantile * totalWeight;
+        double weightSoFar = weights[0] / 2;
+        if (index < weightSoFar) {
+            return interpolate(index, 0, min, weightSoFar, means[0]);
+        }
+        for (int i = 0; i < centroidCount - 1; i++) {
+            final double nextCentre = weightSoFar + ((weights[i] + weights[i + 1]) / 2);
+            if (index < nextCentre) {
+                return interpolate(index, weightSoFar, means[i], nextCentre, means[i + 1]);
+            }
+            weightSoFar = nextCentre;
+        }
+        return interpolate(index, weightSoFar, means[centroidCount - 1], totalWeight, max);
+    }
+
+    public void write(final DataWriter writer) {
+        compress();
+        writer.writeInt(centroidCount);
+        if (centroidCount > 0) {
+            writer.writeDouble(min);
+            writer.writeDouble(max);
+            for (int i = 0; i < centroidCount; i++) {
+                writer.writeDouble(means[i]);
+                writer.writeDouble(weights[i]);
+            }
+        }
+    }
+
+    public static TDigest read(final DataReader reader) {
+        final TDigest digest = new TDigest();
+        final int count = reader.readInt();
+        if (count > 0) {
+            digest.min = reader.readDouble();
+            digest.max = reader.readDouble();
+            digest.means = new double[count];
+            digest.weights = new double[count];
+            for (int i = 0; i < count; i++) {
+                digest.means[i] = reader.readDouble();
+                digest.weights[i] = reader.readDouble();
+                digest.totalWeight += digest.weights[i];
+            }
+            digest.centroidCount = count;
+        }
+        return digest;
+    }
+
+    private void compress() {
+        if (bufferCount > 0) {
+            final double[] values = Arrays.copyOf(buffer, bufferCount);
+            Arrays.sort(values);
+            final double[] valueWeights = new double[bufferCount];
+            Arrays.fill(valueWeights, 1);
+            bufferCount = 0;
+            mergeCentroids(values, valueWeights, values.length);
+        }
+    }
+
+    /**
+     * Merge sorted centroids into the existing centroids, combining neighbours while they stay
+     * within the size limit given by the scale function. totalWeight must already include the
+     * new centroids.
+     */
+    private void mergeCentroids(final double[] newMeans, final double[] newWeights, final int newCount) {
+        final int maxCount = centroidCount + newCount;
+        final double[] mergedMeans = new double[maxCount];
+        final double[] mergedWeights = new double[maxCount];
+        int count = 0;
+        double weightBefore = 0;
+        double kLeft = scale(0);
+
+        int i = 0;
+        int j = 0;
+        while (i < centroidCount || j < newCount) {
+            final double mean;
+            final double weight;
+            if (j >= newCount || (i < centroidCount && means[i] <= newMeans[j])) {
+                mean = means[i];
+                weight = weights[i];
+                i++;
+            } else {
+                mean = newMeans[j];
+                weight = newWeights[j];
+                j++;
+            }
+
+            if (count == 0) {
+                mergedMeans[0] = mean;
+                mergedWeights[0] = weight;
+                count = 1;
+            } else {
+                final double proposedWeight = mergedWeights[count - 1] + weight;
+                final double kRight = scale((weightBefore + proposedWeight) / totalWeight);
+                if (kRight - kLeft <= 1) {
+                    mergedMeans[count - 1] += (mean - mergedMeans[count - 1]) * weight / proposedWeight;
+                    mergedWeights[count - 1] = proposedWeight;
+                } else {
+                    weightBefore += mergedWeights[count - 1];
+                    kLeft = scale(weightBefore / totalWeight);
+                    mergedMeans[count] = mean;
+                    mergedWeights[count] = weight;
+                    count++;
+                }
+            }
+        }
+
+        means = Arrays.copyOf(mergedMeans, count);
+        weights = Arrays.copyOf(mergedWeights, count);
+        centroidCount = count;
+    }
+
+    private static double scale(final double quantile) {
+        return COMPRESSION / (2 * Math.PI) * Math.asin((2 * Math.min(1, quantile)) - 1);
+    }
+
+    private static double interpolate(final double x,
+                                      final double x1,
+                                      final double y1,
+                                      final double x2,
+                                      final double y2) {
+        if (x2 <= x1) {
+            return y1;
+        }
+        return y1 + ((x - x1) / (x2 - x1) * (y2 - y1));
+    }
+
+    @Override
+    public String toString() {
+        return "TDigest{" +
+               "size=" + size() +
+               ", centroidCount=" + centroidCount +
+               ", bufferCount=" + bufferCount +
+               '}';
+    }
+}
@@ -0,0 +1,41 @@
+package stroom.query.language.functions.ref;
+
+public class TDigestReference implements ValueReference<TDigest> {
+
+    private final int index;
+    private final String name;
+
+    TDigestReference(final int index, final String name) {
+        this.index = index;
+        this.name = name;
+    }
+
+    @Override
+    public TDigest get(final StoredValues storedValues) {
+        final Object o = storedValues.get(index);
+        if (o == null) {
+            return new TDigest();
+        }
+        return (TDigest) o;
+    }
+
+    @Override
+    public void set(final StoredValues storedValues, final TDigest value) {
+        storedValues.set(index, value);
+    }
+
+    @Override
+    public void read(final StoredValues storedValues, final DataReader reader) {
+        set(storedValues, TDigest.read(reader));
+    }
+
+    @Override
+    public void write(final StoredValues storedValues, final DataWriter writer) {
+        get(storedValues).write(writer);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
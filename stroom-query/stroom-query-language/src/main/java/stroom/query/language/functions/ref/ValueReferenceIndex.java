@@ -20,6 +20,14 @@ public class ValueReferenceIndex {
         return add(new DoubleListReference(list.size(), name));
     }
 
+    public HyperLogLogReference addHyperLogLog(final String name) {
+        return add(new HyperLogLogReference(list.size(), name));
+    }
+
+    public TDigestReference addTDigest(final String name) {
+        return add(new TDigestReference(list.size(), name));
+    }
+
     public StringListReference addStringList(final String name) {
         return add(new StringListReference(list.size(), name));
     }
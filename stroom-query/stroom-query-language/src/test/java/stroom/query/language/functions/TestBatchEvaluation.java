@@ -0,0 +1,165 @@
+package stroom.query.language.functions;
+
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that evaluating batches of rows gives the same results as evaluating one row at a time.
+ */
+class TestBatchEvaluation extends AbstractExpressionParserTest {
+
+    private static final long DATE = DateUtil.parseNormalDateTimeString("2025-06-10T12:34:56.789Z");
+
+    private static final Map<String, List<Val[]>> BATCHES = Map.of(
+            "longs", List.of(
+                    Val.of(ValLong.create(1), ValLong.create(2)),
+                    Val.of(ValLong.create(10), ValLong.create(0)),
+                    Val.of(ValLong.create(-7), ValLong.create(-7)),
+                    Val.of(ValLong.create(Long.MAX_VALUE), ValLong.create(Long.MAX_VALUE - 1))),
+            "doubles", List.of(
+                    Val.of(ValDouble.create(1.5), ValDouble.create(2.25)),
+                    Val.of(ValDouble.create(-0.5), ValDouble.create(0)),
+                    Val.of(ValDouble.create(3), ValDouble.create(3))),
+            "dates", List.of(
+                    Val.of(ValDate.create(DATE), ValDate.create(DATE + 1)),
+                    Val.of(ValDate.create(DATE + 86_400_000L), ValDate.create(DATE))),
+            "mixed", List.of(
+                    Val.of(ValLong.create(4), ValDouble.create(2)),
+                    Val.of(ValString.create("abc"), ValInteger.create(1)),
+                    Val.of(ValString.create("12"), ValString.create("12")),
+                    new Val[]{null, ValLong.create(2)},
+                    Val.of(ValNull.INSTANCE, ValNull.INSTANCE),
+                    Val.of(ValDate.create(DATE), ValDuration.create(60_000)),
+                    Val.of(ValDuration.create(1_000), ValDuration.create(2_000)),
+                    Val.of(ValErr.create("bad"), ValLong.create(1)),
+                    Val.of(ValBoolean.TRUE, ValLong.create(1))));
+
+    @TestFactory
+    Stream<DynamicTest> testBatchMatchesRows() {
+        final List<BatchCase> cases = List.of(
+                new BatchCase("${val1} + ${val2}", true),
+                new BatchCase("${val1} - ${val2}", true),
+                new BatchCase("${val1} * ${val2} * 2", true),
+                new BatchCase("${val1} / ${val2}", true),
+                new BatchCase("${val1} % ${val2}", true),
+                new BatchCase("(${val1} + 1) * ${val2}", true),
+                new BatchCase("negate(${val1})", true),
+                new BatchCase("${val1} = ${val2}", true),
+                new BatchCase("${val1} != ${val2}", true),
+                new BatchCase("${val1} > ${val2}", true),
+                new BatchCase("${val1} >= ${val2}", true),
+                new BatchCase("${val1} < ${val2}", true),
+                new BatchCase("${val1} <= ${val2}", true),
+                new BatchCase("floorDay(${val1})", true),
+                new BatchCase("roundHour(${val1})", true),
+                new BatchCase("round(${val1})", true),
+                new BatchCase("upperCase(${val1})", true),
+                new BatchCase("lowerCase(${val1})", true),
+                new BatchCase("max(${val1}, ${val2})", true),
+                new BatchCase("sum(${val1} * 2)", false),
+                new BatchCase("min(${val1})", false),
+                new BatchCase("max(floorDay(${val1}))", false),
+                new BatchCase("count()", false),
+                new BatchCase("countUnique(${val1})", false),
+                new BatchCase("concat(${val1}, ${val2})", false));
+
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final BatchCase batchCase : cases) {
+            BATCHES.forEach((batchName, rows) -> tests.add(DynamicTest.dynamicTest(
+                    batchCase.expression + " (" + batchName + ")",
+                    () -> testBatch(batchCase, rows))));
+        }
+        return tests.stream();
+    }
+
+    @Test
+    void testValuesBatcher() {
+        final List<ValBatch> batches = new ArrayList<>();
+        final ValuesConsumer consumer = new ValuesConsumer() {
+            @Override
+            public void accept(final Val[] values) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void acceptBatch(final ValBatch batch) {
+                batches.add(batch);
+            }
+        };
+
+        try (final ValuesBatcher valuesBatcher = new ValuesBatcher(consumer, 3)) {
+            for (int i = 0; i < 7; i++) {
+                valuesBatcher.accept(Val.of(ValLong.create(i)));
+            }
+        }
+
+        assertThat(batches)
+                .extracting(ValBatch::size)
+                .containsExactly(3, 3, 1);
+        assertThat(batches.get(2).getColumn(0).getLongs())
+                .containsExactly(6);
+    }
+
+    @Test
+    void testFilter() {
+        final ValBatch batch = ValBatch.of(BATCHES.get("longs"));
+
+        assertThat(batch.filter(values -> true))
+                .isSameAs(batch);
+        final ValBatch filtered = batch.filter(values -> values[0].toLong() > 0);
+        assertThat(filtered.size())
+                .isEqualTo(2);
+        assertThat(filtered.getColumn(1).getLongs())
+                .containsExactly(2, 0);
+    }
+
+    private void testBatch(final BatchCase batchCase, final List<Val[]> rows) {
+        createExpression(batchCase.expression, 2, exp -> {
+            final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+            exp.addValueReferences(valueReferenceIndex);
+            final Generator gen = exp.createGenerator();
+
+            final ValBatch batch = ValBatch.of(rows);
+            final StoredValues[] batchValues = new StoredValues[rows.size()];
+            for (int row = 0; row < batchValues.length; row++) {
+                batchValues[row] = valueReferenceIndex.createStoredValues();
+            }
+            gen.setBatch(batch, batchValues);
+            final ValColumn column = gen.evalBatch(batch);
+            if (batchCase.evaluatesBatches) {
+                assertThat(column)
+                        .isNotNull();
+            }
+
+            for (int row = 0; row < rows.size(); row++) {
+                final StoredValues rowValues = valueReferenceIndex.createStoredValues();
+                gen.set(rows.get(row), rowValues);
+                final Val expected = gen.eval(rowValues, null);
+
+                assertThat(batchValues[row])
+                        .isEqualTo(rowValues);
+                assertThat(gen.eval(batchValues[row], null))
+                        .isEqualTo(expected);
+                if (column != null) {
+                    assertThat(column.get(row))
+                            .isEqualTo(expected);
+                }
+            }
+        });
+    }
+
+    private record BatchCase(String expression, boolean evaluatesBatches) {
+
+    }
+}
@@ -0,0 +1,43 @@
+package stroom.query.language.functions;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+class TestCountUniqueApprox extends AbstractFunctionTest<CountUniqueApprox> {
+
+    @Override
+    Class<CountUniqueApprox> getFunctionType() {
+        return CountUniqueApprox.class;
+    }
+
+    @Override
+    Stream<TestCase> getTestCases() {
+        return Stream.of(
+                TestCase.ofAggregate(
+                        "longs",
+                        ValLong.create(3),
+                        List.of(ValLong.create(1),
+                                ValLong.create(2),
+                                ValLong.create(2),
+                                ValLong.create(3),
+                                ValLong.create(1))),
+                TestCase.ofAggregate(
+                        "strings",
+                        ValLong.create(2),
+                        List.of(ValString.create("a"),
+                                ValString.create("b"),
+                                ValString.create("a"))),
+                TestCase.ofAggregate(
+                        "types",
+                        ValLong.create(2),
+                        List.of(ValLong.create(1),
+                                ValString.create("1"))),
+                TestCase.ofAggregate(
+                        "nulls",
+                        ValLong.create(1),
+                        List.of(ValNull.INSTANCE,
+                                ValString.create("a"),
+                                ValNull.INSTANCE))
+        );
+    }
+}
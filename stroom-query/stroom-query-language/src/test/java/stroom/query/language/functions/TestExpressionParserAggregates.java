@@ -16,6 +16,9 @@
 
 package stroom.query.language.functions;
 
+import stroom.query.language.functions.ref.StoredValues;
+import stroom.query.language.functions.ref.ValueReferenceIndex;
+
 import org.assertj.core.data.Offset;
 import org.junit.jupiter.api.Test;
 
@@ -319,4 +322,66 @@ class TestExpressionParserAggregates extends AbstractExpressionParserTest {
         });
     }
 
+    @Test
+    void testCountUniqueApprox() {
+        createGenerator("countUniqueApprox(${val1})", (gen, storedValues) -> {
+            for (int i = 0; i < 100_000; i++) {
+                gen.set(Val.of(ValString.create("value" + (i % 50_000))), storedValues);
+            }
+
+            final Val out = gen.eval(storedValues, null);
+            assertThat(out.toDouble()).isCloseTo(50_000D, Offset.offset(2_500D));
+        });
+    }
+
+    @Test
+    void testCountUniqueApproxMerge() {
+        createExpression("countUniqueApprox(${val1})", exp -> {
+            final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+            exp.addValueReferences(valueReferenceIndex);
+            final StoredValues storedValues1 = valueReferenceIndex.createStoredValues();
+            final StoredValues storedValues2 = valueReferenceIndex.createStoredValues();
+            final Generator gen = exp.createGenerator();
+            // Overlapping values so the merged count is less than the sum.
+            for (int i = 0; i < 20_000; i++) {
+                gen.set(Val.of(ValLong.create(i)), storedValues1);
+                gen.set(Val.of(ValLong.create(i + 10_000)), storedValues2);
+            }
+            gen.merge(storedValues1, storedValues2);
+
+            final Val out = gen.eval(storedValues1, null);
+            assertThat(out.toDouble()).isCloseTo(30_000D, Offset.offset(1_500D));
+        });
+    }
+
+    @Test
+    void testPercentile() {
+        createGenerator("percentile(${val1}, 95)", (gen, storedValues) -> {
+            for (int i = 1; i <= 100_000; i++) {
+                gen.set(Val.of(ValLong.create(i)), storedValues);
+            }
+
+            final Val out = gen.eval(storedValues, null);
+            assertThat(out.toDouble()).isCloseTo(95_000D, Offset.offset(500D));
+        });
+    }
+
+    @Test
+    void testMedianMerge() {
+        createExpression("median(${val1})", exp -> {
+            final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+            exp.addValueReferences(valueReferenceIndex);
+            final StoredValues storedValues1 = valueReferenceIndex.createStoredValues();
+            final StoredValues storedValues2 = valueReferenceIndex.createStoredValues();
+            final Generator gen = exp.createGenerator();
+            for (int i = 1; i <= 10_000; i++) {
+                gen.set(Val.of(ValLong.create(i)), storedValues1);
+                gen.set(Val.of(ValLong.create(i + 10_000)), storedValues2);
+            }
+            gen.merge(storedValues1, storedValues2);
+
+            final Val out = gen.eval(storedValues1, null);
+            assertThat(out.toDouble()).isCloseTo(10_000D, Offset.offset(200D));
+        });
+    }
 }
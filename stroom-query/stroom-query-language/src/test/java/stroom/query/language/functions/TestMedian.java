@@ -0,0 +1,39 @@
+package stroom.query.language.functions;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+class TestMedian extends AbstractFunctionTest<Median> {
+
+    @Override
+    Class<Median> getFunctionType() {
+        return Median.class;
+    }
+
+    @Override
+    Stream<TestCase> getTestCases() {
+        return Stream.of(
+                TestCase.ofAggregate(
+                        "odd",
+                        ValDouble.create(3),
+                        List.of(ValLong.create(1),
+                                ValLong.create(2),
+                                ValLong.create(3),
+                                ValLong.create(4),
+                                ValLong.create(5))),
+                TestCase.ofAggregate(
+                        "even",
+                        ValDouble.create(2.5),
+                        List.of(ValLong.create(4),
+                                ValLong.create(3),
+                                ValLong.create(2),
+                                ValLong.create(1))),
+                TestCase.ofAggregate(
+                        "doubles",
+                        ValDouble.create(1.5),
+                        List.of(ValDouble.create(1.5),
+                                ValDouble.create(-3.2),
+                                ValDouble.create(7.25)))
+        );
+    }
+}
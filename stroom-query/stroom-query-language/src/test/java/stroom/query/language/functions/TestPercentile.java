@@ -0,0 +1,67 @@
+package stroom.query.language.functions;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class TestPercentile extends AbstractFunctionTest<Percentile> {
+
+    @Override
+    Class<Percentile> getFunctionType() {
+        return Percentile.class;
+    }
+
+    @Override
+    Stream<TestCase> getTestCases() {
+        final List<Val> oneToTen = IntStream.rangeClosed(1, 10)
+                .mapToObj(i -> (Val) ValLong.create(i))
+                .toList();
+        return Stream.of(
+                TestCase.ofAggregate(
+                        "50th",
+                        ValDouble.create(3),
+                        List.of(ValLong.create(5),
+                                ValLong.create(1),
+                                ValLong.create(3),
+                                ValLong.create(2),
+                                ValLong.create(4)),
+                        ValInteger.create(50)),
+                TestCase.ofAggregate(
+                        "25th",
+                        ValDouble.create(1.75),
+                        List.of(ValLong.create(1),
+                                ValLong.create(2),
+                                ValLong.create(3),
+                                ValLong.create(4),
+                                ValLong.create(5)),
+                        ValInteger.create(25)),
+                TestCase.ofAggregate(
+                        "90th",
+                        ValDouble.create(9.5),
+                        oneToTen,
+                        ValInteger.create(90)),
+                TestCase.ofAggregate(
+                        "0th",
+                        ValDouble.create(1),
+                        oneToTen,
+                        ValInteger.create(0)),
+                TestCase.ofAggregate(
+                        "100th",
+                        ValDouble.create(10),
+                        oneToTen,
+                        ValInteger.create(100)),
+                TestCase.ofAggregate(
+                        "nulls",
+                        ValDouble.create(2),
+                        List.of(ValNull.INSTANCE,
+                                ValLong.create(2),
+                                ValNull.INSTANCE),
+                        ValDouble.create(99.9)),
+                TestCase.ofAggregate(
+                        "no values",
+                        ValNull.INSTANCE,
+                        List.of(ValNull.INSTANCE),
+                        ValInteger.create(50))
+        );
+    }
+}
@@ -3,11 +3,15 @@ package stroom.query.language.functions;
 import stroom.query.language.functions.ref.CountReference;
 import stroom.query.language.functions.ref.DoubleListReference;
 import stroom.query.language.functions.ref.FieldValReference;
+import stroom.query.language.functions.ref.HyperLogLog;
+import stroom.query.language.functions.ref.HyperLogLogReference;
 import stroom.query.language.functions.ref.KryoDataReader;
 import stroom.query.language.functions.ref.KryoDataWriter;
 import stroom.query.language.functions.ref.RandomValReference;
 import stroom.query.language.functions.ref.StoredValues;
 import stroom.query.language.functions.ref.StringListReference;
+import stroom.query.language.functions.ref.TDigest;
+import stroom.query.language.functions.ref.TDigestReference;
 import stroom.query.language.functions.ref.ValListReference;
 import stroom.query.language.functions.ref.ValReference;
 import stroom.query.language.functions.ref.ValueReferenceIndex;
@@ -19,6 +23,9 @@ import org.junit.jupiter.api.Test;
 import java.nio.ByteBuffer;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
 public class TestValueReferenceIndex {
 
     @Test
@@ -112,13 +119,69 @@ public class TestValueReferenceIndex {
         testWriteRead(valueReferenceIndex, storedValues);
     }
 
-    private void testWriteRead(final ValueReferenceIndex valueReferenceIndex, final StoredValues storedValues) {
+    @Test
+    void testHyperLogLogReference() {
+        final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+        final HyperLogLogReference r1 = valueReferenceIndex.addHyperLogLog("test1");
+        final HyperLogLogReference r2 = valueReferenceIndex.addHyperLogLog("test2");
+        final HyperLogLogReference r3 = valueReferenceIndex.addHyperLogLog("test3");
+        final StoredValues storedValues = valueReferenceIndex.createStoredValues();
+        final HyperLogLog sparse = new HyperLogLog();
+        for (long i = 0; i < 10; i++) {
+            sparse.add(CountUniqueApprox.hash(ValLong.create(i)));
+        }
+        final HyperLogLog dense = new HyperLogLog();
+        for (long i = 0; i < 10_000; i++) {
+            dense.add(CountUniqueApprox.hash(ValLong.create(i)));
+        }
+        r1.set(storedValues, sparse);
+        r2.set(storedValues, dense);
+        final StoredValues storedValues2 = testWriteRead(valueReferenceIndex, storedValues);
+        assertThat(r1.get(storedValues2).estimate())
+                .isEqualTo(10);
+        assertThat(r2.get(storedValues2).estimate())
+                .isEqualTo(dense.estimate());
+        assertThat(r3.get(storedValues2).estimate())
+                .isZero();
+    }
+
+    @Test
+    void testTDigestReference() {
+        final ValueReferenceIndex valueReferenceIndex = new ValueReferenceIndex();
+        final TDigestReference r1 = valueReferenceIndex.addTDigest("test1");
+        final TDigestReference r2 = valueReferenceIndex.addTDigest("test2");
+        final TDigestReference r3 = valueReferenceIndex.addTDigest("test3");
+        final StoredValues storedValues = valueReferenceIndex.createStoredValues();
+        final TDigest small = new TDigest();
+        for (int i = 1; i <= 5; i++) {
+            small.add(i);
+        }
+        final TDigest large = new TDigest();
+        for (int i = 0; i < 10_000; i++) {
+            large.add(i);
+        }
+        r1.set(storedValues, small);
+        r2.set(storedValues, large);
+        final StoredValues storedValues2 = testWriteRead(valueReferenceIndex, storedValues);
+        assertThat(r1.get(storedValues2).quantile(0.5))
+                .isEqualTo(3);
+        assertThat(r2.get(storedValues2).size())
+                .isEqualTo(10_000);
+        assertThat(r2.get(storedValues2).quantile(0.5))
+                .isCloseTo(large.quantile(0.5), within(0.0001));
+        assertThat(r3.get(storedValues2).size())
+                .isZero();
+    }
+
+    private StoredValues testWriteRead(final ValueReferenceIndex valueReferenceIndex,
+                                       final StoredValues storedValues) {
         final ByteBuffer byteBuffer1 = write(valueReferenceIndex, storedValues);
         final StoredValues storedValues2 = valueReferenceIndex.read(
                 new KryoDataReader(new ByteBufferInput(byteBuffer1)));
         final ByteBuffer byteBuffer2 = write(valueReferenceIndex, storedValues2);
         final StoredValues storedValues3 = valueReferenceIndex.read(
                 new KryoDataReader(new ByteBufferInput(byteBuffer2)));
+        return storedValues3;
     }
 
     private ByteBuffer write(final ValueReferenceIndex valueReferenceIndex, final StoredValues storedValues) {
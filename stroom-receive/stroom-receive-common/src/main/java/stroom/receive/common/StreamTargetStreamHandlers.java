@@ -10,7 +10,11 @@ import stroom.proxy.StroomStatusCode;
 
 import jakarta.inject.Inject;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class StreamTargetStreamHandlers implements StreamHandlers {
 
@@ -40,29 +44,8 @@ public class StreamTargetStreamHandlers implements StreamHandlers {
                        final Consumer<StreamHandler> consumer) {
         StreamTargetStreamHandler streamHandler = null;
         try {
-            if (feedName == null || feedName.isEmpty()) {
-                throw new StroomStreamException(StroomStatusCode.FEED_MUST_BE_SPECIFIED, attributeMap);
-            }
-
-            String type = typeName;
-            if (type == null || type.isEmpty()) {
-                // If no type name is supplied then get the default for the feed.
-                type = feedProperties.getStreamTypeName(feedName);
-            }
-
-            // Validate the data type name.
-            if (!metaService.getTypes().contains(type)) {
-                throw new StroomStreamException(StroomStatusCode.UNEXPECTED_DATA_TYPE, attributeMap);
-            }
-
-            streamHandler = new StreamTargetStreamHandler(
-                    store,
-                    feedProperties,
-                    metaDataStatistics,
-                    volumeGroupNameProvider,
-                    feedName,
-                    type,
-                    attributeMap);
+            final String type = validate(feedName, typeName, attributeMap);
+            streamHandler = createHandler(feedName, type, attributeMap);
             consumer.accept(streamHandler);
             streamHandler.close();
         } catch (final RuntimeException e) {
@@ -72,4 +55,71 @@ public class StreamTargetStreamHandlers implements StreamHandlers {
             throw e;
         }
     }
+
+    /**
+     * As {@link #handle(String, String, AttributeMap, Consumer)} but the consumer is given a
+     * thread safe factory that supplies a separate handler for each feed name it is called with,
+     * so that different feeds can be written to concurrently. Each handler must only be used by
+     * one thread at a time. The targets of all the handlers are committed once the consumer has
+     * returned, or all are deleted if the consumer throws.
+     */
+    public void handleMultiple(final String feedName,
+                               final String typeName,
+                               final AttributeMap attributeMap,
+                               final Consumer<Function<String, StreamHandler>> consumer) {
+        final List<StreamTargetStreamHandler> streamHandlers = Collections.synchronizedList(new ArrayList<>());
+        try {
+            final String type = validate(feedName, typeName, attributeMap);
+            consumer.accept(name -> {
+                final StreamTargetStreamHandler streamHandler = createHandler(name, type, attributeMap);
+                streamHandlers.add(streamHandler);
+                return streamHandler;
+            });
+            synchronized (streamHandlers) {
+                for (final StreamTargetStreamHandler streamHandler : streamHandlers) {
+                    streamHandler.close();
+                }
+            }
+        } catch (final RuntimeException e) {
+            synchronized (streamHandlers) {
+                for (final StreamTargetStreamHandler streamHandler : streamHandlers) {
+                    streamHandler.error();
+                }
+            }
+            throw e;
+        }
+    }
+
+    private String validate(final String feedName,
+                            final String typeName,
+                            final AttributeMap attributeMap) {
+        if (feedName == null || feedName.isEmpty()) {
+            throw new StroomStreamException(StroomStatusCode.FEED_MUST_BE_SPECIFIED, attributeMap);
+        }
+
+        String type = typeName;
+        if (type == null || type.isEmpty()) {
+            // If no type name is supplied then get the default for the feed.
+            type = feedProperties.getStreamTypeName(feedName);
+        }
+
+        // Validate the data type name.
+        if (!metaService.getTypes().contains(type)) {
+            throw new StroomStreamException(StroomStatusCode.UNEXPECTED_DATA_TYPE, attributeMap);
+        }
+        return type;
+    }
+
+    private StreamTargetStreamHandler createHandler(final String feedName,
+                                                    final String typeName,
+                                                    final AttributeMap attributeMap) {
+        return new StreamTargetStreamHandler(
+                store,
+                feedProperties,
+                metaDataStatistics,
+                volumeGroupNameProvider,
+                feedName,
+                typeName,
+                attributeMap);
+    }
 }
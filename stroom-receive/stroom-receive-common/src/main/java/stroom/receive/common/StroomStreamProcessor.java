@@ -25,6 +25,7 @@ import stroom.meta.api.AttributeMap;
 import stroom.meta.api.AttributeMapUtil;
 import stroom.meta.api.StandardHeaderArguments;
 import stroom.proxy.StroomStatusCode;
+import stroom.util.concurrent.WorkQueue;
 import stroom.util.exception.ThrowingConsumer;
 import stroom.util.io.ByteCountInputStream;
 
@@ -40,13 +41,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class StroomStreamProcessor {
 
@@ -90,9 +97,124 @@ public class StroomStreamProcessor {
         }
     }
 
+    /**
+     * Process a received zip that has been written to a file, handling the entries for each
+     * target feed in parallel.
+     * <p>
+     * Each base name is assigned to the feed named in its meta (falling back to the supplied feed
+     * name) and all the base names for a feed are given, in zip order, to a single
+     * {@link StreamHandler} obtained from {@code handlerFactory}, so each target only ever has one
+     * writer. The feed groups are processed on {@code executor} using at most {@code maxThreads}
+     * threads. The meta written for each base name is the same as that written by
+     * {@link #processInputStream(InputStream, String)}.
+     * </p>
+     *
+     * @param handlerFactory Supplies a handler for a feed name. Will be called concurrently.
+     */
+    public void processZipFile(final Path zipFilePath,
+                               final String feedName,
+                               final Function<String, StreamHandler> handlerFactory,
+                               final Executor executor,
+                               final int maxThreads) {
+        final Map<String, AttributeMap> headers = new HashMap<>();
+        final Map<String, List<String>> baseNamesByFeed = new LinkedHashMap<>();
+        try (final StroomZipFile stroomZipFile = new StroomZipFile(zipFilePath)) {
+            for (final String baseName : stroomZipFile.getBaseNames()) {
+                final AttributeMap header = createHeader(stroomZipFile, baseName);
+                final String feed = Optional.ofNullable(header.get(StandardHeaderArguments.FEED))
+                        .filter(name -> !name.isBlank())
+                        .orElse(feedName);
+                headers.put(baseName, header);
+                baseNamesByFeed.computeIfAbsent(feed, k -> new ArrayList<>()).add(baseName);
+            }
+
+            if (baseNamesByFeed.isEmpty()) {
+                // A zip with no entries is always 22 bytes in size.
+                if (Files.size(zipFilePath) > 22) {
+                    throw new StroomStreamException(
+                            StroomStatusCode.COMPRESSED_STREAM_INVALID, globalAttributeMap, "No Zip Entries");
+                } else {
+                    LOGGER.warn("processZipFile() - Zip file with no entries! {}", globalAttributeMap);
+                }
+                return;
+            }
+        } catch (final IOException | UncheckedIOException e) {
+            throw new StroomStreamException(
+                    StroomStatusCode.COMPRESSED_STREAM_INVALID, globalAttributeMap, e.getMessage());
+        }
+
+        // Progress is reported from all the workers.
+        final Consumer<Long> syncProgressHandler = bytes -> {
+            synchronized (progressHandler) {
+                progressHandler.accept(bytes);
+            }
+        };
+        final AtomicReference<RuntimeException> firstError = new AtomicReference<>();
+        final int threadCount = Math.max(1, Math.min(maxThreads, baseNamesByFeed.size()));
+        final WorkQueue workQueue = new WorkQueue(executor, threadCount, baseNamesByFeed.size());
+        baseNamesByFeed.forEach((feed, baseNames) -> workQueue.exec(() -> {
+            // Don't bother with the remaining groups if one has already failed.
+            if (firstError.get() == null) {
+                try (final StroomZipFile stroomZipFile = new StroomZipFile(zipFilePath)) {
+                    final StreamHandler feedHandler = handlerFactory.apply(feed);
+                    for (final String baseName : baseNames) {
+                        addEntry(stroomZipFile, baseName, StroomZipFileType.MANIFEST, feedHandler, syncProgressHandler);
+                        sendHeader(StroomZipEntry.createFromBaseName(baseName, StroomZipFileType.META),
+                                headers.get(baseName),
+                                feedHandler,
+                                syncProgressHandler);
+                        addEntry(stroomZipFile, baseName, StroomZipFileType.CONTEXT, feedHandler, syncProgressHandler);
+                        addEntry(stroomZipFile, baseName, StroomZipFileType.DATA, feedHandler, syncProgressHandler);
+                    }
+                } catch (final IOException e) {
+                    firstError.compareAndSet(null, StroomStreamException.create(e, globalAttributeMap));
+                } catch (final RuntimeException e) {
+                    firstError.compareAndSet(null, e);
+                }
+            }
+        }));
+        workQueue.join();
+
+        if (firstError.get() != null) {
+            throw firstError.get();
+        }
+    }
+
+    private AttributeMap createHeader(final StroomZipFile stroomZipFile,
+                                      final String baseName) throws IOException {
+        final AttributeMap entryAttributeMap;
+        try (final InputStream inputStream = stroomZipFile.getInputStream(baseName, StroomZipFileType.META)) {
+            if (inputStream != null) {
+                entryAttributeMap = AttributeMapUtil.mergeAttributeMaps(
+                        globalAttributeMap,
+                        ThrowingConsumer.unchecked(derivedAttributeMap ->
+                                AttributeMapUtil.read(inputStream, derivedAttributeMap)));
+            } else {
+                // Send a generic header.
+                entryAttributeMap = AttributeMapUtil.cloneAllowable(globalAttributeMap);
+            }
+        }
+
+        if (!entryAttributeMap.containsKey(StandardHeaderArguments.STREAM_SIZE)) {
+            final long size = stroomZipFile.getSize(baseName, StroomZipFileType.DATA);
+            if (size >= 0) {
+                entryAttributeMap.put(StandardHeaderArguments.STREAM_SIZE, String.valueOf(size));
+            }
+        }
+        return entryAttributeMap;
+    }
+
     private void addEntry(final StroomZipFile stroomZipFile,
                           final String baseName,
                           final StroomZipFileType stroomZipFileType) throws IOException {
+        addEntry(stroomZipFile, baseName, stroomZipFileType, handler, progressHandler);
+    }
+
+    private void addEntry(final StroomZipFile stroomZipFile,
+                          final String baseName,
+                          final StroomZipFileType stroomZipFileType,
+                          final StreamHandler handler,
+                          final Consumer<Long> progressHandler) throws IOException {
         try (final InputStream inputStream = stroomZipFile.getInputStream(baseName, stroomZipFileType)) {
             if (inputStream != null) {
                 handler.addEntry(
@@ -374,6 +496,13 @@ public class StroomStreamProcessor {
     }
 
     private void sendHeader(final StroomZipEntry stroomZipEntry, final AttributeMap attributeMap) throws IOException {
+        sendHeader(stroomZipEntry, attributeMap, handler, progressHandler);
+    }
+
+    private void sendHeader(final StroomZipEntry stroomZipEntry,
+                            final AttributeMap attributeMap,
+                            final StreamHandler handler,
+                            final Consumer<Long> progressHandler) throws IOException {
         // Try and use the buffer
         final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
         AttributeMapUtil.write(attributeMap, byteArrayOutputStream);
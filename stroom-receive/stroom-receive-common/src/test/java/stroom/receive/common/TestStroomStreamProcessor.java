@@ -23,6 +23,12 @@ import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -358,6 +364,74 @@ class TestStroomStreamProcessor {
 //        doCheckOrder(byteArrayOutputStream, zipFile, true);
 //    }
 
+    @Test
+    void testParallelZipFile() throws IOException {
+        final Path zipFile = Files.createTempFile("test", "zip");
+        try (final ZipArchiveOutputStream zipOutputStream = ZipUtil.createOutputStream(
+                Files.newOutputStream(zipFile))) {
+            addEntry(zipOutputStream, "001.meta", "Feed:FEED_A\n");
+            addEntry(zipOutputStream, "001.dat", "data 1");
+            addEntry(zipOutputStream, "002.meta", "Feed:FEED_B\n");
+            addEntry(zipOutputStream, "002.dat", "data 2");
+            addEntry(zipOutputStream, "003.dat", "data 3");
+            addEntry(zipOutputStream, "004.meta", "Feed:FEED_A\n");
+            addEntry(zipOutputStream, "004.ctx", "context 4");
+            addEntry(zipOutputStream, "004.dat", "data 4");
+        }
+
+        final AttributeMap attributeMap = new AttributeMap();
+        attributeMap.put("TEST", "VALUE");
+        attributeMap.put("Feed", "DEFAULT_FEED");
+
+        final Map<String, List<String>> entriesByFeed = new ConcurrentHashMap<>();
+        final Map<String, String> metaByEntry = new ConcurrentHashMap<>();
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            final StroomStreamProcessor stroomStreamProcessor = new StroomStreamProcessor(
+                    attributeMap,
+                    null,
+                    new ProgressHandler("Test"));
+            stroomStreamProcessor.processZipFile(zipFile, "DEFAULT_FEED", feedName -> {
+                final List<String> entries = new ArrayList<>();
+                assertThat(entriesByFeed.put(feedName, entries))
+                        .isNull();
+                return (entry, inputStream, progressHandler) -> {
+                    final String content = StreamUtil.streamToString(inputStream);
+                    entries.add(entry);
+                    if (entry.endsWith(".meta")) {
+                        metaByEntry.put(entry, content);
+                    }
+                    return content.length();
+                };
+            }, executorService, 2);
+        } finally {
+            executorService.shutdown();
+            Files.deleteIfExists(zipFile);
+        }
+
+        assertThat(entriesByFeed)
+                .containsOnlyKeys("FEED_A", "FEED_B", "DEFAULT_FEED");
+        assertThat(entriesByFeed.get("FEED_A"))
+                .containsExactly("001.meta", "001.dat", "004.meta", "004.ctx", "004.dat");
+        assertThat(entriesByFeed.get("FEED_B"))
+                .containsExactly("002.meta", "002.dat");
+        assertThat(entriesByFeed.get("DEFAULT_FEED"))
+                .containsExactly("003.meta", "003.dat");
+
+        assertThat(metaByEntry.get("001.meta"))
+                .contains("Feed:FEED_A", "TEST:VALUE", "StreamSize:6");
+        assertThat(metaByEntry.get("003.meta"))
+                .contains("Feed:DEFAULT_FEED", "TEST:VALUE", "StreamSize:6");
+    }
+
+    private void addEntry(final ZipArchiveOutputStream zipOutputStream,
+                          final String name,
+                          final String content) throws IOException {
+        zipOutputStream.putArchiveEntry(new ZipArchiveEntry(name));
+        zipOutputStream.write(content.getBytes(StreamUtil.DEFAULT_CHARSET));
+        zipOutputStream.closeArchiveEntry();
+    }
+
     void assertMeta(final StroomZipFile stroomZipFile, final String baseName, final String expectedMeta)
             throws IOException {
         final String fullMeta = StreamUtil.streamToString(stroomZipFile.getInputStream(baseName,
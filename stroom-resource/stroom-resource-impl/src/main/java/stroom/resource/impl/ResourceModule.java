@@ -38,7 +38,8 @@ public class ResourceModule extends AbstractModule {
                         .frequencySchedule("1h"));
 
         LifecycleBinder.create(binder())
-                .bindStartupTaskTo(ResourceStoreStartup.class)
+                // Only clears the temp dir so needs no other task
+                .bindStartupTaskAfter(ResourceStoreStartup.class)
                 .bindShutdownTaskTo(ResourceStoreShutdown.class);
     }
 
@@ -0,0 +1,762 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package stroom.expression.matcher;
+
+import stroom.collection.api.CollectionService;
+import stroom.dictionary.api.WordListProvider;
+import stroom.docref.DocRef;
+import stroom.expression.matcher.ExpressionMatcher.MatchException;
+import stroom.query.api.DateTimeSettings;
+import stroom.query.api.ExpressionItem;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionTerm;
+import stroom.query.api.ExpressionTerm.Condition;
+import stroom.query.api.datasource.FieldType;
+import stroom.query.api.datasource.QueryField;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An expression that has been compiled by {@link ExpressionMatcher#compile(ExpressionItem)} so that
+ * it can be matched against many attribute maps without re-processing the expression each time.
+ * Gives the same results as {@link ExpressionMatcher#match(Map, ExpressionItem)}.
+ * <p>
+ * Fields are resolved and numeric/date values parsed once, wildcard patterns are compiled once and
+ * dictionary and folder contents are loaded into hash sets, so they reflect the dictionary/folder
+ * at the time of compilation. Relative dates, e.g. {@code now()-1d}, are still evaluated on each
+ * match unless the {@link DateTimeSettings} have a reference time.
+ * Terms that are not valid do not fail compilation, they throw when matched, as they would with
+ * {@link ExpressionMatcher}.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public final class CompiledExpressionMatcher {
+
+    private static final String DELIMITER = ",";
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    // Two reference times far enough apart that a relative date will not give the same value for both.
+    private static final long REFERENCE_TIME_1 = 0L;
+    private static final long REFERENCE_TIME_2 = 4_102_444_800_000L;
+
+    private static final CompiledExpressionMatcher MATCH_ALL = new CompiledExpressionMatcher(attributeMap -> true);
+
+    private final Node root;
+
+    private CompiledExpressionMatcher(final Node root) {
+        this.root = root;
+    }
+
+    static CompiledExpressionMatcher create(final ExpressionItem item,
+                                            final Map<String, QueryField> fieldMap,
+                                            final WordListProvider wordListProvider,
+                                            final CollectionService collectionService,
+                                            final DateTimeSettings dateTimeSettings) {
+        // If the initial item is null or not enabled then match everything.
+        if (item == null || !item.enabled()) {
+            return MATCH_ALL;
+        }
+        final Compiler compiler = new Compiler(fieldMap, wordListProvider, collectionService, dateTimeSettings);
+        return new CompiledExpressionMatcher(compiler.compileItem(item));
+    }
+
+    public boolean match(final Map<String, Object> attributeMap) {
+        return root.match(attributeMap);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    private interface Node {
+
+        boolean match(Map<String, Object> attributeMap);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    private interface LongComparison {
+
+        boolean test(long attributeValue, long termValue);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static final class Compiler {
+
+        private final Map<String, QueryField> fieldMap;
+        private final WordListProvider wordListProvider;
+        private final CollectionService collectionService;
+        private final DateTimeSettings dateTimeSettings;
+        private final DateTimeSettings dateTimeSettings1;
+        private final DateTimeSettings dateTimeSettings2;
+
+        private Compiler(final Map<String, QueryField> fieldMap,
+                         final WordListProvider wordListProvider,
+                         final CollectionService collectionService,
+                         final DateTimeSettings dateTimeSettings) {
+            this.fieldMap = fieldMap;
+            this.wordListProvider = wordListProvider;
+            this.collectionService = collectionService;
+            this.dateTimeSettings = dateTimeSettings;
+            if (dateTimeSettings != null && dateTimeSettings.getReferenceTime() == null) {
+                dateTimeSettings1 = dateTimeSettings.copy().referenceTime(REFERENCE_TIME_1).build();
+                dateTimeSettings2 = dateTimeSettings.copy().referenceTime(REFERENCE_TIME_2).build();
+            } else {
+                dateTimeSettings1 = null;
+                dateTimeSettings2 = null;
+            }
+        }
+
+        private Node compileItem(final ExpressionItem item) {
+            if (!item.enabled()) {
+                // If the child item is not enabled then keep trying to match with other parts of the expression.
+                return attributeMap -> true;
+            }
+
+            if (item instanceof final ExpressionOperator operator) {
+                return compileOperator(operator);
+            } else if (item instanceof final ExpressionTerm term) {
+                return compileTerm(term);
+            } else {
+                return fail("Unexpected item type");
+            }
+        }
+
+        private Node compileOperator(final ExpressionOperator operator) {
+            if (!operator.hasEnabledChildren()) {
+                return attributeMap -> true;
+            }
+            final Node[] children = operator.getEnabledChildren()
+                    .stream()
+                    .map(this::compileItem)
+                    .toArray(Node[]::new);
+            return switch (operator.op()) {
+                case AND -> {
+                    if (children.length == 1) {
+                        yield children[0];
+                    }
+                    yield attributeMap -> {
+                        for (final Node child : children) {
+                            if (!child.match(attributeMap)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    };
+                }
+                case OR -> {
+                    if (children.length == 1) {
+                        yield children[0];
+                    }
+                    yield attributeMap -> {
+                        for (final Node child : children) {
+                            if (child.match(attributeMap)) {
+                                return true;
+                            }
+                        }
+                        return false;
+                    };
+                }
+                case NOT -> {
+                    if (children.length != 1) {
+                        yield attributeMap -> false;
+                    }
+                    final Node child = children[0];
+                    yield attributeMap -> !child.match(attributeMap);
+                }
+            };
+        }
+
+        private Node compileTerm(final ExpressionTerm term) {
+            // Attributes are looked up with the field name as it was entered.
+            final String attributeKey = term.getField();
+            final String termField = term.getField() != null
+                    ? term.getField().trim()
+                    : null;
+            final String termValue = term.getValue() != null
+                    ? term.getValue().trim()
+                    : null;
+            final Condition condition = term.getCondition();
+            final DocRef docRef = term.getDocRef();
+
+            // Try and find the referenced field.
+            if (termField == null || termField.isEmpty()) {
+                return fail("Field not set");
+            }
+            final QueryField field = fieldMap.get(termField);
+            if (field == null) {
+                return fail("Field not found in index: " + termField);
+            }
+
+            // Ensure an appropriate termValue has been provided for the condition type.
+            if (Condition.IN_DICTIONARY.equals(condition) ||
+                Condition.IN_FOLDER.equals(condition) ||
+                Condition.IS_DOC_REF.equals(condition) ||
+                Condition.OF_DOC_REF.equals(condition)) {
+                if (docRef == null || docRef.getUuid() == null) {
+                    return fail("DocRef not set for field: " + termField);
+                }
+            } else {
+                if (termValue == null || termValue.isEmpty()) {
+                    return fail("Value not set");
+                }
+            }
+
+            if (Condition.IS_NULL.equals(condition)) {
+                return attributeMap -> attributeMap.get(attributeKey) == null;
+            } else if (Condition.IS_NOT_NULL.equals(condition)) {
+                return attributeMap -> attributeMap.get(attributeKey) != null;
+            }
+
+            final Predicate<Object> predicate;
+            if (field.isNumeric()) {
+                predicate = compileNumericTerm(field, condition, termValue, docRef);
+            } else if (FieldType.DATE.equals(field.getFldType())) {
+                predicate = compileDateTerm(field, condition, termValue, docRef);
+            } else {
+                predicate = compileStringTerm(field, condition, termValue, docRef);
+            }
+
+            return attributeMap -> {
+                final Object attribute = attributeMap.get(attributeKey);
+                if (attribute == null) {
+                    throw new MatchException("Attribute '" + attributeKey + "' not found");
+                }
+                return predicate.test(attribute);
+            };
+        }
+
+        private Predicate<Object> compileNumericTerm(final QueryField field,
+                                                     final Condition condition,
+                                                     final String termValue,
+                                                     final DocRef docRef) {
+            final String fieldName = field.getFldName();
+            final ToLongFunction<Object> attributeParser = attribute ->
+                    ExpressionMatcher.getNumber(fieldName, attribute);
+            return switch (condition) {
+                case EQUALS, CONTAINS -> compare(attributeParser, numberOperand(fieldName, termValue),
+                        (num1, num2) -> num1 == num2);
+                case NOT_EQUALS -> compare(attributeParser, numberOperand(fieldName, termValue),
+                        (num1, num2) -> num1 != num2);
+                case GREATER_THAN -> compare(attributeParser, numberOperand(fieldName, termValue),
+                        (num1, num2) -> num1 > num2);
+                case GREATER_THAN_OR_EQUAL_TO -> compare(attributeParser, numberOperand(fieldName, termValue),
+                        (num1, num2) -> num1 >= num2);
+                case LESS_THAN -> compare(attributeParser, numberOperand(fieldName, termValue),
+                        (num1, num2) -> num1 < num2);
+                case LESS_THAN_OR_EQUAL_TO -> compare(attributeParser, numberOperand(fieldName, termValue),
+                        (num1, num2) -> num1 <= num2);
+                case BETWEEN -> between(attributeParser, numberOperands(fieldName, termValue),
+                        "2 numbers needed for between query",
+                        "From number must lower than to number");
+                case IN -> in(attributeParser, numberOperands(fieldName, termValue));
+                case IN_DICTIONARY -> inLongDictionary(attributeParser, docRef, line ->
+                        numberOperands(fieldName, line));
+                case IN_FOLDER -> inFolder(field, docRef);
+                default -> unexpectedCondition(field, condition);
+            };
+        }
+
+        private Predicate<Object> compileDateTerm(final QueryField field,
+                                                  final Condition condition,
+                                                  final String termValue,
+                                                  final DocRef docRef) {
+            final String fieldName = field.getFldName();
+            final ToLongFunction<Object> attributeParser = attribute ->
+                    ExpressionMatcher.getDate(fieldName, attribute, dateTimeSettings);
+            return switch (condition) {
+                case EQUALS, CONTAINS -> compare(attributeParser, dateOperand(fieldName, termValue),
+                        (date1, date2) -> date1 == date2);
+                case NOT_EQUALS -> compare(attributeParser, dateOperand(fieldName, termValue),
+                        (date1, date2) -> date1 != date2);
+                case GREATER_THAN -> compare(attributeParser, dateOperand(fieldName, termValue),
+                        (date1, date2) -> date1 > date2);
+                case GREATER_THAN_OR_EQUAL_TO -> compare(attributeParser, dateOperand(fieldName, termValue),
+                        (date1, date2) -> date1 >= date2);
+                case LESS_THAN -> compare(attributeParser, dateOperand(fieldName, termValue),
+                        (date1, date2) -> date1 < date2);
+                case LESS_THAN_OR_EQUAL_TO -> compare(attributeParser, dateOperand(fieldName, termValue),
+                        (date1, date2) -> date1 <= date2);
+                case BETWEEN -> between(attributeParser, dateOperands(fieldName, termValue),
+                        "2 dates needed for between query",
+                        "From date must occur before to date");
+                case IN -> in(attributeParser, dateOperands(fieldName, termValue));
+                case IN_DICTIONARY -> inLongDictionary(attributeParser, docRef, line ->
+                        dateOperands(fieldName, line));
+                case IN_FOLDER -> inFolder(field, docRef);
+                default -> unexpectedCondition(field, condition);
+            };
+        }
+
+        private Predicate<Object> compileStringTerm(final QueryField field,
+                                                    final Condition condition,
+                                                    final String termValue,
+                                                    final DocRef docRef) {
+            return switch (condition) {
+                case EQUALS, CONTAINS -> {
+                    final WordMatcher wordMatcher = WordMatcher.create(List.of(termValue));
+                    yield wordMatcher::matches;
+                }
+                case NOT_EQUALS -> {
+                    final WordMatcher wordMatcher = WordMatcher.create(List.of(termValue));
+                    yield attribute -> !wordMatcher.matches(attribute);
+                }
+                case IN -> {
+                    final WordMatcher wordMatcher = WordMatcher.create(Arrays.asList(termValue.split(" ")));
+                    yield wordMatcher::matches;
+                }
+                case IN_DICTIONARY -> inStringDictionary(docRef);
+                case IN_FOLDER -> inFolder(field, docRef);
+                case IS_DOC_REF -> attribute -> {
+                    if (attribute instanceof final DocRef attributeDocRef) {
+                        final String uuid = attributeDocRef.getUuid();
+                        return (null != uuid && uuid.equals(docRef.getUuid()));
+                    } else if (attribute instanceof String) {
+                        // Trying to compare a string to a docRef so assume the string is EITHER the uuid or the name
+                        return Objects.equals(docRef.getName(), attribute)
+                               || Objects.equals(docRef.getUuid(), attribute);
+                    }
+                    return false;
+                };
+                default -> attribute -> {
+                    if (attribute instanceof final TermMatcher termMatcher) {
+                        return termMatcher.match(field, condition, termValue, docRef);
+                    }
+                    throw new MatchException("Unexpected condition '" + condition.getDisplayValue() + "' for "
+                                             + field.getFldType() + " field type");
+                };
+            };
+        }
+
+        private Predicate<Object> compare(final ToLongFunction<Object> attributeParser,
+                                          final LongOperand operand,
+                                          final LongComparison comparison) {
+            return attribute -> comparison.test(attributeParser.applyAsLong(attribute), operand.get());
+        }
+
+        private Predicate<Object> between(final ToLongFunction<Object> attributeParser,
+                                          final LongOperands operands,
+                                          final String countMessage,
+                                          final String orderMessage) {
+            return attribute -> {
+                final long[] between = operands.get();
+                if (between.length != 2) {
+                    throw new MatchException(countMessage);
+                }
+                if (between[0] >= between[1]) {
+                    throw new MatchException(orderMessage);
+                }
+                final long num = attributeParser.applyAsLong(attribute);
+                return num >= between[0] && num <= between[1];
+            };
+        }
+
+        private Predicate<Object> in(final ToLongFunction<Object> attributeParser,
+                                     final LongOperands operands) {
+            return attribute -> operands.contains(attributeParser.applyAsLong(attribute));
+        }
+
+        private Predicate<Object> inLongDictionary(final ToLongFunction<Object> attributeParser,
+                                                   final DocRef docRef,
+                                                   final Function<String, LongOperands> lineParser) {
+            final String[] lines;
+            try {
+                lines = loadWords(docRef);
+            } catch (final RuntimeException e) {
+                return attribute -> {
+                    throw e;
+                };
+            }
+            if (lines == null || lines.length == 0) {
+                return attribute -> false;
+            }
+
+            // Lines are checked in order and a line that can't be parsed throws, so only lines
+            // before the first bad line can match.
+            final Set<Long> values = new HashSet<>();
+            final List<LongOperands> relativeLines = new ArrayList<>();
+            String failure = null;
+            for (final String line : lines) {
+                final LongOperands operands = lineParser.apply(line);
+                failure = operands.getFailure();
+                if (failure != null) {
+                    break;
+                } else if (operands.isConstant()) {
+                    for (final long value : operands.get()) {
+                        values.add(value);
+                    }
+                } else {
+                    relativeLines.add(operands);
+                }
+            }
+            final String firstFailure = failure;
+            return attribute -> {
+                final long num = attributeParser.applyAsLong(attribute);
+                if (values.contains(num)) {
+                    return true;
+                }
+                for (final LongOperands operands : relativeLines) {
+                    if (operands.contains(num)) {
+                        return true;
+                    }
+                }
+                if (firstFailure != null) {
+                    throw new MatchException(firstFailure);
+                }
+                return false;
+            };
+        }
+
+        private Predicate<Object> inStringDictionary(final DocRef docRef) {
+            final String[] lines;
+            try {
+                lines = loadWords(docRef);
+            } catch (final RuntimeException e) {
+                return attribute -> {
+                    throw e;
+                };
+            }
+            if (lines == null || lines.length == 0) {
+                return attribute -> false;
+            }
+
+            final List<String> words = new ArrayList<>();
+            for (final String line : lines) {
+                words.addAll(Arrays.asList(line.split(" ")));
+            }
+            final WordMatcher wordMatcher = WordMatcher.create(words);
+            return wordMatcher::matches;
+        }
+
+        private Predicate<Object> inFolder(final QueryField field, final DocRef docRef) {
+            if (!FieldType.DOC_REF.equals(field.getFldType())) {
+                return attribute -> false;
+            }
+            final String type = field.getDocRefType();
+            if (type == null || collectionService == null) {
+                return attribute -> false;
+            }
+
+            final Set<String> uuids = new HashSet<>();
+            try {
+                final Set<DocRef> descendants = collectionService.getDescendants(docRef, type);
+                if (descendants != null) {
+                    for (final DocRef descendant : descendants) {
+                        if (descendant.getUuid() != null) {
+                            uuids.add(descendant.getUuid());
+                        }
+                    }
+                }
+            } catch (final RuntimeException e) {
+                return attribute -> {
+                    throw e;
+                };
+            }
+            return attribute -> attribute instanceof final DocRef attributeDocRef
+                                && attributeDocRef.getUuid() != null
+                                && uuids.contains(attributeDocRef.getUuid());
+        }
+
+        private Predicate<Object> unexpectedCondition(final QueryField field, final Condition condition) {
+            final String message = "Unexpected condition '" + condition.getDisplayValue() + "' for "
+                                   + field.getFldType() + " field type";
+            return attribute -> {
+                throw new MatchException(message);
+            };
+        }
+
+        private String[] loadWords(final DocRef docRef) {
+            if (wordListProvider == null) {
+                return null;
+            }
+            return wordListProvider.getWords(docRef);
+        }
+
+        private LongOperand numberOperand(final String fieldName, final String value) {
+            try {
+                return LongOperand.constant(ExpressionMatcher.getNumber(fieldName, value));
+            } catch (final MatchException e) {
+                return LongOperand.failed(e.getMessage());
+            }
+        }
+
+        private LongOperands numberOperands(final String fieldName, final String value) {
+            final String[] values = value.split(DELIMITER);
+            final LongOperand[] operands = new LongOperand[values.length];
+            for (int i = 0; i < values.length; i++) {
+                operands[i] = numberOperand(fieldName, values[i].trim());
+            }
+            return new LongOperands(operands);
+        }
+
+        private LongOperand dateOperand(final String fieldName, final String value) {
+            try {
+                if (dateTimeSettings1 == null) {
+                    // The reference time is fixed so every date is constant.
+                    return LongOperand.constant(ExpressionMatcher.getDate(fieldName, value, dateTimeSettings));
+                }
+                // If the date is the same for two different reference times then it is not relative.
+                final long date1 = ExpressionMatcher.getDate(fieldName, value, dateTimeSettings1);
+                final long date2 = ExpressionMatcher.getDate(fieldName, value, dateTimeSettings2);
+                if (date1 == date2) {
+                    return LongOperand.constant(date1);
+                }
+                return LongOperand.relative(() -> ExpressionMatcher.getDate(fieldName, value, dateTimeSettings));
+            } catch (final MatchException e) {
+                return LongOperand.failed(e.getMessage());
+            }
+        }
+
+        private LongOperands dateOperands(final String fieldName, final String value) {
+            final String[] values = value.split(DELIMITER);
+            final LongOperand[] operands = new LongOperand[values.length];
+            for (int i = 0; i < values.length; i++) {
+                operands[i] = dateOperand(fieldName, values[i].trim());
+            }
+            return new LongOperands(operands);
+        }
+
+        private static Node fail(final String message) {
+            return attributeMap -> {
+                throw new MatchException(message);
+            };
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A numeric or date term value that is either a constant, a relative date that must be
+     * evaluated each time or a value that could not be parsed.
+     */
+    private record LongOperand(long value, LongSupplier supplier, String failure) {
+
+        static LongOperand constant(final long value) {
+            return new LongOperand(value, null, null);
+        }
+
+        static LongOperand relative(final LongSupplier supplier) {
+            return new LongOperand(0, supplier, null);
+        }
+
+        static LongOperand failed(final String failure) {
+            return new LongOperand(0, null, failure);
+        }
+
+        boolean isConstant() {
+            return supplier == null && failure == null;
+        }
+
+        long get() {
+            if (failure != null) {
+                throw new MatchException(failure);
+            } else if (supplier != null) {
+                return supplier.getAsLong();
+            }
+            return value;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A delimited list of numeric or date term values.
+     */
+    private static final class LongOperands {
+
+        private final LongOperand[] operands;
+        // Only set if all operands are constant.
+        private final long[] values;
+        private final long[] sortedValues;
+
+        private LongOperands(final LongOperand[] operands) {
+            this.operands = operands;
+            if (Arrays.stream(operands).allMatch(LongOperand::isConstant)) {
+                values = Arrays.stream(operands).mapToLong(LongOperand::value).toArray();
+                sortedValues = values.clone();
+                Arrays.sort(sortedValues);
+            } else {
+                values = null;
+                sortedValues = null;
+            }
+        }
+
+        boolean isConstant() {
+            return values != null;
+        }
+
+        String getFailure() {
+            for (final LongOperand operand : operands) {
+                if (operand.failure() != null) {
+                    return operand.failure();
+                }
+            }
+            return null;
+        }
+
+        long[] get() {
+            if (values != null) {
+                return values;
+            }
+            final long[] arr = new long[operands.length];
+            for (int i = 0; i < operands.length; i++) {
+                arr[i] = operands[i].get();
+            }
+            return arr;
+        }
+
+        boolean contains(final long value) {
+            if (sortedValues != null) {
+                return Arrays.binarySearch(sortedValues, value) >= 0;
+            }
+            for (final long n : get()) {
+                if (n == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Matches attributes against a list of words that may contain '*' wildcards or regex. Words
+     * without any special characters are held in a hash set of lower case words. The matching is
+     * case-insensitive for ASCII characters only, as with {@link Pattern#CASE_INSENSITIVE}.
+     */
+    private static final class WordMatcher {
+
+        private final Set<String> literalWords;
+        private final Pattern[] patterns;
+        private final PatternSyntaxException failure;
+
+        private WordMatcher(final Set<String> literalWords,
+                            final Pattern[] patterns,
+                            final PatternSyntaxException failure) {
+            this.literalWords = literalWords;
+            this.patterns = patterns;
+            this.failure = failure;
+        }
+
+        static WordMatcher create(final List<String> words) {
+            final Set<String> literalWords = new HashSet<>();
+            final List<Pattern> patterns = new ArrayList<>();
+            PatternSyntaxException failure = null;
+            for (final String word : words) {
+                if (isLiteral(word)) {
+                    literalWords.add(toAsciiLowerCase(word));
+                } else {
+                    try {
+                        patterns.add(Pattern.compile(word.replaceAll("\\*", ".*"), Pattern.CASE_INSENSITIVE));
+                    } catch (final PatternSyntaxException e) {
+                        // Words are tried in order so no later word can match.
+                        failure = e;
+                        break;
+                    }
+                }
+            }
+            return new WordMatcher(literalWords, patterns.toArray(new Pattern[0]), failure);
+        }
+
+        boolean matches(final Object attribute) {
+            if (matchesAttribute(attribute)) {
+                return true;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+
+        private boolean matchesAttribute(final Object attribute) {
+            if (attribute instanceof final DocRef docRef) {
+                return matchesString(docRef.getUuid()) || matchesString(docRef.getName());
+            } else if (attribute instanceof final Collection<?> collection) {
+                for (final Object o : collection) {
+                    if (matchesAttribute(o)) {
+                        return true;
+                    }
+                }
+            }
+            return matchesString(attribute.toString());
+        }
+
+        private boolean matchesString(final String value) {
+            if (!literalWords.isEmpty() && literalWords.contains(toAsciiLowerCase(value))) {
+                return true;
+            }
+            for (final Pattern pattern : patterns) {
+                if (pattern.matcher(value).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isLiteral(final String word) {
+            for (int i = 0; i < word.length(); i++) {
+                if (REGEX_META_CHARS.indexOf(word.charAt(i)) != -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String toAsciiLowerCase(final String value) {
+            for (int i = 0; i < value.length(); i++) {
+                final char c = value.charAt(i);
+                if (c >= 'A' && c <= 'Z') {
+                    final char[] chars = value.toCharArray();
+                    for (int j = i; j < chars.length; j++) {
+                        if (chars[j] >= 'A' && chars[j] <= 'Z') {
+                            chars[j] = (char) (chars[j] + ('a' - 'A'));
+                        }
+                    }
+                    return new String(chars);
+                }
+            }
+            return value;
+        }
+    }
+}
@@ -66,6 +66,14 @@ public class ExpressionMatcher {
         this.dateTimeSettings = dateTimeSettings;
     }
 
+    /**
+     * Compile the expression so that it can be matched against many attribute maps, by many
+     * threads, without re-processing the expression for each match.
+     */
+    public CompiledExpressionMatcher compile(final ExpressionItem item) {
+        return CompiledExpressionMatcher.create(item, fieldMap, wordListProvider, collectionService, dateTimeSettings);
+    }
+
     public boolean match(final Map<String, Object> attributeMap, final ExpressionItem item) {
         // If the initial item is null or not enabled then don't match.
         if (item == null || !item.enabled()) {
@@ -227,33 +235,33 @@ public class ExpressionMatcher {
         } else if (FieldType.DATE.equals(field.getFldType())) {
             switch (condition) {
                 case EQUALS, CONTAINS: {
-                    final long date1 = getDate(fieldName, attribute);
-                    final long date2 = getDate(fieldName, termValue);
+                    final long date1 = getDate(fieldName, attribute, dateTimeSettings);
+                    final long date2 = getDate(fieldName, termValue, dateTimeSettings);
                     return date1 == date2;
                 }
                 case NOT_EQUALS: {
-                    final long date1 = getDate(fieldName, attribute);
-                    final long date2 = getDate(fieldName, termValue);
+                    final long date1 = getDate(fieldName, attribute, dateTimeSettings);
+                    final long date2 = getDate(fieldName, termValue, dateTimeSettings);
                     return date1 != date2;
                 }
                 case GREATER_THAN: {
-                    final long date1 = getDate(fieldName, attribute);
-                    final long date2 = getDate(fieldName, termValue);
+                    final long date1 = getDate(fieldName, attribute, dateTimeSettings);
+                    final long date2 = getDate(fieldName, termValue, dateTimeSettings);
                     return date1 > date2;
                 }
                 case GREATER_THAN_OR_EQUAL_TO: {
-                    final long date1 = getDate(fieldName, attribute);
-                    final long date2 = getDate(fieldName, termValue);
+                    final long date1 = getDate(fieldName, attribute, dateTimeSettings);
+                    final long date2 = getDate(fieldName, termValue, dateTimeSettings);
                     return date1 >= date2;
                 }
                 case LESS_THAN: {
-                    final long date1 = getDate(fieldName, attribute);
-                    final long date2 = getDate(fieldName, termValue);
+                    final long date1 = getDate(fieldName, attribute, dateTimeSettings);
+                    final long date2 = getDate(fieldName, termValue, dateTimeSettings);
                     return date1 < date2;
                 }
                 case LESS_THAN_OR_EQUAL_TO: {
-                    final long date1 = getDate(fieldName, attribute);
-                    final long date2 = getDate(fieldName, termValue);
+                    final long date1 = getDate(fieldName, attribute, dateTimeSettings);
+                    final long date2 = getDate(fieldName, termValue, dateTimeSettings);
                     return date1 <= date2;
                 }
                 case BETWEEN: {
@@ -264,7 +272,7 @@ public class ExpressionMatcher {
                     if (between[0] >= between[1]) {
                         throw new MatchException("From date must occur before to date");
                     }
-                    final long num = getDate(fieldName, attribute);
+                    final long num = getDate(fieldName, attribute, dateTimeSettings);
                     return num >= between[0] && num <= between[1];
                 }
                 case IN:
@@ -317,7 +325,7 @@ public class ExpressionMatcher {
     }
 
     private boolean isDateIn(final String fieldName, final Object termValue, final Object attribute) {
-        final long num = getDate(fieldName, attribute);
+        final long num = getDate(fieldName, attribute, dateTimeSettings);
         final long[] in = getDates(fieldName, termValue);
         if (in != null) {
             for (final long n : in) {
@@ -437,7 +445,7 @@ public class ExpressionMatcher {
         });
     }
 
-    private long getDate(final String fieldName, final Object value) {
+    static long getDate(final String fieldName, final Object value, final DateTimeSettings dateTimeSettings) {
         try {
             if (value instanceof Long) {
                 return (Long) value;
@@ -457,13 +465,13 @@ public class ExpressionMatcher {
         final String[] values = value.toString().split(DELIMITER);
         final long[] dates = new long[values.length];
         for (int i = 0; i < values.length; i++) {
-            dates[i] = getDate(fieldName, values[i].trim());
+            dates[i] = getDate(fieldName, values[i].trim(), dateTimeSettings);
         }
 
         return dates;
     }
 
-    private long getNumber(final String fieldName, final Object value) {
+    static long getNumber(final String fieldName, final Object value) {
         try {
             if (value instanceof Long) {
                 return (Long) value;
@@ -489,7 +497,7 @@ public class ExpressionMatcher {
     // --------------------------------------------------------------------------------
 
 
-    private static class MatchException extends RuntimeException {
+    static class MatchException extends RuntimeException {
 
         MatchException(final String message) {
             super(message);
@@ -20,6 +20,7 @@ import stroom.data.shared.StreamTypeNames;
 import stroom.dictionary.api.WordListProvider;
 import stroom.dictionary.shared.DictionaryDoc;
 import stroom.docref.DocRef;
+import stroom.expression.matcher.ExpressionMatcher.MatchException;
 import stroom.query.api.DateTimeSettings;
 import stroom.query.api.ExpressionOperator;
 import stroom.query.api.ExpressionOperator.Op;
@@ -37,10 +38,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -57,6 +61,8 @@ class TestExpressionMatcher {
     public static final QueryField FEED = QueryField.createDocRefByUniqueName("Feed", "Feed");
     private static final QueryField TYPE = QueryField.createText("Type");
     private static final QueryField FRUIT = QueryField.createText("Fruit");
+    private static final QueryField SIZE = QueryField.createLong("Size");
+    private static final QueryField CREATED = QueryField.createDate("Created");
     private static final Map<String, QueryField> FIELD_MAP = Map.of(
             FEED.getFldName(),
             FEED,
@@ -197,6 +203,8 @@ class TestExpressionMatcher {
                 expression);
         assertThat(match)
                 .isTrue();
+        assertThat(expressionMatcher.compile(expression).match(Map.of(FRUIT.getFldName(), "orange")))
+                .isTrue();
 
         // This probably ought to work, but stroom.expression.matcher.ExpressionMatcher#isIn
         // is splitting dictionary lines on spaces
@@ -207,6 +215,133 @@ class TestExpressionMatcher {
 //                .isTrue();
     }
 
+    @TestFactory
+    List<DynamicTest> testCompiledMatchesInterpreted() {
+        final ExpressionMatcher expressionMatcher = new ExpressionMatcher(
+                Map.of(SIZE.getFldName(), SIZE,
+                        CREATED.getFldName(), CREATED,
+                        FRUIT.getFldName(), FRUIT),
+                null,
+                null,
+                DateTimeSettings.builder()
+                        .timeZone(UserTimeZone.utc())
+                        .build());
+        final long date = Instant.parse("2020-01-01T00:00:00Z").toEpochMilli();
+        final List<TermCase> cases = List.of(
+                new TermCase(SIZE, Condition.EQUALS, "10", 10L, true),
+                new TermCase(SIZE, Condition.EQUALS, "10", "10", true),
+                new TermCase(SIZE, Condition.EQUALS, "10", "x", MatchException.class),
+                new TermCase(SIZE, Condition.EQUALS, "x", 10L, MatchException.class),
+                new TermCase(SIZE, Condition.GREATER_THAN, " 5 ", 10L, true),
+                new TermCase(SIZE, Condition.LESS_THAN_OR_EQUAL_TO, "5", 10L, false),
+                new TermCase(SIZE, Condition.BETWEEN, "1,20", 10L, true),
+                new TermCase(SIZE, Condition.BETWEEN, "20,1", 10L, MatchException.class),
+                new TermCase(SIZE, Condition.BETWEEN, "1", 10L, MatchException.class),
+                new TermCase(SIZE, Condition.IN, "1, 10, 3", 10L, true),
+                new TermCase(SIZE, Condition.IN, "1,2", 10L, false),
+                new TermCase(SIZE, Condition.IN, "10,x", 10L, MatchException.class),
+                new TermCase(SIZE, Condition.IS_DOC_REF, "10", 10L, MatchException.class),
+                new TermCase(CREATED, Condition.EQUALS, "2020-01-01T00:00:00.000Z", date, true),
+                new TermCase(CREATED, Condition.IN, "2020-01-01T00:00:00.000Z,2021-01-01T00:00:00.000Z", date, true),
+                new TermCase(CREATED, Condition.LESS_THAN, "now()", date, true),
+                new TermCase(CREATED, Condition.GREATER_THAN, "now()-1d", date, false),
+                new TermCase(CREATED, Condition.BETWEEN, "2019-01-01T00:00:00.000Z,now()", date, true),
+                new TermCase(CREATED, Condition.EQUALS, "not a date", date, MatchException.class),
+                new TermCase(FRUIT, Condition.EQUALS, "APPLE", "apple", true),
+                new TermCase(FRUIT, Condition.EQUALS, "app*", "Apple", true),
+                new TermCase(FRUIT, Condition.EQUALS, "ban", "banana", false),
+                new TermCase(FRUIT, Condition.EQUALS, "(", "apple", PatternSyntaxException.class),
+                new TermCase(FRUIT, Condition.EQUALS, "apple", List.of("pear", "apple"), true),
+                new TermCase(FRUIT, Condition.EQUALS, "apple", null, MatchException.class),
+                new TermCase(FRUIT, Condition.NOT_EQUALS, "apple", "pear", true),
+                new TermCase(FRUIT, Condition.IN, "pear apple", "apple", true),
+                new TermCase(FRUIT, Condition.IN, "pear ban*", "banana", true),
+                new TermCase(FRUIT, Condition.IN, "apple (", "apple", true),
+                new TermCase(FRUIT, Condition.IN, "( apple", "apple", PatternSyntaxException.class),
+                new TermCase(FRUIT, Condition.IS_NULL, "x", null, true),
+                new TermCase(FRUIT, Condition.IS_NOT_NULL, "x", null, false),
+                new TermCase(FRUIT, Condition.EQUALS, "", "apple", MatchException.class),
+                new TermCase(TYPE, Condition.EQUALS, "apple", "apple", MatchException.class));
+
+        return cases.stream()
+                .map(termCase -> DynamicTest.dynamicTest(termCase.toString(), () -> {
+                    final ExpressionOperator expression = ExpressionOperator.builder()
+                            .addTerm(termCase.field().getFldName(), termCase.condition(), termCase.value())
+                            .build();
+                    final Map<String, Object> attributeMap = new HashMap<>();
+                    attributeMap.put(termCase.field().getFldName(), termCase.attribute());
+
+                    assertThat(getOutcome(() -> expressionMatcher.match(attributeMap, expression)))
+                            .isEqualTo(termCase.expected());
+                    assertThat(getOutcome(() -> expressionMatcher.compile(expression).match(attributeMap)))
+                            .isEqualTo(termCase.expected());
+                }))
+                .toList();
+    }
+
+    @Test
+    void testCompiledInDictionary() {
+        final DocRef numbersDocRef = DictionaryDoc.buildDocRef()
+                .randomUuid()
+                .name("numbers")
+                .build();
+        final DocRef fruitDocRef = DictionaryDoc.buildDocRef()
+                .randomUuid()
+                .name("fruit")
+                .build();
+        Mockito.when(mockWordListProvider.getWords(Mockito.eq(numbersDocRef)))
+                .thenReturn(new String[]{"1,2", "3", "x", "4"});
+        Mockito.when(mockWordListProvider.getWords(Mockito.eq(fruitDocRef)))
+                .thenReturn(new String[]{"apple ban*", "kiwi fruit", "("});
+
+        final ExpressionMatcher expressionMatcher = new ExpressionMatcher(
+                Map.of(SIZE.getFldName(), SIZE, FRUIT.getFldName(), FRUIT),
+                mockWordListProvider,
+                null,
+                DateTimeSettings.builder().build());
+        final CompiledExpressionMatcher numbers = expressionMatcher.compile(ExpressionOperator.builder()
+                .addTerm(ExpressionTerm.builder()
+                        .field(SIZE.getFldName())
+                        .condition(Condition.IN_DICTIONARY)
+                        .docRef(numbersDocRef)
+                        .build())
+                .build());
+        final CompiledExpressionMatcher fruit = expressionMatcher.compile(ExpressionOperator.builder()
+                .addTerm(ExpressionTerm.builder()
+                        .field(FRUIT.getFldName())
+                        .condition(Condition.IN_DICTIONARY)
+                        .docRef(fruitDocRef)
+                        .build())
+                .build());
+
+        assertThat(numbers.match(Map.of(SIZE.getFldName(), 3L)))
+                .isTrue();
+        assertThat(numbers.match(Map.of(SIZE.getFldName(), "1")))
+                .isTrue();
+        // The bad line comes before 4 so it is never reached
+        assertThat(getOutcome(() -> numbers.match(Map.of(SIZE.getFldName(), 4L))))
+                .isEqualTo(MatchException.class);
+
+        assertThat(fruit.match(Map.of(FRUIT.getFldName(), "BANANA")))
+                .isTrue();
+        assertThat(fruit.match(Map.of(FRUIT.getFldName(), "fruit")))
+                .isTrue();
+        assertThat(getOutcome(() -> fruit.match(Map.of(FRUIT.getFldName(), "pear"))))
+                .isEqualTo(PatternSyntaxException.class);
+
+        // Dictionaries are loaded once when compiled
+        Mockito.verify(mockWordListProvider, Mockito.times(1)).getWords(numbersDocRef);
+        Mockito.verify(mockWordListProvider, Mockito.times(1)).getWords(fruitDocRef);
+    }
+
+    private static Object getOutcome(final Supplier<Boolean> supplier) {
+        try {
+            return supplier.get();
+        } catch (final RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
     private void test(final Map<String, Object> attributeMap,
                       final ExpressionOperator expression,
                       final boolean outcome) {
@@ -217,6 +352,8 @@ class TestExpressionMatcher {
                 DateTimeSettings.builder().build());
         assertThat(expressionMatcher.match(attributeMap, expression))
                 .isEqualTo(outcome);
+        assertThat(expressionMatcher.compile(expression).match(attributeMap))
+                .isEqualTo(outcome);
     }
 
     private ExpressionOperator createExpression(final Op op, final String feedName) {
@@ -231,4 +368,12 @@ class TestExpressionMatcher {
         attributeMap.put(TYPE.getFldName(), StreamTypeNames.RAW_EVENTS);
         return attributeMap;
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record TermCase(QueryField field, Condition condition, String value, Object attribute, Object expected) {
+
+    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.elastic.indexing;
+
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import org.elasticsearch.client.ResponseException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends bulk indexing requests to Elasticsearch asynchronously, allowing up to
+ * {@code maxConcurrentRequests} requests to be in flight at once.
+ * <p>
+ * Callers block in {@link #submit(List)} once the limit is reached, so the pipeline is throttled
+ * to the rate Elasticsearch can accept. Items rejected with HTTP 429 (Too Many Requests) are retried
+ * on their own after a back-off delay, so documents that were accepted are never indexed twice.
+ * Any other failure is held and re-thrown on the calling thread by the next call to
+ * {@link #submit(List)} or {@link #awaitCompletion()}, so it can be reported against the pipeline.
+ */
+class ElasticBulkProcessor {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ElasticBulkProcessor.class);
+
+    private final Executor executor;
+    private final BulkSender bulkSender;
+    private final int maxConcurrentRequests;
+    private final int retryCount;
+    private final long initialRetryBackoffPeriodMs;
+    private final Semaphore inFlightPermits;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong indexedCount = new AtomicLong();
+    private final AtomicLong retryTotal = new AtomicLong();
+
+    ElasticBulkProcessor(final Executor executor,
+                         final BulkSender bulkSender,
+                         final int maxConcurrentRequests,
+                         final int retryCount,
+                         final long initialRetryBackoffPeriodMs) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be at least 1");
+        }
+        this.executor = executor;
+        this.bulkSender = bulkSender;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.retryCount = retryCount;
+        this.initialRetryBackoffPeriodMs = initialRetryBackoffPeriodMs;
+        this.inFlightPermits = new Semaphore(maxConcurrentRequests);
+    }
+
+    /**
+     * Queue a batch of operations for sending. Blocks while the maximum number of requests are
+     * already in flight.
+     *
+     * @throws BulkIndexingException If a previously submitted batch has failed.
+     */
+    void submit(final List<BulkOperation> operations) {
+        checkFailure();
+        if (operations.isEmpty()) {
+            return;
+        }
+
+        // Take a copy as the caller is free to reuse its list once we return.
+        final List<BulkOperation> batch = new ArrayList<>(operations);
+        try {
+            inFlightPermits.acquire();
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    send(batch);
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    inFlightPermits.release();
+                }
+            });
+        } catch (final RuntimeException e) {
+            inFlightPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for all in-flight requests to complete.
+     *
+     * @throws BulkIndexingException If any submitted batch has failed.
+     */
+    void awaitCompletion() {
+        try {
+            inFlightPermits.acquire(maxConcurrentRequests);
+            inFlightPermits.release(maxConcurrentRequests);
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+        checkFailure();
+    }
+
+    long getIndexedCount() {
+        return indexedCount.get();
+    }
+
+    long getRetryCount() {
+        return retryTotal.get();
+    }
+
+    private void checkFailure() {
+        final Throwable t = failure.get();
+        if (t != null) {
+            if (t instanceof final BulkIndexingException bulkIndexingException) {
+                throw bulkIndexingException;
+            }
+            throw new BulkIndexingException(t.getMessage(), t);
+        }
+    }
+
+    private void send(final List<BulkOperation> batch) throws IOException, InterruptedException {
+        List<BulkOperation> pending = batch;
+        int retry = 0;
+        while (!pending.isEmpty()) {
+            if (failure.get() != null) {
+                // Another request has already failed so there is no point carrying on.
+                return;
+            }
+
+            List<BulkOperation> rejected;
+            try {
+                final BulkResponse response = bulkSender.send(pending);
+                rejected = getRejectedOperations(pending, response);
+                indexedCount.addAndGet(pending.size() - rejected.size());
+            } catch (final ElasticsearchException e) {
+                if (e.status() != ElasticIndexingFilter.ES_TOO_MANY_REQUESTS_STATUS) {
+                    throw e;
+                }
+                rejected = pending;
+            } catch (final ResponseException e) {
+                final int statusCode = e.getResponse().getStatusLine().getStatusCode();
+                if (statusCode != ElasticIndexingFilter.ES_TOO_MANY_REQUESTS_STATUS) {
+                    throw e;
+                }
+                rejected = pending;
+            }
+
+            if (!rejected.isEmpty()) {
+                if (retry >= retryCount) {
+                    throw new BulkIndexingException("Indexing failed to complete after " + retry +
+                                                    " retries. " + rejected.size() +
+                                                    " documents were rejected by Elasticsearch");
+                }
+                final long sleepDurationMs = initialRetryBackoffPeriodMs * (retry + 1);
+                LOGGER.warn("{} documents were rejected by Elasticsearch. Retrying in {} milliseconds (retries: {})",
+                        rejected.size(), sleepDurationMs, retry);
+                Thread.sleep(sleepDurationMs);
+                retry++;
+                retryTotal.incrementAndGet();
+            }
+            pending = rejected;
+        }
+    }
+
+    /**
+     * Response items are in the same order as the request operations, so use this to pick out the
+     * operations that need to be retried.
+     *
+     * @throws BulkIndexingException If any item failed for a reason other than Elasticsearch being overloaded.
+     */
+    private static List<BulkOperation> getRejectedOperations(final List<BulkOperation> operations,
+                                                             final BulkResponse response) {
+        if (!response.errors()) {
+            return List.of();
+        }
+
+        final List<BulkResponseItem> items = response.items();
+        final List<BulkOperation> rejected = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            final BulkResponseItem item = items.get(i);
+            if (item.status() == ElasticIndexingFilter.ES_TOO_MANY_REQUESTS_STATUS) {
+                rejected.add(operations.get(i));
+            } else if (item.error() != null) {
+                throw new BulkIndexingException("Bulk indexing request failed: " + item.error().reason());
+            }
+        }
+        return rejected;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    interface BulkSender {
+
+        BulkResponse send(List<BulkOperation> operations) throws IOException;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class BulkIndexingException extends RuntimeException {
+
+        BulkIndexingException(final String message) {
+            super(message);
+        }
+
+        BulkIndexingException(final String message, final Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
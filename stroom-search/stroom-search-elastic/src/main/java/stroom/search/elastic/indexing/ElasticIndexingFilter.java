@@ -23,6 +23,7 @@ import stroom.pipeline.PipelineStore;
 import stroom.pipeline.errorhandler.ErrorReceiverProxy;
 import stroom.pipeline.errorhandler.LoggedException;
 import stroom.pipeline.factory.ConfigurableElement;
+import stroom.pipeline.factory.PipelineFactoryException;
 import stroom.pipeline.factory.PipelineProperty;
 import stroom.pipeline.factory.PipelinePropertyDocRef;
 import stroom.pipeline.filter.AbstractXMLFilter;
@@ -35,13 +36,19 @@ import stroom.processor.shared.ProcessorFilter;
 import stroom.search.elastic.ElasticClientCache;
 import stroom.search.elastic.ElasticClusterStore;
 import stroom.search.elastic.ElasticConfig;
+import stroom.search.elastic.indexing.ElasticBulkProcessor.BulkIndexingException;
+import stroom.search.elastic.indexing.ElasticBulkProcessor.BulkSender;
 import stroom.search.elastic.shared.ElasticClusterDoc;
 import stroom.search.elastic.shared.ElasticConnectionConfig;
 import stroom.search.elastic.shared.ElasticIndexConstants;
 import stroom.svg.shared.SvgImage;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
 import stroom.util.CharBuffer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.shared.ModelStringUtil;
 import stroom.util.shared.Severity;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
@@ -75,6 +82,7 @@ import org.xml.sax.SAXException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -109,9 +117,12 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     private static final int INITIAL_JSON_STREAM_SIZE_BYTES = 1024;
     private static final int ES_COMPOSITE_BATCH_SIZE = 100; // Number of index names to retrieve per request
     private static final int ES_MAX_EXCEPTION_CHARS = 4096;
-    private static final int ES_TOO_MANY_REQUESTS_STATUS = 429;
+    static final int ES_TOO_MANY_REQUESTS_STATUS = 429;
     private static final Pattern INDEX_NAME_VALUE_PATTERN = Pattern.compile("(\\{[^}]+?})");
     private static final Pattern INDEX_BASE_NAME_PATTERN = Pattern.compile("^([^{]+)");
+    private static final ThreadPool BULK_REQUEST_THREAD_POOL = ThreadPoolImpl.builder("Elasticsearch Bulk Index")
+            .virtualThreads(true)
+            .build();
 
     // Dependencies
     private final LocationFactoryProxy locationFactory;
@@ -122,9 +133,12 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     private final PipelineStore pipelineStore;
     private final StreamProcessorHolder streamProcessorHolder;
     private final MetaHolder metaHolder;
+    private final ExecutorProvider executorProvider;
 
     // Pipeline filter configuration options
     private int batchSize = 10000;
+    private long maxBatchSizeBytes = 0;
+    private int maxConcurrentBulkRequests = 0;
     private boolean purgeOnReprocess = true;
     private String ingestPipelineName = null;
     private boolean refreshAfterEachBatch = false;
@@ -147,6 +161,8 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     private int currentDepth = 0;
     private JsonGenerator jsonGenerator;
     private int currentRetry;
+    private long currentBatchSizeBytes;
+    private ElasticBulkProcessor bulkProcessor;
 
     private Locator locator;
 
@@ -159,7 +175,8 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
             final ElasticClusterStore elasticClusterStore,
             final PipelineStore pipelineStore,
             final StreamProcessorHolder streamProcessorHolder,
-            final MetaHolder metaHolder) {
+            final MetaHolder metaHolder,
+            final ExecutorProvider executorProvider) {
         this.locationFactory = locationFactory;
         this.errorReceiverProxy = errorReceiverProxy;
         this.elasticConfigProvider = elasticConfigProvider;
@@ -168,6 +185,7 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         this.pipelineStore = pipelineStore;
         this.streamProcessorHolder = streamProcessorHolder;
         this.metaHolder = metaHolder;
+        this.executorProvider = executorProvider;
 
         bulkOperations = new ArrayList<>();
         currentDocument = new ByteArrayOutputStream(INITIAL_JSON_STREAM_SIZE_BYTES);
@@ -215,6 +233,10 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
 
             populateIndexNameVariableNames();
 
+            if (maxConcurrentBulkRequests > 0) {
+                bulkProcessor = createBulkProcessor(connectionConfig);
+            }
+
         } catch (final IOException e) {
             fatalError("Failed to initialise JsonGenerator", e);
         } finally {
@@ -222,6 +244,42 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         }
     }
 
+    private ElasticBulkProcessor createBulkProcessor(final ElasticConnectionConfig connectionConfig) {
+        final ElasticIndexingConfig indexingConfig = elasticConfigProvider.get().getIndexingConfig();
+        final Refresh refresh = refreshAfterEachBatch
+                ? Refresh.True
+                : Refresh.False;
+
+        return new ElasticBulkProcessor(
+                executorProvider.get(BULK_REQUEST_THREAD_POOL),
+                createBulkSender(elasticClientCache, connectionConfig, refresh),
+                maxConcurrentBulkRequests,
+                indexingConfig.getRetryCount(),
+                indexingConfig.getInitialRetryBackoffPeriodMs());
+    }
+
+    static BulkSender createBulkSender(final ElasticClientCache elasticClientCache,
+                                       final ElasticConnectionConfig connectionConfig,
+                                       final Refresh refresh) {
+        return operations -> {
+            try {
+                return elasticClientCache.contextResult(connectionConfig, elasticClient -> {
+                    try {
+                        return elasticClient.bulk(BulkRequest.of(r -> r
+                                .operations(operations)
+                                .refresh(refresh)));
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (final UncheckedIOException e) {
+                // Unwrap so the bulk processor can see a ResponseException and retry if
+                // Elasticsearch is overloaded.
+                throw e.getCause();
+            }
+        };
+    }
+
     private void populateIndexNameVariableNames() {
         indexNameVariables = INDEX_NAME_VALUE_PATTERN.matcher(indexName).results()
                 .map(matchResult -> {
@@ -236,6 +294,18 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         try {
             // Send any remaining documents
             indexDocuments();
+
+            if (bulkProcessor != null) {
+                // Wait for all in-flight bulk requests to complete
+                try {
+                    bulkProcessor.awaitCompletion();
+                    LOGGER.info("Pipeline '{}' indexed {} documents from stream {} to Elasticsearch cluster " +
+                                "'{}' (retries: {})", pipelineName, bulkProcessor.getIndexedCount(),
+                            metaHolder.getMeta().getId(), elasticCluster.getName(), bulkProcessor.getRetryCount());
+                } catch (final BulkIndexingException e) {
+                    handleBulkIndexingException(e);
+                }
+            }
         } finally {
             super.endProcessing();
         }
@@ -470,6 +540,7 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
             if (currentDocPropertyCount > 0) {
                 jsonGenerator.flush();
 
+                currentBatchSizeBytes += currentDocument.size();
                 bulkOperations.add(BulkOperation.of(b -> b
                         .create(createOp -> {
                             createOp.index(formatIndexName());
@@ -486,7 +557,8 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
                 ));
 
                 // If the maximum batch size has been reached, send the current batch for indexing
-                if (bulkOperations.size() >= batchSize) {
+                if (bulkOperations.size() >= batchSize ||
+                    (maxBatchSizeBytes > 0 && currentBatchSizeBytes >= maxBatchSizeBytes)) {
                     indexDocuments();
                 }
             }
@@ -633,6 +705,19 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
             return;
         }
 
+        if (bulkProcessor != null) {
+            try {
+                // Hand the batch off to be sent asynchronously. This blocks if too many requests are in flight.
+                bulkProcessor.submit(bulkOperations);
+            } catch (final BulkIndexingException e) {
+                handleBulkIndexingException(e);
+            } finally {
+                bulkOperations.clear();
+                currentBatchSizeBytes = 0;
+            }
+            return;
+        }
+
         try {
             final AtomicBoolean succeeded = new AtomicBoolean(false);
             while (!succeeded.get()) {
@@ -700,6 +785,7 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         } finally {
             currentRetry = 0;
             bulkOperations.clear();
+            currentBatchSizeBytes = 0;
         }
     }
 
@@ -780,6 +866,18 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         fatalError("Indexing failed to complete after " + currentRetry + " retries: " + errorDetailMsg, e);
     }
 
+    /**
+     * An asynchronous bulk request failed or exhausted its retries. Terminate processing and create an
+     * `Error` stream.
+     */
+    private void handleBulkIndexingException(final BulkIndexingException e) {
+        final String errorDetailMsg = e.getMessage() != null
+                ? e.getMessage().substring(0, Math.min(ES_MAX_EXCEPTION_CHARS, e.getMessage().length()))
+                : "";
+
+        fatalError("Bulk indexing request failed: " + errorDetailMsg, e);
+    }
+
     /**
      * Build the index name, substituting values from the source document where specified.
      * For instance, consider an index name of `stroom-index-{_year}`. A field `<string key='_year'>2023</string>` in
@@ -819,6 +917,39 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         this.batchSize = batchSize;
     }
 
+    @PipelineProperty(
+            description = "Maximum total size of the documents in each bulk request. A request is sent once " +
+                          "either this or the batch size is reached. Size is either specified in bytes e.g. " +
+                          "'1024' or with a IEC unit suffix, e.g. '1K', '5M', etc. Leave blank for no limit.",
+            displayPriority = 6
+    )
+    public void setMaxBatchSize(final String maxBatchSize) {
+        maxBatchSizeBytes = 0;
+        if (maxBatchSize != null && !maxBatchSize.isBlank()) {
+            try {
+                final Long value = ModelStringUtil.parseIECByteSizeString(maxBatchSize);
+                if (value == null) {
+                    throw new PipelineFactoryException("Incorrect value for max batch size: " + maxBatchSize);
+                }
+                maxBatchSizeBytes = value;
+            } catch (final NumberFormatException e) {
+                throw new PipelineFactoryException("Incorrect value for max batch size: " + maxBatchSize);
+            }
+        }
+    }
+
+    @PipelineProperty(
+            description = "Maximum number of bulk requests that can be in flight at once. When greater than " +
+                          "zero, batches are sent in the background while the pipeline continues to produce " +
+                          "documents, blocking only when this many requests are outstanding. Rejected documents " +
+                          "are retried individually. When zero, each batch is sent synchronously.",
+            defaultValue = "0",
+            displayPriority = 7
+    )
+    public void setMaxConcurrentBulkRequests(final int maxConcurrentBulkRequests) {
+        this.maxConcurrentBulkRequests = maxConcurrentBulkRequests;
+    }
+
     @PipelineProperty(
             description = "Refresh the index after each batch is processed, making the indexed documents visible to " +
                           "searches.",
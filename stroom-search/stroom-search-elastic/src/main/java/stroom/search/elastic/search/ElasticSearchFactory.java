@@ -34,7 +34,9 @@ import java.util.concurrent.atomic.AtomicLong;
 public class ElasticSearchFactory {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ElasticSearchFactory.class);
-    private static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Search Elasticsearch Cluster");
+    private static final ThreadPool THREAD_POOL = ThreadPoolImpl.builder("Search Elasticsearch Cluster")
+            .virtualThreads(true)
+            .build();
 
     private final WordListProvider wordListProvider;
     private final ElasticSearchTaskHandler elasticSearchTaskHandler;
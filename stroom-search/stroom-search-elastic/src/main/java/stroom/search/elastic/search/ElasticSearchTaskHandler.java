@@ -78,8 +78,9 @@ import java.util.stream.Collectors;
 public class ElasticSearchTaskHandler {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ElasticSearchTaskHandler.class);
-    public static final ThreadPool SCROLL_REQUEST_THREAD_POOL =
-            new ThreadPoolImpl("Elasticsearch Scroll Request");
+    public static final ThreadPool SCROLL_REQUEST_THREAD_POOL = ThreadPoolImpl.builder("Elasticsearch Scroll Request")
+            .virtualThreads(true)
+            .build();
 
     private final Provider<ElasticSearchConfig> elasticSearchConfigProvider;
     private final ElasticClientCache elasticClientCache;
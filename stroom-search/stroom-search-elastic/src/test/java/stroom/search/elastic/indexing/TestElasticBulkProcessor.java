@@ -0,0 +1,246 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.elastic.indexing;
+
+import stroom.search.elastic.ElasticClientCache;
+import stroom.search.elastic.indexing.ElasticBulkProcessor.BulkIndexingException;
+import stroom.search.elastic.indexing.ElasticBulkProcessor.BulkSender;
+import stroom.search.elastic.shared.ElasticConnectionConfig;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import org.apache.http.StatusLine;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TestElasticBulkProcessor {
+
+    private ExecutorService executorService;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testAllIndexed() {
+        final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<>());
+        final BulkSender sender = operations -> {
+            requestSizes.add(operations.size());
+            return response(Collections.nCopies(operations.size(), 201));
+        };
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(executorService, sender, 2, 3, 1);
+        for (int i = 0; i < 5; i++) {
+            processor.submit(operations(10));
+        }
+        processor.awaitCompletion();
+
+        assertThat(requestSizes).hasSize(5);
+        assertThat(processor.getIndexedCount()).isEqualTo(50);
+        assertThat(processor.getRetryCount()).isZero();
+    }
+
+    @Test
+    void testOnlyRejectedItemsRetried() {
+        final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger callCount = new AtomicInteger();
+        final BulkSender sender = operations -> {
+            requestSizes.add(operations.size());
+            if (callCount.getAndIncrement() == 0) {
+                return response(List.of(201, 429, 201, 429));
+            }
+            return response(Collections.nCopies(operations.size(), 201));
+        };
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(executorService, sender, 1, 3, 1);
+        processor.submit(operations(4));
+        processor.awaitCompletion();
+
+        assertThat(requestSizes).containsExactly(4, 2);
+        assertThat(processor.getIndexedCount()).isEqualTo(4);
+        assertThat(processor.getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testRetriesExhausted() {
+        final BulkSender sender = operations -> response(Collections.nCopies(operations.size(), 429));
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(executorService, sender, 1, 2, 1);
+        processor.submit(operations(3));
+
+        assertThatThrownBy(processor::awaitCompletion)
+                .isInstanceOf(BulkIndexingException.class)
+                .hasMessageContaining("after 2 retries");
+    }
+
+    @Test
+    void testTooManyRequestsResponseRetried() throws IOException {
+        // Elasticsearch can reject the whole request with a 429 response rather than rejecting items
+        final ElasticsearchClient elasticClient = mock(ElasticsearchClient.class);
+        when(elasticClient.bulk(any(BulkRequest.class)))
+                .thenThrow(responseException(ElasticIndexingFilter.ES_TOO_MANY_REQUESTS_STATUS))
+                .thenAnswer(invocation -> response(Collections.nCopies(
+                        invocation.getArgument(0, BulkRequest.class).operations().size(), 201)));
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(
+                executorService, createBulkSender(elasticClient), 1, 3, 1);
+        processor.submit(operations(3));
+        processor.awaitCompletion();
+
+        assertThat(processor.getIndexedCount()).isEqualTo(3);
+        assertThat(processor.getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testErrorResponseNotRetried() throws IOException {
+        final ElasticsearchClient elasticClient = mock(ElasticsearchClient.class);
+        when(elasticClient.bulk(any(BulkRequest.class)))
+                .thenThrow(responseException(500));
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(
+                executorService, createBulkSender(elasticClient), 1, 3, 1);
+        processor.submit(operations(3));
+
+        assertThatThrownBy(processor::awaitCompletion)
+                .isInstanceOf(BulkIndexingException.class)
+                .hasCauseInstanceOf(ResponseException.class);
+        assertThat(processor.getRetryCount()).isZero();
+    }
+
+    @Test
+    void testNonRetryableFailure() {
+        final BulkSender sender = operations -> BulkResponse.of(b -> b
+                .took(1)
+                .errors(true)
+                .items(BulkResponseItem.of(item -> item
+                        .operationType(OperationType.Create)
+                        .index("test")
+                        .status(400)
+                        .error(e -> e.type("mapper_parsing_exception").reason("Bad field")))));
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(executorService, sender, 1, 3, 1);
+        processor.submit(operations(1));
+
+        assertThatThrownBy(processor::awaitCompletion)
+                .isInstanceOf(BulkIndexingException.class)
+                .hasMessageContaining("Bad field");
+
+        // Further submissions should be refused
+        assertThatThrownBy(() -> processor.submit(operations(1)))
+                .isInstanceOf(BulkIndexingException.class);
+    }
+
+    @Test
+    void testInFlightLimit() {
+        final int maxConcurrentRequests = 3;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final BulkSender sender = operations -> {
+            final int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return response(Collections.nCopies(operations.size(), 201));
+        };
+
+        final ElasticBulkProcessor processor = new ElasticBulkProcessor(
+                executorService, sender, maxConcurrentRequests, 3, 1);
+        for (int i = 0; i < 20; i++) {
+            processor.submit(operations(2));
+        }
+        processor.awaitCompletion();
+
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(maxConcurrentRequests);
+        assertThat(processor.getIndexedCount()).isEqualTo(40);
+    }
+
+    private static BulkSender createBulkSender(final ElasticsearchClient elasticClient) {
+        final ElasticClientCache elasticClientCache = mock(ElasticClientCache.class);
+        when(elasticClientCache.contextResult(any(), any())).thenAnswer(invocation ->
+                invocation.<Function<ElasticsearchClient, Object>>getArgument(1).apply(elasticClient));
+        return ElasticIndexingFilter.createBulkSender(
+                elasticClientCache,
+                new ElasticConnectionConfig(),
+                Refresh.False);
+    }
+
+    private static ResponseException responseException(final int status) {
+        final StatusLine statusLine = mock(StatusLine.class);
+        when(statusLine.getStatusCode()).thenReturn(status);
+        final Response response = mock(Response.class);
+        when(response.getStatusLine()).thenReturn(statusLine);
+        final ResponseException responseException = mock(ResponseException.class);
+        when(responseException.getResponse()).thenReturn(response);
+        return responseException;
+    }
+
+    private static List<BulkOperation> operations(final int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BulkOperation.of(b -> b
+                        .delete(d -> d
+                                .index("test")
+                                .id(String.valueOf(i)))))
+                .toList();
+    }
+
+    private static BulkResponse response(final List<Integer> statuses) {
+        final List<BulkResponseItem> items = statuses.stream()
+                .map(status -> BulkResponseItem.of(item -> item
+                        .operationType(OperationType.Create)
+                        .index("test")
+                        .status(status)))
+                .toList();
+        return BulkResponse.of(b -> b
+                .took(1)
+                .errors(statuses.stream().anyMatch(status -> status >= 300))
+                .items(items));
+    }
+}
@@ -51,7 +51,10 @@ class FederatedSearchTaskHandler {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(FederatedSearchTaskHandler.class);
 
-    public static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Search");
+    // Node searches mostly wait on remote nodes or on the shard search pool.
+    public static final ThreadPool THREAD_POOL = ThreadPoolImpl.builder("Search")
+            .virtualThreads(true)
+            .build();
 
     private final TargetNodeSetFactory targetNodeSetFactory;
     private final TaskManager taskManager;
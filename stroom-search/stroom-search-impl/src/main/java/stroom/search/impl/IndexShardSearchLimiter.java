@@ -0,0 +1,105 @@
+package stroom.search.impl;
+
+import stroom.task.api.TaskContext;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of threads used to search index shards across all the searches on this node.
+ * <p>
+ * The index shard search and extraction pools are not bounded as their tasks wait on each other.
+ * A shard search task blocks on its search's stored data queue until that search's extraction
+ * tasks take from it, so an extraction task queued behind the tasks of another search could
+ * deadlock both searches. Instead, a search is admitted here before any of its tasks are submitted.
+ * It takes all of its threads at once so it never holds some while waiting for the rest.
+ */
+@Singleton
+class IndexShardSearchLimiter {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(IndexShardSearchLimiter.class);
+
+    private volatile Limit limit;
+
+    /**
+     * Wait until enough threads are free for the search.
+     *
+     * @param taskContext The context of the search, to say that it is waiting.
+     * @param maxThreads  The number of threads across all searches or zero for no limit. If this
+     *                    changes then the searches already admitted keep their threads but are not
+     *                    counted against the new limit.
+     * @param threadCount The number of threads the search wants.
+     * @return The threads given to the search, which may be fewer than it wants if the limit is lower.
+     * They must be released when the search of the shards is complete.
+     */
+    Permit acquire(final TaskContext taskContext,
+                   final int maxThreads,
+                   final int threadCount) throws InterruptedException {
+        if (maxThreads <= 0) {
+            return new Permit(null, threadCount);
+        }
+
+        final Semaphore semaphore = getSemaphore(maxThreads);
+        final int threads = Math.min(threadCount, maxThreads);
+        // The semaphore is fair so use the timed try to queue behind any searches already waiting.
+        if (!semaphore.tryAcquire(threads, 0, TimeUnit.MILLISECONDS)) {
+            taskContext.info(() -> "Waiting for " + threads + " index shard search threads");
+            LOGGER.debug("Waiting for {} of {} index shard search threads", threads, maxThreads);
+            semaphore.acquire(threads);
+        }
+        return new Permit(semaphore, threads);
+    }
+
+    private Semaphore getSemaphore(final int maxThreads) {
+        Limit limit = this.limit;
+        if (limit == null || limit.maxThreads != maxThreads) {
+            synchronized (this) {
+                limit = this.limit;
+                if (limit == null || limit.maxThreads != maxThreads) {
+                    limit = new Limit(maxThreads, new Semaphore(maxThreads, true));
+                    this.limit = limit;
+                }
+            }
+        }
+        return limit.semaphore;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Limit(int maxThreads, Semaphore semaphore) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class Permit {
+
+        private final Semaphore semaphore;
+        private final int threads;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(final Semaphore semaphore, final int threads) {
+            this.semaphore = semaphore;
+            this.threads = threads;
+        }
+
+        int getThreads() {
+            return threads;
+        }
+
+        void release() {
+            if (semaphore != null && released.compareAndSet(false, true)) {
+                semaphore.release(threads);
+            }
+        }
+    }
+}
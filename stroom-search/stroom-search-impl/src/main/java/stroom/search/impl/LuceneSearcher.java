@@ -17,12 +17,14 @@ import stroom.query.common.v2.SearchProgressLog.SearchPhase;
 import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.ref.ErrorConsumer;
 import stroom.search.extraction.StoredDataQueue;
+import stroom.search.impl.IndexShardSearchLimiter.Permit;
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.TaskContext;
 import stroom.task.api.TaskContextFactory;
 import stroom.task.api.TerminateHandlerFactory;
 import stroom.task.api.ThreadPoolImpl;
 import stroom.task.shared.ThreadPool;
+import stroom.util.concurrent.UncheckedInterruptedException;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 
@@ -51,6 +53,7 @@ public class LuceneSearcher {
     private final LuceneProviderFactory luceneProviderFactory;
     private final IndexFieldCache indexFieldCache;
     private final TaskContextFactory taskContextFactory;
+    private final IndexShardSearchLimiter indexShardSearchLimiter;
 
 
     private final Map<LuceneVersion, LuceneShardSearcher> searcherMap = new ConcurrentHashMap<>();
@@ -62,7 +65,8 @@ public class LuceneSearcher {
                    final IndexShardDao indexShardDao,
                    final LuceneProviderFactory luceneProviderFactory,
                    final IndexFieldCache indexFieldCache,
-                   final TaskContextFactory taskContextFactory) {
+                   final TaskContextFactory taskContextFactory,
+                   final IndexShardSearchLimiter indexShardSearchLimiter) {
         this.indexStore = indexStore;
         this.executorProvider = executorProvider;
         this.indexShardSearchConfig = indexShardSearchConfig;
@@ -70,6 +74,7 @@ public class LuceneSearcher {
         this.luceneProviderFactory = luceneProviderFactory;
         this.indexFieldCache = indexFieldCache;
         this.taskContextFactory = taskContextFactory;
+        this.indexShardSearchLimiter = indexShardSearchLimiter;
     }
 
     @SuppressWarnings("unchecked")
@@ -108,11 +113,26 @@ public class LuceneSearcher {
             throw new SearchException("No stored fields have been requested");
         }
 
-        final int threadCount = indexShardSearchConfig.getMaxThreadsPerTask();
-        final CompletableFuture<Void>[] futures = new CompletableFuture[threadCount];
+        final CompletableFuture<Void>[] futures;
+        final Permit permit;
         final Executor executor = executorProvider.get(INDEX_SHARD_SEARCH_THREAD_POOL);
 
-        if (!task.getShards().isEmpty()) {
+        if (task.getShards().isEmpty()) {
+            futures = new CompletableFuture[0];
+            permit = null;
+        } else {
+            // Wait for threads before submitting any tasks, see IndexShardSearchLimiter.
+            try {
+                permit = indexShardSearchLimiter.acquire(
+                        parentContext,
+                        indexShardSearchConfig.getMaxThreads(),
+                        indexShardSearchConfig.getMaxThreadsPerTask());
+            } catch (final InterruptedException e) {
+                throw UncheckedInterruptedException.create(e);
+            }
+            final int threadCount = permit.getThreads();
+            futures = new CompletableFuture[threadCount];
+
 //            final IndexShardQueryFactory queryFactory = createIndexShardQueryFactory(
 //                    task, expression, indexFieldsMap, errorConsumer);
 
@@ -174,15 +194,20 @@ public class LuceneSearcher {
             }
         }
 
-        // When we complete the index shard search tell the stored data queue we are complete.
-        return CompletableFuture.allOf(futures).whenCompleteAsync((r, t) ->
-                taskContextFactory.childContext(parentContext,
-                        "Search Index Shard",
-                        TerminateHandlerFactory.NOOP_FACTORY,
-                        taskContext -> {
-                            taskContext.info(() -> "Complete stored data queue");
-                            LOGGER.debug("Complete stored data queue");
-                            storedDataQueue.complete();
-                        }).run(), executor);
+        // When we complete the index shard search give the threads back for other searches and
+        // tell the stored data queue we are complete.
+        return CompletableFuture.allOf(futures).whenCompleteAsync((r, t) -> {
+            if (permit != null) {
+                permit.release();
+            }
+            taskContextFactory.childContext(parentContext,
+                    "Search Index Shard",
+                    TerminateHandlerFactory.NOOP_FACTORY,
+                    taskContext -> {
+                        taskContext.info(() -> "Complete stored data queue");
+                        LOGGER.debug("Complete stored data queue");
+                        storedDataQueue.complete();
+                    }).run();
+        }, executor);
     }
 }
@@ -0,0 +1,193 @@
+package stroom.search.impl;
+
+import stroom.docref.DocRef;
+import stroom.index.impl.IndexShardDao;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.impl.IndexStore;
+import stroom.index.impl.LuceneProvider;
+import stroom.index.impl.LuceneProviderFactory;
+import stroom.index.impl.LuceneShardSearcher;
+import stroom.index.shared.IndexShard;
+import stroom.index.shared.LuceneIndexDoc;
+import stroom.index.shared.LuceneVersionUtil;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.Query;
+import stroom.query.api.QueryKey;
+import stroom.query.api.datasource.IndexField;
+import stroom.query.common.v2.IndexFieldCache;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValString;
+import stroom.query.language.functions.ValuesConsumer;
+import stroom.query.language.functions.ref.ErrorConsumer;
+import stroom.search.extraction.StoredDataQueue;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.SimpleTaskContext;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.task.shared.ThreadPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TestLuceneSearcher {
+
+    private static final String FIELD_NAME = "Field";
+    private static final int MAX_THREADS = 2;
+    private static final int SHARD_COUNT = 4;
+    private static final int VALUES_PER_SHARD = 20;
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private ExecutorService executorService;
+    private LuceneSearcher luceneSearcher;
+
+    @BeforeEach
+    void setup() {
+        // The pools are unbounded, as the real ones are.
+        executorService = Executors.newCachedThreadPool();
+        final ExecutorProvider executorProvider = mock(ExecutorProvider.class);
+        when(executorProvider.get(any(ThreadPool.class))).thenReturn(executorService);
+
+        final IndexStore indexStore = mock(IndexStore.class);
+        when(indexStore.readDocument(any(DocRef.class))).thenReturn(new LuceneIndexDoc());
+
+        final IndexField indexField = mock(IndexField.class);
+        when(indexField.isStored()).thenReturn(true);
+        when(indexField.getFldName()).thenReturn(FIELD_NAME);
+        final IndexFieldCache indexFieldCache = mock(IndexFieldCache.class);
+        when(indexFieldCache.get(any(), anyString())).thenReturn(indexField);
+
+        final IndexShard indexShard = new IndexShard();
+        indexShard.setIndexVersion(LuceneVersionUtil.getCurrentVersion());
+        final IndexShardDao indexShardDao = mock(IndexShardDao.class);
+        when(indexShardDao.fetch(anyLong())).thenReturn(Optional.of(indexShard));
+
+        final LuceneProvider luceneProvider = mock(LuceneProvider.class);
+        when(luceneProvider.createLuceneShardSearcher(any(), any(), any(), any(), any()))
+                .thenReturn(createShardSearcher());
+        final LuceneProviderFactory luceneProviderFactory = mock(LuceneProviderFactory.class);
+        when(luceneProviderFactory.get(any())).thenReturn(luceneProvider);
+
+        luceneSearcher = new LuceneSearcher(
+                indexStore,
+                executorProvider,
+                new IndexShardSearchConfig(
+                        1_000,
+                        MAX_THREADS,
+                        MAX_THREADS,
+                        new IndexShardSearchConfig().getRemoteSearchResultCache(),
+                        new IndexShardSearchConfig().getIndexShardSearcherCache()),
+                indexShardDao,
+                luceneProviderFactory,
+                indexFieldCache,
+                new SimpleTaskContextFactory(),
+                new IndexShardSearchLimiter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentSearchesWithSmallStoredDataQueue() throws Exception {
+        // Each search wants all the threads and its shard searches block on a stored data queue
+        // that only its own extraction drains, so the second search must wait for the first.
+        final CompletableFuture<Integer> search1 = CompletableFuture.supplyAsync(() ->
+                search("search1"), executorService);
+        final CompletableFuture<Integer> search2 = CompletableFuture.supplyAsync(() ->
+                search("search2"), executorService);
+
+        assertThat(search1.get(30, TimeUnit.SECONDS))
+                .isEqualTo(SHARD_COUNT * VALUES_PER_SHARD);
+        assertThat(search2.get(30, TimeUnit.SECONDS))
+                .isEqualTo(SHARD_COUNT * VALUES_PER_SHARD);
+        assertThat(maxRunning.get())
+                .isLessThanOrEqualTo(MAX_THREADS);
+    }
+
+    /**
+     * Run a search as {@link LuceneNodeSearchTaskHandler} does, starting extraction after the
+     * index shard search.
+     *
+     * @return The number of values extracted.
+     */
+    private int search(final String name) {
+        final FieldIndex fieldIndex = new FieldIndex();
+        fieldIndex.create(FIELD_NAME);
+        final QueryKey queryKey = new QueryKey(name);
+        final NodeSearchTask task = new NodeSearchTask(
+                null,
+                null,
+                name,
+                null,
+                queryKey,
+                Query.builder()
+                        .dataSource(new DocRef(LuceneIndexDoc.TYPE, name))
+                        .expression(ExpressionOperator.builder().build())
+                        .build(),
+                List.of(),
+                null,
+                LongStream.range(0, SHARD_COUNT).boxed().toList());
+        final StoredDataQueue storedDataQueue = new StoredDataQueue(queryKey, 1);
+
+        final CompletableFuture<Void> indexShardSearch = luceneSearcher.search(
+                task,
+                task.getQuery().getExpression(),
+                fieldIndex,
+                new SimpleTaskContext(),
+                new LongAdder(),
+                storedDataQueue,
+                mock(ErrorConsumer.class));
+
+        int count = 0;
+        while (storedDataQueue.take() != null) {
+            count++;
+        }
+        indexShardSearch.join();
+        return count;
+    }
+
+    private LuceneShardSearcher createShardSearcher() {
+        return (taskContext,
+                indexShard,
+                storedFields,
+                fieldsToLoad,
+                hitCount,
+                shardNumber,
+                shardTotal,
+                valuesConsumer,
+                errorConsumer) -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                putValues(valuesConsumer);
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+    }
+
+    private void putValues(final ValuesConsumer valuesConsumer) {
+        for (int i = 0; i < VALUES_PER_SHARD; i++) {
+            valuesConsumer.accept(new Val[]{ValString.create("value" + i)});
+        }
+    }
+}
@@ -34,8 +34,9 @@ public class SolrSearchFactory {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(SolrSearchFactory.class);
 
-    private static final ThreadPool THREAD_POOL = new ThreadPoolImpl(
-            "Search Solr Index");
+    private static final ThreadPool THREAD_POOL = ThreadPoolImpl.builder("Search Solr Index")
+            .virtualThreads(true)
+            .build();
 
     private final WordListProvider wordListProvider;
     private final SolrSearchConfig config;
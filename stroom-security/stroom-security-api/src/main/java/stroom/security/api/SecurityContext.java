@@ -21,6 +21,8 @@ import stroom.security.shared.DocumentPermission;
 import stroom.util.shared.HasAuditableUserIdentity;
 import stroom.util.shared.UserRef;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -87,6 +89,24 @@ public interface SecurityContext extends CommonSecurityContext, HasAuditableUser
      */
     boolean hasDocumentPermission(DocRef docRef, DocumentPermission permission);
 
+    /**
+     * Filter a batch of documents down to those that the user associated with this
+     * security context has the requested permission on. This is much quicker than
+     * calling {@link #hasDocumentPermission(DocRef, DocumentPermission)} for each
+     * document when checking many documents.
+     *
+     * @param docRefs    The docRefs of the documents.
+     * @param permission The permission we are checking for.
+     * @return The docRefs that the user has the permission on, in the order they
+     * were supplied.
+     */
+    default List<DocRef> filterDocumentPermission(final Collection<DocRef> docRefs,
+                                                  final DocumentPermission permission) {
+        return docRefs.stream()
+                .filter(docRef -> hasDocumentPermission(docRef, permission))
+                .toList();
+    }
+
     /**
      * Check if the user associated with this security context has the requested
      * permission on the document specified by the document docRef.
@@ -4,6 +4,7 @@ import stroom.db.util.JooqUtil;
 import stroom.docref.DocRef;
 import stroom.explorer.shared.ExplorerConstants;
 import stroom.security.impl.DocTypeIdDao;
+import stroom.security.impl.DocumentIdInterner;
 import stroom.security.impl.DocumentPermissionDao;
 import stroom.security.impl.UserDocumentPermissions;
 import stroom.security.impl.db.jooq.tables.PermissionDoc;
@@ -45,7 +46,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static stroom.security.impl.db.jooq.tables.PermissionDoc.PERMISSION_DOC;
@@ -65,6 +65,7 @@ public class DocumentPermissionDaoImpl implements DocumentPermissionDao {
     private final SecurityDbConnProvider securityDbConnProvider;
     private final DocTypeIdDao docTypeIdDao;
     private final Provider<UserDaoImpl> userDaoProvider;
+    private final DocumentIdInterner documentIdInterner;
 
     static {
         // We rely on NULL_PERM being less than all DocumentPermission primitiveValues as we
@@ -84,10 +85,12 @@ public class DocumentPermissionDaoImpl implements DocumentPermissionDao {
     @Inject
     public DocumentPermissionDaoImpl(final SecurityDbConnProvider securityDbConnProvider,
                                      final DocTypeIdDao docTypeIdDao,
-                                     final Provider<UserDaoImpl> userDaoProvider) {
+                                     final Provider<UserDaoImpl> userDaoProvider,
+                                     final DocumentIdInterner documentIdInterner) {
         this.securityDbConnProvider = securityDbConnProvider;
         this.docTypeIdDao = docTypeIdDao;
         this.userDaoProvider = userDaoProvider;
+        this.documentIdInterner = documentIdInterner;
 
     }
 
@@ -95,7 +98,7 @@ public class DocumentPermissionDaoImpl implements DocumentPermissionDao {
     public UserDocumentPermissions getPermissionsForUser(final String userUuid) {
         Objects.requireNonNull(userUuid, "Null user UUID");
 
-        final Map<String, Byte> permissionMap = new ConcurrentHashMap<>();
+        final UserDocumentPermissions userDocumentPermissions = new UserDocumentPermissions(documentIdInterner);
         JooqUtil.contextResult(securityDbConnProvider, context -> context
                         .select(PERMISSION_DOC.DOC_UUID, PERMISSION_DOC.PERMISSION_ID)
                         .from(PERMISSION_DOC)
@@ -104,10 +107,13 @@ public class DocumentPermissionDaoImpl implements DocumentPermissionDao {
                         .fetch())
                 .forEach(r -> {
                     final String docUuid = r.get(PERMISSION_DOC.DOC_UUID);
-                    final byte permission = r.get(PERMISSION_DOC.PERMISSION_ID).byteValue();
-                    permissionMap.put(docUuid, permission);
+                    final DocumentPermission permission = DocumentPermission.PRIMITIVE_VALUE_CONVERTER
+                            .fromPrimitiveValue(r.get(PERMISSION_DOC.PERMISSION_ID).byteValue());
+                    if (permission != null) {
+                        userDocumentPermissions.setPermission(docUuid, permission);
+                    }
                 });
-        return new UserDocumentPermissions(permissionMap);
+        return userDocumentPermissions;
     }
 
     @Override
@@ -0,0 +1,59 @@
+package stroom.security.impl;
+
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps document UUIDs to small dense int ids so that document permissions can be held as bitmaps.
+ * Ids are handed out in order and are never reused or removed, so the ids of deleted documents
+ * are just left unused.
+ */
+@Singleton
+public class DocumentIdInterner {
+
+    public static final int UNKNOWN_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> uuids = new ArrayList<>();
+
+    /**
+     * @return The id for the UUID, creating one if the UUID has not been seen before.
+     */
+    public int intern(final String docUuid) {
+        final Integer id = ids.get(docUuid);
+        if (id != null) {
+            return id;
+        }
+        synchronized (uuids) {
+            return ids.computeIfAbsent(docUuid, k -> {
+                uuids.add(k);
+                return uuids.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * @return The id for the UUID or {@link #UNKNOWN_ID} if it has never been interned, in which
+     * case nobody can hold a permission on it.
+     */
+    public int getId(final String docUuid) {
+        final Integer id = ids.get(docUuid);
+        return id == null
+                ? UNKNOWN_ID
+                : id;
+    }
+
+    public String getUuid(final int id) {
+        synchronized (uuids) {
+            return uuids.get(id);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -21,8 +21,11 @@ import stroom.util.shared.UserRef;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -248,44 +251,32 @@ class SecurityContextImpl implements SecurityContext {
         return hasDocumentPermission(userRef, docRef, perm);
     }
 
-    private boolean hasDocumentPermission(final UserRef userUuid,
-                                          final DocRef docRef,
-                                          final DocumentPermission permission) {
-        // See if the user has an explicit permission.
-        if (hasUserDocumentPermission(userUuid, docRef, permission)) {
-            return true;
-        }
+    @Override
+    public List<DocRef> filterDocumentPermission(final Collection<DocRef> docRefs,
+                                                 final DocumentPermission permission) {
+        // Get the current user.
+        final UserIdentity userIdentity = assertUserIdentity();
 
-        // See if the user belongs to a group that has permission.
-        return hasGroupDocumentPermission(userUuid, docRef, permission, new HashSet<>());
-    }
+        // Let administrators do anything.
+        if (isAdmin(userIdentity)) {
+            return new ArrayList<>(docRefs);
+        }
 
-    private boolean hasGroupDocumentPermission(final UserRef userRef,
-                                               final DocRef docRef,
-                                               final DocumentPermission permission,
-                                               final Set<UserRef> examined) {
-        final Set<UserRef> userGroups = userGroupsCache.getGroups(userRef);
-        if (userGroups != null) {
-            for (final UserRef userGroup : userGroups) {
-                if (hasUserDocumentPermission(userGroup, docRef, permission)) {
-                    return true;
-                }
+        // If we are currently allowing users with only `Use` permission to `Read` (elevate permissions) then
+        // test for `Use` instead of `Read`.
+        final DocumentPermission perm = DocumentPermission.VIEW.equals(permission) &&
+                                        CurrentUserState.isElevatePermissions()
+                ? DocumentPermission.USE
+                : permission;
 
-                // Recurse into parent groups.
-                if (!examined.contains(userGroup)) {
-                    examined.add(userGroup);
-                    if (hasGroupDocumentPermission(userGroup, docRef, permission, examined)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        final UserRef userRef = getUserRef(userIdentity);
+        return userDocumentPermissionsCache.filter(userRef, docRefs, perm);
     }
 
-    private boolean hasUserDocumentPermission(final UserRef userRef,
-                                              final DocRef docRef,
-                                              final DocumentPermission permission) {
+    private boolean hasDocumentPermission(final UserRef userRef,
+                                          final DocRef docRef,
+                                          final DocumentPermission permission) {
+        // The effective permissions include those of all the groups the user is in.
         return userDocumentPermissionsCache.hasDocumentPermission(userRef, docRef, permission);
     }
 
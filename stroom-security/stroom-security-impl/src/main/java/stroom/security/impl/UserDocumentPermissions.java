@@ -3,25 +3,59 @@ package stroom.security.impl;
 import stroom.docref.DocRef;
 import stroom.security.shared.DocumentPermission;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * Hold all the document permissions that a user holds.
+ * <p>
+ * Documents are identified by the dense ids given out by {@link DocumentIdInterner}. As each
+ * permission inherits all the ones below it, only the level of the highest permission held on a
+ * document is stored, with a check being a comparison of levels. Most users hold permissions on a
+ * small fraction of all documents so the levels start out as a sorted array of document ids with a
+ * parallel array of levels. Once the documents held are dense enough for it to be smaller, the levels
+ * are switched to three bitmaps indexed by document id, each holding one bit of the level.
+ * Instances are built and then cached, so they must not be changed once they are shared between
+ * threads.
  */
 public class UserDocumentPermissions {
 
-    //docUuid => DocumentPermissionEnum.primitiveValue
-    private final Map<String, Byte> permissions;
+    private static final DocumentPermission[] PERMISSIONS = DocumentPermission.values();
+    // Indexed by DocumentPermission ordinal, from 1 for the lowest permission. Zero is no permission.
+    private static final byte[] LEVELS = new byte[PERMISSIONS.length];
+    private static final int LEVEL_BITS = 3;
+    private static final int INITIAL_CAPACITY = 16;
+
+    static {
+        for (final DocumentPermission permission : PERMISSIONS) {
+            LEVELS[permission.ordinal()] = (byte) (DocumentPermission.LIST.indexOf(permission) + 1);
+        }
+    }
+
+    private final DocumentIdInterner documentIdInterner;
+
+    // The sparse form, ids in ascending order with the level held on each.
+    private int[] docIds;
+    private byte[] levels;
+    private int size;
+
+    // The dense form, null until switched to. Bit n of the level of each document, indexed by id.
+    private BitSet[] levelBitmaps;
 
     public UserDocumentPermissions() {
-        permissions = new ConcurrentHashMap<>();
+        this(new DocumentIdInterner());
     }
 
-    public UserDocumentPermissions(final Map<String, Byte> permissions) {
-        this.permissions = permissions;
+    public UserDocumentPermissions(final DocumentIdInterner documentIdInterner) {
+        this.documentIdInterner = Objects.requireNonNull(documentIdInterner);
+        this.docIds = new int[0];
+        this.levels = new byte[0];
     }
 
     /**
@@ -30,11 +64,42 @@ public class UserDocumentPermissions {
      * inherits Use so return true).
      */
     public boolean hasDocumentPermission(final DocRef docRef, final DocumentPermission permission) {
-        final Byte perm = permissions.get(docRef.getUuid());
-        if (perm != null) {
-            return perm >= permission.getPrimitiveValue();
+        return hasDocumentPermission(documentIdInterner.getId(docRef.getUuid()), permission);
+    }
+
+    public boolean hasDocumentPermission(final int docId, final DocumentPermission permission) {
+        return getLevel(docId) >= LEVELS[permission.ordinal()];
+    }
+
+    /**
+     * @return The docRefs that the permission is held on, in the order they were supplied.
+     */
+    public List<DocRef> filter(final Collection<DocRef> docRefs, final DocumentPermission permission) {
+        final byte level = LEVELS[permission.ordinal()];
+        final List<DocRef> filtered = new ArrayList<>(docRefs.size());
+        for (final DocRef docRef : docRefs) {
+            if (getLevel(documentIdInterner.getId(docRef.getUuid())) >= level) {
+                filtered.add(docRef);
+            }
         }
-        return false;
+        return filtered;
+    }
+
+    /**
+     * @return The ids of the documents that the permission is held on, in the order they were supplied.
+     */
+    public int[] filter(final int[] docIds, final DocumentPermission permission) {
+        final byte level = LEVELS[permission.ordinal()];
+        final int[] filtered = new int[docIds.length];
+        int count = 0;
+        for (final int docId : docIds) {
+            if (getLevel(docId) >= level) {
+                filtered[count++] = docId;
+            }
+        }
+        return count == filtered.length
+                ? filtered
+                : Arrays.copyOf(filtered, count);
     }
 
     public void setPermission(final DocRef docRef, final DocumentPermission permission) {
@@ -42,7 +107,7 @@ public class UserDocumentPermissions {
     }
 
     public void setPermission(final String docUuid, final DocumentPermission permission) {
-        permissions.put(docUuid, permission.getPrimitiveValue());
+        setLevel(documentIdInterner.intern(docUuid), LEVELS[permission.ordinal()]);
     }
 
     public void clearPermission(final DocRef docRef) {
@@ -50,7 +115,44 @@ public class UserDocumentPermissions {
     }
 
     public void clearPermission(final String docUuid) {
-        permissions.remove(docUuid);
+        final int docId = documentIdInterner.getId(docUuid);
+        if (docId >= 0) {
+            setLevel(docId, (byte) 0);
+        }
+    }
+
+    /**
+     * Add all the permissions held in another set of permissions to this one, e.g. to combine the
+     * permissions of a user with those of the groups they belong to. Where both hold a permission on
+     * a document the highest one wins.
+     */
+    public void or(final UserDocumentPermissions other) {
+        if (documentIdInterner != other.documentIdInterner) {
+            throw new IllegalArgumentException("Permissions must use the same document id interner");
+        }
+        if (levelBitmaps == null && other.levelBitmaps == null) {
+            mergeSparse(other);
+        } else {
+            other.forEachLevel((docId, level) -> {
+                if (level > getLevel(docId)) {
+                    setLevel(docId, level);
+                }
+            });
+        }
+    }
+
+    public UserDocumentPermissions copy() {
+        final UserDocumentPermissions copy = new UserDocumentPermissions(documentIdInterner);
+        copy.docIds = Arrays.copyOf(docIds, size);
+        copy.levels = Arrays.copyOf(levels, size);
+        copy.size = size;
+        if (levelBitmaps != null) {
+            copy.levelBitmaps = new BitSet[LEVEL_BITS];
+            for (int bit = 0; bit < LEVEL_BITS; bit++) {
+                copy.levelBitmaps[bit] = (BitSet) levelBitmaps[bit].clone();
+            }
+        }
+        return copy;
     }
 
     /**
@@ -59,11 +161,153 @@ public class UserDocumentPermissions {
      * @return A map of docUUID => {@link DocumentPermission}.
      */
     public Map<String, DocumentPermission> getPermissions() {
-        return permissions.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Entry::getKey,
-                        entry ->
-                                DocumentPermission.PRIMITIVE_VALUE_CONVERTER.fromPrimitiveValue(entry.getValue())));
+        final Map<String, DocumentPermission> permissions = new HashMap<>();
+        forEachLevel((docId, level) ->
+                permissions.put(documentIdInterner.getUuid(docId), DocumentPermission.LIST.get(level - 1)));
+        return permissions;
+    }
+
+    /**
+     * @return True if the levels are held as bitmaps rather than as sorted arrays.
+     */
+    boolean isDense() {
+        return levelBitmaps != null;
+    }
+
+    private byte getLevel(final int docId) {
+        if (docId < 0) {
+            return 0;
+        }
+        if (levelBitmaps != null) {
+            int level = 0;
+            for (int bit = 0; bit < LEVEL_BITS; bit++) {
+                if (levelBitmaps[bit].get(docId)) {
+                    level |= 1 << bit;
+                }
+            }
+            return (byte) level;
+        }
+        final int index = Arrays.binarySearch(docIds, 0, size, docId);
+        return index >= 0
+                ? levels[index]
+                : 0;
+    }
+
+    private void setLevel(final int docId, final byte level) {
+        if (levelBitmaps != null) {
+            for (int bit = 0; bit < LEVEL_BITS; bit++) {
+                levelBitmaps[bit].set(docId, (level & (1 << bit)) != 0);
+            }
+            return;
+        }
+
+        final int index = Arrays.binarySearch(docIds, 0, size, docId);
+        if (index >= 0) {
+            if (level == 0) {
+                System.arraycopy(docIds, index + 1, docIds, index, size - index - 1);
+                System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+                size--;
+            } else {
+                levels[index] = level;
+            }
+        } else if (level != 0) {
+            final int insertAt = -index - 1;
+            if (size == docIds.length) {
+                final int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+                docIds = Arrays.copyOf(docIds, capacity);
+                levels = Arrays.copyOf(levels, capacity);
+            }
+            System.arraycopy(docIds, insertAt, docIds, insertAt + 1, size - insertAt);
+            System.arraycopy(levels, insertAt, levels, insertAt + 1, size - insertAt);
+            docIds[insertAt] = docId;
+            levels[insertAt] = level;
+            size++;
+            if (isDenseSmaller()) {
+                toDense();
+            }
+        }
+    }
+
+    /**
+     * Merge two sets of sorted arrays in one pass rather than inserting one document at a time.
+     */
+    private void mergeSparse(final UserDocumentPermissions other) {
+        final int[] mergedIds = new int[size + other.size];
+        final byte[] mergedLevels = new byte[mergedIds.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && docIds[i] < other.docIds[j])) {
+                mergedIds[count] = docIds[i];
+                mergedLevels[count++] = levels[i++];
+            } else if (i == size || other.docIds[j] < docIds[i]) {
+                mergedIds[count] = other.docIds[j];
+                mergedLevels[count++] = other.levels[j++];
+            } else {
+                mergedIds[count] = docIds[i];
+                mergedLevels[count++] = (byte) Math.max(levels[i++], other.levels[j++]);
+            }
+        }
+        docIds = mergedIds;
+        levels = mergedLevels;
+        size = count;
+        if (isDenseSmaller()) {
+            toDense();
+        }
+    }
+
+    private boolean isDenseSmaller() {
+        if (size == 0) {
+            return false;
+        }
+        // An int and a byte per document held against a bit per level bit for every id up to the highest.
+        final long sparseBytes = size * (long) (Integer.BYTES + Byte.BYTES);
+        final long denseBytes = LEVEL_BITS * ((docIds[size - 1] + 1L) / Byte.SIZE);
+        return sparseBytes > denseBytes;
+    }
+
+    private void toDense() {
+        final BitSet[] bitmaps = new BitSet[LEVEL_BITS];
+        final int length = docIds[size - 1] + 1;
+        for (int bit = 0; bit < LEVEL_BITS; bit++) {
+            bitmaps[bit] = new BitSet(length);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int bit = 0; bit < LEVEL_BITS; bit++) {
+                if ((levels[i] & (1 << bit)) != 0) {
+                    bitmaps[bit].set(docIds[i]);
+                }
+            }
+        }
+        levelBitmaps = bitmaps;
+        docIds = new int[0];
+        levels = new byte[0];
+        size = 0;
+    }
+
+    private void forEachLevel(final LevelConsumer consumer) {
+        if (levelBitmaps != null) {
+            final BitSet held = (BitSet) levelBitmaps[0].clone();
+            for (int bit = 1; bit < LEVEL_BITS; bit++) {
+                held.or(levelBitmaps[bit]);
+            }
+            for (int docId = held.nextSetBit(0); docId >= 0; docId = held.nextSetBit(docId + 1)) {
+                consumer.accept(docId, getLevel(docId));
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(docIds[i], levels[i]);
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private interface LevelConsumer {
+
+        void accept(int docId, byte level);
     }
 }
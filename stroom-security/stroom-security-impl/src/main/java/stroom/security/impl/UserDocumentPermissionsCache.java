@@ -28,37 +28,92 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 @Singleton
 public class UserDocumentPermissionsCache implements PermissionChangeEvent.Handler, Clearable {
 
     private static final String CACHE_NAME = "User Document Permissions Cache";
+    private static final String EFFECTIVE_CACHE_NAME = "User Effective Document Permissions Cache";
 
+    private final Provider<UserGroupsCache> userGroupsCacheProvider;
     private final LoadingStroomCache<UserRef, UserDocumentPermissions> cache;
+    // The permissions of each user combined with those of all the groups they are in, directly or
+    // through other groups.
+    private final LoadingStroomCache<UserRef, UserDocumentPermissions> effectiveCache;
 
     @Inject
     public UserDocumentPermissionsCache(final CacheManager cacheManager,
                                         final Provider<DocumentPermissionDao> documentPermissionDaoProvider,
+                                        final Provider<UserGroupsCache> userGroupsCacheProvider,
                                         final Provider<AuthorisationConfig> authorisationConfigProvider) {
+        this.userGroupsCacheProvider = userGroupsCacheProvider;
         cache = cacheManager.createLoadingCache(
                 CACHE_NAME,
                 () -> authorisationConfigProvider.get().getUserDocumentPermissionsCache(),
                 userRef -> documentPermissionDaoProvider.get().getPermissionsForUser(userRef.getUuid()));
+        effectiveCache = cacheManager.createLoadingCache(
+                EFFECTIVE_CACHE_NAME,
+                () -> authorisationConfigProvider.get().getUserDocumentPermissionsCache(),
+                this::createEffectivePermissions);
     }
 
+    /**
+     * @return True if the user holds the permission on the document, either directly or through
+     * group membership.
+     */
     boolean hasDocumentPermission(final UserRef userRef,
                                   final DocRef docRef,
                                   final DocumentPermission permission) {
-        return get(userRef)
+        return effectiveCache.get(userRef)
                 .hasDocumentPermission(docRef, permission);
     }
 
+    /**
+     * @return The docRefs that the user holds the permission on, either directly or through
+     * group membership, in the order they were supplied.
+     */
+    List<DocRef> filter(final UserRef userRef,
+                        final Collection<DocRef> docRefs,
+                        final DocumentPermission permission) {
+        return effectiveCache.get(userRef)
+                .filter(docRefs, permission);
+    }
+
     private UserDocumentPermissions get(final UserRef userRef) {
         return cache.get(userRef);
     }
 
+    private UserDocumentPermissions createEffectivePermissions(final UserRef userRef) {
+        final UserGroupsCache userGroupsCache = userGroupsCacheProvider.get();
+        final UserDocumentPermissions effective = get(userRef).copy();
+        final Set<UserRef> examined = new HashSet<>();
+        final Deque<UserRef> toExamine = new ArrayDeque<>();
+        examined.add(userRef);
+        toExamine.add(userRef);
+        while (!toExamine.isEmpty()) {
+            final Set<UserRef> userGroups = userGroupsCache.getGroups(toExamine.poll());
+            if (userGroups != null) {
+                for (final UserRef userGroup : userGroups) {
+                    if (examined.add(userGroup)) {
+                        effective.or(get(userGroup));
+                        toExamine.add(userGroup);
+                    }
+                }
+            }
+        }
+        return effective;
+    }
+
     @Override
     public void clear() {
         cache.clear();
+        effectiveCache.clear();
     }
 
     @Override
@@ -69,6 +124,9 @@ public class UserDocumentPermissionsCache implements PermissionChangeEvent.Handl
             } else {
                 cache.clear();
             }
+            // A change to a group's permissions or members affects the effective permissions
+            // of every user in it, so start again.
+            effectiveCache.clear();
         }
     }
 }
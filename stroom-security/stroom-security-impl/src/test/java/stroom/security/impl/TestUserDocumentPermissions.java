@@ -10,9 +10,12 @@ import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static stroom.security.shared.DocumentPermission.DELETE;
 import static stroom.security.shared.DocumentPermission.EDIT;
 import static stroom.security.shared.DocumentPermission.OWNER;
@@ -159,4 +162,101 @@ class TestUserDocumentPermissions {
         assertThat(userDocPerms.hasDocumentPermission(DOC_UUID_2, VIEW))
                 .isFalse();
     }
+
+    @Test
+    void filter() {
+        final DocRef unknown = new DocRef("test", "000");
+        final List<DocRef> docRefs = List.of(DOC_UUID_3, DOC_UUID_2, unknown, DOC_UUID_1);
+
+        assertThat(userDocPerms.filter(docRefs, USE))
+                .containsExactly(DOC_UUID_2, DOC_UUID_1);
+        assertThat(userDocPerms.filter(docRefs, OWNER))
+                .containsExactly(DOC_UUID_1);
+
+        userDocPerms.setPermission(DOC_UUID_3, VIEW);
+
+        assertThat(userDocPerms.filter(docRefs, VIEW))
+                .containsExactly(DOC_UUID_3, DOC_UUID_2, DOC_UUID_1);
+        assertThat(userDocPerms.filter(docRefs, EDIT))
+                .containsExactly(DOC_UUID_2, DOC_UUID_1);
+    }
+
+    @Test
+    void or() {
+        final DocumentIdInterner documentIdInterner = new DocumentIdInterner();
+        final UserDocumentPermissions user = new UserDocumentPermissions(documentIdInterner);
+        user.setPermission(DOC_UUID_1, VIEW);
+        final UserDocumentPermissions group = new UserDocumentPermissions(documentIdInterner);
+        group.setPermission(DOC_UUID_1, EDIT);
+        group.setPermission(DOC_UUID_2, USE);
+
+        final UserDocumentPermissions effective = user.copy();
+        effective.or(group);
+
+        assertThat(effective.getPermissions())
+                .isEqualTo(Map.of(
+                        DOC_UUID_1.getUuid(), EDIT,
+                        DOC_UUID_2.getUuid(), USE));
+        // The originals are unchanged.
+        assertThat(user.getPermissions())
+                .isEqualTo(Map.of(DOC_UUID_1.getUuid(), VIEW));
+
+        assertThatThrownBy(() -> effective.or(userDocPerms))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sparseAndDense() {
+        final DocumentIdInterner documentIdInterner = new DocumentIdInterner();
+        for (int i = 0; i < 10_000; i++) {
+            documentIdInterner.intern("doc" + i);
+        }
+        final UserDocumentPermissions sparse = new UserDocumentPermissions(documentIdInterner);
+        final UserDocumentPermissions dense = new UserDocumentPermissions(documentIdInterner);
+        // Set out of id order to check the sorted arrays.
+        for (int i = 9_999; i >= 0; i--) {
+            if (i % 100 == 0) {
+                sparse.setPermission("doc" + i, EDIT);
+            }
+            if (i % 2 == 0) {
+                dense.setPermission("doc" + i, EDIT);
+            }
+        }
+
+        assertThat(sparse.isDense())
+                .isFalse();
+        assertThat(dense.isDense())
+                .isTrue();
+        for (final UserDocumentPermissions permissions : List.of(sparse, dense)) {
+            assertThat(permissions.hasDocumentPermission(documentIdInterner.getId("doc200"), VIEW))
+                    .isTrue();
+            assertThat(permissions.hasDocumentPermission(documentIdInterner.getId("doc200"), DELETE))
+                    .isFalse();
+            assertThat(permissions.hasDocumentPermission(documentIdInterner.getId("doc201"), USE))
+                    .isFalse();
+        }
+
+        // Combining the two keeps the highest permission held on each document.
+        sparse.setPermission("doc300", OWNER);
+        final UserDocumentPermissions effective = sparse.copy();
+        effective.or(dense);
+        assertThat(effective.isDense())
+                .isTrue();
+        assertThat(effective.getPermissions())
+                .hasSize(5_000)
+                .containsEntry("doc300", OWNER)
+                .containsEntry("doc302", EDIT);
+
+        effective.clearPermission("doc300");
+        assertThat(effective.hasDocumentPermission(documentIdInterner.getId("doc300"), USE))
+                .isFalse();
+    }
+
+    @Test
+    void getPermissions() {
+        assertThat(userDocPerms.getPermissions())
+                .isEqualTo(Map.of(
+                        DOC_UUID_1.getUuid(), OWNER,
+                        DOC_UUID_2.getUuid(), DELETE));
+    }
 }
@@ -9,6 +9,7 @@ public enum InternalStatisticKey {
     MEMORY("Memory"),
     METADATA_STREAMS_RECEIVED("Meta Data-Streams Received"),
     METADATA_STREAM_SIZE("Meta Data-Stream Size"),
+    PIPELINE_ELEMENT_TIME("Pipeline Element Time"),
     PIPELINE_STREAM_PROCESSOR("PipelineStreamProcessor"),
     REF_DATA_STORE_ENTRY_COUNT("Reference Data Store Entry Count"),
     REF_DATA_STORE_SIZE("Reference Data Store Size"),
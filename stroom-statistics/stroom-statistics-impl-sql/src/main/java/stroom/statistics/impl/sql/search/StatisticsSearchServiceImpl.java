@@ -24,6 +24,7 @@ import stroom.query.language.functions.ValDuration;
 import stroom.query.language.functions.ValLong;
 import stroom.query.language.functions.ValNull;
 import stroom.query.language.functions.ValString;
+import stroom.query.language.functions.ValuesBatcher;
 import stroom.query.language.functions.ValuesConsumer;
 import stroom.query.language.functions.ref.ErrorConsumer;
 import stroom.statistics.impl.sql.PreparedStatementUtil;
@@ -461,14 +462,16 @@ class StatisticsSearchServiceImpl implements StatisticsSearchService {
                 taskContext.info(() -> message);
                 LAMBDA_LOGGER.debug(() -> message);
 
-                try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                // Pass rows on in batches so the coprocessors can evaluate them a column at a time.
+                try (final ResultSet resultSet = preparedStatement.executeQuery();
+                        final ValuesBatcher valuesBatcher = new ValuesBatcher(valuesConsumer)) {
 
                     // TODO prob needs to change in 6.1
                     while (resultSet.next() &&
                            !Thread.currentThread().isInterrupted()) {
                         LOGGER.trace("Adding result");
                         final Val[] values = resultSetMapper.apply(resultSet);
-                        valuesConsumer.accept(values);
+                        valuesBatcher.accept(values);
                         count++;
                     }
 
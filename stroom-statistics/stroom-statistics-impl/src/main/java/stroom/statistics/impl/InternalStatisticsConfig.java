@@ -53,6 +53,7 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
     private final List<DocRef> refDataStoreEntryCount;
     private final List<DocRef> refDataStoreStreamCount;
     private final List<DocRef> refDataStoreSize;
+    private final List<DocRef> pipelineElementTimeDocRefs;
     private final List<DocRef> pipelineStreamProcessorDocRefs;
     private final List<DocRef> searchResultsStoreSize;
     private final List<DocRef> searchResultsStoreCount;
@@ -110,6 +111,10 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
                 StatisticStoreDoc.TYPE, "0dfd4e00-e068-4667-9c60-d3f6163a6c04",
                 StroomStatsStoreDoc.TYPE, "TODO"));
 
+        // There is no store for this in the stroom-content repo so it is only recorded once an admin
+        // has created one and added it here.
+        pipelineElementTimeDocRefs = Collections.emptyList();
+
         pipelineStreamProcessorDocRefs = buildDocRefs(InternalStatisticKey.PIPELINE_STREAM_PROCESSOR, Map.of(
                 StatisticStoreDoc.TYPE, "946a80fc-a59a-11e6-bdc4-0242ac110002",
                 StroomStatsStoreDoc.TYPE, "efd9bad4-0bab-460f-ae98-79e9717deeaf"));
@@ -145,6 +150,7 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
             @JsonProperty("refDataStoreEntryCount") final List<DocRef> refDataStoreEntryCount,
             @JsonProperty("refDataStoreSize") final List<DocRef> refDataStoreSize,
             @JsonProperty("refDataStoreStreamCount") final List<DocRef> refDataStoreStreamCount,
+            @JsonProperty("pipelineElementTime") final List<DocRef> pipelineElementTimeDocRefs,
             @JsonProperty("pipelineStreamProcessor") final List<DocRef> pipelineStreamProcessorDocRefs,
             @JsonProperty("searchResultsStoreSize") final List<DocRef> searchResultsStoreSize,
             @JsonProperty("searchResultsStoreCount") final List<DocRef> searchResultsStoreCount,
@@ -163,6 +169,7 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
         this.refDataStoreEntryCount = refDataStoreEntryCount;
         this.refDataStoreSize = refDataStoreSize;
         this.refDataStoreStreamCount = refDataStoreStreamCount;
+        this.pipelineElementTimeDocRefs = pipelineElementTimeDocRefs;
         this.pipelineStreamProcessorDocRefs = pipelineStreamProcessorDocRefs;
         this.searchResultsStoreSize = searchResultsStoreSize;
         this.searchResultsStoreCount = searchResultsStoreCount;
@@ -225,6 +232,9 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
         KEY_TO_DOC_REFS_GETTER_MAP.put(
                 InternalStatisticKey.REF_DATA_STORE_STREAM_COUNT,
                 InternalStatisticsConfig::getRefDataStoreStreamCount);
+        KEY_TO_DOC_REFS_GETTER_MAP.put(
+                InternalStatisticKey.PIPELINE_ELEMENT_TIME,
+                InternalStatisticsConfig::getPipelineElementTimeDocRefs);
         KEY_TO_DOC_REFS_GETTER_MAP.put(
                 InternalStatisticKey.PIPELINE_STREAM_PROCESSOR,
                 InternalStatisticsConfig::getPipelineStreamProcessorDocRefs);
@@ -340,6 +350,16 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
         return searchResultsStoreCount;
     }
 
+    @JsonPropertyDescription(DESCRIPTION_PREFIX + "the time in milliseconds spent in each element of a " +
+                             "profiled pipeline run. Nothing is recorded by default as the internal statistics " +
+                             "content does not include a store for this. To record it, create a VALUE " +
+                             "StatisticStore named 'Pipeline Element Time' with the fields 'Element', 'Node' " +
+                             "and 'Pipeline' and add its DocRef here.")
+    @JsonProperty("pipelineElementTime")
+    public List<DocRef> getPipelineElementTimeDocRefs() {
+        return pipelineElementTimeDocRefs;
+    }
+
     @JsonPropertyDescription(DESCRIPTION_PREFIX + "the number of streams processed by a pipeline.")
     @JsonProperty("pipelineStreamProcessor")
     public List<DocRef> getPipelineStreamProcessorDocRefs() {
@@ -397,6 +417,7 @@ public class InternalStatisticsConfig extends AbstractConfig implements IsStroom
                ", metaDataStreamSizeDocRefs=" + metaDataStreamSizeDocRefs +
                ", metaDataStreamsReceivedDocRefs=" + metaDataStreamsReceivedDocRefs +
                ", refDataStoreSize=" + refDataStoreSize +
+               ", pipelineElementTimeDocRefs=" + pipelineElementTimeDocRefs +
                ", pipelineStreamProcessorDocRefs=" + pipelineStreamProcessorDocRefs +
                ", searchResultsStoreSize=" + searchResultsStoreSize +
                ", searchResultsStoreCount=" + searchResultsStoreCount +
@@ -20,19 +20,53 @@ import stroom.task.shared.ThreadPool;
 
 import java.util.Objects;
 
+/**
+ * Describes a pool of threads that tasks can be executed on. By default, a pool will create as
+ * many platform threads as there are concurrent tasks. Use {@link #builder(String)} to limit the
+ * number of threads, control how excess tasks are queued or to run the tasks on virtual threads.
+ * <p>
+ * A bounded pool must not be used for tasks that wait for other tasks in the same pool to
+ * complete and {@link QueueFullPolicy#CALLER_RUNS} must not be used for tasks that wait for the
+ * thread that submitted them, as either can deadlock.
+ */
 public class ThreadPoolImpl implements ThreadPool {
 
+    /**
+     * Used for maxThreads to indicate there is no limit on the number of concurrent tasks.
+     */
+    public static final int UNBOUNDED = 0;
+
     private final String name;
     private final int priority;
+    private final int maxThreads;
+    private final int maxQueueSize;
+    private final QueueFullPolicy queueFullPolicy;
+    private final boolean virtualThreads;
 
     public ThreadPoolImpl(final String name) {
-        this.name = name;
-        this.priority = Thread.NORM_PRIORITY;
+        this(name, Thread.NORM_PRIORITY);
     }
 
     public ThreadPoolImpl(final String name, final int priority) {
+        this(name, priority, UNBOUNDED, Integer.MAX_VALUE, QueueFullPolicy.REJECT, false);
+    }
+
+    private ThreadPoolImpl(final String name,
+                           final int priority,
+                           final int maxThreads,
+                           final int maxQueueSize,
+                           final QueueFullPolicy queueFullPolicy,
+                           final boolean virtualThreads) {
         this.name = name;
         this.priority = priority;
+        this.maxThreads = maxThreads;
+        this.maxQueueSize = maxQueueSize;
+        this.queueFullPolicy = queueFullPolicy;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public static Builder builder(final String name) {
+        return new Builder(name);
     }
 
     @Override
@@ -45,6 +79,42 @@ public class ThreadPoolImpl implements ThreadPool {
         return priority;
     }
 
+    /**
+     * @return The maximum number of tasks that will run concurrently in this pool or
+     * {@link #UNBOUNDED} if there is no limit.
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * @return The maximum number of tasks that can be waiting for a thread when the pool is
+     * bounded. Only applies if maxThreads is not {@link #UNBOUNDED}.
+     */
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * @return What happens to a task that is submitted when all threads are busy and the queue
+     * is full.
+     */
+    public QueueFullPolicy getQueueFullPolicy() {
+        return queueFullPolicy;
+    }
+
+    /**
+     * @return True if tasks are run on virtual threads. Virtual threads ignore the priority so
+     * should only be used for pools whose tasks spend most of their time waiting on IO.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public boolean isBounded() {
+        return maxThreads > UNBOUNDED;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -55,16 +125,88 @@ public class ThreadPoolImpl implements ThreadPool {
         }
         final ThreadPoolImpl that = (ThreadPoolImpl) o;
         return priority == that.priority &&
-                Objects.equals(name, that.name);
+                maxThreads == that.maxThreads &&
+                maxQueueSize == that.maxQueueSize &&
+                virtualThreads == that.virtualThreads &&
+                Objects.equals(name, that.name) &&
+                queueFullPolicy == that.queueFullPolicy;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, priority);
+        return Objects.hash(name, priority, maxThreads, maxQueueSize, queueFullPolicy, virtualThreads);
     }
 
     @Override
     public String toString() {
         return name;
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    public enum QueueFullPolicy {
+        /**
+         * Throw a {@link java.util.concurrent.RejectedExecutionException} to the submitter.
+         */
+        REJECT,
+        /**
+         * Run the task on the thread that submitted it, slowing the submitter down.
+         */
+        CALLER_RUNS
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    public static class Builder {
+
+        private final String name;
+        private int priority = Thread.NORM_PRIORITY;
+        private int maxThreads = UNBOUNDED;
+        private int maxQueueSize = Integer.MAX_VALUE;
+        private QueueFullPolicy queueFullPolicy = QueueFullPolicy.REJECT;
+        private boolean virtualThreads;
+
+        private Builder(final String name) {
+            this.name = Objects.requireNonNull(name);
+        }
+
+        public Builder priority(final int priority) {
+            this.priority = priority;
+            return this;
+        }
+
+        public Builder maxThreads(final int maxThreads) {
+            if (maxThreads < UNBOUNDED) {
+                throw new IllegalArgumentException("maxThreads must be >= 0");
+            }
+            this.maxThreads = maxThreads;
+            return this;
+        }
+
+        public Builder maxQueueSize(final int maxQueueSize) {
+            if (maxQueueSize < 0) {
+                throw new IllegalArgumentException("maxQueueSize must be >= 0");
+            }
+            this.maxQueueSize = maxQueueSize;
+            return this;
+        }
+
+        public Builder queueFullPolicy(final QueueFullPolicy queueFullPolicy) {
+            this.queueFullPolicy = Objects.requireNonNull(queueFullPolicy);
+            return this;
+        }
+
+        public Builder virtualThreads(final boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public ThreadPoolImpl build() {
+            return new ThreadPoolImpl(name, priority, maxThreads, maxQueueSize, queueFullPolicy, virtualThreads);
+        }
+    }
 }
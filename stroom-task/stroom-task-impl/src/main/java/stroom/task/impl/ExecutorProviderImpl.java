@@ -19,28 +19,29 @@ package stroom.task.impl;
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.ThreadPoolImpl;
 import stroom.task.shared.ThreadPool;
-import stroom.util.thread.CustomThreadFactory;
-import stroom.util.thread.StroomThreadGroup;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
 
 import jakarta.inject.Singleton;
 
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Singleton
-public class ExecutorProviderImpl implements ExecutorProvider {
+public class ExecutorProviderImpl implements ExecutorProvider, HasSystemInfo {
 
     public static final ThreadPool DEFAULT_THREAD_POOL = new ThreadPoolImpl("Stroom P2", 2);
 
     // The thread pools that will be used to execute tasks.
-    private final ConcurrentHashMap<ThreadPool, ExecutorService> threadPoolMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ThreadPool, InstrumentedExecutor> threadPoolMap = new ConcurrentHashMap<>();
     private final ReentrantLock poolCreationLock = new ReentrantLock();
     private final AtomicBoolean stop = new AtomicBoolean();
 
@@ -56,7 +57,7 @@ public class ExecutorProviderImpl implements ExecutorProvider {
 
     private Executor getRealExecutor(final ThreadPool threadPool) {
         Objects.requireNonNull(threadPool, "Null thread pool");
-        ExecutorService executor = threadPoolMap.get(threadPool);
+        InstrumentedExecutor executor = threadPoolMap.get(threadPool);
         if (executor == null) {
             poolCreationLock.lock();
             try {
@@ -65,15 +66,7 @@ public class ExecutorProviderImpl implements ExecutorProvider {
                     throw new RejectedExecutionException("Stopping");
                 }
 
-                executor = threadPoolMap.computeIfAbsent(threadPool, k -> {
-                    // Create a thread factory for the thread pool
-                    final ThreadGroup poolThreadGroup = new ThreadGroup(StroomThreadGroup.instance(),
-                            threadPool.getName());
-                    final CustomThreadFactory taskThreadFactory = new CustomThreadFactory(
-                            threadPool.getName() + " #", poolThreadGroup, threadPool.getPriority());
-
-                    return Executors.newCachedThreadPool(taskThreadFactory);
-                });
+                executor = threadPoolMap.computeIfAbsent(threadPool, InstrumentedExecutor::new);
             } finally {
                 poolCreationLock.unlock();
             }
@@ -90,7 +83,7 @@ public class ExecutorProviderImpl implements ExecutorProvider {
         try {
             final Iterator<ThreadPool> iter = threadPoolMap.keySet().iterator();
             iter.forEachRemaining(threadPool -> {
-                final ExecutorService executor = threadPoolMap.get(threadPool);
+                final InstrumentedExecutor executor = threadPoolMap.get(threadPool);
                 if (executor != null) {
                     executor.shutdown();
                     threadPoolMap.remove(threadPool);
@@ -100,4 +93,18 @@ public class ExecutorProviderImpl implements ExecutorProvider {
             poolCreationLock.unlock();
         }
     }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        final Map<String, Object> pools = new LinkedHashMap<>();
+        threadPoolMap.values()
+                .stream()
+                .sorted(Comparator.comparing(executor -> executor.getThreadPool().getName()))
+                .forEach(executor -> pools.put(executor.getThreadPool().getName(), executor.getDetails()));
+
+        return SystemInfoResult.builder(this)
+                .description("Task counts and queue times for each thread pool that has been used on this node")
+                .addDetail("threadPools", pools)
+                .build();
+    }
 }
@@ -0,0 +1,184 @@
+package stroom.task.impl;
+
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.api.ThreadPoolImpl.QueueFullPolicy;
+import stroom.task.shared.ThreadPool;
+import stroom.util.thread.CustomThreadFactory;
+import stroom.util.thread.StroomThreadGroup;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes tasks for a single {@link ThreadPool}, honouring any limits declared by the pool and
+ * recording how busy the pool is.
+ */
+class InstrumentedExecutor implements Executor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPool threadPool;
+    private final ExecutorService executorService;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder totalRunNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    InstrumentedExecutor(final ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        this.executorService = createExecutorService(threadPool);
+    }
+
+    private static ExecutorService createExecutorService(final ThreadPool threadPool) {
+        final ThreadPoolImpl threadPoolImpl = threadPool instanceof final ThreadPoolImpl impl
+                ? impl
+                : null;
+        final boolean virtualThreads = threadPoolImpl != null && threadPoolImpl.isVirtualThreads();
+        final boolean bounded = threadPoolImpl != null && threadPoolImpl.isBounded();
+
+        final ThreadFactory threadFactory;
+        if (virtualThreads) {
+            threadFactory = Thread.ofVirtual()
+                    .name(threadPool.getName() + " #", 1)
+                    .factory();
+        } else {
+            // Create a thread factory for the thread pool
+            final ThreadGroup poolThreadGroup = new ThreadGroup(StroomThreadGroup.instance(),
+                    threadPool.getName());
+            threadFactory = new CustomThreadFactory(
+                    threadPool.getName() + " #", poolThreadGroup, threadPool.getPriority());
+        }
+
+        if (!bounded) {
+            return virtualThreads
+                    ? Executors.newThreadPerTaskExecutor(threadFactory)
+                    : Executors.newCachedThreadPool(threadFactory);
+        }
+
+        final int maxThreads = threadPoolImpl.getMaxThreads();
+        final int maxQueueSize = threadPoolImpl.getMaxQueueSize();
+        final BlockingQueue<Runnable> queue = maxQueueSize == 0
+                ? new SynchronousQueue<>()
+                : new LinkedBlockingQueue<>(maxQueueSize);
+        final RejectedExecutionHandler rejectedExecutionHandler =
+                threadPoolImpl.getQueueFullPolicy() == QueueFullPolicy.CALLER_RUNS
+                        ? new ThreadPoolExecutor.CallerRunsPolicy()
+                        : new ThreadPoolExecutor.AbortPolicy();
+
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                maxThreads,
+                maxThreads,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                queue,
+                threadFactory,
+                rejectedExecutionHandler);
+        // Let idle pools shrink back to nothing.
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        return threadPoolExecutor;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        final long submitNanos = System.nanoTime();
+        submitted.increment();
+        queued.incrementAndGet();
+        try {
+            executorService.execute(() -> run(command, submitNanos));
+        } catch (final RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(final Runnable command, final long submitNanos) {
+        final long startNanos = System.nanoTime();
+        queued.decrementAndGet();
+        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+
+        final long waitNanos = startNanos - submitNanos;
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        try {
+            command.run();
+        } finally {
+            active.decrementAndGet();
+            completed.increment();
+            totalRunNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    void shutdown() {
+        executorService.shutdown();
+    }
+
+    ThreadPool getThreadPool() {
+        return threadPool;
+    }
+
+    int getActiveCount() {
+        return active.get();
+    }
+
+    int getQueuedCount() {
+        return queued.get();
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    long getCompletedCount() {
+        return completed.sum();
+    }
+
+    Map<String, Object> getDetails() {
+        final long completed = this.completed.sum();
+        final long started = Math.max(1, completed + active.get());
+
+        final Map<String, Object> details = new LinkedHashMap<>();
+        if (threadPool instanceof final ThreadPoolImpl threadPoolImpl) {
+            details.put("maxThreads", threadPoolImpl.isBounded()
+                    ? threadPoolImpl.getMaxThreads()
+                    : "unbounded");
+            if (threadPoolImpl.isBounded()) {
+                details.put("maxQueueSize", threadPoolImpl.getMaxQueueSize());
+                details.put("queueFullPolicy", threadPoolImpl.getQueueFullPolicy());
+            }
+            details.put("virtualThreads", threadPoolImpl.isVirtualThreads());
+        }
+        details.put("priority", threadPool.getPriority());
+        details.put("active", active.get());
+        details.put("maxActive", maxActive.get());
+        details.put("queued", queued.get());
+        details.put("submitted", submitted.sum());
+        details.put("completed", completed);
+        details.put("rejected", rejected.sum());
+        details.put("meanQueueWait", Duration.ofNanos(totalWaitNanos.sum() / started).toString());
+        details.put("maxQueueWait", Duration.ofNanos(maxWaitNanos.get()).toString());
+        details.put("meanRunTime", Duration.ofNanos(totalRunNanos.sum() / Math.max(1, completed)).toString());
+        return details;
+    }
+}
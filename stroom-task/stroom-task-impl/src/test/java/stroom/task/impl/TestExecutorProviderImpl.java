@@ -0,0 +1,175 @@
+package stroom.task.impl;
+
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.api.ThreadPoolImpl.QueueFullPolicy;
+import stroom.task.shared.ThreadPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestExecutorProviderImpl {
+
+    private final ExecutorProviderImpl executorProvider = new ExecutorProviderImpl();
+
+    @AfterEach
+    void tearDown() {
+        executorProvider.shutdownExecutors();
+    }
+
+    @Test
+    void testBounded() throws InterruptedException {
+        final ThreadPool threadPool = ThreadPoolImpl.builder("Bounded")
+                .maxThreads(2)
+                .build();
+        final Executor executor = executorProvider.get(threadPool);
+
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor));
+        }
+
+        // Wait for the pool to fill up.
+        while (running.get() < 2) {
+            Thread.sleep(10);
+        }
+        final Map<String, Object> details = getDetails(threadPool);
+        assertThat(details)
+                .containsEntry("active", 2)
+                .containsEntry("queued", 8);
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertThat(maxRunning.get())
+                .isEqualTo(2);
+        // The futures complete just before the executor records the task as complete.
+        while (((Long) getDetails(threadPool).get("completed")) < 10) {
+            Thread.sleep(10);
+        }
+        assertThat(getDetails(threadPool))
+                .containsEntry("completed", 10L)
+                .containsEntry("queued", 0);
+    }
+
+    @Test
+    void testReject() throws InterruptedException {
+        final ThreadPool threadPool = ThreadPoolImpl.builder("Reject")
+                .maxThreads(1)
+                .maxQueueSize(0)
+                .build();
+        final Executor executor = executorProvider.get(threadPool);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS))
+                .isTrue();
+
+        assertThatThrownBy(() -> executor.execute(() -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+        release.countDown();
+
+        assertThat(getDetails(threadPool))
+                .containsEntry("rejected", 1L)
+                .containsEntry("queued", 0);
+    }
+
+    @Test
+    void testCallerRuns() throws InterruptedException {
+        final ThreadPool threadPool = ThreadPoolImpl.builder("Caller Runs")
+                .maxThreads(1)
+                .maxQueueSize(0)
+                .queueFullPolicy(QueueFullPolicy.CALLER_RUNS)
+                .build();
+        final Executor executor = executorProvider.get(threadPool);
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS))
+                .isTrue();
+
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+        release.countDown();
+
+        assertThat(thread.get())
+                .isSameAs(Thread.currentThread());
+        assertThat(getDetails(threadPool))
+                .containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void testVirtualThreads() {
+        final ThreadPool threadPool = ThreadPoolImpl.builder("Virtual")
+                .virtualThreads(true)
+                .build();
+        final Executor executor = executorProvider.get(threadPool);
+
+        final Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+        assertThat(thread.isVirtual())
+                .isTrue();
+        assertThat(thread.getName())
+                .startsWith("Virtual #");
+    }
+
+    @Test
+    void testDefaultIsUnbounded() {
+        final ThreadPool threadPool = new ThreadPoolImpl("Default");
+        final Executor executor = executorProvider.get(threadPool);
+
+        final Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+        assertThat(thread.isVirtual())
+                .isFalse();
+        assertThat(getDetails(threadPool))
+                .containsEntry("maxThreads", "unbounded");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getDetails(final ThreadPool threadPool) {
+        final Map<String, Object> pools = (Map<String, Object>) executorProvider.getSystemInfo()
+                .getDetails()
+                .get("threadPools");
+        return (Map<String, Object>) pools.get(threadPool.getName());
+    }
+}
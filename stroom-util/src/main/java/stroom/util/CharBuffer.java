@@ -176,6 +176,59 @@ public class CharBuffer implements CharSequence, Serializable {
         return tmp;
     }
 
+    /**
+     * Encodes the content of the buffer as UTF-8 directly into a correctly sized array, avoiding the
+     * intermediate {@link String} that {@code toString().getBytes(UTF_8)} would create.
+     * Unpaired surrogates are replaced with '?' in the same way as {@link String#getBytes}.
+     */
+    public byte[] toUtf8Bytes() {
+        int len = 0;
+        for (int i = start; i < end; i++) {
+            final char c = buffer[i];
+            if (c < 0x80) {
+                len += 1;
+            } else if (c < 0x800) {
+                len += 2;
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(buffer[i + 1])) {
+                    len += 4;
+                    i++;
+                } else {
+                    len += 1;
+                }
+            } else {
+                len += 3;
+            }
+        }
+
+        final byte[] bytes = new byte[len];
+        int pos = 0;
+        for (int i = start; i < end; i++) {
+            final char c = buffer[i];
+            if (c < 0x80) {
+                bytes[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xC0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(buffer[i + 1])) {
+                    final int codePoint = Character.toCodePoint(c, buffer[++i]);
+                    bytes[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    bytes[pos++] = '?';
+                }
+            } else {
+                bytes[pos++] = (byte) (0xE0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return bytes;
+    }
+
     /**
      * True if the length of the buffer is 0.
      */
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.util;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestCharBuffer {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "hello world",
+            "café £100",
+            "中文 text",
+            "emoji 😀 end",
+            "unpaired \ud83d high",
+            "unpaired \ude00 low",
+            "trailing high \ud83d"})
+    void testToUtf8Bytes(final String input) {
+        final CharBuffer charBuffer = new CharBuffer();
+        charBuffer.append(input);
+        assertThat(charBuffer.toUtf8Bytes())
+                .isEqualTo(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"  padded é  ", "éé"})
+    void testToUtf8Bytes_trimmed(final String input) {
+        final CharBuffer charBuffer = new CharBuffer(4);
+        charBuffer.append(input);
+        charBuffer.trimWhitespace();
+        assertThat(charBuffer.toUtf8Bytes())
+                .isEqualTo(input.trim().getBytes(StandardCharsets.UTF_8));
+    }
+}